@@ -1,5 +1,8 @@
 package ru.practicum.shareIt.booking;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.client.HttpClient;
+import org.apache.http.nio.client.HttpAsyncClient;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
@@ -10,60 +13,85 @@ import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareIt.booking.dto.CreateBookingDto;
 import ru.practicum.shareIt.booking.dto.SearchBookingStatus;
 import ru.practicum.shareIt.client.BaseClient;
+import ru.practicum.shareIt.client.ResponseCache;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(
+            @Value("${shareit-server.url}") String serverUrl,
+            RestTemplateBuilder builder,
+            HttpClient httpClient,
+            HttpAsyncClient asyncClient,
+            ObjectMapper objectMapper,
+            ResponseCache responseCache
+    ) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
+                        .build(),
+                asyncClient,
+                objectMapper,
+                responseCache
         );
     }
 
-    public ResponseEntity<Object> findAllBookedByCurrentUserByStatusOrderByDateDesc(
+    public CompletableFuture<ResponseEntity<Object>> findAllBookedByCurrentUserByStatusOrderByDateDesc(
             long userId,
             SearchBookingStatus state,
             Long from,
+            String cursor,
             Integer size
     ) {
-        Map<String, Object> parameters = Map.of(
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "state", state.name(),
                 "from", from,
                 "size", size
-        );
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+        ));
+        return get("?state={state}&from={from}&size={size}" + cursorQuery(cursor, parameters), userId, parameters);
     }
 
-    public ResponseEntity<Object> findAllForCurrentUserItemsByStatusOrderByDateDesc(
+    public CompletableFuture<ResponseEntity<Object>> findAllForCurrentUserItemsByStatusOrderByDateDesc(
             long userId,
             SearchBookingStatus state,
             Long from,
+            String cursor,
             Integer size
     ) {
-        Map<String, Object> parameters = Map.of(
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "state", state.name(),
                 "from", from,
                 "size", size
-        );
-        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+        ));
+        return get("/owner?state={state}&from={from}&size={size}" + cursorQuery(cursor, parameters), userId, parameters);
+    }
+
+    public void exportAllBookedByCurrentUserByStatus(long userId, SearchBookingStatus state, HttpServletResponse response) throws IOException {
+        stream("/export?state={state}", userId, Map.of("state", state.name()), response);
+    }
+
+    public void exportAllForCurrentUserItemsByStatus(long userId, SearchBookingStatus state, HttpServletResponse response) throws IOException {
+        stream("/owner/export?state={state}", userId, Map.of("state", state.name()), response);
     }
 
-    public ResponseEntity<Object> create(long userId, CreateBookingDto createBookingDto) {
+    public CompletableFuture<ResponseEntity<Object>> create(long userId, CreateBookingDto createBookingDto) {
         return post("", userId, createBookingDto);
     }
 
-    public ResponseEntity<Object> findOne(long userId, Long bookingId) {
+    public CompletableFuture<ResponseEntity<Object>> findOne(long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> updateStatus(long userId, Long bookingId, Boolean approved) {
+    public CompletableFuture<ResponseEntity<Object>> updateStatus(long userId, Long bookingId, Boolean approved) {
         return patch("/" + bookingId + "?approved=" + approved, userId);
     }
 }
@@ -8,9 +8,13 @@ import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareIt.booking.dto.CreateBookingDto;
 import ru.practicum.shareIt.booking.dto.SearchBookingStatus;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import javax.validation.constraints.Pattern;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping(path = "/bookings", produces = MediaType.APPLICATION_JSON_VALUE)
@@ -21,12 +25,14 @@ public class BookingController {
 
     private static final String HEADER_NAME = "X-Sharer-User-Id";
 
+    private static final String CURSOR_PATTERN = "[A-Za-z0-9_-]{0,128}";
+
     public BookingController(BookingClient bookingClient) {
         this.bookingClient = bookingClient;
     }
 
     @PostMapping
-    public ResponseEntity<Object> create(
+    public CompletableFuture<ResponseEntity<Object>> create(
             @RequestHeader(HEADER_NAME) Long userId,
             @RequestBody @Valid CreateBookingDto createBookingDto
     ) {
@@ -36,7 +42,7 @@ public class BookingController {
     }
 
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> updateBookingStatus(
+    public CompletableFuture<ResponseEntity<Object>> updateBookingStatus(
             @RequestHeader(HEADER_NAME) Long userId,
             @PathVariable @Positive Long bookingId,
             @RequestParam Boolean approved
@@ -47,7 +53,7 @@ public class BookingController {
     }
 
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> get(
+    public CompletableFuture<ResponseEntity<Object>> get(
             @RequestHeader(HEADER_NAME) Long userId,
             @PathVariable @Positive Long bookingId
     ) {
@@ -57,36 +63,62 @@ public class BookingController {
     }
 
     @GetMapping
-    public ResponseEntity<Object> getAllByStatus(
+    public CompletableFuture<ResponseEntity<Object>> getAllByStatus(
             @RequestHeader(HEADER_NAME) Long userId,
             @RequestParam(defaultValue = SearchBookingStatus.DEFAULT, required = false) SearchBookingStatus state,
             @RequestParam(required = false, defaultValue = "0") @PositiveOrZero Long from,
+            @RequestParam(required = false) @Pattern(regexp = CURSOR_PATTERN) String cursor,
             @RequestParam(required = false, defaultValue = "10") @Positive Integer size
     ) {
-        log.info("Get booking with state {}, userId={}, from={}, size={}", state, userId, from, size);
+        log.info("Get booking with state {}, userId={}, from={}, cursor={}, size={}", state, userId, from, cursor, size);
 
         return bookingClient.findAllBookedByCurrentUserByStatusOrderByDateDesc(
                 userId,
                 state,
                 from,
+                cursor,
                 size
         );
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<Object> getAllForCurrentUserByStatus(
+    public CompletableFuture<ResponseEntity<Object>> getAllForCurrentUserByStatus(
             @RequestHeader(HEADER_NAME) Long userId,
             @RequestParam(defaultValue = SearchBookingStatus.DEFAULT, required = false) SearchBookingStatus state,
             @RequestParam(required = false, defaultValue = "0") @PositiveOrZero Long from,
+            @RequestParam(required = false) @Pattern(regexp = CURSOR_PATTERN) String cursor,
             @RequestParam(required = false, defaultValue = "10") @Positive Integer size
     ) {
-        log.info("Get booking for current user with state {}, userId={}, from={}, size={}", state, userId, from, size);
+        log.info("Get booking for current user with state {}, userId={}, from={}, cursor={}, size={}", state, userId, from, cursor, size);
 
         return bookingClient.findAllForCurrentUserItemsByStatusOrderByDateDesc(
                 userId,
                 state,
                 from,
+                cursor,
                 size
         );
     }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportAllByStatus(
+            @RequestHeader(HEADER_NAME) Long userId,
+            @RequestParam(defaultValue = SearchBookingStatus.DEFAULT, required = false) SearchBookingStatus state,
+            HttpServletResponse response
+    ) throws IOException {
+        log.info("Export bookings with state {}, userId={}", state, userId);
+
+        bookingClient.exportAllBookedByCurrentUserByStatus(userId, state, response);
+    }
+
+    @GetMapping(value = "/owner/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportAllForCurrentUserByStatus(
+            @RequestHeader(HEADER_NAME) Long userId,
+            @RequestParam(defaultValue = SearchBookingStatus.DEFAULT, required = false) SearchBookingStatus state,
+            HttpServletResponse response
+    ) throws IOException {
+        log.info("Export bookings for current user with state {}, userId={}", state, userId);
+
+        bookingClient.exportAllForCurrentUserItemsByStatus(userId, state, response);
+    }
 }
@@ -1,98 +1,301 @@
 package ru.practicum.shareIt.client;
 
+import java.io.IOException;
+import java.net.URI;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
-import org.springframework.http.HttpEntity;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.Header;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.nio.client.HttpAsyncClient;
+import org.apache.http.util.EntityUtils;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotWritableException;
 import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 public class BaseClient {
+    /**
+     * Header in which the server returns the cursor of the next keyset page.
+     */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final List<String> PASSED_HEADERS = List.of(
+            HttpHeaders.CONTENT_TYPE,
+            HttpHeaders.LOCATION,
+            HttpHeaders.ETAG,
+            HttpHeaders.LAST_MODIFIED,
+            HttpHeaders.CACHE_CONTROL,
+            NEXT_CURSOR_HEADER
+    );
+
     protected final RestTemplate rest;
 
-    public BaseClient(RestTemplate rest) {
+    private final HttpAsyncClient asyncClient;
+
+    private final ObjectMapper objectMapper;
+
+    private final ResponseCache responseCache;
+
+    public BaseClient(RestTemplate rest, HttpAsyncClient asyncClient, ObjectMapper objectMapper, ResponseCache responseCache) {
         this.rest = rest;
+        this.asyncClient = asyncClient;
+        this.objectMapper = objectMapper;
+        this.responseCache = responseCache;
     }
 
-    protected ResponseEntity<Object> get(String path) {
+    protected CompletableFuture<ResponseEntity<Object>> get(String path) {
         return get(path, null, null);
     }
 
-    protected ResponseEntity<Object> get(String path, long userId) {
+    protected CompletableFuture<ResponseEntity<Object>> get(String path, long userId) {
         return get(path, userId, null);
     }
 
-    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected CompletableFuture<ResponseEntity<Object>> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> post(String path, T body) {
         return post(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, long userId, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> post(String path, long userId, T body) {
         return post(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> put(String path, long userId, T body) {
         return put(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> patch(String path, T body) {
         return patch(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> patch(String path, long userId) {
         return patch(path, userId, null, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> patch(String path, long userId, T body) {
         return patch(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
     }
 
-    protected ResponseEntity<Object> delete(String path) {
+    protected CompletableFuture<ResponseEntity<Object>> delete(String path) {
         return delete(path, null, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, long userId) {
+    protected CompletableFuture<ResponseEntity<Object>> delete(String path, long userId) {
         return delete(path, userId, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected CompletableFuture<ResponseEntity<Object>> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
-
-        ResponseEntity<Object> shareitServerResponse;
+    /**
+     * Copies the server's response to {@code response} as it arrives instead of reading it into memory first.
+     */
+    protected void stream(String path, long userId, Map<String, Object> parameters, HttpServletResponse response) throws IOException {
         try {
-            if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
-            } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
-            }
+            rest.execute(
+                    path,
+                    HttpMethod.GET,
+                    request -> request.getHeaders().set("X-Sharer-User-Id", String.valueOf(userId)),
+                    shareitServerResponse -> {
+                        response.setStatus(shareitServerResponse.getRawStatusCode());
+                        MediaType contentType = shareitServerResponse.getHeaders().getContentType();
+                        if (contentType != null) {
+                            response.setContentType(contentType.toString());
+                        }
+                        StreamUtils.copy(shareitServerResponse.getBody(), response.getOutputStream());
+                        return null;
+                    },
+                    parameters
+            );
         } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+            passError(e, response);
+        }
+    }
+
+    /**
+     * Writes a server error to {@code response} with its status, content type and body, for responses that are
+     * written directly rather than returned as an entity.
+     */
+    protected static void passError(HttpStatusCodeException e, HttpServletResponse response) throws IOException {
+        response.setStatus(e.getRawStatusCode());
+        if (e.getResponseHeaders() != null && e.getResponseHeaders().getContentType() != null) {
+            response.setContentType(e.getResponseHeaders().getContentType().toString());
+        }
+        response.getOutputStream().write(e.getResponseBodyAsByteArray());
+    }
+
+    /**
+     * Query part forwarding a keyset page cursor, empty when the client pages by offset.
+     * An empty cursor is forwarded too, it asks the server for the first keyset page.
+     */
+    protected static String cursorQuery(@Nullable String cursor, Map<String, Object> parameters) {
+        if (cursor == null) {
+            return "";
+        }
+
+        parameters.put("cursor", cursor);
+
+        return "&cursor={cursor}";
+    }
+
+    /**
+     * Sends the request without waiting for the answer; the future completes on the client's I/O thread.
+     * The server's response body is passed through as the bytes it sent rather than parsed into a tree and written
+     * again, together with the headers that describe it. URIs are expanded and bodies written the way
+     * {@link #rest} does.
+     * GETs are answered from {@link ResponseCache} while the server allows it. Other requests drop the resource
+     * from it when sent and again when answered, in case a GET read it in between.
+     * <p>
+     * The client's If-None-Match is answered with 304 Not Modified when it matches the response, cached or not.
+     * It is forwarded to the server only when nothing is cached, as a not-modified answer to it cannot be
+     * told apart from one that revalidates the cached response.
+     */
+    private <T> CompletableFuture<ResponseEntity<Object>> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
+        URI uri = parameters != null
+                ? rest.getUriTemplateHandler().expand(path, parameters)
+                : rest.getUriTemplateHandler().expand(path);
+
+        RequestBuilder request = RequestBuilder.create(method.name()).setUri(uri);
+        defaultHeaders(userId).forEach((name, values) -> values.forEach(value -> request.addHeader(name, value)));
+        if (body != null) {
+            request.setEntity(new ByteArrayEntity(writeBody(body), ContentType.APPLICATION_JSON));
+        }
+
+        if (method != HttpMethod.GET) {
+            responseCache.invalidate(uri);
+
+            return send(method, uri, request).thenApply(response -> {
+                responseCache.invalidate(uri);
+                return prepareGatewayResponse(response);
+            });
+        }
+
+        String ifNoneMatch = clientIfNoneMatch();
+        ResponseCache.Entry cached = responseCache.get(uri, userId);
+        if (cached != null && cached.isFresh()) {
+            return CompletableFuture.completedFuture(prepareGatewayResponse(notModifiedIfMatches(ifNoneMatch, responseCache.serve(cached))));
+        }
+        if (cached != null && cached.getEtag() != null) {
+            request.setHeader(HttpHeaders.IF_NONE_MATCH, cached.getEtag());
+        } else if (cached == null && ifNoneMatch != null) {
+            request.setHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+
+        return send(method, uri, request)
+                .thenApply(response -> prepareGatewayResponse(notModifiedIfMatches(ifNoneMatch, responseCache.update(uri, userId, cached, response))));
+    }
+
+    /**
+     * If-None-Match of the client request being handled on this thread, if any.
+     */
+    @Nullable
+    private static String clientIfNoneMatch() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return null;
+        }
+
+        HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+        List<String> values = Collections.list(request.getHeaders(HttpHeaders.IF_NONE_MATCH));
+
+        return values.isEmpty() ? null : String.join(", ", values);
+    }
+
+    /**
+     * A 304 Not Modified carrying the response's validators when its ETag weakly matches one of {@code ifNoneMatch}.
+     */
+    private static ResponseEntity<byte[]> notModifiedIfMatches(@Nullable String ifNoneMatch, ResponseEntity<byte[]> response) {
+        String etag = response.getHeaders().getETag();
+        if (ifNoneMatch == null || etag == null || response.getStatusCodeValue() != HttpStatus.OK.value()) {
+            return response;
         }
-        return prepareGatewayResponse(shareitServerResponse);
+
+        HttpHeaders clientHeaders = new HttpHeaders();
+        clientHeaders.set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        for (String clientEtag : clientHeaders.getIfNoneMatch()) {
+            if (clientEtag.equals("*") || opaqueTag(clientEtag).equals(opaqueTag(etag))) {
+                HttpHeaders headers = new HttpHeaders();
+                headers.setETag(etag);
+                if (response.getHeaders().getCacheControl() != null) {
+                    headers.setCacheControl(response.getHeaders().getCacheControl());
+                }
+
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+            }
+        }
+
+        return response;
+    }
+
+    private static String opaqueTag(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private CompletableFuture<ResponseEntity<byte[]>> send(HttpMethod method, URI uri, RequestBuilder request) {
+        CompletableFuture<ResponseEntity<byte[]>> shareitServerResponse = new CompletableFuture<>();
+        asyncClient.execute(request.build(), new FutureCallback<>() {
+            @Override
+            public void completed(HttpResponse response) {
+                try {
+                    shareitServerResponse.complete(readResponse(response));
+                } catch (IOException e) {
+                    failed(e);
+                }
+            }
+
+            @Override
+            public void failed(Exception e) {
+                shareitServerResponse.completeExceptionally(new ResourceAccessException(
+                        "I/O error on " + method + " request for \"" + uri + "\": " + e.getMessage(),
+                        e instanceof IOException ? (IOException) e : new IOException(e)
+                ));
+            }
+
+            @Override
+            public void cancelled() {
+                shareitServerResponse.cancel(false);
+            }
+        });
+
+        return shareitServerResponse;
     }
 
     private HttpHeaders defaultHeaders(Long userId) {
@@ -105,15 +308,48 @@ public class BaseClient {
         return headers;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
+    private <T> byte[] writeBody(T body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotWritableException("Could not write JSON: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    private static ResponseEntity<byte[]> readResponse(HttpResponse response) throws IOException {
+        HttpHeaders headers = new HttpHeaders();
+        for (Header header : response.getAllHeaders()) {
+            headers.add(header.getName(), header.getValue());
+        }
+        byte[] body = response.getEntity() != null ? EntityUtils.toByteArray(response.getEntity()) : null;
+
+        return ResponseEntity.status(response.getStatusLine().getStatusCode()).headers(headers).body(body);
+    }
+
+    /**
+     * Error statuses are answered with the server's body alone. Otherwise only headers describing the body are
+     * forwarded; connection and framing headers such as Transfer-Encoding belong to the server's connection,
+     * and the gateway sets its own.
+     */
+    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<byte[]> response) {
+        byte[] body = response.getBody();
+
+        if (response.getStatusCodeValue() >= 400) {
+            return ResponseEntity.status(response.getStatusCodeValue()).body(body != null ? body : new byte[0]);
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        for (String name : PASSED_HEADERS) {
+            List<String> values = response.getHeaders().get(name);
+            if (values != null) {
+                headers.addAll(name, values);
+            }
         }
 
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCodeValue()).headers(headers);
 
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
+        if (body != null && body.length > 0) {
+            return responseBuilder.body(body);
         }
 
         return responseBuilder.build();
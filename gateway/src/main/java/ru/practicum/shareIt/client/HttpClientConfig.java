@@ -0,0 +1,115 @@
+package ru.practicum.shareIt.client;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The HTTP clients every gateway client reaches the server with, so they share tuned pools of kept-alive
+ * connections. Regular calls go through the non-blocking client and do not hold a request thread while the server
+ * answers; the blocking one is left for calls streaming a body through the servlet response. The two pools split
+ * {@code max-connections} between them, so the gateway never holds more than that many connections to the server.
+ */
+@Configuration
+@EnableConfigurationProperties(HttpClientProperties.class)
+public class HttpClientConfig {
+    @Bean
+    public MeteredConnectionManager shareitServerConnectionManager(HttpClientProperties properties) {
+        MeteredConnectionManager connectionManager = new MeteredConnectionManager("shareit-server");
+        int maxConnections = properties.getStreamingConnections();
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(Math.min(properties.getMaxConnectionsPerRoute(), maxConnections));
+        connectionManager.setValidateAfterInactivity((int) properties.getValidateAfterInactivity().toMillis());
+
+        return connectionManager;
+    }
+
+    /**
+     * Cookies are not kept: the client serves every gateway user, and the server identifies them by header.
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient shareitServerHttpClient(
+            MeteredConnectionManager shareitServerConnectionManager,
+            HttpClientProperties properties
+    ) {
+        return HttpClients.custom()
+                .setConnectionManager(shareitServerConnectionManager)
+                .setDefaultRequestConfig(requestConfig(properties))
+                .setKeepAliveStrategy(keepAliveStrategy(properties))
+                .evictExpiredConnections()
+                .evictIdleConnections(properties.getMaxIdleTime().toMillis(), TimeUnit.MILLISECONDS)
+                .disableCookieManagement()
+                .build();
+    }
+
+    /**
+     * The I/O reactor notices connections the server closed while they sit in the pool, so no idle eviction
+     * thread is needed here.
+     */
+    @Bean
+    public MeteredAsyncConnectionManager shareitServerAsyncConnectionManager(HttpClientProperties properties)
+            throws IOReactorException {
+        if (properties.getStreamingConnections() >= properties.getMaxConnections()) {
+            throw new IllegalStateException("shareit-server.http-client.streaming-connections must be below max-connections");
+        }
+
+        MeteredAsyncConnectionManager connectionManager = new MeteredAsyncConnectionManager(
+                "shareit-server-async",
+                new DefaultConnectingIOReactor(IOReactorConfig.custom()
+                        .setConnectTimeout((int) properties.getConnectTimeout().toMillis())
+                        .setSoTimeout((int) properties.getReadTimeout().toMillis())
+                        .build())
+        );
+        int maxConnections = properties.getMaxConnections() - properties.getStreamingConnections();
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(Math.min(properties.getMaxConnectionsPerRoute(), maxConnections));
+
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpAsyncClient shareitServerAsyncHttpClient(
+            MeteredAsyncConnectionManager shareitServerAsyncConnectionManager,
+            HttpClientProperties properties
+    ) {
+        CloseableHttpAsyncClient httpClient = HttpAsyncClients.custom()
+                .setConnectionManager(shareitServerAsyncConnectionManager)
+                .setDefaultRequestConfig(requestConfig(properties))
+                .setKeepAliveStrategy(keepAliveStrategy(properties))
+                .disableCookieManagement()
+                .build();
+        httpClient.start();
+
+        return httpClient;
+    }
+
+    private static RequestConfig requestConfig(HttpClientProperties properties) {
+        return RequestConfig.custom()
+                .setConnectTimeout((int) properties.getConnectTimeout().toMillis())
+                .setSocketTimeout((int) properties.getReadTimeout().toMillis())
+                .setConnectionRequestTimeout((int) properties.getConnectionRequestTimeout().toMillis())
+                .build();
+    }
+
+    private static ConnectionKeepAliveStrategy keepAliveStrategy(HttpClientProperties properties) {
+        long keepAlive = properties.getKeepAlive().toMillis();
+
+        return (response, context) -> {
+            long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+
+            return serverKeepAlive > 0 ? serverKeepAlive : keepAlive;
+        };
+    }
+}
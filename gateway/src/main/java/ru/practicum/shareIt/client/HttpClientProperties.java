@@ -0,0 +1,58 @@
+package ru.practicum.shareIt.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Connection pool and timeouts of the HTTP client all gateway clients share to reach the server.
+ */
+@ConfigurationProperties(prefix = "shareit-server.http-client")
+@Getter
+@Setter
+public class HttpClientProperties {
+    /**
+     * Connections the gateway may hold to the server across both pools: {@link #streamingConnections} go to the
+     * blocking pool and the rest to the non-blocking one.
+     */
+    private int maxConnections = 200;
+
+    /**
+     * Every client talks to the one server, so by default a single route may use the whole of either pool.
+     */
+    private int maxConnectionsPerRoute = 200;
+
+    /**
+     * Share of {@link #maxConnections} kept for the blocking pool that streams export and bulk import bodies.
+     */
+    private int streamingConnections = 20;
+
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    /**
+     * Longest pause between two packets of a response.
+     */
+    private Duration readTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Longest wait for a free pooled connection.
+     */
+    private Duration connectionRequestTimeout = Duration.ofSeconds(5);
+
+    /**
+     * How long an idle connection is kept when the server does not send a Keep-Alive timeout.
+     */
+    private Duration keepAlive = Duration.ofSeconds(30);
+
+    /**
+     * Idle connections are closed by a background thread after this long.
+     */
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+
+    /**
+     * Pooled connections idle for longer than this are checked before reuse.
+     */
+    private Duration validateAfterInactivity = Duration.ofSeconds(2);
+}
@@ -0,0 +1,80 @@
+package ru.practicum.shareIt.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.nio.NHttpClientConnection;
+import org.apache.http.nio.reactor.ConnectingIOReactor;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Non-blocking counterpart of {@link MeteredConnectionManager}, publishing the same gauges and lease timer.
+ * A lease that has to open a new connection completes once it is connected, so its time includes the connect.
+ * The pool notices an expired lease request on its next lease or release, so a timeout is recorded then.
+ */
+public class MeteredAsyncConnectionManager extends PoolingNHttpClientConnectionManager implements MeterBinder {
+    private final String name;
+
+    private volatile MeterRegistry registry;
+
+    public MeteredAsyncConnectionManager(String name, ConnectingIOReactor ioReactor) {
+        super(ioReactor);
+        this.name = name;
+    }
+
+    @Override
+    public Future<NHttpClientConnection> requestConnection(
+            HttpRoute route,
+            Object state,
+            long connectTimeout,
+            long leaseTimeout,
+            TimeUnit timeUnit,
+            FutureCallback<NHttpClientConnection> callback
+    ) {
+        long start = System.nanoTime();
+
+        return super.requestConnection(route, state, connectTimeout, leaseTimeout, timeUnit, new FutureCallback<>() {
+            @Override
+            public void completed(NHttpClientConnection connection) {
+                record("leased");
+                if (callback != null) {
+                    callback.completed(connection);
+                }
+            }
+
+            @Override
+            public void failed(Exception ex) {
+                boolean timeout = ex instanceof ConnectionPoolTimeoutException || ex instanceof TimeoutException;
+                record(timeout ? "timeout" : "failed");
+                if (callback != null) {
+                    callback.failed(ex);
+                }
+            }
+
+            @Override
+            public void cancelled() {
+                record("cancelled");
+                if (callback != null) {
+                    callback.cancelled();
+                }
+            }
+
+            private void record(String outcome) {
+                MeteredConnectionManager.recordLease(registry, name, outcome, System.nanoTime() - start);
+            }
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new PoolingHttpClientConnectionManagerMetricsBinder(this, name).bindTo(registry);
+        this.registry = registry;
+    }
+}
@@ -0,0 +1,77 @@
+package ru.practicum.shareIt.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connection pool that publishes its size, leased, available and pending connections, and how long requests wait
+ * to lease a connection, tagged with whether the lease succeeded, timed out or failed otherwise.
+ */
+public class MeteredConnectionManager extends PoolingHttpClientConnectionManager implements MeterBinder {
+    private final String name;
+
+    private volatile MeterRegistry registry;
+
+    public MeteredConnectionManager(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+        ConnectionRequest request = super.requestConnection(route, state);
+
+        return new ConnectionRequest() {
+            @Override
+            public HttpClientConnection get(long timeout, TimeUnit unit)
+                    throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                long start = System.nanoTime();
+                String outcome = "failed";
+                try {
+                    HttpClientConnection connection = request.get(timeout, unit);
+                    outcome = "leased";
+
+                    return connection;
+                } catch (ConnectionPoolTimeoutException e) {
+                    outcome = "timeout";
+                    throw e;
+                } finally {
+                    recordLease(registry, name, outcome, System.nanoTime() - start);
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return request.cancel();
+            }
+        };
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new PoolingHttpClientConnectionManagerMetricsBinder(this, name).bindTo(registry);
+        this.registry = registry;
+    }
+
+    static void recordLease(MeterRegistry registry, String name, String outcome, long nanos) {
+        if (registry == null) {
+            return;
+        }
+
+        Timer.builder("httpcomponents.httpclient.pool.lease")
+                .description("Time spent waiting for a pooled connection")
+                .tag("httpclient", name)
+                .tag("outcome", outcome)
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
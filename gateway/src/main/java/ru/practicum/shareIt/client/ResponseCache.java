@@ -0,0 +1,276 @@
+package ru.practicum.shareIt.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.EqualsAndHashCode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.net.URI;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Server responses to GET requests by user, kept for as long as the server's Cache-Control allows and revalidated
+ * with their ETag after that. Responses marked no-store, and those neither fresh for a while nor carrying an ETag,
+ * are not kept. Entries are bounded by the size of their bodies and dropped when the resource is changed through
+ * the gateway.
+ * <p>
+ * Keys are also indexed by path, so dropping a resource looks up each of its ancestor paths instead of scanning
+ * every cached response. A key enters the index before its entry is stored and leaves it when the entry is
+ * evicted or dropped, so the index never misses a cached response.
+ */
+@Component
+public class ResponseCache implements MeterBinder {
+    private static final String METRIC_REQUESTS = "shareit.gateway.response.cache.requests";
+
+    private final Cache<Key, Entry> cache;
+
+    private final ConcurrentMap<String, Set<Key>> keysByPath = new ConcurrentHashMap<>();
+
+    private final LongAdder fresh = new LongAdder();
+
+    private final LongAdder notModified = new LongAdder();
+
+    private final LongAdder missed = new LongAdder();
+
+    public ResponseCache(@Value("${shareit-server.response-cache.max-size:16MB}") DataSize maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((Key key, Entry entry) -> key.uri.toString().length() + entry.weight())
+                .evictionListener((Key key, Entry entry, RemovalCause cause) -> unindex(key))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Cached response to a GET of {@code uri} by the user, whether still fresh or not.
+     */
+    @Nullable
+    public Entry get(URI uri, @Nullable Long userId) {
+        return cache.getIfPresent(new Key(uri, userId));
+    }
+
+    /**
+     * Counts a cached response served without asking the server.
+     */
+    public ResponseEntity<byte[]> serve(Entry entry) {
+        fresh.increment();
+
+        return entry.response;
+    }
+
+    /**
+     * Keeps or drops the server's {@code response} to a GET of {@code uri} and returns the response to answer with:
+     * the {@code revalidated} one when the server found it not modified.
+     */
+    public ResponseEntity<byte[]> update(URI uri, @Nullable Long userId, @Nullable Entry revalidated, ResponseEntity<byte[]> response) {
+        Key key = new Key(uri, userId);
+
+        if (revalidated != null && response.getStatusCodeValue() == HttpStatus.NOT_MODIFIED.value()) {
+            notModified.increment();
+            Entry entry = revalidated.refresh(response.getHeaders());
+            cache.asMap().replace(key, revalidated, entry);
+
+            return entry.response;
+        }
+
+        missed.increment();
+        Entry entry = response.getStatusCodeValue() == HttpStatus.OK.value() ? Entry.of(response) : null;
+        if (entry != null) {
+            cache.asMap().compute(key, (k, previous) -> {
+                index(k);
+                return entry;
+            });
+        } else if (revalidated != null) {
+            cache.asMap().computeIfPresent(key, (k, previous) -> {
+                unindex(k);
+                return null;
+            });
+        }
+
+        return response;
+    }
+
+    /**
+     * Drops every user's response for the resource at {@code uri} and the resources it belongs to,
+     * so that posting {@code /items/1/comment} drops {@code /items/1}.
+     */
+    public void invalidate(URI uri) {
+        String path = uri.getPath();
+
+        while (path != null) {
+            Set<Key> keys = keysByPath.remove(path);
+            if (keys != null) {
+                cache.invalidateAll(keys);
+            }
+
+            int slash = path.lastIndexOf('/');
+            path = slash >= 0 ? path.substring(0, slash) : null;
+        }
+    }
+
+    /**
+     * Number of keys held by the path index, once pending evictions are done.
+     */
+    int indexedKeys() {
+        cache.cleanUp();
+
+        return keysByPath.values().stream().mapToInt(Set::size).sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "gateway-responses");
+        registerRequests(registry, "fresh", fresh);
+        registerRequests(registry, "not_modified", notModified);
+        registerRequests(registry, "miss", missed);
+        Gauge.builder("shareit.gateway.response.cache.hit.ratio", this, ResponseCache::hitRatio)
+                .description("Share of GET requests answered without the server sending the body again")
+                .register(registry);
+    }
+
+    /**
+     * Called while the cache holds the key's lock, so that storing and evicting the same key cannot interleave.
+     */
+    private void index(Key key) {
+        keysByPath.compute(key.path, (path, keys) -> {
+            Set<Key> indexed = keys != null ? keys : new HashSet<>();
+            indexed.add(key);
+            return indexed;
+        });
+    }
+
+    private void unindex(Key key) {
+        keysByPath.computeIfPresent(key.path, (path, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    private void registerRequests(MeterRegistry registry, String outcome, LongAdder count) {
+        FunctionCounter.builder(METRIC_REQUESTS, count, LongAdder::doubleValue)
+                .description("GET requests by whether the cached response was fresh, not modified, or missing or stale")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private double hitRatio() {
+        double hits = fresh.sum() + notModified.sum();
+        double total = hits + missed.sum();
+
+        return total == 0 ? Double.NaN : hits / total;
+    }
+
+    @EqualsAndHashCode
+    private static final class Key {
+        private final String path;
+
+        private final URI uri;
+
+        @Nullable
+        private final Long userId;
+
+        private Key(URI uri, @Nullable Long userId) {
+            this.path = uri.getPath();
+            this.uri = uri;
+            this.userId = userId;
+        }
+    }
+
+    public static final class Entry {
+        private final ResponseEntity<byte[]> response;
+
+        @Nullable
+        private final String etag;
+
+        private final long freshUntilNanos;
+
+        private Entry(ResponseEntity<byte[]> response, @Nullable String etag, long freshUntilNanos) {
+            this.response = response;
+            this.etag = etag;
+            this.freshUntilNanos = freshUntilNanos;
+        }
+
+        @Nullable
+        private static Entry of(ResponseEntity<byte[]> response) {
+            HttpHeaders headers = response.getHeaders();
+            long maxAgeSeconds = maxAgeSeconds(headers.getCacheControl());
+            if (maxAgeSeconds < 0 || (maxAgeSeconds == 0 && headers.getETag() == null)) {
+                return null;
+            }
+
+            return new Entry(response, headers.getETag(), System.nanoTime() + TimeUnit.SECONDS.toNanos(maxAgeSeconds));
+        }
+
+        public boolean isFresh() {
+            return System.nanoTime() - freshUntilNanos < 0;
+        }
+
+        @Nullable
+        public String getEtag() {
+            return etag;
+        }
+
+        /**
+         * The same response, fresh again for as long as the server's not-modified answer allows.
+         */
+        private Entry refresh(HttpHeaders notModifiedHeaders) {
+            String cacheControl = notModifiedHeaders.getCacheControl() != null
+                    ? notModifiedHeaders.getCacheControl()
+                    : response.getHeaders().getCacheControl();
+            long maxAgeSeconds = Math.max(maxAgeSeconds(cacheControl), 0);
+
+            return new Entry(response, etag, System.nanoTime() + TimeUnit.SECONDS.toNanos(maxAgeSeconds));
+        }
+
+        private int weight() {
+            return response.getBody() != null ? response.getBody().length : 0;
+        }
+
+        /**
+         * Seconds the response stays fresh: -1 when it must not be stored, 0 when it must be revalidated every time.
+         */
+        private static long maxAgeSeconds(@Nullable String cacheControl) {
+            if (cacheControl == null) {
+                return 0;
+            }
+
+            long maxAge = 0;
+            for (String directive : cacheControl.toLowerCase(Locale.ROOT).split(",")) {
+                directive = directive.trim();
+                if (directive.equals("no-store")) {
+                    return -1;
+                }
+                if (directive.equals("no-cache")) {
+                    return 0;
+                }
+                if (directive.startsWith("max-age=")) {
+                    try {
+                        maxAge = Math.max(Long.parseLong(directive.substring("max-age=".length())), 0);
+                    } catch (NumberFormatException e) {
+                        return 0;
+                    }
+                }
+            }
+
+            return maxAge;
+        }
+    }
+}
@@ -1,34 +1,80 @@
 package ru.practicum.shareIt.item;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.client.HttpClient;
+import org.apache.http.nio.client.HttpAsyncClient;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.StreamingHttpOutputMessage;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareIt.client.BaseClient;
+import ru.practicum.shareIt.client.ResponseCache;
+import ru.practicum.shareIt.item.bulk.ItemBulkLines;
 import ru.practicum.shareIt.item.dto.CreateItemCommentDto;
 import ru.practicum.shareIt.item.dto.CreateItemRequestDto;
 import ru.practicum.shareIt.item.dto.UpdateItemRequestDto;
 
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
+    /**
+     * Sends request bodies as they are written instead of buffering them, for bulk imports. Built without
+     * the builder's customizers: request interceptors would buffer the body again.
+     */
+    private final RestTemplate streamingRest;
+
+    private final ObjectMapper objectMapper;
+
+    private final Validator validator;
+
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(
+            @Value("${shareit-server.url}") String serverUrl,
+            RestTemplateBuilder builder,
+            HttpClient httpClient,
+            HttpAsyncClient asyncClient,
+            ObjectMapper objectMapper,
+            ResponseCache responseCache,
+            Validator validator
+    ) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
+                        .build(),
+                asyncClient,
+                objectMapper,
+                responseCache
         );
+        HttpComponentsClientHttpRequestFactory streamingRequestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        streamingRequestFactory.setBufferRequestBody(false);
+        this.streamingRest = new RestTemplate(streamingRequestFactory);
+        this.streamingRest.setUriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX));
+        this.objectMapper = objectMapper;
+        this.validator = validator;
     }
 
-    public ResponseEntity<Object> findAll(
+    public CompletableFuture<ResponseEntity<Object>> findAll(
             long userId,
             Long from,
             Integer size
@@ -40,37 +86,104 @@ public class ItemClient extends BaseClient {
         return get("?from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> findByText(
+    public CompletableFuture<ResponseEntity<Object>> findByText(
             long userId,
             String text,
             Long from,
-            Integer size
+            Integer size,
+            LocalDateTime start,
+            LocalDateTime end
     ) {
-        Map<String, Object> parameters = Map.of(
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "text", text,
                 "from", from,
                 "size", size
+        ));
+        return get("/search?text={text}&from={from}&size={size}" + periodQuery(start, end, parameters), userId, parameters);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> suggest(long userId, String prefix, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "prefix", prefix,
+                "size", size
         );
-        return get("/search?text={text}&from={from}&size={size}", userId, parameters);
+        return get("/suggest?prefix={prefix}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> findOne(long userId, Long itemId) {
+    public CompletableFuture<ResponseEntity<Object>> findOne(long userId, Long itemId) {
         return get("/" + itemId, userId);
     }
 
-    public ResponseEntity<Object> create(long userId, CreateItemRequestDto createItemRequestDto) {
+    public CompletableFuture<ResponseEntity<Object>> getAvailability(long userId, Long itemId, LocalDate from, LocalDate to) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "to", to
+        );
+        return get("/" + itemId + "/availability?from={from}&to={to}", userId, parameters);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> create(long userId, CreateItemRequestDto createItemRequestDto) {
         return post("", userId, createItemRequestDto);
     }
 
-    public ResponseEntity<Object> update(long userId, Long itemId, UpdateItemRequestDto updateItemRequestDto) {
+    /**
+     * Streams the valid lines of {@code lines} to the server and writes the per-line results to {@code response}.
+     * The returned lines are already closed and only report their counts.
+     */
+    public ItemBulkLines createBulk(long userId, InputStream lines, HttpServletResponse response) throws IOException {
+        ItemBulkLines bulkLines = new ItemBulkLines(objectMapper, validator);
+
+        try {
+            streamingRest.execute(
+                    "/bulk",
+                    HttpMethod.POST,
+                    request -> {
+                        request.getHeaders().setContentType(MediaType.APPLICATION_NDJSON);
+                        request.getHeaders().set("X-Sharer-User-Id", String.valueOf(userId));
+                        ((StreamingHttpOutputMessage) request).setBody(body -> bulkLines.forward(lines, body));
+                    },
+                    serverResponse -> {
+                        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+                        bulkLines.merge(serverResponse.getBody(), response.getOutputStream());
+                        return null;
+                    }
+            );
+        } catch (HttpStatusCodeException e) {
+            passError(e, response);
+        } finally {
+            bulkLines.close();
+        }
+
+        return bulkLines;
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> update(long userId, Long itemId, UpdateItemRequestDto updateItemRequestDto) {
         return patch("/" + itemId, userId, updateItemRequestDto);
     }
 
-    public ResponseEntity<Object> removeById(long userId, Long itemId) {
+    public CompletableFuture<ResponseEntity<Object>> removeById(long userId, Long itemId) {
         return delete("/" + itemId, userId);
     }
 
-    public ResponseEntity<Object> addComment(long userId, Long itemId, CreateItemCommentDto createItemCommentDto) {
+    public CompletableFuture<ResponseEntity<Object>> addComment(long userId, Long itemId, CreateItemCommentDto createItemCommentDto) {
         return post("/" + itemId + "/comment", userId, createItemCommentDto);
     }
+
+    /**
+     * Forwards whichever period bounds were given; the server rejects a period with a single bound.
+     */
+    private static String periodQuery(@Nullable LocalDateTime start, @Nullable LocalDateTime end, Map<String, Object> parameters) {
+        StringBuilder query = new StringBuilder();
+
+        if (start != null) {
+            parameters.put("start", start);
+            query.append("&start={start}");
+        }
+        if (end != null) {
+            parameters.put("end", end);
+            query.append("&end={end}");
+        }
+
+        return query.toString();
+    }
 }
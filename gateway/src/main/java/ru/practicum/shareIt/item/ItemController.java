@@ -1,17 +1,27 @@
 package ru.practicum.shareIt.item;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareIt.item.bulk.ItemBulkLines;
 import ru.practicum.shareIt.item.dto.CreateItemCommentDto;
 import ru.practicum.shareIt.item.dto.CreateItemRequestDto;
 import ru.practicum.shareIt.item.dto.UpdateItemRequestDto;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping(value = "/items", produces = MediaType.APPLICATION_JSON_VALUE)
@@ -27,7 +37,7 @@ public class ItemController {
     }
 
     @GetMapping
-    public ResponseEntity<Object> getAllItems(
+    public CompletableFuture<ResponseEntity<Object>> getAllItems(
             @RequestHeader(HEADER_NAME) Long userId,
             @RequestParam(required = false, defaultValue = "0") @PositiveOrZero Long from,
             @RequestParam(required = false, defaultValue = "10") @Positive Integer size
@@ -38,19 +48,32 @@ public class ItemController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> findByText(
+    public CompletableFuture<ResponseEntity<Object>> findByText(
             @RequestHeader(HEADER_NAME) Long userId,
             @RequestParam String text,
             @RequestParam(required = false, defaultValue = "0") @PositiveOrZero Long from,
-            @RequestParam(required = false, defaultValue = "10") @Positive Integer size
+            @RequestParam(required = false, defaultValue = "10") @Positive Integer size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end
     ) {
-        log.info("Find item by text '{}', userId={}, from={}, size={}", text, userId, from, size);
+        log.info("Find item by text '{}', userId={}, from={}, size={}, start={}, end={}", text, userId, from, size, start, end);
 
-        return itemClient.findByText(userId, text, from, size);
+        return itemClient.findByText(userId, text, from, size, start, end);
+    }
+
+    @GetMapping("/suggest")
+    public CompletableFuture<ResponseEntity<Object>> suggest(
+            @RequestHeader(HEADER_NAME) Long userId,
+            @RequestParam @NotBlank String prefix,
+            @RequestParam(required = false, defaultValue = "10") @Positive @Max(50) Integer size
+    ) {
+        log.debug("Suggest items by prefix '{}', userId={}, size={}", prefix, userId, size);
+
+        return itemClient.suggest(userId, prefix, size);
     }
 
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> getItem(
+    public CompletableFuture<ResponseEntity<Object>> getItem(
             @RequestHeader(HEADER_NAME) Long userId,
             @PathVariable @Positive Long itemId
     ) {
@@ -59,8 +82,20 @@ public class ItemController {
         return itemClient.findOne(userId, itemId);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public CompletableFuture<ResponseEntity<Object>> getAvailability(
+            @RequestHeader(HEADER_NAME) Long userId,
+            @PathVariable @Positive Long itemId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        log.debug("Get availability of item {} from {} to {}, userId={}", itemId, from, to, userId);
+
+        return itemClient.getAvailability(userId, itemId, from, to);
+    }
+
     @PostMapping
-    public ResponseEntity<Object> createItem(
+    public CompletableFuture<ResponseEntity<Object>> createItem(
             @RequestHeader(HEADER_NAME) Long userId,
             @RequestBody @Valid CreateItemRequestDto createItemRequestDto
     ) {
@@ -69,8 +104,21 @@ public class ItemController {
         return itemClient.create(userId, createItemRequestDto);
     }
 
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void createItems(
+            @RequestHeader(HEADER_NAME) Long userId,
+            InputStream lines,
+            HttpServletResponse response
+    ) throws IOException {
+        log.info("Bulk creating items, userId={}", userId);
+
+        ItemBulkLines bulkLines = itemClient.createBulk(userId, lines, response);
+
+        log.info("Bulk create finished, userId={}, lines={}, rejected={}", userId, bulkLines.getLines(), bulkLines.getRejected());
+    }
+
     @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> updateItem(
+    public CompletableFuture<ResponseEntity<Object>> updateItem(
             @RequestHeader(HEADER_NAME) Long userId,
             @PathVariable @Positive Long itemId,
             @RequestBody @Valid UpdateItemRequestDto updateItemRequestDto
@@ -81,7 +129,7 @@ public class ItemController {
     }
 
     @DeleteMapping("/{itemId}")
-    public ResponseEntity<Object> deleteItem(
+    public CompletableFuture<ResponseEntity<Object>> deleteItem(
             @RequestHeader(HEADER_NAME) Long userId,
             @PathVariable @Positive Long itemId
     ) {
@@ -91,7 +139,7 @@ public class ItemController {
     }
 
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> addComment(
+    public CompletableFuture<ResponseEntity<Object>> addComment(
             @RequestHeader(HEADER_NAME) Long userId,
             @PathVariable @Positive Long itemId,
             @RequestBody @Valid CreateItemCommentDto createItemCommentDto
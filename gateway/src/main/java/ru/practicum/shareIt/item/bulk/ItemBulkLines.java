@@ -0,0 +1,163 @@
+package ru.practicum.shareIt.item.bulk;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import ru.practicum.shareIt.item.dto.CreateItemRequestDto;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * One bulk import passing through the gateway. Lines of the client's NDJSON body are validated one at a time;
+ * valid lines are forwarded to the server as they are read, rejected ones are spooled with their errors to
+ * a temporary file in line order, so the gateway holds no per-line state in memory however long the body is.
+ * The server numbers the lines it received, so its results are renumbered back to the client's lines on the way out.
+ * Blank lines are skipped and not counted, the same way the server does. The file is deleted on {@link #close};
+ * the counts stay readable after that.
+ */
+public class ItemBulkLines implements Closeable {
+    private final ObjectMapper objectMapper;
+
+    private final Validator validator;
+
+    private final Path rejectedFile;
+
+    private final OutputStream rejectedOut;
+
+    private int lines;
+
+    private int rejected;
+
+    public ItemBulkLines(ObjectMapper objectMapper, Validator validator) throws IOException {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.rejectedFile = Files.createTempFile("item-bulk-rejected-", ".ndjson");
+        this.rejectedOut = new BufferedOutputStream(Files.newOutputStream(rejectedFile));
+    }
+
+    public void forward(InputStream in, OutputStream server) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(server, StandardCharsets.UTF_8));
+
+        String text;
+        while ((text = reader.readLine()) != null) {
+            if (text.isBlank()) {
+                continue;
+            }
+            lines++;
+
+            String error = validate(text);
+            if (error != null) {
+                reject(lines, error);
+                continue;
+            }
+
+            writer.write(text);
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    /**
+     * Writes a result for every forwarded line, taking the next spooled rejection or, for each line that was not
+     * rejected, the next server result.
+     */
+    public void merge(InputStream serverResults, OutputStream out) throws IOException {
+        rejectedOut.flush();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(serverResults, StandardCharsets.UTF_8));
+        try (BufferedReader rejections = Files.newBufferedReader(rejectedFile, StandardCharsets.UTF_8)) {
+            JsonNode rejection = nextRejection(rejections);
+
+            for (int line = 1; line <= lines; line++) {
+                if (rejection != null && rejection.get("line").asInt() == line) {
+                    out.write(objectMapper.writeValueAsBytes(rejection));
+                    out.write('\n');
+                    rejection = nextRejection(rejections);
+                    continue;
+                }
+
+                String text = reader.readLine();
+
+                ObjectNode result;
+                if (text != null) {
+                    result = (ObjectNode) objectMapper.readTree(text);
+                    result.put("line", line);
+                } else {
+                    result = objectMapper.createObjectNode()
+                            .put("line", line)
+                            .put("error", "No result from server");
+                }
+
+                out.write(objectMapper.writeValueAsBytes(result));
+                out.write('\n');
+            }
+        }
+        out.flush();
+    }
+
+    public int getLines() {
+        return lines;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            rejectedOut.close();
+        } finally {
+            Files.deleteIfExists(rejectedFile);
+        }
+    }
+
+    private void reject(int line, String error) throws IOException {
+        ObjectNode rejection = objectMapper.createObjectNode()
+                .put("line", line)
+                .put("error", error);
+
+        rejectedOut.write(objectMapper.writeValueAsBytes(rejection));
+        rejectedOut.write('\n');
+        rejected++;
+    }
+
+    private JsonNode nextRejection(BufferedReader rejections) throws IOException {
+        String text = rejections.readLine();
+
+        return text != null ? objectMapper.readTree(text) : null;
+    }
+
+    private String validate(String text) {
+        CreateItemRequestDto dto;
+        try {
+            JsonNode node = objectMapper.readTree(text);
+            if (!node.isObject()) {
+                return "Malformed item: not a JSON object";
+            }
+            dto = objectMapper.treeToValue(node, CreateItemRequestDto.class);
+        } catch (JsonProcessingException e) {
+            return "Malformed item: " + e.getOriginalMessage();
+        }
+
+        Set<ConstraintViolation<CreateItemRequestDto>> violations = validator.validate(dto);
+        if (violations.isEmpty()) {
+            return null;
+        }
+
+        return violations
+                .stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+}
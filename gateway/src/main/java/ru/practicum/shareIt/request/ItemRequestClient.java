@@ -1,5 +1,8 @@
 package ru.practicum.shareIt.request;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.client.HttpClient;
+import org.apache.http.nio.client.HttpAsyncClient;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
@@ -8,47 +11,61 @@ import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareIt.client.BaseClient;
+import ru.practicum.shareIt.client.ResponseCache;
 import ru.practicum.shareIt.request.dto.CreateItemRequestRequestDto;
 
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class ItemRequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
     @Autowired
-    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemRequestClient(
+            @Value("${shareit-server.url}") String serverUrl,
+            RestTemplateBuilder builder,
+            HttpClient httpClient,
+            HttpAsyncClient asyncClient,
+            ObjectMapper objectMapper,
+            ResponseCache responseCache
+    ) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
+                        .build(),
+                asyncClient,
+                objectMapper,
+                responseCache
         );
     }
 
-    public ResponseEntity<Object> findAllForCurrentUser(
+    public CompletableFuture<ResponseEntity<Object>> findAllForCurrentUser(
             long userId
     ) {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> findAllCreatedByOthers(
+    public CompletableFuture<ResponseEntity<Object>> findAllCreatedByOthers(
             long userId,
             Long from,
+            String cursor,
             Integer size
     ) {
-        Map<String, Object> parameters = Map.of(
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "from", from,
                 "size", size
-        );
-        return get("/all?from={from}&size={size}", userId, parameters);
+        ));
+        return get("/all?from={from}&size={size}" + cursorQuery(cursor, parameters), userId, parameters);
     }
 
-    public ResponseEntity<Object> findById(long userId, Long requestId) {
+    public CompletableFuture<ResponseEntity<Object>> findById(long userId, Long requestId) {
         return get("/" + requestId, userId);
     }
 
-    public ResponseEntity<Object> create(long userId, CreateItemRequestRequestDto createItemRequestRequestDto) {
+    public CompletableFuture<ResponseEntity<Object>> create(long userId, CreateItemRequestRequestDto createItemRequestRequestDto) {
         return post("", userId, createItemRequestRequestDto);
     }
 }
@@ -8,8 +8,10 @@ import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareIt.request.dto.CreateItemRequestRequestDto;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Pattern;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping(path = "/requests", produces = MediaType.APPLICATION_JSON_VALUE)
@@ -21,12 +23,14 @@ public class ItemRequestController {
 
     private static final String HEADER_NAME = "X-Sharer-User-Id";
 
+    private static final String CURSOR_PATTERN = "[A-Za-z0-9_-]{0,128}";
+
     public ItemRequestController(ItemRequestClient itemRequestClient) {
         this.itemRequestClient = itemRequestClient;
     }
 
     @GetMapping("/{requestId}")
-    public ResponseEntity<Object> findById(
+    public CompletableFuture<ResponseEntity<Object>> findById(
             @RequestHeader(HEADER_NAME) Long userId,
             @PathVariable @Positive Long requestId
     ) {
@@ -36,7 +40,7 @@ public class ItemRequestController {
     }
 
     @GetMapping
-    public ResponseEntity<Object> findAllForCurrentUser(
+    public CompletableFuture<ResponseEntity<Object>> findAllForCurrentUser(
             @RequestHeader(HEADER_NAME) Long userId
     ) {
         log.info("Get all item requests, userId={}", userId);
@@ -45,18 +49,19 @@ public class ItemRequestController {
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> findAllForOtherUsers(
+    public CompletableFuture<ResponseEntity<Object>> findAllForOtherUsers(
             @RequestHeader(HEADER_NAME) Long userId,
             @RequestParam(required = false, defaultValue = "0") @PositiveOrZero Long from,
+            @RequestParam(required = false) @Pattern(regexp = CURSOR_PATTERN) String cursor,
             @RequestParam(required = false, defaultValue = "10") @Positive Integer size
     ) {
-        log.info("Get item requests for other users userId={}, from={}, size={}", userId, from, size);
+        log.info("Get item requests for other users userId={}, from={}, cursor={}, size={}", userId, from, cursor, size);
 
-        return itemRequestClient.findAllCreatedByOthers(userId, from, size);
+        return itemRequestClient.findAllCreatedByOthers(userId, from, cursor, size);
     }
 
     @PostMapping
-    public ResponseEntity<Object> create(
+    public CompletableFuture<ResponseEntity<Object>> create(
             @RequestHeader(HEADER_NAME) Long userId,
             @RequestBody @Valid CreateItemRequestRequestDto createItemRequestRequestDto
     ) {
@@ -1,5 +1,8 @@
 package ru.practicum.shareIt.user;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.client.HttpClient;
+import org.apache.http.nio.client.HttpAsyncClient;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
@@ -8,40 +11,53 @@ import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareIt.client.BaseClient;
+import ru.practicum.shareIt.client.ResponseCache;
 import ru.practicum.shareIt.user.dto.CreateUserRequestDto;
 import ru.practicum.shareIt.user.dto.UpdateUserRequestDto;
 
+import java.util.concurrent.CompletableFuture;
+
 @Service
 public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
 
     @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public UserClient(
+            @Value("${shareit-server.url}") String serverUrl,
+            RestTemplateBuilder builder,
+            HttpClient httpClient,
+            HttpAsyncClient asyncClient,
+            ObjectMapper objectMapper,
+            ResponseCache responseCache
+    ) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
+                        .build(),
+                asyncClient,
+                objectMapper,
+                responseCache
         );
     }
 
-    public ResponseEntity<Object> findAll() {
+    public CompletableFuture<ResponseEntity<Object>> findAll() {
         return get("");
     }
 
-    public ResponseEntity<Object> findOne(long userId) {
+    public CompletableFuture<ResponseEntity<Object>> findOne(long userId) {
         return get("/" + userId);
     }
 
-    public ResponseEntity<Object> create(CreateUserRequestDto createUserRequestDto) {
+    public CompletableFuture<ResponseEntity<Object>> create(CreateUserRequestDto createUserRequestDto) {
         return post("", createUserRequestDto);
     }
 
-    public ResponseEntity<Object> update(long userId, UpdateUserRequestDto updateUserRequestDto) {
+    public CompletableFuture<ResponseEntity<Object>> update(long userId, UpdateUserRequestDto updateUserRequestDto) {
         return patch("/" + userId, updateUserRequestDto);
     }
 
-    public ResponseEntity<Object> removeById(long userId) {
+    public CompletableFuture<ResponseEntity<Object>> removeById(long userId) {
         return delete("/" + userId);
     }
 }
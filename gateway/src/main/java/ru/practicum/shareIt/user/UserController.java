@@ -10,6 +10,7 @@ import ru.practicum.shareIt.user.dto.UpdateUserRequestDto;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping(path = "/users", produces = MediaType.APPLICATION_JSON_VALUE)
@@ -23,14 +24,14 @@ public class UserController {
     }
 
     @GetMapping
-    public ResponseEntity<Object> getAllUsers() {
+    public CompletableFuture<ResponseEntity<Object>> getAllUsers() {
         log.info("Get all users");
 
         return userClient.findAll();
     }
 
     @GetMapping("/{userId}")
-    public ResponseEntity<Object> getUser(
+    public CompletableFuture<ResponseEntity<Object>> getUser(
             @PathVariable @Positive Long userId
     ) {
         log.info("Get user {}", userId);
@@ -39,7 +40,7 @@ public class UserController {
     }
 
     @PostMapping
-    public ResponseEntity<Object> createUser(
+    public CompletableFuture<ResponseEntity<Object>> createUser(
             @RequestBody @Valid CreateUserRequestDto createUserRequestDto
     ) {
         log.info("Crating user {}", createUserRequestDto);
@@ -48,7 +49,7 @@ public class UserController {
     }
 
     @PatchMapping("/{userId}")
-    public ResponseEntity<Object> updateUser(
+    public CompletableFuture<ResponseEntity<Object>> updateUser(
             @PathVariable @Positive Long userId,
             @RequestBody @Valid UpdateUserRequestDto updateUserRequestDto
     ) {
@@ -58,7 +59,7 @@ public class UserController {
     }
 
     @DeleteMapping("/{userId}")
-    public ResponseEntity<Object> deleteUser(
+    public CompletableFuture<ResponseEntity<Object>> deleteUser(
             @PathVariable @Positive Long userId
     ) {
         log.info("Deleting user {}", userId);
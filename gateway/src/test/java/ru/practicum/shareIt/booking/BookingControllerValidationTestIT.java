@@ -14,10 +14,14 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 import ru.practicum.shareIt.booking.dto.CreateBookingDto;
+import ru.practicum.shareIt.booking.dto.SearchBookingStatus;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -177,6 +181,32 @@ class BookingControllerValidationTestIT {
         mockMvc.perform(get("/bookings/owner").param("state", "UNKNOWN_STATE")).andExpect(status().isBadRequest());
     }
 
+    @SneakyThrows
+    @Test
+    void getAllByStatus_whenCursorIsNotBase64Url_thenReturnBadRequest() {
+        mockMvc.perform(get("/bookings").param("cursor", "a cursor/")).andExpect(status().isBadRequest());
+    }
+
+    @SneakyThrows
+    @Test
+    void getAllForCurrentUserByStatus_whenCursorIsEmpty_thenReturnOk() {
+        mockMvc.perform(get("/bookings/owner").param("cursor", "")).andExpect(status().isOk());
+    }
+
+    @SneakyThrows
+    @Test
+    void exportAllForCurrentUserByStatus_whenProvideUnknownState_thenReturnBadRequest() {
+        mockMvc.perform(get("/bookings/owner/export").param("state", "UNKNOWN_STATE")).andExpect(status().isBadRequest());
+    }
+
+    @SneakyThrows
+    @Test
+    void exportAllForCurrentUserByStatus_whenStateGiven_thenStreamedThroughClient() {
+        mockMvc.perform(get("/bookings/owner/export").param("state", "PAST")).andExpect(status().isOk());
+
+        verify(bookingClient).exportAllForCurrentUserItemsByStatus(eq(1L), eq(SearchBookingStatus.PAST), any());
+    }
+
     public static String asJsonString(final Object obj) {
         try {
             return new ObjectMapper().findAndRegisterModules().writeValueAsString(obj);
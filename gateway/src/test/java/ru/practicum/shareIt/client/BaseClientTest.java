@@ -0,0 +1,265 @@
+package ru.practicum.shareIt.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.nio.client.HttpAsyncClient;
+import org.apache.http.util.EntityUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import java.net.ConnectException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class BaseClientTest {
+    private static final String BODY = "{\"id\":1,\"name\":\"drill\",\"lastBooking\":null}";
+
+    @Mock
+    private HttpAsyncClient asyncClient;
+
+    private BaseClient client;
+
+    @BeforeEach
+    void setUp() {
+        RestTemplate rest = new RestTemplate();
+        rest.setUriTemplateHandler(new DefaultUriBuilderFactory("http://localhost:9090/items"));
+        client = new BaseClient(rest, asyncClient, new ObjectMapper().findAndRegisterModules(), new ResponseCache(DataSize.ofMegabytes(1)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void get_whenServerResponds_thenBodyBytesAndDescribingHeadersPassedThrough() throws Exception {
+        CompletableFuture<ResponseEntity<Object>> future = client.get("/search?text={text}", 2L, Map.of("text", "cordless drill"));
+
+        HttpUriRequest request = respond(response(200, BODY, "ETag", "\"3\"", "Transfer-Encoding", "chunked", "Connection", "keep-alive"));
+        assertThat(request.getMethod(), equalTo("GET"));
+        assertThat(request.getURI().toString(), equalTo("http://localhost:9090/items/search?text=cordless%20drill"));
+        assertThat(request.getFirstHeader("X-Sharer-User-Id").getValue(), equalTo("2"));
+
+        ResponseEntity<Object> response = future.get();
+        assertThat(response.getStatusCode(), equalTo(HttpStatus.OK));
+        assertThat(new String((byte[]) response.getBody(), StandardCharsets.UTF_8), equalTo(BODY));
+        assertThat(response.getHeaders().getContentType(), equalTo(MediaType.APPLICATION_JSON));
+        assertThat(response.getHeaders().getETag(), equalTo("\"3\""));
+        assertThat(response.getHeaders().keySet(), not(hasItems(HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONNECTION)));
+    }
+
+    @Test
+    void get_whenServerReturnsNextCursor_thenCursorPassedThrough() throws Exception {
+        CompletableFuture<ResponseEntity<Object>> future = client.get("?size={size}&cursor={cursor}", 2L, Map.of("size", 10, "cursor", ""));
+
+        respond(response(200, "[]", BaseClient.NEXT_CURSOR_HEADER, "MjAyMi0wMS0wMVQxMDowMHw1"));
+
+        ResponseEntity<Object> response = future.get();
+        assertThat(response.getHeaders().getFirst(BaseClient.NEXT_CURSOR_HEADER), equalTo("MjAyMi0wMS0wMVQxMDowMHw1"));
+    }
+
+    @Test
+    void post_whenServerRejects_thenStatusAndErrorBodyKept() throws Exception {
+        String error = "{\"error\":\"Item not found\"}";
+
+        CompletableFuture<ResponseEntity<Object>> future = client.post("", 2L, Map.of("name", "drill"));
+
+        HttpUriRequest request = respond(response(404, error));
+        assertThat(request.getMethod(), equalTo("POST"));
+        assertThat(
+                EntityUtils.toString(((HttpEntityEnclosingRequestBase) request).getEntity()),
+                equalTo("{\"name\":\"drill\"}")
+        );
+
+        ResponseEntity<Object> response = future.get();
+        assertThat(response.getStatusCode(), equalTo(HttpStatus.NOT_FOUND));
+        assertThat(new String((byte[]) response.getBody(), StandardCharsets.UTF_8), equalTo(error));
+        assertThat(response.getHeaders().getContentType(), nullValue());
+    }
+
+    @Test
+    void delete_whenServerSendsNoBody_thenEmptyResponse() throws Exception {
+        CompletableFuture<ResponseEntity<Object>> future = client.delete("/1", 2L);
+
+        respond(new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK"));
+
+        ResponseEntity<Object> response = future.get();
+        assertThat(response.getStatusCode(), equalTo(HttpStatus.OK));
+        assertThat(response.hasBody(), equalTo(false));
+    }
+
+    @Test
+    void get_whenServerUnreachable_thenFailedWithResourceAccessException() {
+        CompletableFuture<ResponseEntity<Object>> future = client.get("/1", 2L);
+
+        callback().failed(new ConnectException("Connection refused"));
+
+        ExecutionException e = assertThrows(ExecutionException.class, future::get);
+        assertThat(e.getCause(), instanceOf(ResourceAccessException.class));
+        assertThat(e.getCause().getMessage(), containsString("http://localhost:9090/items/1"));
+    }
+
+    @Test
+    void get_whenResponseFresh_thenServedWithoutServer() throws Exception {
+        CompletableFuture<ResponseEntity<Object>> first = client.get("/1", 2L);
+        respond(response(200, BODY, "Cache-Control", "private, max-age=60"));
+        first.get();
+
+        ResponseEntity<Object> response = client.get("/1", 2L).get();
+
+        verify(asyncClient, times(1)).execute(any(HttpUriRequest.class), any());
+        assertThat(new String((byte[]) response.getBody(), StandardCharsets.UTF_8), equalTo(BODY));
+        assertThat(response.getHeaders().getCacheControl(), equalTo("private, max-age=60"));
+    }
+
+    @Test
+    void get_whenResponseFreshForAnotherUser_thenAskedServer() throws Exception {
+        CompletableFuture<ResponseEntity<Object>> first = client.get("/1", 2L);
+        respond(response(200, BODY, "Cache-Control", "private, max-age=60"));
+        first.get();
+
+        client.get("/1", 3L);
+
+        verify(asyncClient, times(2)).execute(any(HttpUriRequest.class), any());
+    }
+
+    @Test
+    void get_whenResponseStaleWithEtag_thenRevalidatedAndCachedBodyServed() throws Exception {
+        CompletableFuture<ResponseEntity<Object>> first = client.get("/1", 2L);
+        respond(response(200, BODY, "Cache-Control", "no-cache", "ETag", "\"1\""));
+        first.get();
+
+        CompletableFuture<ResponseEntity<Object>> second = client.get("/1", 2L);
+        HttpUriRequest request = respond(new BasicHttpResponse(HttpVersion.HTTP_1_1, 304, "Not Modified"));
+
+        assertThat(request.getFirstHeader("If-None-Match").getValue(), equalTo("\"1\""));
+        ResponseEntity<Object> response = second.get();
+        assertThat(response.getStatusCode(), equalTo(HttpStatus.OK));
+        assertThat(new String((byte[]) response.getBody(), StandardCharsets.UTF_8), equalTo(BODY));
+        assertThat(response.getHeaders().getETag(), equalTo("\"1\""));
+    }
+
+    @Test
+    void get_whenClientEtagMatchesFreshResponse_thenNotModifiedWithoutServer() throws Exception {
+        CompletableFuture<ResponseEntity<Object>> first = client.get("/1", 2L);
+        respond(response(200, BODY, "Cache-Control", "private, max-age=60", "ETag", "W/\"1\""));
+        first.get();
+
+        clientSends("W/\"0\", W/\"1\"");
+        ResponseEntity<Object> response = client.get("/1", 2L).get();
+
+        verify(asyncClient, times(1)).execute(any(HttpUriRequest.class), any());
+        assertThat(response.getStatusCode(), equalTo(HttpStatus.NOT_MODIFIED));
+        assertThat(response.hasBody(), equalTo(false));
+        assertThat(response.getHeaders().getETag(), equalTo("W/\"1\""));
+    }
+
+    @Test
+    void get_whenNothingCached_thenClientEtagForwardedAndNotModifiedPassed() throws Exception {
+        clientSends("W/\"1\"");
+        CompletableFuture<ResponseEntity<Object>> future = client.get("/1", 2L);
+
+        HttpUriRequest request = respond(new BasicHttpResponse(HttpVersion.HTTP_1_1, 304, "Not Modified"));
+
+        assertThat(request.getFirstHeader("If-None-Match").getValue(), equalTo("W/\"1\""));
+        assertThat(future.get().getStatusCode(), equalTo(HttpStatus.NOT_MODIFIED));
+    }
+
+    @Test
+    void get_whenCachedResponseRevalidatedForClientWithOlderEtag_thenCachedBodyServed() throws Exception {
+        CompletableFuture<ResponseEntity<Object>> first = client.get("/1", 2L);
+        respond(response(200, BODY, "Cache-Control", "no-cache", "ETag", "W/\"2\""));
+        first.get();
+
+        clientSends("W/\"1\"");
+        CompletableFuture<ResponseEntity<Object>> second = client.get("/1", 2L);
+        HttpUriRequest request = respond(new BasicHttpResponse(HttpVersion.HTTP_1_1, 304, "Not Modified"));
+
+        assertThat(request.getFirstHeader("If-None-Match").getValue(), equalTo("W/\"2\""));
+        ResponseEntity<Object> response = second.get();
+        assertThat(response.getStatusCode(), equalTo(HttpStatus.OK));
+        assertThat(new String((byte[]) response.getBody(), StandardCharsets.UTF_8), equalTo(BODY));
+    }
+
+    @Test
+    void patch_whenResponseCached_thenDropped() throws Exception {
+        CompletableFuture<ResponseEntity<Object>> first = client.get("/1", 2L);
+        respond(response(200, BODY, "Cache-Control", "private, max-age=60"));
+        first.get();
+
+        CompletableFuture<ResponseEntity<Object>> update = client.patch("/1", 3L, Map.of("name", "saw"));
+        respond(response(200, BODY));
+        update.get();
+        client.get("/1", 2L);
+
+        verify(asyncClient, times(3)).execute(any(HttpUriRequest.class), any());
+    }
+
+    private static void clientSends(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/items/1");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    private HttpUriRequest respond(HttpResponse response) {
+        ArgumentCaptor<HttpUriRequest> request = ArgumentCaptor.forClass(HttpUriRequest.class);
+        verify(asyncClient, atLeastOnce()).execute(request.capture(), any());
+
+        callback().completed(response);
+
+        return request.getValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private FutureCallback<HttpResponse> callback() {
+        ArgumentCaptor<FutureCallback<HttpResponse>> callback = ArgumentCaptor.forClass(FutureCallback.class);
+        verify(asyncClient, atLeastOnce()).execute(any(HttpUriRequest.class), callback.capture());
+
+        return callback.getValue();
+    }
+
+    private static HttpResponse response(int status, String body, String... headers) {
+        BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, status, null);
+        response.setEntity(new StringEntity(body, ContentType.APPLICATION_JSON));
+        response.setHeader("Content-Type", ContentType.APPLICATION_JSON.getMimeType());
+        for (int i = 0; i < headers.length; i += 2) {
+            response.addHeader(headers[i], headers[i + 1]);
+        }
+
+        return response;
+    }
+}
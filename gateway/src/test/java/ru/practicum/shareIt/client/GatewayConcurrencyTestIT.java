@@ -0,0 +1,102 @@
+package ru.practicum.shareIt.client;
+
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+
+/**
+ * Load benchmark: a slow server behind a gateway with a handful of request threads. A gateway blocking a thread
+ * per proxied call answers at most {@link #REQUEST_THREADS} requests per {@link #SERVER_DELAY}.
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "server.tomcat.threads.max=" + GatewayConcurrencyTestIT.REQUEST_THREADS
+)
+@Slf4j
+class GatewayConcurrencyTestIT {
+    static final int REQUEST_THREADS = 4;
+
+    private static final int REQUESTS = 128;
+
+    private static final Duration SERVER_DELAY = Duration.ofMillis(500);
+
+    private static HttpServer shareitServer;
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void shareitServerUrl(DynamicPropertyRegistry registry) throws IOException {
+        shareitServer = HttpServer.create(new InetSocketAddress("localhost", 0), REQUESTS);
+        shareitServer.setExecutor(Executors.newCachedThreadPool());
+        shareitServer.createContext("/users", exchange -> {
+            try {
+                Thread.sleep(SERVER_DELAY.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{\"id\":1,\"name\":\"user\",\"email\":\"user@user.com\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        shareitServer.start();
+
+        registry.add("shareit-server.url", () -> "http://localhost:" + shareitServer.getAddress().getPort());
+    }
+
+    @AfterAll
+    static void tearDown() {
+        shareitServer.stop(0);
+    }
+
+    @Test
+    void get_whenServerSlow_thenRequestsServedBeyondRequestThreads() {
+        HttpClient client = HttpClient.newBuilder().executor(Executors.newFixedThreadPool(REQUEST_THREADS)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/users/1")).build();
+
+        long start = System.nanoTime();
+        List<CompletableFuture<Integer>> responses = IntStream.range(0, REQUESTS)
+                .mapToObj(i -> client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).thenApply(HttpResponse::statusCode))
+                .collect(Collectors.toList());
+        List<Integer> statuses = responses.stream().map(CompletableFuture::join).collect(Collectors.toList());
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        double concurrency = (double) REQUESTS * SERVER_DELAY.toMillis() / elapsed.toMillis();
+        log.info(
+                "{} requests through {} request threads in {} ms: {} req/s, {} requests in flight on average",
+                REQUESTS, REQUEST_THREADS, elapsed.toMillis(), REQUESTS * 1000L / elapsed.toMillis(), Math.round(concurrency)
+        );
+
+        assertThat(statuses, everyItem(equalTo(200)));
+        Duration blockingElapsed = SERVER_DELAY.multipliedBy(REQUESTS / REQUEST_THREADS);
+        assertThat(elapsed, lessThan(blockingElapsed.dividedBy(4)));
+    }
+}
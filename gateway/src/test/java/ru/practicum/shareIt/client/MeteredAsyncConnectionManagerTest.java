@@ -0,0 +1,112 @@
+package ru.practicum.shareIt.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.http.HttpHost;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.nio.NHttpClientConnection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MeteredAsyncConnectionManagerTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private ServerSocket server;
+
+    private HttpRoute route;
+
+    private MeteredAsyncConnectionManager connectionManager;
+
+    private CloseableHttpAsyncClient httpClient;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new ServerSocket(0, 10, InetAddress.getLoopbackAddress());
+        route = new HttpRoute(new HttpHost(server.getInetAddress(), server.getLocalPort()));
+
+        connectionManager = new MeteredAsyncConnectionManager("shareit-server-async", new DefaultConnectingIOReactor());
+        connectionManager.setMaxTotal(1);
+        connectionManager.setDefaultMaxPerRoute(1);
+        connectionManager.bindTo(registry);
+
+        httpClient = HttpAsyncClients.custom().setConnectionManager(connectionManager).build();
+        httpClient.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        httpClient.close();
+        server.close();
+    }
+
+    @Test
+    void requestConnection_whenPoolHasRoom_thenLeaseRecorded() throws Exception {
+        lease(1000);
+
+        assertThat(leaseCount("leased"), equalTo(1L));
+        assertThat(registry.get("httpcomponents.httpclient.pool.total.connections").tag("state", "leased").gauge().value(), equalTo(1.0));
+    }
+
+    @Test
+    void requestConnection_whenPoolSaturated_thenTimeoutRecorded() throws Exception {
+        NHttpClientConnection leased = lease(1000);
+
+        CompletableFuture<NHttpClientConnection> pending = requestConnection(10);
+        Thread.sleep(50);
+        connectionManager.validatePendingRequests();
+
+        assertThrows(ExecutionException.class, () -> pending.get(5, TimeUnit.SECONDS));
+        assertThat(leaseCount("timeout"), equalTo(1L));
+
+        connectionManager.releaseConnection(leased, null, 10, TimeUnit.SECONDS);
+        lease(1000);
+        assertThat(leaseCount("leased"), equalTo(2L));
+    }
+
+    private NHttpClientConnection lease(long leaseTimeoutMillis) throws Exception {
+        return requestConnection(leaseTimeoutMillis).get(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Completes from the caller's callback, which runs after the lease was recorded.
+     */
+    private CompletableFuture<NHttpClientConnection> requestConnection(long leaseTimeoutMillis) {
+        CompletableFuture<NHttpClientConnection> result = new CompletableFuture<>();
+        connectionManager.requestConnection(route, null, 1000, leaseTimeoutMillis, TimeUnit.MILLISECONDS, new FutureCallback<>() {
+            @Override
+            public void completed(NHttpClientConnection connection) {
+                result.complete(connection);
+            }
+
+            @Override
+            public void failed(Exception ex) {
+                result.completeExceptionally(ex);
+            }
+
+            @Override
+            public void cancelled() {
+                result.cancel(false);
+            }
+        });
+
+        return result;
+    }
+
+    private long leaseCount(String outcome) {
+        return registry.get("httpcomponents.httpclient.pool.lease").tag("outcome", outcome).timer().count();
+    }
+}
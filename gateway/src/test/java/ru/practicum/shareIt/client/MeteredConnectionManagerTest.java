@@ -0,0 +1,63 @@
+package ru.practicum.shareIt.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpHost;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.routing.HttpRoute;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MeteredConnectionManagerTest {
+    private static final HttpRoute ROUTE = new HttpRoute(new HttpHost("localhost", 9090));
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final MeteredConnectionManager connectionManager = new MeteredConnectionManager("shareit-server");
+
+    @BeforeEach
+    void setUp() {
+        connectionManager.setMaxTotal(1);
+        connectionManager.setDefaultMaxPerRoute(1);
+        connectionManager.bindTo(registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionManager.close();
+    }
+
+    @Test
+    void requestConnection_whenPoolHasRoom_thenLeaseRecorded() throws Exception {
+        connectionManager.requestConnection(ROUTE, null).get(1, TimeUnit.SECONDS);
+
+        assertThat(leaseCount("leased"), equalTo(1L));
+        assertThat(registry.get("httpcomponents.httpclient.pool.total.connections").tag("state", "leased").gauge().value(), equalTo(1.0));
+    }
+
+    @Test
+    void requestConnection_whenPoolSaturated_thenTimeoutRecorded() throws Exception {
+        HttpClientConnection leased = connectionManager.requestConnection(ROUTE, null).get(1, TimeUnit.SECONDS);
+
+        assertThrows(
+                ConnectionPoolTimeoutException.class,
+                () -> connectionManager.requestConnection(ROUTE, null).get(10, TimeUnit.MILLISECONDS)
+        );
+        assertThat(leaseCount("timeout"), equalTo(1L));
+
+        connectionManager.releaseConnection(leased, null, 0, TimeUnit.MILLISECONDS);
+        connectionManager.requestConnection(ROUTE, null).get(1, TimeUnit.SECONDS);
+        assertThat(leaseCount("leased"), equalTo(2L));
+    }
+
+    private long leaseCount(String outcome) {
+        return registry.get("httpcomponents.httpclient.pool.lease").tag("outcome", outcome).timer().count();
+    }
+}
@@ -0,0 +1,133 @@
+package ru.practicum.shareIt.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class ResponseCacheTest {
+    private static final URI ITEM = URI.create("http://localhost:9090/items/1");
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final ResponseCache responseCache = new ResponseCache(DataSize.ofMegabytes(1));
+
+    @BeforeEach
+    void setUp() {
+        responseCache.bindTo(registry);
+    }
+
+    @Test
+    void update_whenNoStore_thenNotKept() {
+        responseCache.update(ITEM, 1L, null, ok("no-store, max-age=60", null));
+
+        assertThat(responseCache.get(ITEM, 1L), nullValue());
+    }
+
+    @Test
+    void update_whenNeitherFreshNorEtag_thenNotKept() {
+        responseCache.update(ITEM, 1L, null, ok(null, null));
+
+        assertThat(responseCache.get(ITEM, 1L), nullValue());
+    }
+
+    @Test
+    void update_whenMaxAge_thenKeptFresh() {
+        responseCache.update(ITEM, 1L, null, ok("private, max-age=60", null));
+
+        assertThat(responseCache.get(ITEM, 1L).isFresh(), equalTo(true));
+    }
+
+    @Test
+    void update_whenNoCacheWithEtag_thenKeptForRevalidation() {
+        responseCache.update(ITEM, 1L, null, ok("no-cache, max-age=60", "\"7\""));
+
+        ResponseCache.Entry entry = responseCache.get(ITEM, 1L);
+        assertThat(entry.isFresh(), equalTo(false));
+        assertThat(entry.getEtag(), equalTo("\"7\""));
+    }
+
+    @Test
+    void update_whenRevalidatedEntryChanged_thenReplaced() {
+        responseCache.update(ITEM, 1L, null, ok("no-cache", "\"7\""));
+        ResponseEntity<byte[]> changed = ok("no-cache", "\"8\"");
+
+        ResponseEntity<byte[]> response = responseCache.update(ITEM, 1L, responseCache.get(ITEM, 1L), changed);
+
+        assertThat(response, sameInstance(changed));
+        assertThat(responseCache.get(ITEM, 1L).getEtag(), equalTo("\"8\""));
+    }
+
+    @Test
+    void invalidate_whenSubresourceChanged_thenResourceDroppedForEveryUser() {
+        URI other = URI.create("http://localhost:9090/items/11");
+        responseCache.update(ITEM, 1L, null, ok("max-age=60", null));
+        responseCache.update(ITEM, 2L, null, ok("max-age=60", null));
+        responseCache.update(other, 1L, null, ok("max-age=60", null));
+
+        responseCache.invalidate(URI.create("http://localhost:9090/items/1/comment"));
+
+        assertThat(responseCache.get(ITEM, 1L), nullValue());
+        assertThat(responseCache.get(ITEM, 2L), nullValue());
+        assertThat(responseCache.get(other, 1L), notNullValue());
+    }
+
+    @Test
+    void invalidate_whenResourceChanged_thenListsItBelongsToDropped() {
+        URI search = URI.create("http://localhost:9090/items/search?text=drill");
+        URI list = URI.create("http://localhost:9090/items?from=0&size=10");
+        responseCache.update(search, 1L, null, ok("max-age=60", null));
+        responseCache.update(list, 1L, null, ok("max-age=60", null));
+
+        responseCache.invalidate(ITEM);
+
+        assertThat(responseCache.get(list, 1L), nullValue());
+        assertThat(responseCache.get(search, 1L), notNullValue());
+        assertThat(responseCache.indexedKeys(), equalTo(1));
+    }
+
+    @Test
+    void update_whenEntriesEvicted_thenIndexShrinks() {
+        ResponseCache small = new ResponseCache(DataSize.ofBytes(200));
+
+        for (long userId = 1; userId <= 50; userId++) {
+            small.update(ITEM, userId, null, ok("max-age=60", null));
+        }
+
+        assertThat(small.indexedKeys(), lessThan(50));
+        assertThat(small.indexedKeys(), greaterThan(0));
+    }
+
+    @Test
+    void bindTo_whenServedAndRevalidated_thenHitRatioCounted() {
+        responseCache.update(ITEM, 1L, null, ok("max-age=60", "\"7\""));
+        responseCache.serve(responseCache.get(ITEM, 1L));
+        responseCache.update(ITEM, 1L, responseCache.get(ITEM, 1L), ResponseEntity.status(HttpStatus.NOT_MODIFIED).build());
+        responseCache.update(ITEM, 2L, null, ok("max-age=60", null));
+
+        assertThat(registry.get("shareit.gateway.response.cache.requests").tag("outcome", "fresh").functionCounter().count(), equalTo(1.0));
+        assertThat(registry.get("shareit.gateway.response.cache.requests").tag("outcome", "not_modified").functionCounter().count(), equalTo(1.0));
+        assertThat(registry.get("shareit.gateway.response.cache.requests").tag("outcome", "miss").functionCounter().count(), equalTo(2.0));
+        assertThat(registry.get("shareit.gateway.response.cache.hit.ratio").gauge().value(), equalTo(0.5));
+    }
+
+    private static ResponseEntity<byte[]> ok(String cacheControl, String etag) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (cacheControl != null) {
+            response.header("Cache-Control", cacheControl);
+        }
+        if (etag != null) {
+            response.eTag(etag);
+        }
+
+        return response.body("{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+    }
+}
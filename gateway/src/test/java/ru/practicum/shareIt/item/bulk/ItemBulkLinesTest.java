@@ -0,0 +1,125 @@
+package ru.practicum.shareIt.item.bulk;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class ItemBulkLinesTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ItemBulkLines bulkLines;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        bulkLines = new ItemBulkLines(objectMapper, Validation.buildDefaultValidatorFactory().getValidator());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        bulkLines.close();
+    }
+
+    @Test
+    void forward_whenLinesInvalid_thenOnlyValidLinesForwarded() throws IOException {
+        String forwarded = forward(
+                "{\"name\": \"drill\", \"description\": \"cordless\", \"available\": true}\n"
+                        + "\n"
+                        + "{\"name\": \" \", \"description\": \"blank name\", \"available\": true}\n"
+                        + "{\"name\": \"saw\", \n"
+                        + "[1, 2]\n"
+                        + "{\"name\": \"saw\", \"description\": \"hand\", \"available\": false, \"requestId\": 3}\n"
+        );
+
+        assertThat(forwarded.split("\n"), arrayContaining(
+                "{\"name\": \"drill\", \"description\": \"cordless\", \"available\": true}",
+                "{\"name\": \"saw\", \"description\": \"hand\", \"available\": false, \"requestId\": 3}"
+        ));
+        assertThat(bulkLines.getLines(), equalTo(5));
+        assertThat(bulkLines.getRejected(), equalTo(3));
+    }
+
+    @Test
+    void merge_whenLinesRejected_thenServerResultsRenumberedToClientLines() throws IOException {
+        forward(
+                "{\"name\": \"\", \"description\": \"blank name\", \"available\": true}\n"
+                        + "{\"name\": \"drill\", \"description\": \"cordless\", \"available\": true}\n"
+                        + "{\"name\": \"saw\", \"description\": \"hand\"}\n"
+                        + "{\"name\": \"saw\", \"description\": \"hand\", \"available\": false}\n"
+        );
+
+        List<JsonNode> results = merge("{\"line\":1,\"id\":10}\n{\"line\":2,\"id\":11}\n");
+
+        assertThat(results, hasSize(4));
+        assertThat(results.get(0).get("line").asInt(), equalTo(1));
+        assertThat(results.get(0).get("error").asText(), containsString("name"));
+        assertThat(results.get(1).get("line").asInt(), equalTo(2));
+        assertThat(results.get(1).get("id").asLong(), equalTo(10L));
+        assertThat(results.get(2).get("error").asText(), containsString("available"));
+        assertThat(results.get(3).get("line").asInt(), equalTo(4));
+        assertThat(results.get(3).get("id").asLong(), equalTo(11L));
+    }
+
+    @Test
+    void merge_whenRejectedLinesAtBothEnds_thenRejectionsReadBackInLineOrder() throws IOException {
+        StringBuilder ndjson = new StringBuilder("[1]\n");
+        for (int i = 0; i < 3; i++) {
+            ndjson.append("{\"name\": \"drill\", \"description\": \"cordless\", \"available\": true}\n");
+        }
+        ndjson.append("[2]\n[3]\n");
+        forward(ndjson.toString());
+
+        List<JsonNode> results = merge("{\"line\":1,\"id\":10}\n{\"line\":2,\"id\":11}\n{\"line\":3,\"id\":12}\n");
+
+        assertThat(results, hasSize(6));
+        for (int i = 0; i < results.size(); i++) {
+            assertThat(results.get(i).get("line").asInt(), equalTo(i + 1));
+        }
+        assertThat(results.get(0).has("error"), equalTo(true));
+        assertThat(results.get(3).get("id").asLong(), equalTo(12L));
+        assertThat(results.get(4).has("error"), equalTo(true));
+        assertThat(results.get(5).has("error"), equalTo(true));
+    }
+
+    @Test
+    void merge_whenServerResultsMissing_thenLinesReportedFailed() throws IOException {
+        forward("{\"name\": \"drill\", \"description\": \"cordless\", \"available\": true}\n");
+
+        List<JsonNode> results = merge("");
+
+        assertThat(results, hasSize(1));
+        assertThat(results.get(0).get("line").asInt(), equalTo(1));
+        assertThat(results.get(0).has("error"), equalTo(true));
+    }
+
+    private String forward(String ndjson) throws IOException {
+        ByteArrayOutputStream server = new ByteArrayOutputStream();
+        bulkLines.forward(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), server);
+
+        return server.toString(StandardCharsets.UTF_8);
+    }
+
+    private List<JsonNode> merge(String serverResults) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bulkLines.merge(new ByteArrayInputStream(serverResults.getBytes(StandardCharsets.UTF_8)), out);
+
+        List<JsonNode> results = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            results.add(objectMapper.readTree(line));
+        }
+
+        return results;
+    }
+}
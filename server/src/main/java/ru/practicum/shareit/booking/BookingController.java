@@ -1,13 +1,21 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.booking.dto.CreateBookingDto;
 import ru.practicum.shareit.booking.dto.ResponseBookingDto;
 import ru.practicum.shareit.booking.dto.SearchBookingStatus;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.extension.CustomPageableParameters;
+import ru.practicum.shareit.extension.PageCursor;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -15,8 +23,11 @@ import java.util.List;
 public class BookingController {
     private final BookingService bookingService;
 
-    public BookingController(BookingService bookingService) {
+    private final ObjectMapper objectMapper;
+
+    public BookingController(BookingService bookingService, ObjectMapper objectMapper) {
         this.bookingService = bookingService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
@@ -36,10 +47,23 @@ public class BookingController {
         return this.bookingService.updateStatus(bookingId, newStatus);
     }
 
+    /**
+     * Access is checked before the tag, so that a missing or inaccessible booking is never answered with
+     * 304 Not Modified, and the booking is only read and mapped when the tag does not match. The tag is taken first,
+     * as it must not be newer than what is read.
+     */
     @GetMapping("/{bookingId}")
     public ResponseBookingDto get(
-            @PathVariable Long bookingId
+            @PathVariable Long bookingId,
+            WebRequest webRequest
     ) {
+        String etag = this.bookingService.getEtag();
+        this.bookingService.checkAccessible(bookingId);
+
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
         return this.bookingService.findOne(bookingId);
     }
 
@@ -47,23 +71,84 @@ public class BookingController {
     public List<ResponseBookingDto> getAllByStatus(
             @RequestParam(defaultValue = SearchBookingStatus.DEFAULT, required = false) SearchBookingStatus state,
             @RequestParam(required = false, defaultValue = "0") Long from,
-            @RequestParam(required = false, defaultValue = "10") Integer size
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "10") Integer size,
+            WebRequest webRequest,
+            HttpServletResponse response
     ) {
-        return this.bookingService.findAllBookedByCurrentUserByStatusOrderByDateDesc(
+        if (this.bookingService.getEtag(state).map(webRequest::checkNotModified).orElse(false)) {
+            return null;
+        }
+
+        CustomPageableParameters pageableParameters = CustomPageableParameters.of(from, cursor, size);
+        List<ResponseBookingDto> bookings = this.bookingService.findAllBookedByCurrentUserByStatusOrderByDateDesc(
                 state,
-                CustomPageableParameters.of(from, size)
+                pageableParameters
         );
+
+        pageableParameters
+                .nextCursor(bookings, booking -> PageCursor.of(booking.getStart(), booking.getId()))
+                .ifPresent(nextCursor -> response.setHeader(PageCursor.NEXT_CURSOR_HEADER, nextCursor));
+
+        return bookings;
     }
 
     @GetMapping("/owner")
     public List<ResponseBookingDto> getAllForCurrentUserByStatus(
             @RequestParam(defaultValue = SearchBookingStatus.DEFAULT, required = false) SearchBookingStatus state,
             @RequestParam(required = false, defaultValue = "0") Long from,
-            @RequestParam(required = false, defaultValue = "10") Integer size
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "10") Integer size,
+            WebRequest webRequest,
+            HttpServletResponse response
     ) {
-        return this.bookingService.findAllForCurrentUserItemsByStatusOrderByDateDesc(
+        if (this.bookingService.getEtag(state).map(webRequest::checkNotModified).orElse(false)) {
+            return null;
+        }
+
+        CustomPageableParameters pageableParameters = CustomPageableParameters.of(from, cursor, size);
+        List<ResponseBookingDto> bookings = this.bookingService.findAllForCurrentUserItemsByStatusOrderByDateDesc(
                 state,
-                CustomPageableParameters.of(from, size)
+                pageableParameters
         );
+
+        pageableParameters
+                .nextCursor(bookings, booking -> PageCursor.of(booking.getStart(), booking.getId()))
+                .ifPresent(nextCursor -> response.setHeader(PageCursor.NEXT_CURSOR_HEADER, nextCursor));
+
+        return bookings;
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportAllByStatus(
+            @RequestParam(defaultValue = SearchBookingStatus.DEFAULT, required = false) SearchBookingStatus state,
+            HttpServletResponse response
+    ) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        OutputStream out = response.getOutputStream();
+
+        this.bookingService.exportAllBookedByCurrentUserByStatus(state, booking -> writeLine(out, booking));
+        out.flush();
+    }
+
+    @GetMapping(value = "/owner/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportAllForCurrentUserByStatus(
+            @RequestParam(defaultValue = SearchBookingStatus.DEFAULT, required = false) SearchBookingStatus state,
+            HttpServletResponse response
+    ) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        OutputStream out = response.getOutputStream();
+
+        this.bookingService.exportAllForCurrentUserItemsByStatus(state, booking -> writeLine(out, booking));
+        out.flush();
+    }
+
+    private void writeLine(OutputStream out, ResponseBookingDto booking) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(booking));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.booking.exception;
+
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+
+public class BookingOverlaps extends RuntimeException {
+    public BookingOverlaps(Item item, LocalDateTime start, LocalDateTime finish) {
+        super(String.format("Item with id `%d` is already booked between %s and %s.", item.getId(), start, finish));
+    }
+}
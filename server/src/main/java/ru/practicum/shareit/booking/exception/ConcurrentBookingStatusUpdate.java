@@ -0,0 +1,9 @@
+package ru.practicum.shareit.booking.exception;
+
+import ru.practicum.shareit.booking.model.Booking;
+
+public class ConcurrentBookingStatusUpdate extends RuntimeException {
+    public ConcurrentBookingStatusUpdate(Booking booking) {
+        super(String.format("Status of booking with id `%d` was changed by another request.", booking.getId()));
+    }
+}
@@ -0,0 +1,126 @@
+package ru.practicum.shareit.booking.interval;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.extension.TransactionCallbacks;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Not declined bookings per item, loaded from {@link BookingRepository} the first time an item is checked and
+ * evicted by size. Writers lock the item with {@link #lockItem} and keep the lock until their transaction completes;
+ * the index itself is updated after commit, so the next writer of the item sees both the committed row and
+ * the updated intervals.
+ * <p>
+ * Items share {@code shareit.booking.interval-index.stripes} locks. The locks are local to the JVM, so the index
+ * only serializes writers of a single server instance.
+ */
+@Component
+public class BookingIntervalIndex implements MeterBinder {
+    private final BookingRepository bookingRepository;
+
+    private final Cache<Long, ItemBookingIntervals> cache;
+
+    private final ReentrantLock[] stripes;
+
+    public BookingIntervalIndex(
+            BookingRepository bookingRepository,
+            @Value("${shareit.booking.interval-index.max-items:10000}") long maxItems,
+            @Value("${shareit.booking.interval-index.stripes:64}") int stripes
+    ) {
+        Assert.isTrue(Integer.bitCount(stripes) == 1, "Stripe count must be a power of two");
+
+        this.bookingRepository = bookingRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxItems)
+                .recordStats()
+                .build();
+        this.stripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Blocks until no other transaction writes bookings of the item; the lock is released when the current
+     * transaction completes.
+     */
+    public void lockItem(Long itemId) {
+        Assert.state(TransactionSynchronizationManager.isSynchronizationActive(), "Item lock requires a transaction");
+
+        ReentrantLock lock = stripeOf(itemId);
+        lock.lock();
+        TransactionCallbacks.afterCompletion(lock::unlock);
+    }
+
+    /**
+     * Whether an approved booking of the item shares time with {@code (start, finish)}. Requires the item lock.
+     */
+    public boolean overlapsApproved(Long itemId, LocalDateTime start, LocalDateTime finish) {
+        Assert.state(stripeOf(itemId).isHeldByCurrentThread(), "Item is not locked");
+
+        return cache.get(itemId, this::load).overlaps(BookingStatus.APPROVED, start, finish);
+    }
+
+    /**
+     * Whether an approved booking of the item other than the given one shares time with its interval. The booking
+     * is left out explicitly: when the index is loaded after its status was changed in the current transaction,
+     * the loader may already see it as approved. Requires the item lock.
+     */
+    public boolean overlapsApproved(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        Assert.state(stripeOf(itemId).isHeldByCurrentThread(), "Item is not locked");
+
+        return cache.get(itemId, this::load)
+                .overlapsExcept(BookingStatus.APPROVED, booking.getStart(), booking.getFinish(), booking.getId());
+    }
+
+    /**
+     * Stores the booking's current status and interval once the transaction commits.
+     */
+    public void update(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        long bookingId = booking.getId();
+        BookingStatus status = booking.getStatus();
+        LocalDateTime start = booking.getStart();
+        LocalDateTime finish = booking.getFinish();
+
+        TransactionCallbacks.afterCommit(() -> {
+            ItemBookingIntervals intervals = cache.getIfPresent(itemId);
+
+            if (intervals != null) {
+                intervals.put(bookingId, status, start, finish);
+            }
+        });
+    }
+
+    private ItemBookingIntervals load(Long itemId) {
+        ItemBookingIntervals intervals = new ItemBookingIntervals();
+
+        bookingRepository
+                .findAllByItem_IdAndStatusIn(itemId, BookingStatus.NOT_DECLINED)
+                .forEach(booking -> intervals.put(booking.getId(), booking.getStatus(), booking.getStart(), booking.getFinish()));
+
+        return intervals;
+    }
+
+    private ReentrantLock stripeOf(Long itemId) {
+        return stripes[Long.hashCode(itemId) & (stripes.length - 1)];
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "booking-intervals");
+    }
+}
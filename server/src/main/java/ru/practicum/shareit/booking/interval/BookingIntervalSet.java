@@ -0,0 +1,113 @@
+package ru.practicum.shareit.booking.interval;
+
+import java.util.Arrays;
+
+/**
+ * Booking intervals of one item kept in arrays sorted by start. {@code maxFinish[i]} is the latest finish among
+ * the first {@code i + 1} intervals, so an overlap query is a single binary search even when stored intervals
+ * overlap each other. Adding or removing an interval shifts the arrays, which is cheap at the number of bookings
+ * a single item has.
+ * <p>
+ * Not thread-safe, {@link BookingIntervalIndex} only touches it under the item's lock.
+ */
+public class BookingIntervalSet {
+    private static final int INITIAL_CAPACITY = 4;
+
+    private long[] starts = new long[INITIAL_CAPACITY];
+
+    private long[] finishes = new long[INITIAL_CAPACITY];
+
+    private long[] maxFinish = new long[INITIAL_CAPACITY];
+
+    private long[] bookingIds = new long[INITIAL_CAPACITY];
+
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    public void add(long bookingId, long start, long finish) {
+        if (size == starts.length) {
+            int capacity = size * 2;
+            starts = Arrays.copyOf(starts, capacity);
+            finishes = Arrays.copyOf(finishes, capacity);
+            maxFinish = Arrays.copyOf(maxFinish, capacity);
+            bookingIds = Arrays.copyOf(bookingIds, capacity);
+        }
+
+        int position = countStartingBefore(start);
+        shift(position, position + 1, size - position);
+        starts[position] = start;
+        finishes[position] = finish;
+        bookingIds[position] = bookingId;
+        size++;
+
+        updateMaxFinish(position);
+    }
+
+    public boolean remove(long bookingId) {
+        for (int i = 0; i < size; i++) {
+            if (bookingIds[i] == bookingId) {
+                shift(i + 1, i, size - i - 1);
+                size--;
+                updateMaxFinish(i);
+
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Whether any interval shares time with {@code (start, finish)}; intervals that only touch it do not count.
+     */
+    public boolean overlaps(long start, long finish) {
+        int last = countStartingBefore(finish) - 1;
+
+        return last >= 0 && maxFinish[last] > start;
+    }
+
+    /**
+     * Like {@link #overlaps(long, long)}, not counting the interval of the given booking. Once the binary search
+     * finds an overlap, the candidates are walked back only until {@code maxFinish} shows none are left.
+     */
+    public boolean overlapsExcept(long start, long finish, long excludedBookingId) {
+        for (int i = countStartingBefore(finish) - 1; i >= 0 && maxFinish[i] > start; i--) {
+            if (finishes[i] > start && bookingIds[i] != excludedBookingId) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private int countStartingBefore(long position) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+
+            if (starts[middle] < position) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    private void shift(int from, int to, int length) {
+        System.arraycopy(starts, from, starts, to, length);
+        System.arraycopy(finishes, from, finishes, to, length);
+        System.arraycopy(bookingIds, from, bookingIds, to, length);
+    }
+
+    private void updateMaxFinish(int from) {
+        for (int i = from; i < size; i++) {
+            maxFinish[i] = i == 0 ? finishes[i] : Math.max(maxFinish[i - 1], finishes[i]);
+        }
+    }
+}
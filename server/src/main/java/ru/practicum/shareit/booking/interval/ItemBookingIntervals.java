@@ -0,0 +1,65 @@
+package ru.practicum.shareit.booking.interval;
+
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Not declined bookings of one item, one {@link BookingIntervalSet} per status.
+ * Times are kept as microseconds rounded the way the database rounds timestamps, so a booking checked before
+ * it is saved matches the one loaded back.
+ */
+public class ItemBookingIntervals {
+    private final Map<BookingStatus, BookingIntervalSet> byStatus = new EnumMap<>(BookingStatus.class);
+
+    public ItemBookingIntervals() {
+        BookingStatus.NOT_DECLINED.forEach(status -> byStatus.put(status, new BookingIntervalSet()));
+    }
+
+    /**
+     * Stores the booking under its status, moving it if it was stored under another one.
+     * Bookings with a declined status are only removed.
+     */
+    public void put(long bookingId, BookingStatus status, LocalDateTime start, LocalDateTime finish) {
+        remove(bookingId);
+
+        BookingIntervalSet intervals = byStatus.get(status);
+        if (intervals != null) {
+            intervals.add(bookingId, toMicros(start), toMicros(finish));
+        }
+    }
+
+    public void remove(long bookingId) {
+        for (BookingIntervalSet intervals : byStatus.values()) {
+            if (intervals.remove(bookingId)) {
+                return;
+            }
+        }
+    }
+
+    public boolean overlaps(BookingStatus status, LocalDateTime start, LocalDateTime finish) {
+        BookingIntervalSet intervals = byStatus.get(status);
+
+        return intervals != null && intervals.overlaps(toMicros(start), toMicros(finish));
+    }
+
+    /**
+     * Like {@link #overlaps}, not counting the given booking itself.
+     */
+    public boolean overlapsExcept(BookingStatus status, LocalDateTime start, LocalDateTime finish, long bookingId) {
+        BookingIntervalSet intervals = byStatus.get(status);
+
+        return intervals != null && intervals.overlapsExcept(toMicros(start), toMicros(finish), bookingId);
+    }
+
+    public int size() {
+        return byStatus.values().stream().mapToInt(BookingIntervalSet::size).sum();
+    }
+
+    private static long toMicros(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + (dateTime.getNano() + 500) / 1_000;
+    }
+}
@@ -1,6 +1,5 @@
 package ru.practicum.shareit.booking.model;
 
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -13,11 +12,11 @@ import java.time.LocalDateTime;
 @Entity
 @Getter
 @Setter
-@AllArgsConstructor
 @NoArgsConstructor
 public class Booking {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_seq")
+    @SequenceGenerator(name = "booking_seq", sequenceName = "booking_seq", allocationSize = 50)
     private Long id;
 
     private LocalDateTime start;
@@ -33,4 +32,16 @@ public class Booking {
     private User booker;
 
     private BookingStatus status;
+
+    @Version
+    private Long version;
+
+    public Booking(Long id, LocalDateTime start, LocalDateTime finish, Item item, User booker, BookingStatus status) {
+        this.id = id;
+        this.start = start;
+        this.finish = finish;
+        this.item = item;
+        this.booker = booker;
+        this.status = status;
+    }
 }
@@ -1,5 +1,14 @@
 package ru.practicum.shareit.booking.model;
 
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum BookingStatus {
-    WAITING, APPROVED, REJECTED, CANCELED
+    WAITING, APPROVED, REJECTED, CANCELED;
+
+    /**
+     * Statuses of bookings that still hold the item.
+     */
+    public static final Set<BookingStatus> NOT_DECLINED = Collections.unmodifiableSet(EnumSet.of(WAITING, APPROVED));
 }
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.extension.PageCursor;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface BookingKeysetRepository {
+    /**
+     * Up to {@code limit} bookings matching the specification ordered by {@code (start desc, id desc)}, starting
+     * right after the cursor. Seeks with {@code start < ? or (start = ? and id < ?)} instead of an offset,
+     * so every page costs the same regardless of depth.
+     *
+     * @param cursor last booking of the previous page, {@code null} for the first page
+     */
+    List<Booking> findAllOrderByStartDescAfter(Specification<Booking> specification, PageCursor cursor, int limit);
+
+    /**
+     * Every booking matching the specification ordered by {@code (start desc, id desc)}, handed to the consumer in
+     * windows of up to {@code windowSize}. Rows are read from a forward-only cursor fetching {@code windowSize} rows
+     * at a time, with item, owner and booker joined in. The persistence context is cleared after each window, so
+     * memory does not grow with the number of rows; lazy associations touched while a window is consumed are
+     * batch-loaded for the whole window.
+     */
+    void forEachWindowOrderByStartDesc(Specification<Booking> specification, int windowSize, Consumer<List<Booking>> consumer);
+}
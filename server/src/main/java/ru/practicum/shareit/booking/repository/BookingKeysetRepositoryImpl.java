@@ -0,0 +1,92 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.hibernate.jpa.QueryHints;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.extension.PageCursor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+public class BookingKeysetRepositoryImpl implements BookingKeysetRepository {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Booking> findAllOrderByStartDescAfter(Specification<Booking> specification, PageCursor cursor, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Booking> query = cb.createQuery(Booking.class);
+        Root<Booking> root = query.from(Booking.class);
+
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (cursor != null) {
+            predicate = cb.and(predicate, cb.or(
+                    cb.lessThan(root.get("start"), cursor.getPosition()),
+                    cb.and(
+                            cb.equal(root.get("start"), cursor.getPosition()),
+                            cb.lessThan(root.get("id"), cursor.getId())
+                    )
+            ));
+        }
+
+        query
+                .select(root)
+                .where(predicate)
+                .orderBy(cb.desc(root.get("start")), cb.desc(root.get("id")));
+
+        return entityManager
+                .createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachWindowOrderByStartDesc(Specification<Booking> specification, int windowSize, Consumer<List<Booking>> consumer) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Booking> query = cb.createQuery(Booking.class);
+        Root<Booking> root = query.from(Booking.class);
+        root.fetch("item").fetch("owner");
+        root.fetch("booker");
+
+        query
+                .select(root)
+                .where(specification.toPredicate(root, query, cb))
+                .orderBy(cb.desc(root.get("start")), cb.desc(root.get("id")));
+
+        try (Stream<Booking> rows = entityManager
+                .createQuery(query)
+                .setHint(QueryHints.HINT_FETCH_SIZE, windowSize)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultStream()) {
+            Iterator<Booking> iterator = rows.iterator();
+            List<Booking> window = new ArrayList<>(windowSize);
+
+            // a window is consumed before asking for the next row: hasNext already reads it into the context
+            while (iterator.hasNext()) {
+                window.add(iterator.next());
+
+                if (window.size() == windowSize) {
+                    consumer.accept(window);
+                    window.clear();
+                    entityManager.clear();
+                }
+            }
+            if (!window.isEmpty()) {
+                consumer.accept(window);
+                entityManager.clear();
+            }
+        }
+    }
+}
@@ -1,46 +1,122 @@
 package ru.practicum.shareit.booking.repository;
 
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingKeysetRepository {
+
+    /**
+     * Loads the booking with its item, item owner and booker. Changes to the returned booking are not flushed,
+     * status transitions go through {@link #updateStatusIfCurrent}.
+     */
+    @EntityGraph(attributePaths = {"item", "item.owner", "booker"})
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true"))
+    @Query("select b from Booking b where b.id = ?1")
+    Optional<Booking> findReadOnlyById(Long bookingId);
+
+    /**
+     * Moves the booking to {@code newStatus} only if it still has {@code currentStatus}.
+     *
+     * @return 1 if the status was changed, 0 if another transaction changed it first
+     */
+    @Modifying
+    @Query("update Booking b set b.status = ?3, b.version = b.version + 1 where b.id = ?1 and b.status = ?2")
+    int updateStatusIfCurrent(Long bookingId, BookingStatus currentStatus, BookingStatus newStatus);
 
     Boolean existsBookingByBookerAndItemAndFinishIsBeforeAndStatus(User booker, Item item, LocalDateTime beforeFinish, BookingStatus status);
 
     // by booker
+    // the finders below filter on the foreign key columns: derived "Booker_Id" style queries join the referenced
+    // table and filter on its id, which keeps the database from using the booking indexes
+    @Query("select b from Booking b where b.booker.id = ?1 and b.status = ?2")
     List<Booking> findAllByBooker_IdAndStatus(Long bookerId, BookingStatus status, Pageable pageable);
 
+    @Query("select b from Booking b where b.booker.id = ?1")
     List<Booking> findAllByBooker_Id(Long bookerId, Pageable pageable);
 
+    @Query("select b from Booking b where b.booker.id = ?1 and b.finish < ?2")
     List<Booking> findByBooker_IdAndFinishIsBefore(Long bookerId, LocalDateTime beforeFinish, Pageable pageable);
 
+    @Query("select b from Booking b where b.booker.id = ?1 and b.start < ?2 and b.finish > ?3")
     List<Booking> findByBooker_IdAndStartIsBeforeAndFinishIsAfter(Long bookerId, LocalDateTime afterStart, LocalDateTime beforeFinish, Pageable pageable);
 
+    @Query("select b from Booking b where b.booker.id = ?1 and b.start > ?2")
     List<Booking> findByBooker_IdAndStartIsAfter(Long bookerId, LocalDateTime afterStart, Pageable pageable);
 
-    // by items
-    List<Booking> findAllByItemInAndStatus(Collection<Item> items, BookingStatus status, Pageable pageable);
+    // by item owner
+    @Query("select b from Booking b join b.item i where i.owner.id = ?1 and b.status = ?2")
+    List<Booking> findAllByItem_Owner_IdAndStatus(Long ownerId, BookingStatus status, Pageable pageable);
 
-    List<Booking> findAllByItemIn(Collection<Item> items, Pageable pageable);
+    @Query("select b from Booking b join b.item i where i.owner.id = ?1")
+    List<Booking> findAllByItem_Owner_Id(Long ownerId, Pageable pageable);
 
-    List<Booking> findByItemInAndFinishIsBefore(Collection<Item> items, LocalDateTime beforeFinish, Pageable pageable);
+    @Query("select b from Booking b join b.item i where i.owner.id = ?1 and b.finish < ?2")
+    List<Booking> findByItem_Owner_IdAndFinishIsBefore(Long ownerId, LocalDateTime beforeFinish, Pageable pageable);
 
-    List<Booking> findByItemInAndStartIsBeforeAndFinishIsAfter(Collection<Item> items, LocalDateTime afterStart, LocalDateTime beforeFinish, Pageable pageable);
+    @Query("select b from Booking b join b.item i where i.owner.id = ?1 and b.start < ?2 and b.finish > ?3")
+    List<Booking> findByItem_Owner_IdAndStartIsBeforeAndFinishIsAfter(Long ownerId, LocalDateTime afterStart, LocalDateTime beforeFinish, Pageable pageable);
 
-    List<Booking> findByItemInAndStartIsAfter(Collection<Item> items, LocalDateTime afterStart, Pageable pageable);
+    @Query("select b from Booking b join b.item i where i.owner.id = ?1 and b.start > ?2")
+    List<Booking> findByItem_Owner_IdAndStartIsAfter(Long ownerId, LocalDateTime afterStart, Pageable pageable);
 
     // by single item
+    @Query("select b from Booking b where b.item.id = ?1 and b.status in ?2")
+    List<Booking> findAllByItem_IdAndStatusIn(Long itemId, Collection<BookingStatus> statuses);
 
-    Optional<Booking> findFirstByItemAndFinishIsAfter(Item item, LocalDateTime afterFinish);
+    @Query("select b from Booking b where b.item.id = ?1 and b.finish < ?2 order by b.finish desc, b.id desc")
+    List<Booking> findAllByItem_IdAndFinishIsBefore(Long itemId, LocalDateTime beforeFinish, Pageable pageable);
 
-    Optional<Booking> findLastByItemAndStartIsBefore(Item item, LocalDateTime beforeStart);
+    @Query("select b from Booking b where b.item.id = ?1 and b.start > ?2 order by b.start, b.id")
+    List<Booking> findAllByItem_IdAndStartIsAfter(Long itemId, LocalDateTime afterStart, Pageable pageable);
+
+    @Query("select distinct b.booker.id from Booking b where b.item.id = ?1")
+    List<Long> findAllBookerIdsByItem_Id(Long itemId);
+
+    @Query("select b from Booking b where b.item.id = ?1 and b.finish > ?2 order by b.finish")
+    List<Booking> findAllByItem_IdAndFinishIsAfter(Long itemId, LocalDateTime afterFinish, Pageable pageable);
+
+    @Query("select b from Booking b where b.item.id = ?1 and b.start < ?2 order by b.start desc, b.id desc")
+    List<Booking> findAllByItem_IdAndStartIsBefore(Long itemId, LocalDateTime beforeStart, Pageable pageable);
+
+    @Query("select b from Booking b where b.item.id = ?1 and b.finish > ?2 order by b.start, b.id")
+    List<Booking> findAllByItem_IdAndFinishIsAfterOrderByStart(Long itemId, LocalDateTime afterFinish, Pageable pageable);
+
+    // by many items
+    @Query("select distinct b.item.id from Booking b where b.item.id in ?1 and b.status = ?2 and b.start < ?4 and b.finish > ?3")
+    List<Long> findItemIdsWithBookingBetween(Collection<Long> itemIds, BookingStatus status, LocalDateTime start, LocalDateTime end);
+
+    default Optional<Booking> findFirstByItem_IdAndFinishIsBeforeOrderByFinishDescIdDesc(Long itemId, LocalDateTime beforeFinish) {
+        return findAllByItem_IdAndFinishIsBefore(itemId, beforeFinish, PageRequest.ofSize(1)).stream().findFirst();
+    }
+
+    default Optional<Booking> findFirstByItem_IdAndStartIsAfterOrderByStartAscIdAsc(Long itemId, LocalDateTime afterStart) {
+        return findAllByItem_IdAndStartIsAfter(itemId, afterStart, PageRequest.ofSize(1)).stream().findFirst();
+    }
+
+    default Optional<Booking> findFirstByItem_IdAndFinishIsAfterOrderByFinishAsc(Long itemId, LocalDateTime afterFinish) {
+        return findAllByItem_IdAndFinishIsAfter(itemId, afterFinish, PageRequest.ofSize(1)).stream().findFirst();
+    }
+
+    default Optional<Booking> findFirstByItem_IdAndStartIsBeforeOrderByStartDescIdDesc(Long itemId, LocalDateTime beforeStart) {
+        return findAllByItem_IdAndStartIsBefore(itemId, beforeStart, PageRequest.ofSize(1)).stream().findFirst();
+    }
+
+    default Optional<Booking> findFirstByItem_IdAndFinishIsAfterOrderByStartAscIdAsc(Long itemId, LocalDateTime afterFinish) {
+        return findAllByItem_IdAndFinishIsAfterOrderByStart(itemId, afterFinish, PageRequest.ofSize(1)).stream().findFirst();
+    }
 }
@@ -0,0 +1,44 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.shareit.booking.dto.SearchBookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.LocalDateTime;
+
+public final class BookingSpecifications {
+    private BookingSpecifications() {
+    }
+
+    public static Specification<Booking> bookedBy(Long bookerId) {
+        return (root, query, cb) -> cb.equal(root.get("booker").get("id"), bookerId);
+    }
+
+    public static Specification<Booking> ofItemsOwnedBy(Long ownerId) {
+        return (root, query, cb) -> cb.equal(root.get("item").get("owner").get("id"), ownerId);
+    }
+
+    /**
+     * Same filters as the derived queries used for offset pages, see {@link BookingRepository}.
+     */
+    public static Specification<Booking> inState(SearchBookingStatus state, LocalDateTime now) {
+        switch (state) {
+            case CURRENT:
+                return (root, query, cb) -> cb.and(
+                        cb.lessThan(root.get("start"), now),
+                        cb.greaterThan(root.get("finish"), now)
+                );
+            case PAST:
+                return (root, query, cb) -> cb.lessThan(root.get("finish"), now);
+            case FUTURE:
+                return (root, query, cb) -> cb.greaterThan(root.get("start"), now);
+            case WAITING:
+                return (root, query, cb) -> cb.equal(root.get("status"), BookingStatus.WAITING);
+            case REJECTED:
+                return (root, query, cb) -> cb.equal(root.get("status"), BookingStatus.REJECTED);
+            default:
+                return (root, query, cb) -> cb.conjunction();
+        }
+    }
+}
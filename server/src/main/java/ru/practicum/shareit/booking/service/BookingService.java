@@ -7,12 +7,31 @@ import ru.practicum.shareit.booking.dto.SearchBookingStatus;
 import ru.practicum.shareit.extension.CustomPageableParameters;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface BookingService {
     ResponseBookingDto create(CreateBookingDto createBookingDto);
 
     ResponseBookingDto findOne(Long bookingId);
 
+    /**
+     * Throws as {@link #findOne} does when the booking is missing or the current user may not read it,
+     * without mapping the booking.
+     */
+    void checkAccessible(Long bookingId);
+
+    /**
+     * Entity tag of any booking the current user reads, and of the lists by states that do not depend on the time.
+     */
+    String getEtag();
+
+    /**
+     * Entity tag of the current user's bookings in the given state, as booker or as item owner; empty for states
+     * whose bookings change as time passes.
+     */
+    Optional<String> getEtag(SearchBookingStatus status);
+
     ResponseBookingDto updateStatus(Long bookingId, BookingStatus newStatus);
 
     List<ResponseBookingDto> findAllBookedByCurrentUserByStatusOrderByDateDesc(
@@ -24,4 +43,14 @@ public interface BookingService {
             SearchBookingStatus status,
             CustomPageableParameters customPageableParameters
     );
+
+    /**
+     * Hands every booking of the current user in the given state to the consumer, newest first, one at a time.
+     */
+    void exportAllBookedByCurrentUserByStatus(SearchBookingStatus status, Consumer<ResponseBookingDto> consumer);
+
+    /**
+     * Hands every booking of the current user's items in the given state to the consumer, newest first, one at a time.
+     */
+    void exportAllForCurrentUserItemsByStatus(SearchBookingStatus status, Consumer<ResponseBookingDto> consumer);
 }
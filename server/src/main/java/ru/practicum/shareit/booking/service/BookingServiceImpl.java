@@ -1,6 +1,8 @@
 package ru.practicum.shareit.booking.service;
 
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -9,14 +11,21 @@ import ru.practicum.shareit.booking.dto.CreateBookingDto;
 import ru.practicum.shareit.booking.dto.ResponseBookingDto;
 import ru.practicum.shareit.booking.dto.SearchBookingStatus;
 import ru.practicum.shareit.booking.exception.BookingItemThatUserOwns;
+import ru.practicum.shareit.booking.exception.BookingOverlaps;
+import ru.practicum.shareit.booking.exception.ConcurrentBookingStatusUpdate;
+import ru.practicum.shareit.booking.interval.BookingIntervalIndex;
 import ru.practicum.shareit.booking.exception.ImmutableBookingStatus;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingSpecifications;
 import ru.practicum.shareit.exception.generic.ExtendedEntityNotFoundException;
 import ru.practicum.shareit.extension.CustomPageableParameters;
+import ru.practicum.shareit.httpcache.ChangeCounter;
+import ru.practicum.shareit.item.availability.ItemAvailabilityCache;
 import ru.practicum.shareit.item.exception.ItemIsUnavailable;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemBookingSummaryService;
 import ru.practicum.shareit.mapper.ModelMapper;
 import ru.practicum.shareit.security.facade.IAuthenticationFacade;
 import ru.practicum.shareit.security.user.ExtendedUserDetails;
@@ -24,22 +33,55 @@ import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
 public class BookingServiceImpl implements BookingService {
+    /**
+     * Database constraint that rejects approved bookings sharing time with another approved booking of the item.
+     */
+    private static final String APPROVED_OVERLAP_CONSTRAINT = "ex_booking_item_approved";
+
+    /**
+     * Rows an export fetches and maps at a time.
+     */
+    private static final int EXPORT_WINDOW_SIZE = 500;
+
+    private static final Set<SearchBookingStatus> TIME_DEPENDENT_STATES = EnumSet.of(
+            SearchBookingStatus.CURRENT,
+            SearchBookingStatus.PAST,
+            SearchBookingStatus.FUTURE
+    );
+
     private final BookingRepository bookingRepository;
 
     private final ItemRepository itemRepository;
 
+    private final ItemBookingSummaryService itemBookingSummaryService;
+
+    private final BookingIntervalIndex bookingIntervalIndex;
+
+    private final ItemAvailabilityCache itemAvailabilityCache;
+
+    private final ChangeCounter changeCounter;
+
     private final IAuthenticationFacade authenticationFacade;
 
     private final ModelMapper mapper;
 
-    public BookingServiceImpl(BookingRepository bookingRepository, ItemRepository itemRepository, IAuthenticationFacade authenticationFacade, ModelMapper mapper) {
+    public BookingServiceImpl(BookingRepository bookingRepository, ItemRepository itemRepository, ItemBookingSummaryService itemBookingSummaryService, BookingIntervalIndex bookingIntervalIndex, ItemAvailabilityCache itemAvailabilityCache, ChangeCounter changeCounter, IAuthenticationFacade authenticationFacade, ModelMapper mapper) {
         this.bookingRepository = bookingRepository;
         this.itemRepository = itemRepository;
+        this.itemBookingSummaryService = itemBookingSummaryService;
+        this.bookingIntervalIndex = bookingIntervalIndex;
+        this.itemAvailabilityCache = itemAvailabilityCache;
+        this.changeCounter = changeCounter;
         this.authenticationFacade = authenticationFacade;
         this.mapper = mapper;
     }
@@ -61,7 +103,17 @@ public class BookingServiceImpl implements BookingService {
             throw new BookingItemThatUserOwns(currentUser, item);
         }
 
+        bookingIntervalIndex.lockItem(item.getId());
+
+        if (bookingIntervalIndex.overlapsApproved(item.getId(), createBookingDto.getStart(), createBookingDto.getEnd())) {
+            throw new BookingOverlaps(item, createBookingDto.getStart(), createBookingDto.getEnd());
+        }
+
         Booking booking = bookingRepository.save(mapper.toBooking(createBookingDto, item, currentUser));
+        bookingIntervalIndex.update(booking);
+        itemAvailabilityCache.invalidate(item.getId());
+        itemBookingSummaryService.refresh(item.getId());
+        changeCounter.changed(currentUser.getId(), item.getOwner().getId());
 
         return mapper.toResponseBookingDto(booking);
     }
@@ -78,11 +130,31 @@ public class BookingServiceImpl implements BookingService {
         return mapper.toResponseBookingDto(booking);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void checkAccessible(Long bookingId) {
+        Booking booking = bookingRepository
+                .findReadOnlyById(bookingId)
+                .orElseThrow(() -> new ExtendedEntityNotFoundException(Booking.class, bookingId));
+
+        checkBookingIsAccessible(booking);
+    }
+
+    @Override
+    public String getEtag() {
+        return changeCounter.etag(authenticationFacade.getCurrentUserDetails().getId());
+    }
+
+    @Override
+    public Optional<String> getEtag(SearchBookingStatus status) {
+        return TIME_DEPENDENT_STATES.contains(status) ? Optional.empty() : Optional.of(getEtag());
+    }
+
     @Override
     @Transactional
     public ResponseBookingDto updateStatus(Long bookingId, BookingStatus newStatus) {
         Booking booking = bookingRepository
-                .findById(bookingId)
+                .findReadOnlyById(bookingId)
                 .orElseThrow(() -> new ExtendedEntityNotFoundException(Booking.class, bookingId));
 
         checkBookingItemOwnership(booking);
@@ -91,7 +163,21 @@ public class BookingServiceImpl implements BookingService {
             throw new ImmutableBookingStatus(booking);
         }
 
+        bookingIntervalIndex.lockItem(booking.getItem().getId());
+
+        // the booking was read before the lock: only once the status change wins can the index be trusted
+        // not to hold this very booking as approved by a concurrent transition
+        compareAndSetStatus(booking, newStatus);
+
+        if (newStatus == BookingStatus.APPROVED && bookingIntervalIndex.overlapsApproved(booking)) {
+            throw new BookingOverlaps(booking.getItem(), booking.getStart(), booking.getFinish());
+        }
+
         booking.setStatus(newStatus);
+        bookingIntervalIndex.update(booking);
+        itemAvailabilityCache.invalidate(booking.getItem().getId());
+        itemBookingSummaryService.refresh(booking.getItem().getId());
+        changeCounter.changed(booking.getBooker().getId(), booking.getItem().getOwner().getId());
 
         return mapper.toResponseBookingDto(booking);
     }
@@ -102,6 +188,15 @@ public class BookingServiceImpl implements BookingService {
             CustomPageableParameters customPageableParameters
     ) {
         ExtendedUserDetails currentUserDetails = authenticationFacade.getCurrentUserDetails();
+
+        if (customPageableParameters.isKeyset()) {
+            return findAllAfterCursor(
+                    BookingSpecifications.bookedBy(currentUserDetails.getId()),
+                    status,
+                    customPageableParameters
+            );
+        }
+
         Sort sortByStartDesc = Sort.by(new Sort.Order(Sort.Direction.DESC, "start"));
 
         List<Booking> bookings = Collections.emptyList();
@@ -163,50 +258,58 @@ public class BookingServiceImpl implements BookingService {
             CustomPageableParameters customPageableParameters
     ) {
         ExtendedUserDetails userDetails = authenticationFacade.getCurrentUserDetails();
-        List<Item> items = itemRepository.findAllByOwner_Id(userDetails.getId());
+
+        if (customPageableParameters.isKeyset()) {
+            return findAllAfterCursor(
+                    BookingSpecifications.ofItemsOwnedBy(userDetails.getId()),
+                    status,
+                    customPageableParameters
+            );
+        }
+
         Sort sortByStartDesc = Sort.by(new Sort.Order(Sort.Direction.DESC, "start"));
 
         List<Booking> bookings = Collections.emptyList();
 
         switch (status) {
             case ALL:
-                bookings = bookingRepository.findAllByItemIn(
-                        items,
+                bookings = bookingRepository.findAllByItem_Owner_Id(
+                        userDetails.getId(),
                         customPageableParameters.toPageable(sortByStartDesc)
                 );
                 break;
             case CURRENT:
-                bookings = bookingRepository.findByItemInAndStartIsBeforeAndFinishIsAfter(
-                        items,
+                bookings = bookingRepository.findByItem_Owner_IdAndStartIsBeforeAndFinishIsAfter(
+                        userDetails.getId(),
                         LocalDateTime.now(),
                         LocalDateTime.now(),
                         customPageableParameters.toPageable(sortByStartDesc)
                 );
                 break;
             case PAST:
-                bookings = bookingRepository.findByItemInAndFinishIsBefore(
-                        items,
+                bookings = bookingRepository.findByItem_Owner_IdAndFinishIsBefore(
+                        userDetails.getId(),
                         LocalDateTime.now(),
                         customPageableParameters.toPageable(sortByStartDesc)
                 );
                 break;
             case FUTURE:
-                bookings = bookingRepository.findByItemInAndStartIsAfter(
-                        items,
+                bookings = bookingRepository.findByItem_Owner_IdAndStartIsAfter(
+                        userDetails.getId(),
                         LocalDateTime.now(),
                         customPageableParameters.toPageable(sortByStartDesc)
                 );
                 break;
             case WAITING:
-                bookings = bookingRepository.findAllByItemInAndStatus(
-                        items,
+                bookings = bookingRepository.findAllByItem_Owner_IdAndStatus(
+                        userDetails.getId(),
                         BookingStatus.WAITING,
                         customPageableParameters.toPageable(sortByStartDesc)
                 );
                 break;
             case REJECTED:
-                bookings = bookingRepository.findAllByItemInAndStatus(
-                        items,
+                bookings = bookingRepository.findAllByItem_Owner_IdAndStatus(
+                        userDetails.getId(),
                         BookingStatus.REJECTED,
                         customPageableParameters.toPageable(sortByStartDesc)
                 );
@@ -219,6 +322,50 @@ public class BookingServiceImpl implements BookingService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAllBookedByCurrentUserByStatus(SearchBookingStatus status, Consumer<ResponseBookingDto> consumer) {
+        ExtendedUserDetails currentUserDetails = authenticationFacade.getCurrentUserDetails();
+
+        export(BookingSpecifications.bookedBy(currentUserDetails.getId()), status, consumer);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAllForCurrentUserItemsByStatus(SearchBookingStatus status, Consumer<ResponseBookingDto> consumer) {
+        ExtendedUserDetails userDetails = authenticationFacade.getCurrentUserDetails();
+
+        export(BookingSpecifications.ofItemsOwnedBy(userDetails.getId()), status, consumer);
+    }
+
+    private void export(
+            Specification<Booking> specification,
+            SearchBookingStatus status,
+            Consumer<ResponseBookingDto> consumer
+    ) {
+        bookingRepository.forEachWindowOrderByStartDesc(
+                specification.and(BookingSpecifications.inState(status, LocalDateTime.now())),
+                EXPORT_WINDOW_SIZE,
+                window -> window.forEach(booking -> consumer.accept(mapper.toResponseBookingDto(booking)))
+        );
+    }
+
+    private List<ResponseBookingDto> findAllAfterCursor(
+            Specification<Booking> specification,
+            SearchBookingStatus status,
+            CustomPageableParameters customPageableParameters
+    ) {
+        return bookingRepository
+                .findAllOrderByStartDescAfter(
+                        specification.and(BookingSpecifications.inState(status, LocalDateTime.now())),
+                        customPageableParameters.getCursor(),
+                        customPageableParameters.getSize()
+                )
+                .stream()
+                .map(mapper::toResponseBookingDto)
+                .collect(Collectors.toList());
+    }
+
     private void checkBookingItemOwnership(Booking booking) {
         ExtendedUserDetails currentUserDetails = authenticationFacade.getCurrentUserDetails();
 
@@ -233,6 +380,31 @@ public class BookingServiceImpl implements BookingService {
         }
     }
 
+    /**
+     * Changes the status with a single conditional update instead of flushing the loaded booking, so a concurrent
+     * transition of the same booking fails here rather than silently overwriting the other one, and a violated
+     * overlap constraint, which guards against writers the interval index does not see, surfaces here as well.
+     * The loaded booking is left as it was.
+     */
+    private void compareAndSetStatus(Booking booking, BookingStatus newStatus) {
+        int updated;
+        try {
+            updated = bookingRepository.updateStatusIfCurrent(booking.getId(), booking.getStatus(), newStatus);
+        } catch (DataIntegrityViolationException e) {
+            String message = e.getMostSpecificCause().getMessage();
+
+            if (message != null && message.toLowerCase(Locale.ROOT).contains(APPROVED_OVERLAP_CONSTRAINT)) {
+                throw new BookingOverlaps(booking.getItem(), booking.getStart(), booking.getFinish());
+            }
+
+            throw e;
+        }
+
+        if (updated == 0) {
+            throw new ConcurrentBookingStatusUpdate(booking);
+        }
+    }
+
     private void checkBookingIsAccessible(Booking booking) {
         ExtendedUserDetails currentUserDetails = authenticationFacade.getCurrentUserDetails();
 
@@ -2,6 +2,7 @@ package ru.practicum.shareit.exception;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.log.LogFormatUtils;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.Nullable;
@@ -12,8 +13,13 @@ import org.springframework.web.method.annotation.MethodArgumentTypeMismatchExcep
 import org.springframework.web.servlet.ModelAndView;
 import org.springframework.web.servlet.mvc.support.DefaultHandlerExceptionResolver;
 import ru.practicum.shareit.booking.exception.BookingItemThatUserOwns;
+import ru.practicum.shareit.booking.exception.BookingOverlaps;
+import ru.practicum.shareit.booking.exception.ConcurrentBookingStatusUpdate;
 import ru.practicum.shareit.booking.exception.ImmutableBookingStatus;
 import ru.practicum.shareit.exception.generic.ExtendedEntityNotFoundException;
+import ru.practicum.shareit.exception.generic.IncorrectPageCursor;
+import ru.practicum.shareit.item.exception.IncorrectAvailabilityRange;
+import ru.practicum.shareit.item.exception.IncorrectSearchPeriod;
 import ru.practicum.shareit.item.exception.ItemIsUnavailable;
 import ru.practicum.shareit.item.exception.NotAllowedToAddComments;
 import ru.practicum.shareit.security.exception.IncorrectAuthHeader;
@@ -35,7 +41,7 @@ public class ExceptionControllerAdvice {
         return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
     }
 
-    @ExceptionHandler({ImmutableBookingStatus.class, IncorrectAuthHeader.class, ItemIsUnavailable.class, NotAllowedToAddComments.class})
+    @ExceptionHandler({ImmutableBookingStatus.class, IncorrectAuthHeader.class, IncorrectAvailabilityRange.class, IncorrectPageCursor.class, IncorrectSearchPeriod.class, ItemIsUnavailable.class, NotAllowedToAddComments.class})
     public void handleBadRequest(final Exception e, HttpServletResponse response) throws IOException {
         logIfNeeded(e);
         response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
@@ -47,6 +53,12 @@ public class ExceptionControllerAdvice {
         response.sendError(HttpServletResponse.SC_NOT_FOUND, e.getMessage());
     }
 
+    @ExceptionHandler({BookingOverlaps.class, ConcurrentBookingStatusUpdate.class, OptimisticLockingFailureException.class})
+    public void handleConflict(final Exception e, HttpServletResponse response) throws IOException {
+        logIfNeeded(e);
+        response.sendError(HttpServletResponse.SC_CONFLICT, e.getMessage());
+    }
+
     @ExceptionHandler
     public void handleValidationException(final AccessDeniedException e, HttpServletResponse response) throws IOException {
         logIfNeeded(e);
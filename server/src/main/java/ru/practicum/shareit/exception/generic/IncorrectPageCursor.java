@@ -0,0 +1,7 @@
+package ru.practicum.shareit.exception.generic;
+
+public class IncorrectPageCursor extends RuntimeException {
+    public IncorrectPageCursor(String cursor, Exception exception) {
+        super(String.format("Corrupted page cursor has been provided '%s'. Reason: %s.", cursor, exception.getMessage()));
+    }
+}
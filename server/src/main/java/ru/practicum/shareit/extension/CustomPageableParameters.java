@@ -4,6 +4,14 @@ import lombok.*;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Either an offset page ({@code from}/{@code size}) or a keyset page that continues after a {@link PageCursor}.
+ * A keyset page without a cursor is the first one.
+ */
 @ToString
 @EqualsAndHashCode
 public class CustomPageableParameters {
@@ -11,9 +19,19 @@ public class CustomPageableParameters {
 
     private final Integer size;
 
+    private final boolean keyset;
+
+    private final PageCursor cursor;
+
     protected CustomPageableParameters(Long offset, Integer size) {
+        this(offset, size, false, null);
+    }
+
+    protected CustomPageableParameters(Long offset, Integer size, boolean keyset, PageCursor cursor) {
         this.offset = offset;
         this.size = size;
+        this.keyset = keyset;
+        this.cursor = cursor;
     }
 
     public Integer getSize() {
@@ -24,10 +42,46 @@ public class CustomPageableParameters {
         return offset;
     }
 
+    public boolean isKeyset() {
+        return keyset;
+    }
+
+    /**
+     * Position to continue after, or {@code null} for the first page.
+     */
+    public PageCursor getCursor() {
+        return cursor;
+    }
+
     public static CustomPageableParameters of(Long offset, Integer size) {
         return new CustomPageableParameters(offset, size);
     }
 
+    /**
+     * Keyset page after the encoded cursor; an empty cursor requests the first page.
+     */
+    public static CustomPageableParameters ofCursor(String cursor, Integer size) {
+        return new CustomPageableParameters(0L, size, true, cursor.isEmpty() ? null : PageCursor.decode(cursor));
+    }
+
+    /**
+     * Picks keyset paging when the client sent a cursor, offset paging otherwise.
+     */
+    public static CustomPageableParameters of(Long offset, String cursor, Integer size) {
+        return cursor != null ? ofCursor(cursor, size) : of(offset, size);
+    }
+
+    /**
+     * Encoded cursor of the last row when this is a full keyset page, so more rows may follow.
+     */
+    public <T> Optional<String> nextCursor(List<T> page, Function<T, PageCursor> cursorOf) {
+        if (!keyset || page.isEmpty() || page.size() < size) {
+            return Optional.empty();
+        }
+
+        return Optional.of(cursorOf.apply(page.get(page.size() - 1)).encode());
+    }
+
     public Pageable toPageable() {
         return ExtendedPageRequest.ofOffset(this.offset, this.size);
     }
@@ -36,4 +90,3 @@ public class CustomPageableParameters {
         return ExtendedPageRequest.ofOffset(this.offset, this.size, sort);
     }
 }
-
@@ -0,0 +1,57 @@
+package ru.practicum.shareit.extension;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import ru.practicum.shareit.exception.generic.IncorrectPageCursor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of the last row of a page ordered by {@code (position desc, id desc)}. Clients get it as an opaque
+ * token in the {@value #NEXT_CURSOR_HEADER} header and send it back to fetch the rows that follow.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public class PageCursor {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime position;
+
+    private final Long id;
+
+    protected PageCursor(LocalDateTime position, Long id) {
+        this.position = position;
+        this.id = id;
+    }
+
+    public static PageCursor of(LocalDateTime position, Long id) {
+        return new PageCursor(position, id);
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString((position + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separatorAt = decoded.lastIndexOf(SEPARATOR);
+
+            return new PageCursor(
+                    LocalDateTime.parse(decoded.substring(0, separatorAt)),
+                    Long.parseLong(decoded.substring(separatorAt + 1))
+            );
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IncorrectPageCursor(cursor, e);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.httpcache;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Sets the Cache-Control of GET responses before the handler runs, so that the security headers, written only when
+ * no Cache-Control is present, do not forbid storing them.
+ */
+public class CacheControlInterceptor implements HandlerInterceptor {
+    private final String cacheControl;
+
+    public CacheControlInterceptor(CacheControl cacheControl) {
+        this.cacheControl = cacheControl.getHeaderValue();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (HttpMethod.GET.matches(request.getMethod())) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        }
+
+        return true;
+    }
+}
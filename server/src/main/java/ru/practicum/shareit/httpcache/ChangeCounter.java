@@ -0,0 +1,116 @@
+package ru.practicum.shareit.httpcache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.extension.TransactionCallbacks;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts committed writes so that read endpoints can tag their responses without running their queries:
+ * a tag stays the same for as long as nothing the response is built from has changed. Writes visible to every user,
+ * like requests and user names, count for everyone; bookings and items count for the users whose lists show them,
+ * and items also count for the item itself, as any user may read a single item. Users and items share
+ * {@code shareit.http-cache.user-stripes} counters each, so a write may change the tags of a few unrelated users
+ * or items as well, which costs them one full response.
+ * <p>
+ * Counts are bumped once the write commits and tags are taken before the read, so a response is never tagged
+ * newer than its data. The start time of the server is part of every tag, so tags are not reused after a restart.
+ * <p>
+ * Counts are local to the JVM, so tags are only correct when a single server instance serves reads and writes:
+ * another instance would not see the write and would keep answering 304 Not Modified. Tags are weak, as they stand
+ * for the data a response is built from rather than for its bytes.
+ */
+@Component
+public class ChangeCounter {
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+
+    private final AtomicLong everyone = new AtomicLong();
+
+    private final AtomicLongArray users;
+
+    private final AtomicLongArray items;
+
+    public ChangeCounter(@Value("${shareit.http-cache.user-stripes:4096}") int stripes) {
+        this.users = new AtomicLongArray(stripes);
+        this.items = new AtomicLongArray(stripes);
+    }
+
+    /**
+     * Counts a change seen by the given users once the current transaction commits.
+     */
+    public void changed(Long... userIds) {
+        changed(Arrays.asList(userIds));
+    }
+
+    /**
+     * Counts a change seen by the given users once the current transaction commits.
+     */
+    public void changed(Collection<Long> userIds) {
+        TransactionCallbacks.afterCommit(() -> {
+            for (Long userId : userIds) {
+                users.incrementAndGet(stripe(userId));
+            }
+        });
+    }
+
+    /**
+     * Counts a change of the item, seen by whoever reads it, once the current transaction commits.
+     */
+    public void itemChanged(Long itemId) {
+        TransactionCallbacks.afterCommit(() -> items.incrementAndGet(stripe(itemId)));
+    }
+
+    /**
+     * Counts a change seen by every user once the current transaction commits.
+     */
+    public void changedForEveryone() {
+        TransactionCallbacks.afterCommit(everyone::incrementAndGet);
+    }
+
+    /**
+     * Weak entity tag of whatever the user reads that changes through writes only. The user is part of the tag,
+     * as the same URL reads differently for another user.
+     */
+    public String etag(Long userId) {
+        return "W/\"" + version(userId) + "\"";
+    }
+
+    /**
+     * Weak entity tag of what the user reads that also changes on its own at {@code stableUntil};
+     * {@link LocalDateTime#MAX} when it does not.
+     */
+    public String etag(Long userId, LocalDateTime stableUntil) {
+        return etag(version(userId), stableUntil);
+    }
+
+    /**
+     * Weak entity tag of a single item as the user reads it; see {@link #etag(Long, LocalDateTime)}.
+     */
+    public String itemEtag(Long userId, Long itemId, LocalDateTime stableUntil) {
+        return etag(version(userId) + "-" + itemId + "." + items.get(stripe(itemId)), stableUntil);
+    }
+
+    private String etag(String version, LocalDateTime stableUntil) {
+        if (stableUntil.equals(LocalDateTime.MAX)) {
+            return "W/\"" + version + "\"";
+        }
+
+        long micros = stableUntil.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + stableUntil.getNano() / 1_000;
+
+        return "W/\"" + version + "-" + micros + "\"";
+    }
+
+    private String version(Long userId) {
+        return epoch + "-" + everyone.get() + "-" + userId + "." + users.get(stripe(userId));
+    }
+
+    private int stripe(Long id) {
+        return (int) Math.floorMod(id, (long) users.length());
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.httpcache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+/**
+ * A single user, item or request may be kept by the requesting client for a short while: they are read far more
+ * often than they change, and the gateway drops its copy when it proxies a change. Lists may be kept as well but
+ * are revalidated every time, as a change to any of their entries changes them; those that carry an ETag are
+ * answered with 304 Not Modified as long as it still matches.
+ */
+@Configuration
+public class HttpCacheConfig implements WebMvcConfigurer {
+    private final Duration entityMaxAge;
+
+    public HttpCacheConfig(@Value("${shareit.http-cache.entity-max-age:5s}") Duration entityMaxAge) {
+        this.entityMaxAge = entityMaxAge;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new CacheControlInterceptor(CacheControl.maxAge(entityMaxAge).cachePrivate()))
+                .addPathPatterns("/users/{userId:\\d+}", "/items/{itemId:\\d+}", "/requests/{requestId:\\d+}");
+        registry.addInterceptor(new CacheControlInterceptor(CacheControl.noCache().cachePrivate()))
+                .addPathPatterns("/bookings/{bookingId:\\d+}", "/bookings", "/bookings/owner", "/items", "/requests", "/requests/all");
+    }
+}
@@ -1,10 +1,20 @@
 package ru.practicum.shareit.item;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.extension.CustomPageableParameters;
+import ru.practicum.shareit.item.bulk.ItemBulkImportResult;
+import ru.practicum.shareit.item.bulk.ItemBulkImporter;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.service.ItemService;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -12,15 +22,23 @@ import java.util.List;
 public class ItemController {
     private final ItemService itemService;
 
-    public ItemController(ItemService itemService) {
+    private final ItemBulkImporter itemBulkImporter;
+
+    public ItemController(ItemService itemService, ItemBulkImporter itemBulkImporter) {
         this.itemService = itemService;
+        this.itemBulkImporter = itemBulkImporter;
     }
 
     @GetMapping
     public List<ItemResponseWithBookingDto> getAllItems(
             @RequestParam(required = false, defaultValue = "0") Long from,
-            @RequestParam(required = false, defaultValue = "10") Integer size
+            @RequestParam(required = false, defaultValue = "10") Integer size,
+            WebRequest webRequest
     ) {
+        if (itemService.getOwnItemsEtag().map(webRequest::checkNotModified).orElse(false)) {
+            return null;
+        }
+
         return itemService.findAll(CustomPageableParameters.of(from, size));
     }
 
@@ -28,18 +46,46 @@ public class ItemController {
     public List<ItemResponseDto> findByText(
             @RequestParam String text,
             @RequestParam(required = false, defaultValue = "0") Long from,
+            @RequestParam(required = false, defaultValue = "10") Integer size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end
+    ) {
+        if (start == null && end == null) {
+            return itemService.findByText(text, CustomPageableParameters.of(from, size));
+        }
+
+        return itemService.findFreeByText(text, start, end, CustomPageableParameters.of(from, size));
+    }
+
+    @GetMapping("/suggest")
+    public List<ItemSuggestionDto> suggest(
+            @RequestParam String prefix,
             @RequestParam(required = false, defaultValue = "10") Integer size
     ) {
-        return itemService.findByText(text, CustomPageableParameters.of(from, size));
+        return itemService.suggest(prefix, size);
     }
 
     @GetMapping("/{itemId}")
     public ItemResponseWithBookingDto getItem(
-            @PathVariable Long itemId
+            @PathVariable Long itemId,
+            WebRequest webRequest
     ) {
+        if (itemService.getEtag(itemId).map(webRequest::checkNotModified).orElse(false)) {
+            return null;
+        }
+
         return itemService.findOne(itemId);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public ItemAvailabilityDto getAvailability(
+            @PathVariable Long itemId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        return itemService.getAvailability(itemId, from, to);
+    }
+
     @PostMapping
     public ItemResponseDto createItem(
             @RequestBody CreateItemRequestDto createItemRequestDto
@@ -47,6 +93,21 @@ public class ItemController {
         return itemService.create(createItemRequestDto);
     }
 
+    /**
+     * Results are written only after the whole body is read, so a client that sends the body before reading
+     * the response never blocks on a full socket buffer. Until then they wait in a temporary file.
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public void createItems(
+            InputStream lines,
+            HttpServletResponse response
+    ) throws IOException {
+        try (ItemBulkImportResult result = itemBulkImporter.importItems(lines)) {
+            response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+            itemBulkImporter.writeResult(result, response.getOutputStream());
+        }
+    }
+
     @PatchMapping("/{itemId}")
     public ItemResponseDto updateItem(
             @PathVariable Long itemId,
@@ -0,0 +1,128 @@
+package ru.practicum.shareit.item.availability;
+
+import ru.practicum.shareit.item.dto.ItemAvailabilitySlotDto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Busy hours of one item: for every day with at least one busy hour, a mask whose bit {@code h} is set when
+ * a booking covers any part of hour {@code h}. Days are kept in a sorted array, days without bookings take no space.
+ * Immutable once built.
+ */
+public class ItemAvailabilityBitmap {
+    private static final int HOURS_PER_DAY = 24;
+
+    private final long[] days;
+
+    private final int[] masks;
+
+    private ItemAvailabilityBitmap(long[] days, int[] masks) {
+        this.days = days;
+        this.masks = masks;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Runs of free and busy hours from the start of {@code from} to the end of {@code to}, in order.
+     */
+    public List<ItemAvailabilitySlotDto> slots(LocalDate from, LocalDate to) {
+        List<ItemAvailabilitySlotDto> slots = new ArrayList<>();
+        int index = firstDayNotBefore(from.toEpochDay());
+
+        LocalDateTime slotStart = from.atStartOfDay();
+        boolean slotFree = true;
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            int mask = 0;
+            if (index < days.length && days[index] == date.toEpochDay()) {
+                mask = masks[index++];
+            }
+
+            for (int hour = 0; hour < HOURS_PER_DAY; hour++) {
+                boolean free = (mask & (1 << hour)) == 0;
+                LocalDateTime hourStart = date.atTime(hour, 0);
+
+                if (free != slotFree && hourStart.isAfter(slotStart)) {
+                    slots.add(new ItemAvailabilitySlotDto(slotStart, hourStart, slotFree));
+                    slotStart = hourStart;
+                }
+                slotFree = free;
+            }
+        }
+        slots.add(new ItemAvailabilitySlotDto(slotStart, to.plusDays(1).atStartOfDay(), slotFree));
+
+        return slots;
+    }
+
+    public int size() {
+        return days.length;
+    }
+
+    private int firstDayNotBefore(long day) {
+        int low = 0;
+        int high = days.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+
+            if (days[middle] < day) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    public static class Builder {
+        private final TreeMap<Long, Integer> masks = new TreeMap<>();
+
+        /**
+         * Marks every hour that shares time with {@code [start, finish)} as busy.
+         */
+        public Builder busy(LocalDateTime start, LocalDateTime finish) {
+            if (!start.isBefore(finish)) {
+                return this;
+            }
+
+            LocalDateTime hourStart = start.truncatedTo(ChronoUnit.HOURS);
+            while (hourStart.isBefore(finish)) {
+                LocalDateTime nextDay = hourStart.toLocalDate().plusDays(1).atStartOfDay();
+                int firstHour = hourStart.getHour();
+                int endHour = finish.isBefore(nextDay) ? endHourOf(finish) : HOURS_PER_DAY;
+                int hours = (1 << endHour) - (1 << firstHour);
+
+                masks.merge(hourStart.toLocalDate().toEpochDay(), hours, (left, right) -> left | right);
+                hourStart = nextDay;
+            }
+
+            return this;
+        }
+
+        public ItemAvailabilityBitmap build() {
+            long[] days = new long[masks.size()];
+            int[] dayMasks = new int[masks.size()];
+
+            int i = 0;
+            for (Map.Entry<Long, Integer> entry : masks.entrySet()) {
+                days[i] = entry.getKey();
+                dayMasks[i] = entry.getValue();
+                i++;
+            }
+
+            return new ItemAvailabilityBitmap(days, dayMasks);
+        }
+
+        private static int endHourOf(LocalDateTime finish) {
+            return finish.equals(finish.truncatedTo(ChronoUnit.HOURS)) ? finish.getHour() : finish.getHour() + 1;
+        }
+    }
+}
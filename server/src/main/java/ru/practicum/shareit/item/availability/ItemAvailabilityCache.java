@@ -0,0 +1,45 @@
+package ru.practicum.shareit.item.availability;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.extension.TransactionCallbacks;
+
+import java.util.function.Function;
+
+/**
+ * {@link ItemAvailabilityBitmap} by item id. Entries are dropped by
+ * {@link ru.practicum.shareit.booking.service.BookingServiceImpl} whenever a booking of the item is created or
+ * changes status, and otherwise live until evicted by size.
+ */
+@Component
+public class ItemAvailabilityCache implements MeterBinder {
+    private final Cache<Long, ItemAvailabilityBitmap> cache;
+
+    public ItemAvailabilityCache(@Value("${shareit.item.availability-cache.max-items:10000}") long maxItems) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxItems)
+                .recordStats()
+                .build();
+    }
+
+    public ItemAvailabilityBitmap get(Long itemId, Function<Long, ItemAvailabilityBitmap> loader) {
+        return cache.get(itemId, loader);
+    }
+
+    /**
+     * Drops the bitmap once the current transaction commits, so a concurrent load cannot cache the old bookings.
+     */
+    public void invalidate(Long itemId) {
+        TransactionCallbacks.afterCommit(() -> cache.invalidate(itemId));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "item-availability");
+    }
+}
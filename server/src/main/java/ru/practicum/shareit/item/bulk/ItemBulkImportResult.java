@@ -0,0 +1,74 @@
+package ru.practicum.shareit.item.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ru.practicum.shareit.item.dto.ItemBulkResultDto;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Per-line outcome of a bulk import, spooled to a temporary file as one JSON object per line, so the import holds
+ * no per-line state in memory however long the body is. Lines must be reported in order. The file is deleted on
+ * {@link #close}.
+ */
+public class ItemBulkImportResult implements Closeable {
+    private final ObjectMapper objectMapper;
+
+    private final Path file;
+
+    private final OutputStream out;
+
+    private int lines;
+
+    private int failed;
+
+    public ItemBulkImportResult(ObjectMapper objectMapper) throws IOException {
+        this.objectMapper = objectMapper;
+        this.file = Files.createTempFile("item-bulk-", ".ndjson");
+        this.out = new BufferedOutputStream(Files.newOutputStream(file));
+    }
+
+    void created(int line, long id) throws IOException {
+        append(new ItemBulkResultDto(line, id, null));
+    }
+
+    void failed(int line, String error) throws IOException {
+        append(new ItemBulkResultDto(line, null, error));
+        failed++;
+    }
+
+    public int getLines() {
+        return lines;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    /**
+     * Copies the spooled results, one JSON object per line, each followed by a newline.
+     */
+    public void writeTo(OutputStream target) throws IOException {
+        out.flush();
+        Files.copy(file, target);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            out.close();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private void append(ItemBulkResultDto result) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(result));
+        out.write('\n');
+        lines++;
+    }
+}
@@ -0,0 +1,147 @@
+package ru.practicum.shareit.item.bulk;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.CreateItemRequestDto;
+import ru.practicum.shareit.item.dto.ItemResponseDto;
+import ru.practicum.shareit.item.service.ItemService;
+
+import javax.persistence.EntityManager;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates items from an NDJSON stream, one {@link CreateItemRequestDto} per line. Lines are read as they arrive and
+ * saved in chunks of {@code shareit.item.bulk.chunk-size}, each chunk in its own transaction, so at most one chunk of
+ * items is held at a time. The persistence context is cleared after each chunk, as it outlives the chunk's
+ * transaction when the request keeps an entity manager open. Blank lines are skipped and not counted.
+ * <p>
+ * A chunk that fails to save is rolled back as a whole and all its lines are reported as failed.
+ */
+@Component
+@Slf4j
+public class ItemBulkImporter {
+    private final ItemService itemService;
+
+    private final ObjectMapper objectMapper;
+
+    private final EntityManager entityManager;
+
+    private final int chunkSize;
+
+    public ItemBulkImporter(
+            ItemService itemService,
+            ObjectMapper objectMapper,
+            EntityManager entityManager,
+            @Value("${shareit.item.bulk.chunk-size:500}") int chunkSize
+    ) {
+        this.itemService = itemService;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Imports the stream and returns its spooled results, which the caller must close.
+     */
+    public ItemBulkImportResult importItems(InputStream in) throws IOException {
+        ItemBulkImportResult result = new ItemBulkImportResult(objectMapper);
+        try {
+            importItems(in, result);
+        } catch (IOException | RuntimeException e) {
+            result.close();
+            throw e;
+        }
+
+        log.info("Bulk import finished: {} lines, {} failed", result.getLines(), result.getFailed());
+
+        return result;
+    }
+
+    public void writeResult(ItemBulkImportResult result, OutputStream out) throws IOException {
+        result.writeTo(out);
+        out.flush();
+    }
+
+    /**
+     * Malformed lines wait in the chunk with their error, so results are reported in line order and a body of
+     * nothing but malformed lines is still handled a chunk at a time.
+     */
+    private void importItems(InputStream in, ItemBulkImportResult result) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+
+        List<CreateItemRequestDto> chunk = new ArrayList<>(chunkSize);
+        List<Integer> chunkLines = new ArrayList<>(chunkSize);
+        List<String> chunkErrors = new ArrayList<>(chunkSize);
+        int line = 0;
+        String text;
+        while ((text = reader.readLine()) != null) {
+            if (text.isBlank()) {
+                continue;
+            }
+            line++;
+
+            try {
+                chunk.add(objectMapper.readValue(text, CreateItemRequestDto.class));
+                chunkErrors.add(null);
+            } catch (JsonProcessingException e) {
+                chunkErrors.add("Malformed item: " + e.getOriginalMessage());
+            }
+            chunkLines.add(line);
+
+            if (chunkLines.size() == chunkSize) {
+                createChunk(chunk, chunkLines, chunkErrors, result);
+            }
+        }
+        createChunk(chunk, chunkLines, chunkErrors, result);
+    }
+
+    private void createChunk(
+            List<CreateItemRequestDto> chunk,
+            List<Integer> chunkLines,
+            List<String> chunkErrors,
+            ItemBulkImportResult result
+    ) throws IOException {
+        if (chunkLines.isEmpty()) {
+            return;
+        }
+
+        List<Long> ids = new ArrayList<>(chunk.size());
+        String chunkError = null;
+        if (!chunk.isEmpty()) {
+            try {
+                itemService.createAll(chunk).stream().map(ItemResponseDto::getId).forEach(ids::add);
+            } catch (DataAccessException e) {
+                log.warn("Bulk import chunk of {} items rolled back", chunk.size(), e);
+                chunkError = "Chunk rolled back: " + e.getMostSpecificCause().getMessage();
+            } finally {
+                entityManager.clear();
+            }
+        }
+
+        int created = 0;
+        for (int i = 0; i < chunkLines.size(); i++) {
+            String error = chunkErrors.get(i) != null ? chunkErrors.get(i) : chunkError;
+
+            if (error != null) {
+                result.failed(chunkLines.get(i), error);
+            } else {
+                result.created(chunkLines.get(i), ids.get(created++));
+            }
+        }
+
+        chunk.clear();
+        chunkLines.clear();
+        chunkErrors.clear();
+    }
+}
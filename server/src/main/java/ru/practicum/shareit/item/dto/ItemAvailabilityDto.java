@@ -0,0 +1,22 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+@EqualsAndHashCode
+public class ItemAvailabilityDto {
+    private Long itemId;
+
+    private LocalDate from;
+
+    private LocalDate to;
+
+    private List<ItemAvailabilitySlotDto> slots;
+}
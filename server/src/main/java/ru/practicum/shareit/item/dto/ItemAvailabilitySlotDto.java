@@ -0,0 +1,19 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+@EqualsAndHashCode
+public class ItemAvailabilitySlotDto {
+    private LocalDateTime start;
+
+    private LocalDateTime end;
+
+    private Boolean free;
+}
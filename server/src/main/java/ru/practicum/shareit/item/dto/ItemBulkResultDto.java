@@ -0,0 +1,22 @@
+package ru.practicum.shareit.item.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+/**
+ * Outcome of one line of a bulk import: the id of the created item or the reason it was not created.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+@EqualsAndHashCode
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ItemBulkResultDto {
+    private Integer line;
+
+    private Long id;
+
+    private String error;
+}
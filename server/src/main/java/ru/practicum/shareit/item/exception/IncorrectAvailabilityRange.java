@@ -0,0 +1,9 @@
+package ru.practicum.shareit.item.exception;
+
+import java.time.LocalDate;
+
+public class IncorrectAvailabilityRange extends RuntimeException {
+    public IncorrectAvailabilityRange(LocalDate from, LocalDate to, int maxDays) {
+        super(String.format("Availability range from %s to %s must not be reversed or longer than %d days.", from, to, maxDays));
+    }
+}
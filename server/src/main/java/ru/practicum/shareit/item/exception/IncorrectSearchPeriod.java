@@ -0,0 +1,9 @@
+package ru.practicum.shareit.item.exception;
+
+import java.time.LocalDateTime;
+
+public class IncorrectSearchPeriod extends RuntimeException {
+    public IncorrectSearchPeriod(LocalDateTime start, LocalDateTime end) {
+        super(String.format("Search period from %s to %s must have both bounds and end after start.", start, end));
+    }
+}
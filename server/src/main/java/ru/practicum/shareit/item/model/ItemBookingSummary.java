@@ -0,0 +1,49 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import ru.practicum.shareit.booking.model.Booking;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Read model with the closest past and upcoming booking of an item, for the owner listing, and the latest started and
+ * earliest not finished booking, for the single item view. {@code validUntil} is the moment the pointers go stale
+ * on their own, i.e. when the next booking starts or a booking finishes; {@code null} means never.
+ */
+@Entity
+@Table(name = "item_booking_summary")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemBookingSummary {
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "last_booking_id")
+    private Booking lastBooking;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "next_booking_id")
+    private Booking nextBooking;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "last_started_booking_id")
+    private Booking lastStartedBooking;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "next_unfinished_booking_id")
+    private Booking nextUnfinishedBooking;
+
+    private LocalDateTime validUntil;
+
+    public boolean isValidAt(LocalDateTime moment) {
+        return validUntil == null || validUntil.isAfter(moment);
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * How many of some items have a booking summary, and the earliest moment one of those summaries goes stale.
+ */
+public interface ItemBookingSummaryExpiry {
+    long getItems();
+
+    long getSummaries();
+
+    LocalDateTime getValidUntil();
+}
@@ -0,0 +1,44 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ItemBookingSummaryRepository extends JpaRepository<ItemBookingSummary, Long> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from ItemBookingSummary s where s.itemId = ?1")
+    Optional<ItemBookingSummary> findByIdForUpdate(Long itemId);
+
+    /**
+     * Creates empty rows for new items with one statement, without loading anything into the persistence context.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "insert into item_booking_summary (item_id) select i.id from item i where i.id in ?1", nativeQuery = true)
+    int insertAllEmptyByItemIdIn(Collection<Long> itemIds);
+
+    @Query("select s from ItemBookingSummary s left join fetch s.lastBooking left join fetch s.nextBooking where s.itemId in ?1")
+    List<ItemBookingSummary> findAllWithBookingsByItemIdIn(Collection<Long> itemIds);
+
+    @Query("select s from ItemBookingSummary s left join fetch s.lastStartedBooking left join fetch s.nextUnfinishedBooking where s.itemId = ?1")
+    Optional<ItemBookingSummary> findWithCurrentBookingsByItemId(Long itemId);
+
+    @Query("select s.itemId from ItemBookingSummary s where s.validUntil <= ?1 order by s.validUntil")
+    List<Long> findAllItemIdsByValidUntilNotAfter(LocalDateTime moment, Pageable pageable);
+
+    @Query("select count(i) as items, count(s) as summaries, min(s.validUntil) as validUntil "
+            + "from Item i left join ItemBookingSummary s on s.itemId = i.id where i.owner.id = ?1")
+    ItemBookingSummaryExpiry findExpiryByOwnerId(Long ownerId);
+
+    @Query("select count(i) as items, count(s) as summaries, min(s.validUntil) as validUntil "
+            + "from Item i left join ItemBookingSummary s on s.itemId = i.id where i.id = ?1")
+    ItemBookingSummaryExpiry findExpiryByItemId(Long itemId);
+}
@@ -1,24 +1,44 @@
 package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.item.model.Item;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
-public interface ItemRepository extends JpaRepository<Item, Long> {
+public interface ItemRepository extends JpaRepository<Item, Long>, ItemWithBookingRepository, ItemWordSearchRepository {
+    @Query("select i from Item i where i.owner.id = ?1")
     List<Item> findAllByOwner_Id(Long ownerId);
 
-    @Query("select i from Item i " +
-            "where i.available = true and ( upper(i.name) like upper(concat('%', ?1, '%')) " +
-            " or upper(i.description) like upper(concat('%', ?1, '%')) )")
-    List<Item> findAllAvailableTrueAndNameOrDescriptionLikeIgnoreCase(String query, Pageable pageable);
+    @Query("select i from Item i where i.available = true and i.owner.id = ?1 order by i.id")
+    List<Item> findAllByAvailableTrueAndOwner_IdOrderById(Long ownerId, Pageable pageable);
 
-    @Query("select i as item, lb as lastBooking, nb as nextBooking from Item i " +
-            "left outer join Booking lb on lb.item = i and lb.finish = (select max(lb1.finish) from Booking lb1 where lb1.item = i and lb1.finish < ?2) " +
-            "left outer join Booking nb on nb.item = i and nb.start = (select min(nb1.start) from Booking nb1 where nb1.item = i and nb1.start > ?2) " +
-            "where i.available = true and i.owner.id = ?1")
-    List<ItemWithBookingProjection> findAllAvailableTrueByOwner_IdWithClosestBookings(Long ownerId, LocalDateTime now, Pageable pageable);
+    @EntityGraph(attributePaths = {"comments", "comments.author"})
+    List<Item> findAllWithCommentsByIdIn(Collection<Long> ids);
+
+    @Query(value = "select i.* from item i " +
+            "where i.available = true " +
+            "and to_tsvector('simple', coalesce(i.name, '') || ' ' || coalesce(i.description, '')) @@ to_tsquery('simple', ?1) " +
+            "order by ts_rank(to_tsvector('simple', coalesce(i.name, '') || ' ' || coalesce(i.description, '')), to_tsquery('simple', ?1)) desc, i.id",
+            nativeQuery = true)
+    List<Item> findAllAvailableTrueByFullTextQuery(String tsQuery, Pageable pageable);
+
+    @Query(value = "select i.* from item i " +
+            "where i.available = true " +
+            "and to_tsvector('simple', coalesce(i.name, '') || ' ' || coalesce(i.description, '')) @@ to_tsquery('simple', ?1) " +
+            "and not exists (select 1 from booking b where b.item_id = i.id and b.status = ?4 and b.start < ?3 and b.finish > ?2) " +
+            "order by ts_rank(to_tsvector('simple', coalesce(i.name, '') || ' ' || coalesce(i.description, '')), to_tsquery('simple', ?1)) desc, i.id",
+            nativeQuery = true)
+    List<Item> findAllAvailableTrueByFullTextQueryWithoutBookingBetween(String tsQuery, LocalDateTime start, LocalDateTime end, int status, Pageable pageable);
+
+    @Query("select i.id as id, i.name as name, i.description as description from Item i " +
+            "where i.available = true and i.id > ?1 order by i.id")
+    List<ItemSearchDocument> findAllAvailableTrueSearchDocumentsByIdGreaterThan(Long afterId, Pageable pageable);
+
+    @Query("select i.id as id, i.name as name from Item i where i.available = true order by i.id desc")
+    List<ItemNameProjection> findAllAvailableTrueNamesNewestFirst(Pageable pageable);
 }
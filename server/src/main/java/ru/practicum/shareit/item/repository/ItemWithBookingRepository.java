@@ -0,0 +1,22 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ItemWithBookingRepository {
+    /**
+     * Page of the owner's available items ordered by id with their closest bookings,
+     * see {@link #findClosestBookingsRanked(List, LocalDateTime)}.
+     */
+    List<ItemWithBookingProjection> findAllAvailableTrueByOwner_IdWithClosestBookingsRanked(Long ownerId, LocalDateTime now, Pageable pageable);
+
+    /**
+     * Pairs each item with its latest finished and earliest upcoming not declined booking. The bookings are picked
+     * by a single {@code row_number()} pass over the bookings of the given items instead of a correlated subquery
+     * per item.
+     */
+    List<ItemWithBookingProjection> findClosestBookingsRanked(List<Item> items, LocalDateTime now);
+}
@@ -0,0 +1,103 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public class ItemWithBookingRepositoryImpl implements ItemWithBookingRepository {
+    /**
+     * Ranks the bookings of the given items once: {@code last_rank} orders finished bookings by finish descending,
+     * {@code next_rank} orders upcoming bookings by start ascending, each within its item.
+     * The ranking is not joined back to item because H2 re-evaluates a joined derived table per outer row.
+     */
+    private static final String CLOSEST_BOOKING_IDS_QUERY = "select r.item_id, r.id, r.last_rank from (" +
+            "   select b.item_id, b.id, " +
+            "   case when b.finish < ?2 then row_number() over (" +
+            "       partition by b.item_id, case when b.finish < ?2 then 1 else 0 end order by b.finish desc, b.id desc" +
+            "   ) end as last_rank, " +
+            "   case when b.start > ?2 then row_number() over (" +
+            "       partition by b.item_id, case when b.start > ?2 then 1 else 0 end order by b.start, b.id" +
+            "   ) end as next_rank " +
+            "   from booking b " +
+            "   where b.item_id in (?1) and (b.finish < ?2 or b.start > ?2)" +
+            ") r " +
+            "where r.last_rank = 1 or r.next_rank = 1";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ItemWithBookingProjection> findAllAvailableTrueByOwner_IdWithClosestBookingsRanked(Long ownerId, LocalDateTime now, Pageable pageable) {
+        TypedQuery<Item> itemQuery = entityManager
+                .createQuery("select i from Item i where i.available = true and i.owner.id = :ownerId order by i.id", Item.class)
+                .setParameter("ownerId", ownerId);
+
+        if (pageable.isPaged()) {
+            itemQuery.setFirstResult((int) pageable.getOffset());
+            itemQuery.setMaxResults(pageable.getPageSize());
+        }
+
+        return findClosestBookingsRanked(itemQuery.getResultList(), now);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @SuppressWarnings("unchecked")
+    public List<ItemWithBookingProjection> findClosestBookingsRanked(List<Item> items, LocalDateTime now) {
+        if (items.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Object[]> rows = entityManager
+                .createNativeQuery(CLOSEST_BOOKING_IDS_QUERY)
+                .setParameter(1, items.stream().map(Item::getId).collect(Collectors.toList()))
+                .setParameter(2, now)
+                .getResultList();
+
+        Map<Long, Long> lastBookingIds = new HashMap<>();
+        Map<Long, Long> nextBookingIds = new HashMap<>();
+        for (Object[] row : rows) {
+            boolean isLast = row[2] != null && ((Number) row[2]).longValue() == 1;
+            (isLast ? lastBookingIds : nextBookingIds).put(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+        }
+
+        Map<Long, Booking> bookings = findBookingsById(rows);
+
+        return items
+                .stream()
+                .map(item -> new ItemWithClosestBookings(
+                        item,
+                        bookings.get(lastBookingIds.get(item.getId())),
+                        bookings.get(nextBookingIds.get(item.getId()))
+                ))
+                .collect(Collectors.toList());
+    }
+
+    private Map<Long, Booking> findBookingsById(List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Set<Long> ids = rows
+                .stream()
+                .map(row -> ((Number) row[1]).longValue())
+                .collect(Collectors.toSet());
+
+        return entityManager
+                .createQuery("select b from Booking b where b.id in :ids", Booking.class)
+                .setParameter("ids", ids)
+                .getResultList()
+                .stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+    }
+}
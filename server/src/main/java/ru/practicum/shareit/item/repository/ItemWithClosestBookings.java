@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item.repository;
+
+import lombok.Value;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+
+@Value
+public class ItemWithClosestBookings implements ItemWithBookingProjection {
+    Item item;
+
+    Booking lastBooking;
+
+    Booking nextBooking;
+}
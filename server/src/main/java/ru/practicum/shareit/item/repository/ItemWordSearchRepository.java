@@ -0,0 +1,30 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ItemWordSearchRepository {
+    /**
+     * Available items whose name or description has a word starting with each of the tokens, the way
+     * {@link ItemRepository#findAllAvailableTrueByFullTextQuery} matches a prefix query. Items matching more tokens
+     * in their name come first, then by id. Words are runs of letters and digits, as in
+     * {@link ru.practicum.shareit.item.search.ItemSearchTokenizer}. For H2, which has no full-text search.
+     */
+    List<Item> findAllAvailableTrueByWordPrefixes(List<String> tokens, Pageable pageable);
+
+    /**
+     * Same as {@link #findAllAvailableTrueByWordPrefixes} but leaves out items with a booking of the given status
+     * that shares time with {@code [start, end)}.
+     */
+    List<Item> findAllAvailableTrueByWordPrefixesWithoutBookingBetween(
+            List<String> tokens,
+            LocalDateTime start,
+            LocalDateTime end,
+            BookingStatus status,
+            Pageable pageable
+    );
+}
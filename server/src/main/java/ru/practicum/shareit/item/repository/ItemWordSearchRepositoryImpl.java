@@ -0,0 +1,83 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+public class ItemWordSearchRepositoryImpl implements ItemWordSearchRepository {
+    /**
+     * The column lower-cased with every run of other characters turned into a single space, and a space in front,
+     * so that {@code like '% token%'} matches a word starting with the token.
+     */
+    private static final String NAME_WORDS = "(' ' || regexp_replace(lower(coalesce(i.name, '')), '[^\\p{L}\\p{N}]+', ' '))";
+
+    private static final String DESCRIPTION_WORDS = "(' ' || regexp_replace(lower(coalesce(i.description, '')), '[^\\p{L}\\p{N}]+', ' '))";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Item> findAllAvailableTrueByWordPrefixes(List<String> tokens, Pageable pageable) {
+        return find(tokens, "", pageable, query -> {
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Item> findAllAvailableTrueByWordPrefixesWithoutBookingBetween(
+            List<String> tokens,
+            LocalDateTime start,
+            LocalDateTime end,
+            BookingStatus status,
+            Pageable pageable
+    ) {
+        String free = "and not exists (select 1 from booking b " +
+                "where b.item_id = i.id and b.status = :status and b.start < :end and b.finish > :start) ";
+
+        return find(tokens, free, pageable, query -> query
+                .setParameter("status", status.ordinal())
+                .setParameter("start", start)
+                .setParameter("end", end));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Item> find(List<String> tokens, String condition, Pageable pageable, Consumer<Query> parameters) {
+        if (tokens.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        StringBuilder where = new StringBuilder("where i.available = true ");
+        StringBuilder rank = new StringBuilder("0");
+        for (int i = 0; i < tokens.size(); i++) {
+            where.append("and (").append(NAME_WORDS).append(" like :token").append(i)
+                    .append(" or ").append(DESCRIPTION_WORDS).append(" like :token").append(i).append(") ");
+            rank.append(" + case when ").append(NAME_WORDS).append(" like :token").append(i).append(" then 1 else 0 end");
+        }
+
+        Query query = entityManager.createNativeQuery(
+                "select i.* from item i " + where + condition + "order by " + rank + " desc, i.id",
+                Item.class
+        );
+        for (int i = 0; i < tokens.size(); i++) {
+            query.setParameter("token" + i, "% " + tokens.get(i) + "%");
+        }
+        parameters.accept(query);
+
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+
+        return query.getResultList();
+    }
+}
@@ -0,0 +1,58 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Postgres full-text search over the GIN index declared in the V3 migration.
+ * Every query token is matched as a word prefix, results are ordered by relevance.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "full-text", matchIfMissing = true)
+public class FullTextItemSearchEngine implements ItemSearchEngine {
+    private final ItemRepository itemRepository;
+
+    public FullTextItemSearchEngine(ItemRepository itemRepository) {
+        this.itemRepository = itemRepository;
+    }
+
+    @Override
+    public List<Item> search(String text, Pageable pageable) {
+        List<String> tokens = ItemSearchTokenizer.tokenize(text);
+
+        if (tokens.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        return itemRepository.findAllAvailableTrueByFullTextQuery(toTsQuery(tokens), pageable);
+    }
+
+    @Override
+    public List<Item> searchFreeBetween(String text, LocalDateTime start, LocalDateTime end, Pageable pageable) {
+        List<String> tokens = ItemSearchTokenizer.tokenize(text);
+
+        if (tokens.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        return itemRepository.findAllAvailableTrueByFullTextQueryWithoutBookingBetween(
+                toTsQuery(tokens), start, end, BookingStatus.APPROVED.ordinal(), pageable
+        );
+    }
+
+    static String toTsQuery(List<String> tokens) {
+        return tokens
+                .stream()
+                .map(token -> token + ":*")
+                .collect(Collectors.joining(" & "));
+    }
+}
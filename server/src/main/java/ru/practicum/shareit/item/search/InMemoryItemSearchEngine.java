@@ -0,0 +1,177 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.extension.TransactionCallbacks;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.repository.ItemSearchDocument;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Serves searches from an {@link InMemoryItemSearchIndex} so that the id list never costs a database query;
+ * only the requested page of items is loaded. The index is rebuilt from the database on startup and kept current
+ * by {@link ru.practicum.shareit.item.service.ItemServiceImpl} after each committed change.
+ * <p>
+ * Matches are not ranked: they come in ascending id order, unlike those of {@link FullTextItemSearchEngine}.
+ * <p>
+ * The index is local to the JVM, so this engine is only correct when a single server instance writes items.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "in-memory")
+@Slf4j
+public class InMemoryItemSearchEngine implements ItemSearchEngine, SmartInitializingSingleton, MeterBinder {
+    private static final int REBUILD_BATCH_SIZE = 10_000;
+
+    private static final int BOOKING_CHECK_BATCH_SIZE = 1_000;
+
+    private final ItemRepository itemRepository;
+
+    private final BookingRepository bookingRepository;
+
+    private final InMemoryItemSearchIndex index = new InMemoryItemSearchIndex();
+
+    public InMemoryItemSearchEngine(ItemRepository itemRepository, BookingRepository bookingRepository) {
+        this.itemRepository = itemRepository;
+        this.bookingRepository = bookingRepository;
+    }
+
+    /**
+     * Runs once all singletons exist and before the web server starts accepting requests.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        index.clear();
+
+        long lastId = 0;
+        List<ItemSearchDocument> batch;
+        do {
+            batch = itemRepository.findAllAvailableTrueSearchDocumentsByIdGreaterThan(lastId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+
+            for (ItemSearchDocument document : batch) {
+                index.put(document.getId(), document.getName(), document.getDescription());
+                lastId = document.getId();
+            }
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+
+        log.info("Item search index rebuilt: {} items in {} ms", index.size(), System.currentTimeMillis() - started);
+    }
+
+    @Override
+    public List<Item> search(String text, Pageable pageable) {
+        return loadPage(index.search(ItemSearchTokenizer.tokenize(text)), pageable);
+    }
+
+    /**
+     * Checks matching ids against approved bookings in batches, in index order, and stops as soon as the requested
+     * page is filled, so a broad query costs one booking query per thousand candidates actually looked at.
+     */
+    @Override
+    public List<Item> searchFreeBetween(String text, LocalDateTime start, LocalDateTime end, Pageable pageable) {
+        long[] ids = index.search(ItemSearchTokenizer.tokenize(text));
+        long needed = pageable.isPaged() ? pageable.getOffset() + pageable.getPageSize() : Long.MAX_VALUE;
+
+        long[] freeIds = new long[ids.length];
+        int free = 0;
+        for (int from = 0; from < ids.length && free < needed; from += BOOKING_CHECK_BATCH_SIZE) {
+            List<Long> batch = Arrays
+                    .stream(ids, from, Math.min(from + BOOKING_CHECK_BATCH_SIZE, ids.length))
+                    .boxed()
+                    .collect(Collectors.toList());
+            Set<Long> busyIds = new HashSet<>(
+                    bookingRepository.findItemIdsWithBookingBetween(batch, BookingStatus.APPROVED, start, end)
+            );
+
+            for (Long id : batch) {
+                if (!busyIds.contains(id)) {
+                    freeIds[free++] = id;
+                }
+            }
+        }
+
+        return loadPage(Arrays.copyOf(freeIds, free), pageable);
+    }
+
+    private List<Item> loadPage(long[] ids, Pageable pageable) {
+        int from = pageable.isPaged() ? (int) Math.min(pageable.getOffset(), ids.length) : 0;
+        int to = pageable.isPaged() ? (int) Math.min((long) from + pageable.getPageSize(), ids.length) : ids.length;
+
+        if (from == to) {
+            return Collections.emptyList();
+        }
+
+        List<Long> pageIds = Arrays.stream(ids, from, to).boxed().collect(Collectors.toList());
+        Map<Long, Item> items = itemRepository
+                .findAllWithCommentsByIdIn(pageIds)
+                .stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity(), (item, duplicate) -> item));
+
+        return pageIds
+                .stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void index(Item item) {
+        long itemId = item.getId();
+        String name = item.getName();
+        String description = item.getDescription();
+        boolean available = Boolean.TRUE.equals(item.getAvailable());
+
+        TransactionCallbacks.afterCommit(() -> {
+            if (available) {
+                index.put(itemId, name, description);
+            } else {
+                index.remove(itemId);
+            }
+        });
+    }
+
+    @Override
+    public void remove(Long itemId) {
+        TransactionCallbacks.afterCommit(() -> index.remove(itemId));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("shareit.search.index.items", index, InMemoryItemSearchIndex::size)
+                .description("Items held by the in-memory search index")
+                .register(registry);
+
+        Gauge.builder("shareit.search.index.memory", index, InMemoryItemSearchIndex::estimateMemoryBytes)
+                .description("Estimated heap used by the in-memory search index")
+                .baseUnit("bytes")
+                .register(registry);
+
+        Gauge.builder("shareit.search.index.memory.per.million.items", index, InMemoryItemSearchEngine::bytesPerMillionItems)
+                .description("Estimated heap the in-memory search index needs per million items")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    private static double bytesPerMillionItems(InMemoryItemSearchIndex index) {
+        int size = index.size();
+
+        return size == 0 ? 0 : index.estimateMemoryBytes() * 1_000_000.0 / size;
+    }
+}
@@ -0,0 +1,190 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index from case-folded tokens to the ids of the items whose name or description contain them.
+ * Query tokens are matched as prefixes, the same way {@link FullTextItemSearchEngine} does.
+ */
+public class InMemoryItemSearchIndex {
+    // rough per-object overheads of a 64-bit JVM with compressed oops, used for the memory estimate only
+    private static final long TOKEN_ENTRY_BYTES = 40 + 24 + 40 + 16;
+
+    private static final long DOCUMENT_ENTRY_BYTES = 32 + 16 + 16;
+
+    private final NavigableMap<String, LongPostingList> postings = new TreeMap<>();
+
+    private final Map<Long, String[]> documents = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void put(long itemId, String name, String description) {
+        List<String> tokens = ItemSearchTokenizer.tokenize(name + " " + description);
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(itemId);
+
+            String[] indexedTokens = new String[tokens.size()];
+            for (int i = 0; i < indexedTokens.length; i++) {
+                String token = tokens.get(i);
+                LongPostingList postingList = postings.get(token);
+
+                if (postingList == null) {
+                    postingList = new LongPostingList();
+                    postings.put(token, postingList);
+                } else {
+                    // share the key instance already held by the dictionary
+                    token = postings.ceilingKey(token);
+                }
+
+                postingList.add(itemId);
+                indexedTokens[i] = token;
+            }
+
+            documents.put(itemId, indexedTokens);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long itemId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return ascending ids of the items that match every token
+     */
+    public long[] search(List<String> tokens) {
+        if (tokens.isEmpty()) {
+            return new long[0];
+        }
+
+        lock.readLock().lock();
+        try {
+            List<long[]> matches = new ArrayList<>(tokens.size());
+
+            for (String token : tokens) {
+                long[] ids = findByPrefix(token);
+
+                if (ids.length == 0) {
+                    return ids;
+                }
+
+                matches.add(ids);
+            }
+
+            matches.sort(Comparator.comparingInt(ids -> ids.length));
+
+            long[] result = matches.get(0);
+            for (int i = 1; i < matches.size() && result.length > 0; i++) {
+                result = intersect(result, matches.get(i));
+            }
+
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long estimateMemoryBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+
+            for (Map.Entry<String, LongPostingList> entry : postings.entrySet()) {
+                bytes += TOKEN_ENTRY_BYTES + 2L * entry.getKey().length() + 8L * entry.getValue().capacity();
+            }
+
+            for (String[] tokens : documents.values()) {
+                bytes += DOCUMENT_ENTRY_BYTES + 4L * tokens.length;
+            }
+
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeLocked(long itemId) {
+        String[] tokens = documents.remove(itemId);
+
+        if (tokens == null) {
+            return;
+        }
+
+        for (String token : tokens) {
+            LongPostingList postingList = postings.get(token);
+            postingList.remove(itemId);
+
+            if (postingList.isEmpty()) {
+                postings.remove(token);
+            }
+        }
+    }
+
+    private long[] findByPrefix(String prefix) {
+        Collection<LongPostingList> lists = postings
+                .subMap(prefix, true, prefix + Character.MAX_VALUE, false)
+                .values();
+
+        if (lists.size() == 1) {
+            return lists.iterator().next().toArray();
+        }
+
+        long[] ids = new long[lists.stream().mapToInt(LongPostingList::size).sum()];
+        int offset = 0;
+        for (LongPostingList postingList : lists) {
+            long[] part = postingList.toArray();
+            System.arraycopy(part, 0, ids, offset, part.length);
+            offset += part.length;
+        }
+
+        return Arrays.stream(ids).sorted().distinct().toArray();
+    }
+
+    private static long[] intersect(long[] left, long[] right) {
+        long[] result = new long[Math.min(left.length, right.length)];
+        int size = 0;
+
+        for (int i = 0, j = 0; i < left.length && j < right.length; ) {
+            if (left[i] == right[j]) {
+                result[size++] = left[i];
+                i++;
+                j++;
+            } else if (left[i] < right[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+
+        return Arrays.copyOf(result, size);
+    }
+}
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ItemSearchEngine {
+    List<Item> search(String text, Pageable pageable);
+
+    /**
+     * Same as {@link #search} but leaves out items with an approved booking that shares time with
+     * {@code [start, end)}.
+     */
+    List<Item> searchFreeBetween(String text, LocalDateTime start, LocalDateTime end, Pageable pageable);
+
+    /**
+     * Notifies the engine that the item was created or its searchable fields changed.
+     * Engines that query the database directly do not need to do anything.
+     */
+    default void index(Item item) {
+    }
+
+    default void remove(Long itemId) {
+    }
+}
@@ -0,0 +1,39 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Word-prefix search for databases without full-text support (H2 in tests and ci). Text is tokenized the same way
+ * as for {@link FullTextItemSearchEngine} and every token must start a word of the name or description, each
+ * matched with a {@code like} over the words of the column. Items matching more tokens in their name rank first,
+ * a rough stand-in for {@code ts_rank}.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "like")
+public class LikeItemSearchEngine implements ItemSearchEngine {
+    private final ItemRepository itemRepository;
+
+    public LikeItemSearchEngine(ItemRepository itemRepository) {
+        this.itemRepository = itemRepository;
+    }
+
+    @Override
+    public List<Item> search(String text, Pageable pageable) {
+        return itemRepository.findAllAvailableTrueByWordPrefixes(ItemSearchTokenizer.tokenize(text), pageable);
+    }
+
+    @Override
+    public List<Item> searchFreeBetween(String text, LocalDateTime start, LocalDateTime end, Pageable pageable) {
+        return itemRepository.findAllAvailableTrueByWordPrefixesWithoutBookingBetween(
+                ItemSearchTokenizer.tokenize(text), start, end, BookingStatus.APPROVED, pageable
+        );
+    }
+}
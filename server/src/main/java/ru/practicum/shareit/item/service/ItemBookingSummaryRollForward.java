@@ -0,0 +1,35 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+@Component
+@Slf4j
+public class ItemBookingSummaryRollForward {
+    private static final int BATCH_SIZE = 500;
+
+    private final ItemBookingSummaryService itemBookingSummaryService;
+
+    public ItemBookingSummaryRollForward(ItemBookingSummaryService itemBookingSummaryService) {
+        this.itemBookingSummaryService = itemBookingSummaryService;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.item-booking-summary.roll-forward-interval-ms:10000}")
+    public void rollForward() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        int refreshed;
+
+        do {
+            refreshed = itemBookingSummaryService.rollForward(now, BATCH_SIZE);
+            total += refreshed;
+        } while (refreshed == BATCH_SIZE);
+
+        if (total > 0) {
+            log.debug("Rolled forward {} item booking summaries", total);
+        }
+    }
+}
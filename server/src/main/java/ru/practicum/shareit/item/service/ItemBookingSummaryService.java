@@ -0,0 +1,37 @@
+package ru.practicum.shareit.item.service;
+
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemWithBookingProjection;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface ItemBookingSummaryService {
+    void initialize(Item item);
+
+    void initializeAll(List<Item> items);
+
+    void refresh(Long itemId);
+
+    List<ItemWithBookingProjection> findClosestBookings(List<Item> items, LocalDateTime now);
+
+    /**
+     * The item with its latest started booking as the last one and its earliest not finished booking as the next
+     * one, so a booking in progress is both.
+     */
+    ItemWithBookingProjection findCurrentBookings(Item item, LocalDateTime now);
+
+    int rollForward(LocalDateTime now, int limit);
+
+    /**
+     * Moment the closest bookings of the owner's items change without any booking changing,
+     * {@link LocalDateTime#MAX} if never. Empty when some of them are ranked live and may change at any moment.
+     */
+    Optional<LocalDateTime> findStableUntilByOwner(Long ownerId, LocalDateTime now);
+
+    /**
+     * The same for a single item.
+     */
+    Optional<LocalDateTime> findStableUntilByItem(Long itemId, LocalDateTime now);
+}
@@ -0,0 +1,175 @@
+package ru.practicum.shareit.item.service;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+import ru.practicum.shareit.item.repository.ItemBookingSummaryExpiry;
+import ru.practicum.shareit.item.repository.ItemBookingSummaryRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.repository.ItemWithBookingProjection;
+import ru.practicum.shareit.item.repository.ItemWithClosestBookings;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Maintains {@link ItemBookingSummary} rows. Every item gets a row when it is created, and the migration adding
+ * the table gave older items rows that are already expired. Booking changes refresh the row of their item right away;
+ * {@link #rollForward} refreshes rows whose {@code validUntil} has passed. Reads fall back to a live ranking for rows
+ * that are missing or already stale.
+ */
+@Service
+public class ItemBookingSummaryServiceImpl implements ItemBookingSummaryService {
+    private final ItemBookingSummaryRepository summaryRepository;
+
+    private final BookingRepository bookingRepository;
+
+    private final ItemRepository itemRepository;
+
+    public ItemBookingSummaryServiceImpl(ItemBookingSummaryRepository summaryRepository, BookingRepository bookingRepository, ItemRepository itemRepository) {
+        this.summaryRepository = summaryRepository;
+        this.bookingRepository = bookingRepository;
+        this.itemRepository = itemRepository;
+    }
+
+    @Override
+    @Transactional
+    public void initialize(Item item) {
+        summaryRepository.save(new ItemBookingSummary(item.getId(), null, null, null, null, null));
+    }
+
+    @Override
+    @Transactional
+    public void initializeAll(List<Item> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+
+        summaryRepository.insertAllEmptyByItemIdIn(items.stream().map(Item::getId).collect(Collectors.toList()));
+    }
+
+    @Override
+    @Transactional
+    public void refresh(Long itemId) {
+        refresh(itemId, LocalDateTime.now());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ItemWithBookingProjection> findClosestBookings(List<Item> items, LocalDateTime now) {
+        if (items.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<Long, ItemBookingSummary> summaries = summaryRepository
+                .findAllWithBookingsByItemIdIn(items.stream().map(Item::getId).collect(Collectors.toList()))
+                .stream()
+                .filter(summary -> summary.isValidAt(now))
+                .collect(Collectors.toMap(ItemBookingSummary::getItemId, Function.identity()));
+
+        List<Item> unsummarizedItems = items
+                .stream()
+                .filter(item -> !summaries.containsKey(item.getId()))
+                .collect(Collectors.toList());
+
+        Map<Long, ItemWithBookingProjection> rankedItems = itemRepository
+                .findClosestBookingsRanked(unsummarizedItems, now)
+                .stream()
+                .collect(Collectors.toMap(projection -> projection.getItem().getId(), Function.identity()));
+
+        return items
+                .stream()
+                .map(item -> Optional
+                        .ofNullable(summaries.get(item.getId()))
+                        .<ItemWithBookingProjection>map(summary -> new ItemWithClosestBookings(item, summary.getLastBooking(), summary.getNextBooking()))
+                        .orElseGet(() -> rankedItems.get(item.getId()))
+                )
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ItemWithBookingProjection findCurrentBookings(Item item, LocalDateTime now) {
+        Optional<ItemBookingSummary> summary = summaryRepository
+                .findWithCurrentBookingsByItemId(item.getId())
+                .filter(s -> s.isValidAt(now));
+
+        if (summary.isPresent()) {
+            return new ItemWithClosestBookings(item, summary.get().getLastStartedBooking(), summary.get().getNextUnfinishedBooking());
+        }
+
+        return new ItemWithClosestBookings(
+                item,
+                bookingRepository.findFirstByItem_IdAndStartIsBeforeOrderByStartDescIdDesc(item.getId(), now).orElse(null),
+                bookingRepository.findFirstByItem_IdAndFinishIsAfterOrderByStartAscIdAsc(item.getId(), now).orElse(null)
+        );
+    }
+
+    @Override
+    @Transactional
+    public int rollForward(LocalDateTime now, int limit) {
+        List<Long> itemIds = summaryRepository.findAllItemIdsByValidUntilNotAfter(now, PageRequest.of(0, limit));
+
+        itemIds.forEach(itemId -> refresh(itemId, now));
+
+        return itemIds.size();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<LocalDateTime> findStableUntilByOwner(Long ownerId, LocalDateTime now) {
+        return stableUntil(summaryRepository.findExpiryByOwnerId(ownerId), now);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<LocalDateTime> findStableUntilByItem(Long itemId, LocalDateTime now) {
+        return stableUntil(summaryRepository.findExpiryByItemId(itemId), now);
+    }
+
+    private Optional<LocalDateTime> stableUntil(ItemBookingSummaryExpiry expiry, LocalDateTime now) {
+        if (expiry.getSummaries() < expiry.getItems()) {
+            return Optional.empty();
+        }
+
+        if (expiry.getValidUntil() == null) {
+            return Optional.of(LocalDateTime.MAX);
+        }
+
+        return expiry.getValidUntil().isAfter(now) ? Optional.of(expiry.getValidUntil()) : Optional.empty();
+    }
+
+    private void refresh(Long itemId, LocalDateTime now) {
+        ItemBookingSummary summary = summaryRepository
+                .findByIdForUpdate(itemId)
+                .orElseGet(() -> new ItemBookingSummary(itemId, null, null, null, null, null));
+
+        Optional<Booking> lastBooking = bookingRepository.findFirstByItem_IdAndFinishIsBeforeOrderByFinishDescIdDesc(itemId, now);
+        Optional<Booking> nextBooking = bookingRepository.findFirstByItem_IdAndStartIsAfterOrderByStartAscIdAsc(itemId, now);
+        Optional<Booking> lastStartedBooking = bookingRepository.findFirstByItem_IdAndStartIsBeforeOrderByStartDescIdDesc(itemId, now);
+        Optional<Booking> nextUnfinishedBooking = bookingRepository.findFirstByItem_IdAndFinishIsAfterOrderByStartAscIdAsc(itemId, now);
+        Optional<LocalDateTime> nextFinish = bookingRepository
+                .findFirstByItem_IdAndFinishIsAfterOrderByFinishAsc(itemId, now)
+                .map(Booking::getFinish);
+
+        summary.setLastBooking(lastBooking.orElse(null));
+        summary.setNextBooking(nextBooking.orElse(null));
+        summary.setLastStartedBooking(lastStartedBooking.orElse(null));
+        summary.setNextUnfinishedBooking(nextUnfinishedBooking.orElse(null));
+        summary.setValidUntil(
+                Stream.of(nextBooking.map(Booking::getStart), nextFinish)
+                        .flatMap(Optional::stream)
+                        .min(Comparator.naturalOrder())
+                        .orElse(null)
+        );
+
+        summaryRepository.save(summary);
+    }
+}
@@ -3,17 +3,43 @@ package ru.practicum.shareit.item.service;
 import ru.practicum.shareit.extension.CustomPageableParameters;
 import ru.practicum.shareit.item.dto.*;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemService {
     List<ItemResponseWithBookingDto> findAll(CustomPageableParameters customPageableParameters);
 
     List<ItemResponseDto> findByText(String text, CustomPageableParameters customPageableParameters);
 
+    List<ItemResponseDto> findFreeByText(String text, LocalDateTime start, LocalDateTime end, CustomPageableParameters customPageableParameters);
+
+    List<ItemSuggestionDto> suggest(String prefix, Integer size);
+
     ItemResponseWithBookingDto findOne(Long itemId);
 
+    /**
+     * Entity tag of the current user's items as {@link #findAll} returns them; empty when some of their closest
+     * bookings are ranked live.
+     */
+    Optional<String> getOwnItemsEtag();
+
+    /**
+     * Entity tag of the item as {@link #findOne} returns it to the current user; empty when its closest bookings
+     * are ranked live.
+     */
+    Optional<String> getEtag(Long itemId);
+
+    ItemAvailabilityDto getAvailability(Long itemId, LocalDate from, LocalDate to);
+
     ItemResponseDto create(CreateItemRequestDto createItemRequestDto);
 
+    /**
+     * Creates the items in one transaction; the result has the same order as the input.
+     */
+    List<ItemResponseDto> createAll(List<CreateItemRequestDto> createItemRequestDtos);
+
     ItemResponseDto update(Long itemId, UpdateItemRequestDto updateItemRequestDto);
 
     ItemCommentResponseDto addComment(Long itemId, CreateItemCommentDto createItemCommentDto);
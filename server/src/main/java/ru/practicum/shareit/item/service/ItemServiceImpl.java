@@ -4,10 +4,14 @@ import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.model.BookingStatus;
-import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.generic.ExtendedEntityNotFoundException;
 import ru.practicum.shareit.extension.CustomPageableParameters;
+import ru.practicum.shareit.httpcache.ChangeCounter;
+import ru.practicum.shareit.item.availability.ItemAvailabilityBitmap;
+import ru.practicum.shareit.item.availability.ItemAvailabilityCache;
+import ru.practicum.shareit.item.exception.IncorrectAvailabilityRange;
+import ru.practicum.shareit.item.exception.IncorrectSearchPeriod;
 import ru.practicum.shareit.item.exception.NotAllowedToAddComments;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.model.Comment;
@@ -15,6 +19,8 @@ import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemCommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.item.repository.ItemWithBookingProjection;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.item.suggest.ItemNameSuggester;
 import ru.practicum.shareit.mapper.ModelMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
@@ -22,14 +28,24 @@ import ru.practicum.shareit.security.user.ExtendedUserDetails;
 import ru.practicum.shareit.security.facade.IAuthenticationFacade;
 import ru.practicum.shareit.user.model.User;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class ItemServiceImpl implements ItemService {
+    private static final int MAX_AVAILABILITY_DAYS = 366;
+
     private final ItemRepository itemRepository;
 
     private final BookingRepository bookingRepository;
@@ -38,15 +54,30 @@ public class ItemServiceImpl implements ItemService {
 
     private final ItemRequestRepository itemRequestRepository;
 
+    private final ItemSearchEngine itemSearchEngine;
+
+    private final ItemNameSuggester itemNameSuggester;
+
+    private final ItemBookingSummaryService itemBookingSummaryService;
+
+    private final ItemAvailabilityCache itemAvailabilityCache;
+
+    private final ChangeCounter changeCounter;
+
     private final ModelMapper mapper;
 
     private final IAuthenticationFacade authenticationFacade;
 
-    public ItemServiceImpl(ItemRepository itemRepository, BookingRepository bookingRepository, ItemCommentRepository itemCommentRepository, ItemRequestRepository itemRequestRepository, ModelMapper mapper, IAuthenticationFacade authenticationFacade) {
+    public ItemServiceImpl(ItemRepository itemRepository, BookingRepository bookingRepository, ItemCommentRepository itemCommentRepository, ItemRequestRepository itemRequestRepository, ItemSearchEngine itemSearchEngine, ItemNameSuggester itemNameSuggester, ItemBookingSummaryService itemBookingSummaryService, ItemAvailabilityCache itemAvailabilityCache, ChangeCounter changeCounter, ModelMapper mapper, IAuthenticationFacade authenticationFacade) {
         this.itemRepository = itemRepository;
         this.bookingRepository = bookingRepository;
         this.itemCommentRepository = itemCommentRepository;
         this.itemRequestRepository = itemRequestRepository;
+        this.itemSearchEngine = itemSearchEngine;
+        this.itemNameSuggester = itemNameSuggester;
+        this.itemBookingSummaryService = itemBookingSummaryService;
+        this.itemAvailabilityCache = itemAvailabilityCache;
+        this.changeCounter = changeCounter;
         this.mapper = mapper;
         this.authenticationFacade = authenticationFacade;
     }
@@ -56,11 +87,11 @@ public class ItemServiceImpl implements ItemService {
     public List<ItemResponseWithBookingDto> findAll(CustomPageableParameters customPageableParameters) {
         ExtendedUserDetails currentUserDetails = authenticationFacade.getCurrentUserDetails();
 
-        List<ItemWithBookingProjection> items = itemRepository.findAllAvailableTrueByOwner_IdWithClosestBookings(
+        List<Item> ownerItems = itemRepository.findAllByAvailableTrueAndOwner_IdOrderById(
                 currentUserDetails.getId(),
-                LocalDateTime.now(),
                 customPageableParameters.toPageable()
         );
+        List<ItemWithBookingProjection> items = itemBookingSummaryService.findClosestBookings(ownerItems, LocalDateTime.now());
 
         return items
                 .stream()
@@ -80,10 +111,26 @@ public class ItemServiceImpl implements ItemService {
             return Collections.emptyList();
         }
 
-        List<Item> items = itemRepository.findAllAvailableTrueAndNameOrDescriptionLikeIgnoreCase(
-                text,
-                customPageableParameters.toPageable()
-        );
+        List<Item> items = itemSearchEngine.search(text, customPageableParameters.toPageable());
+
+        return items
+                .stream()
+                .map(mapper::toItemResponseDto)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ItemResponseDto> findFreeByText(String text, LocalDateTime start, LocalDateTime end, CustomPageableParameters customPageableParameters) {
+        if (start == null || end == null || !start.isBefore(end)) {
+            throw new IncorrectSearchPeriod(start, end);
+        }
+
+        if (text.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Item> items = itemSearchEngine.searchFreeBetween(text, start, end, customPageableParameters.toPageable());
 
         return items
                 .stream()
@@ -91,6 +138,15 @@ public class ItemServiceImpl implements ItemService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<ItemSuggestionDto> suggest(String prefix, Integer size) {
+        return itemNameSuggester.suggest(prefix, size);
+    }
+
+    /**
+     * Unlike the owner listing, the last booking here is the latest one already started and the next one
+     * the earliest one not yet finished, so a booking in progress is both.
+     */
     @Override
     @Transactional(readOnly = true)
     public ItemResponseWithBookingDto findOne(Long itemId) {
@@ -98,15 +154,55 @@ public class ItemServiceImpl implements ItemService {
                 .findById(itemId)
                 .orElseThrow(() -> new ExtendedEntityNotFoundException(Item.class, itemId));
 
-        Optional<Booking> lastBooking = Optional.empty();
-        Optional<Booking> nextBooking = Optional.empty();
+        if (!canReadBookingsOfItem(item)) {
+            return mapper.toItemResponseWithBookingDto(item, Optional.empty(), Optional.empty());
+        }
+
+        ItemWithBookingProjection bookings = itemBookingSummaryService.findCurrentBookings(item, LocalDateTime.now());
+
+        return mapper.toItemResponseWithBookingDto(
+                item,
+                Optional.ofNullable(bookings.getLastBooking()),
+                Optional.ofNullable(bookings.getNextBooking())
+        );
+    }
+
+    @Override
+    public Optional<String> getOwnItemsEtag() {
+        Long currentUserId = authenticationFacade.getCurrentUserDetails().getId();
+
+        return itemBookingSummaryService
+                .findStableUntilByOwner(currentUserId, LocalDateTime.now())
+                .map(stableUntil -> changeCounter.etag(currentUserId, stableUntil));
+    }
+
+    @Override
+    public Optional<String> getEtag(Long itemId) {
+        Long currentUserId = authenticationFacade.getCurrentUserDetails().getId();
+
+        return itemBookingSummaryService
+                .findStableUntilByItem(itemId, LocalDateTime.now())
+                .map(stableUntil -> changeCounter.itemEtag(currentUserId, itemId, stableUntil));
+    }
+
+    /**
+     * Free and busy hours of the item between the start of {@code from} and the end of {@code to}.
+     * Only approved bookings make an hour busy, the same ones a new booking must not overlap.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public ItemAvailabilityDto getAvailability(Long itemId, LocalDate from, LocalDate to) {
+        if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) >= MAX_AVAILABILITY_DAYS) {
+            throw new IncorrectAvailabilityRange(from, to, MAX_AVAILABILITY_DAYS);
+        }
 
-        if (canReadBookingsOfItem(item)) {
-            lastBooking = bookingRepository.findLastByItemAndStartIsBefore(item, LocalDateTime.now());
-            nextBooking = bookingRepository.findFirstByItemAndFinishIsAfter(item, LocalDateTime.now());
+        if (!itemRepository.existsById(itemId)) {
+            throw new ExtendedEntityNotFoundException(Item.class, itemId);
         }
 
-        return mapper.toItemResponseWithBookingDto(item, lastBooking, nextBooking);
+        ItemAvailabilityBitmap bitmap = itemAvailabilityCache.get(itemId, this::loadAvailability);
+
+        return new ItemAvailabilityDto(itemId, from, to, bitmap.slots(from, to));
     }
 
     @Override
@@ -118,7 +214,53 @@ public class ItemServiceImpl implements ItemService {
                 ? itemRequestRepository.findById(createItemRequestDto.getRequestId())
                 : Optional.empty();
 
-        return mapper.toItemResponseDto(itemRepository.save(mapper.toItem(createItemRequestDto, currentUser, itemRequest)));
+        Item item = itemRepository.save(mapper.toItem(createItemRequestDto, currentUser, itemRequest));
+        itemBookingSummaryService.initialize(item);
+        itemSearchEngine.index(item);
+        itemNameSuggester.index(item);
+        changeCounter.changed(currentUser.getId());
+
+        if (itemRequest.isPresent()) {
+            changeCounter.changedForEveryone();
+        }
+
+        return mapper.toItemResponseDto(item);
+    }
+
+    @Override
+    @Transactional
+    public List<ItemResponseDto> createAll(List<CreateItemRequestDto> createItemRequestDtos) {
+        User currentUser = authenticationFacade.getCurrentUser();
+
+        Set<Long> requestIds = createItemRequestDtos
+                .stream()
+                .map(CreateItemRequestDto::getRequestId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, ItemRequest> itemRequests = itemRequestRepository
+                .findAllById(requestIds)
+                .stream()
+                .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+
+        List<Item> items = itemRepository.saveAll(
+                createItemRequestDtos
+                        .stream()
+                        .map(dto -> mapper.toItem(dto, currentUser, Optional.ofNullable(itemRequests.get(dto.getRequestId()))))
+                        .collect(Collectors.toList())
+        );
+        itemBookingSummaryService.initializeAll(items);
+        items.forEach(itemSearchEngine::index);
+        itemNameSuggester.indexAll(items);
+        changeCounter.changed(currentUser.getId());
+
+        if (!itemRequests.isEmpty()) {
+            changeCounter.changedForEveryone();
+        }
+
+        return items
+                .stream()
+                .map(mapper::toItemResponseDto)
+                .collect(Collectors.toList());
     }
 
     @Override
@@ -142,6 +284,17 @@ public class ItemServiceImpl implements ItemService {
             item.setAvailable(updateItemRequestDto.getAvailable());
         }
 
+        if (updateItemRequestDto.getName() != null
+                || updateItemRequestDto.getDescription() != null
+                || updateItemRequestDto.getAvailable() != null) {
+            itemSearchEngine.index(item);
+            countItemChange(item);
+        }
+
+        if (updateItemRequestDto.getName() != null || updateItemRequestDto.getAvailable() != null) {
+            itemNameSuggester.index(item);
+        }
+
         return mapper.toItemResponseDto(item);
     }
 
@@ -167,6 +320,8 @@ public class ItemServiceImpl implements ItemService {
         }
 
         Comment comment = itemCommentRepository.save(mapper.toItemComment(createItemCommentDto, currentUser, item));
+        changeCounter.changed(currentUser.getId());
+        countItemChange(item);
 
         return mapper.toItemCommentResponseDto(comment);
     }
@@ -180,6 +335,35 @@ public class ItemServiceImpl implements ItemService {
 
         checkItemOwnershipOrThrow(item);
         itemRepository.deleteById(itemId);
+        itemSearchEngine.remove(itemId);
+        itemNameSuggester.remove(itemId);
+        changeCounter.changedForEveryone();
+    }
+
+    /**
+     * An item shows in its owner's lists, in the bookings of its bookers and on its own page; when it answers a request
+     * it also shows in the request lists of every user.
+     */
+    private void countItemChange(Item item) {
+        Set<Long> readers = new HashSet<>(bookingRepository.findAllBookerIdsByItem_Id(item.getId()));
+        readers.add(item.getOwner().getId());
+
+        changeCounter.changed(readers);
+        changeCounter.itemChanged(item.getId());
+
+        if (item.getRequest() != null) {
+            changeCounter.changedForEveryone();
+        }
+    }
+
+    private ItemAvailabilityBitmap loadAvailability(Long itemId) {
+        ItemAvailabilityBitmap.Builder builder = ItemAvailabilityBitmap.builder();
+
+        bookingRepository
+                .findAllByItem_IdAndStatusIn(itemId, EnumSet.of(BookingStatus.APPROVED))
+                .forEach(booking -> builder.busy(booking.getStart(), booking.getFinish()));
+
+        return builder.build();
     }
 
     private void checkItemOwnershipOrThrow(Item item) {
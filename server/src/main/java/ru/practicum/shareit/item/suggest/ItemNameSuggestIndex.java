@@ -0,0 +1,258 @@
+package ru.practicum.shareit.item.suggest;
+
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Snapshot of item names sorted by their lowercase form. A lookup is a binary search for the first key
+ * not below the prefix followed by a forward scan, so it costs {@code O(log n + size)} without touching the database.
+ * Keys are cut to {@link #MAX_KEY_LENGTH} characters to keep the footprint predictable.
+ * <p>
+ * Names put or removed after the snapshot was built are kept in a sorted overlay that lookups merge with
+ * the arrays; {@link #compact} folds the overlay into a new index once it has grown. The overlay is made of
+ * concurrent collections updated in place, so a change costs {@code O(log overlay)}. Lookups may run at any time;
+ * {@link #update} and {@link #compact} must not run concurrently with each other.
+ */
+final class ItemNameSuggestIndex {
+    static final int MAX_KEY_LENGTH = 64;
+
+    private static final Comparator<Entry> ORDER = Comparator
+            .comparing((Entry entry) -> entry.key)
+            .thenComparingLong(entry -> entry.id);
+
+    private final String[] keys;
+
+    private final String[] names;
+
+    private final long[] ids;
+
+    private final NavigableSet<Entry> added;
+
+    private final Map<Long, Entry> addedById;
+
+    /**
+     * Ids whose entry in the arrays is hidden, because the item was removed or put again with another name.
+     */
+    private final Set<Long> removedIds;
+
+    private final int evicted;
+
+    private ItemNameSuggestIndex(String[] keys, String[] names, long[] ids) {
+        this(keys, names, ids, 0);
+    }
+
+    private ItemNameSuggestIndex(String[] keys, String[] names, long[] ids, int evicted) {
+        this.keys = keys;
+        this.names = names;
+        this.ids = ids;
+        this.added = new ConcurrentSkipListSet<>(ORDER);
+        this.addedById = new ConcurrentHashMap<>();
+        this.removedIds = ConcurrentHashMap.newKeySet();
+        this.evicted = evicted;
+    }
+
+    static ItemNameSuggestIndex empty() {
+        return new ItemNameSuggestIndex(new String[0], new String[0], new long[0]);
+    }
+
+    static ItemNameSuggestIndex of(long[] ids, String[] names, int count) {
+        Integer[] order = new Integer[count];
+        String[] unsortedKeys = new String[count];
+
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+            unsortedKeys[i] = toKey(names[i]);
+        }
+
+        Arrays.sort(order, Comparator.comparing((Integer i) -> unsortedKeys[i]).thenComparingLong(i -> ids[i]));
+
+        String[] sortedKeys = new String[count];
+        String[] sortedNames = new String[count];
+        long[] sortedIds = new long[count];
+
+        for (int i = 0; i < count; i++) {
+            int position = order[i];
+            sortedKeys[i] = unsortedKeys[position];
+            sortedNames[i] = sortedKeys[i].equals(names[position]) ? sortedKeys[i] : names[position];
+            sortedIds[i] = ids[position];
+        }
+
+        return new ItemNameSuggestIndex(sortedKeys, sortedNames, sortedIds);
+    }
+
+    /**
+     * Returns up to {@code size} items whose name starts with the prefix, one per distinct name, alphabetically.
+     */
+    List<ItemSuggestionDto> suggest(String prefix, int size) {
+        String key = toKey(prefix);
+
+        if (key.isEmpty() || size <= 0) {
+            return Collections.emptyList();
+        }
+
+        List<ItemSuggestionDto> suggestions = new ArrayList<>(Math.min(size, 16));
+        String previousKey = null;
+
+        Iterator<Entry> overlay = added.tailSet(new Entry(key, Long.MIN_VALUE, null), true).iterator();
+        Entry next = overlay.hasNext() ? overlay.next() : null;
+        int i = skipRemoved(lowerBound(key));
+
+        while (suggestions.size() < size) {
+            boolean fromArrays = i < keys.length
+                    && (next == null || ORDER.compare(new Entry(keys[i], ids[i], null), next) < 0);
+            Entry entry;
+
+            if (fromArrays) {
+                entry = new Entry(keys[i], ids[i], names[i]);
+                i = skipRemoved(i + 1);
+            } else if (next != null) {
+                entry = next;
+                next = overlay.hasNext() ? overlay.next() : null;
+            } else {
+                break;
+            }
+
+            if (!entry.key.startsWith(key)) {
+                break;
+            }
+
+            if (!entry.key.equals(previousKey)) {
+                suggestions.add(new ItemSuggestionDto(entry.id, entry.name));
+                previousKey = entry.key;
+            }
+        }
+
+        return suggestions;
+    }
+
+    /**
+     * Puts the given names in the overlay, replacing the names those items had; a {@code null} name removes the item.
+     * A concurrent lookup may briefly see an item under both its old and its new name.
+     */
+    void update(Map<Long, String> changes) {
+        changes.forEach((id, name) -> {
+            Entry entry = name != null ? new Entry(toKey(name), id, name) : null;
+            Entry previous = entry != null ? addedById.put(id, entry) : addedById.remove(id);
+
+            if (entry != null) {
+                added.add(entry);
+            }
+            if (previous != null) {
+                added.remove(previous);
+            }
+            removedIds.add(id);
+        });
+    }
+
+    /**
+     * Number of changes held in the overlay.
+     */
+    int overlaySize() {
+        return addedById.size() + removedIds.size();
+    }
+
+    /**
+     * Folds the overlay into new arrays. When more than {@code maxEntries} names remain, the oldest items,
+     * those with the lowest ids, are left out.
+     */
+    ItemNameSuggestIndex compact(int maxEntries) {
+        List<Entry> entries = new ArrayList<>(keys.length + added.size());
+        Iterator<Entry> overlay = added.iterator();
+        Entry next = overlay.hasNext() ? overlay.next() : null;
+
+        for (int i = skipRemoved(0); i < keys.length || next != null; ) {
+            if (i < keys.length && (next == null || ORDER.compare(new Entry(keys[i], ids[i], null), next) < 0)) {
+                entries.add(new Entry(keys[i], ids[i], names[i]));
+                i = skipRemoved(i + 1);
+            } else {
+                entries.add(next);
+                next = overlay.hasNext() ? overlay.next() : null;
+            }
+        }
+
+        long oldestKept = Long.MIN_VALUE;
+        if (entries.size() > maxEntries) {
+            long[] sortedIds = entries.stream().mapToLong(entry -> entry.id).sorted().toArray();
+            oldestKept = sortedIds[sortedIds.length - maxEntries];
+        }
+
+        int count = 0;
+        String[] compactKeys = new String[Math.min(entries.size(), maxEntries)];
+        String[] compactNames = new String[compactKeys.length];
+        long[] compactIds = new long[compactKeys.length];
+
+        for (Entry entry : entries) {
+            if (entry.id >= oldestKept) {
+                compactKeys[count] = entry.key;
+                compactNames[count] = entry.name;
+                compactIds[count] = entry.id;
+                count++;
+            }
+        }
+
+        return new ItemNameSuggestIndex(compactKeys, compactNames, compactIds, entries.size() - count);
+    }
+
+    /**
+     * Number of names held, removed ones included until the next {@link #compact}.
+     */
+    int size() {
+        return keys.length + addedById.size();
+    }
+
+    /**
+     * Number of names the {@link #compact} that built this index left out.
+     */
+    int evicted() {
+        return evicted;
+    }
+
+    private int skipRemoved(int from) {
+        int i = from;
+        while (i < ids.length && removedIds.contains(ids[i])) {
+            i++;
+        }
+
+        return i;
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = keys.length;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+
+            if (keys[middle].compareTo(key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    private static String toKey(String name) {
+        String key = name.trim().toLowerCase(Locale.ROOT);
+
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+
+    private static final class Entry {
+        private final String key;
+
+        private final long id;
+
+        private final String name;
+
+        private Entry(String key, long id, String name) {
+            this.key = key;
+            this.id = id;
+            this.name = name;
+        }
+    }
+}
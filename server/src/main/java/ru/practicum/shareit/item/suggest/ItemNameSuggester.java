@@ -0,0 +1,142 @@
+package ru.practicum.shareit.item.suggest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.extension.TransactionCallbacks;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemNameProjection;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Answers name autocompletion from an {@link ItemNameSuggestIndex} of available items. The index is loaded from
+ * the database on startup only; {@link ru.practicum.shareit.item.service.ItemServiceImpl} applies each committed
+ * change to it, and a background task compacts the changes into the snapshot once there are enough of them.
+ * <p>
+ * At most {@code shareit.suggest.max-entries} names are kept; past that the oldest items are evicted and counted
+ * by {@code shareit.suggest.names.evicted}. The index is local to the JVM, so it is only correct when a single
+ * server instance writes items.
+ */
+@Component
+@Slf4j
+public class ItemNameSuggester implements SmartInitializingSingleton, MeterBinder {
+    static final int COMPACT_THRESHOLD = 4096;
+
+    private final ItemRepository itemRepository;
+
+    private final int maxEntries;
+
+    private volatile ItemNameSuggestIndex index = ItemNameSuggestIndex.empty();
+
+    private volatile Counter evicted;
+
+    public ItemNameSuggester(ItemRepository itemRepository, @Value("${shareit.suggest.max-entries:1000000}") int maxEntries) {
+        this.itemRepository = itemRepository;
+        this.maxEntries = maxEntries;
+    }
+
+    public List<ItemSuggestionDto> suggest(String prefix, int size) {
+        return index.suggest(prefix, size);
+    }
+
+    /**
+     * Puts the item's name in the index, or takes it out if the item is not available, once the current
+     * transaction commits.
+     */
+    public void index(Item item) {
+        indexAll(List.of(item));
+    }
+
+    public void indexAll(Collection<Item> items) {
+        Map<Long, String> changes = new HashMap<>();
+        for (Item item : items) {
+            changes.put(item.getId(), Boolean.TRUE.equals(item.getAvailable()) ? item.getName() : null);
+        }
+
+        TransactionCallbacks.afterCommit(() -> update(changes));
+    }
+
+    public void remove(Long itemId) {
+        Map<Long, String> changes = new HashMap<>();
+        changes.put(itemId, null);
+
+        TransactionCallbacks.afterCommit(() -> update(changes));
+    }
+
+    /**
+     * Runs once all singletons exist and before the web server starts accepting requests.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    public synchronized void rebuild() {
+        long started = System.currentTimeMillis();
+        List<ItemNameProjection> rows = itemRepository.findAllAvailableTrueNamesNewestFirst(PageRequest.of(0, maxEntries));
+
+        long[] ids = new long[rows.size()];
+        String[] names = new String[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            ids[i] = rows.get(i).getId();
+            names[i] = rows.get(i).getName();
+        }
+
+        index = ItemNameSuggestIndex.of(ids, names, rows.size());
+
+        if (rows.size() == maxEntries) {
+            log.warn("Item name suggestions are capped at {} newest items, older items are not suggested", maxEntries);
+        }
+        log.info("Item name suggestions rebuilt: {} names in {} ms", index.size(), System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Folds pending changes into the snapshot once there are {@link #COMPACT_THRESHOLD} of them, so lookups
+     * and updates stay cheap. Changes wait while this runs, which takes a single pass over the index.
+     */
+    @Scheduled(fixedDelayString = "${shareit.suggest.compact-interval-ms:1000}")
+    public synchronized void compactIfNeeded() {
+        if (index.overlaySize() < COMPACT_THRESHOLD) {
+            return;
+        }
+
+        long started = System.currentTimeMillis();
+        index = index.compact(maxEntries);
+
+        if (index.evicted() > 0) {
+            if (evicted != null) {
+                evicted.increment(index.evicted());
+            }
+            log.warn("Item name suggestions are capped at {} newest items, evicted {} older ones", maxEntries, index.evicted());
+        }
+        log.debug("Item name suggestions compacted: {} names in {} ms", index.size(), System.currentTimeMillis() - started);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("shareit.suggest.names", this, suggester -> suggester.index.size())
+                .description("Item names held by the suggestion index")
+                .register(registry);
+
+        evicted = Counter.builder("shareit.suggest.names.evicted")
+                .description("Item names evicted from the suggestion index because it reached its maximum size")
+                .register(registry);
+    }
+
+    private synchronized void update(Map<Long, String> changes) {
+        index.update(changes);
+    }
+}
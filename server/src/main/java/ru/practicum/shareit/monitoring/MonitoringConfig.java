@@ -0,0 +1,37 @@
+package ru.practicum.shareit.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@EnableConfigurationProperties(SqlStatsProperties.class)
+public class MonitoringConfig implements WebMvcConfigurer {
+    @Bean
+    public static RequestSqlStatsDataSourcePostProcessor requestSqlStatsDataSourcePostProcessor() {
+        return new RequestSqlStatsDataSourcePostProcessor();
+    }
+
+    /**
+     * Runs ahead of the security filter chain so that loading the authenticated user is counted too.
+     */
+    @Bean
+    public FilterRegistrationBean<RequestSqlStatsFilter> requestSqlStatsFilter(MeterRegistry meterRegistry, SqlStatsProperties properties) {
+        FilterRegistrationBean<RequestSqlStatsFilter> registration = new FilterRegistrationBean<>(
+                new RequestSqlStatsFilter(meterRegistry, properties)
+        );
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+
+        return registration;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RequestSqlStatsInterceptor());
+    }
+}
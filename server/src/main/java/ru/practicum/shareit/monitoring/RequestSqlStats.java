@@ -0,0 +1,72 @@
+package ru.practicum.shareit.monitoring;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * JDBC work done while serving one HTTP request. Bound to the request thread by {@link RequestSqlStatsFilter}
+ * and filled in by {@link RequestSqlStatsListener}.
+ */
+@Getter
+@ToString
+public class RequestSqlStats {
+    public static final String NO_HANDLER = "none";
+
+    private static final ThreadLocal<RequestSqlStats> CURRENT = new ThreadLocal<>();
+
+    @Setter
+    private String handler = NO_HANDLER;
+
+    private long statements;
+
+    private long rows;
+
+    private long nanos;
+
+    private long statementStartedAt;
+
+    /**
+     * Set once the request failed for running over its statement budget, so that it is reported only once.
+     */
+    private boolean budgetExceeded;
+
+    public static RequestSqlStats start() {
+        RequestSqlStats stats = new RequestSqlStats();
+        CURRENT.set(stats);
+
+        return stats;
+    }
+
+    /**
+     * Stats of the request served by the current thread, or {@code null} outside of a request.
+     */
+    public static RequestSqlStats current() {
+        return CURRENT.get();
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    void statementStarted() {
+        statementStartedAt = System.nanoTime();
+    }
+
+    void statementFinished() {
+        statements++;
+        nanos += System.nanoTime() - statementStartedAt;
+    }
+
+    void rowFetched() {
+        rows++;
+    }
+
+    void budgetExceeded() {
+        budgetExceeded = true;
+    }
+
+    public double getMillis() {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.monitoring;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+
+/**
+ * Routes every {@link DataSource} through datasource-proxy so {@link RequestSqlStatsListener} sees each statement.
+ */
+public class RequestSqlStatsDataSourcePostProcessor implements BeanPostProcessor {
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource) || bean instanceof ProxyDataSource) {
+            return bean;
+        }
+
+        RequestSqlStatsListener listener = new RequestSqlStatsListener();
+
+        return ProxyDataSourceBuilder
+                .create(beanName, (DataSource) bean)
+                .listener(listener)
+                .methodListener(listener)
+                .proxyResultSet()
+                .build();
+    }
+}
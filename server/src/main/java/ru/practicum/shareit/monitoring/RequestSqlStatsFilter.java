@@ -0,0 +1,81 @@
+package ru.practicum.shareit.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects {@link RequestSqlStats} for the whole request, authentication included, then publishes them
+ * as metrics tagged by handler and checks the statement budget.
+ * <p>
+ * In fail mode, {@link SqlBudgetAdvice} fails requests that return a body before it is written. This filter fails
+ * the remaining ones only while their response is not committed yet, and logs those it can no longer fail.
+ */
+@Slf4j
+public class RequestSqlStatsFilter extends OncePerRequestFilter {
+    private final MeterRegistry meterRegistry;
+
+    private final SqlStatsProperties properties;
+
+    public RequestSqlStatsFilter(MeterRegistry meterRegistry, SqlStatsProperties properties) {
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        RequestSqlStats stats = RequestSqlStats.start();
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestSqlStats.clear();
+            record(stats);
+        }
+
+        checkBudget(stats, response);
+    }
+
+    private void record(RequestSqlStats stats) {
+        DistributionSummary.builder("shareit.http.sql.statements")
+                .description("SQL statements executed per HTTP request")
+                .tag("handler", stats.getHandler())
+                .register(meterRegistry)
+                .record(stats.getStatements());
+
+        DistributionSummary.builder("shareit.http.sql.rows")
+                .description("Rows fetched per HTTP request")
+                .tag("handler", stats.getHandler())
+                .register(meterRegistry)
+                .record(stats.getRows());
+
+        Timer.builder("shareit.http.sql.time")
+                .description("Time spent executing SQL per HTTP request")
+                .tag("handler", stats.getHandler())
+                .register(meterRegistry)
+                .record(stats.getNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private void checkBudget(RequestSqlStats stats, HttpServletResponse response) {
+        SqlBudgetExceeded exceeded = properties.getBudget().check(stats);
+
+        if (exceeded == null || stats.isBudgetExceeded()) {
+            return;
+        }
+
+        if (properties.getBudget().getMode() == SqlStatsProperties.BudgetMode.FAIL && !response.isCommitted()) {
+            throw exceeded;
+        }
+
+        log.warn(exceeded.getMessage());
+    }
+}
@@ -0,0 +1,45 @@
+package ru.practicum.shareit.monitoring;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.Locale;
+
+/**
+ * Exposes the SQL work done so far as response headers. The body is written after the handler returned,
+ * so only statements issued while serialising lazy associations are missed.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(name = "shareit.sql-stats.response-header", havingValue = "true")
+public class RequestSqlStatsHeaderAdvice implements ResponseBodyAdvice<Object> {
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(
+            Object body,
+            MethodParameter returnType,
+            MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType,
+            ServerHttpRequest request,
+            ServerHttpResponse response
+    ) {
+        RequestSqlStats stats = RequestSqlStats.current();
+
+        if (stats != null) {
+            response.getHeaders().set("X-Sql-Statements", String.valueOf(stats.getStatements()));
+            response.getHeaders().set("X-Sql-Rows", String.valueOf(stats.getRows()));
+            response.getHeaders().set("X-Sql-Time-Ms", String.format(Locale.ROOT, "%.3f", stats.getMillis()));
+        }
+
+        return body;
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.monitoring;
+
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Names the current {@link RequestSqlStats} after the controller method, e.g. {@code ItemController.getAllItems}.
+ */
+public class RequestSqlStatsInterceptor implements HandlerInterceptor {
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestSqlStats stats = RequestSqlStats.current();
+
+        if (stats != null && handler instanceof HandlerMethod) {
+            HandlerMethod handlerMethod = (HandlerMethod) handler;
+            stats.setHandler(handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName());
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,53 @@
+package ru.practicum.shareit.monitoring;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Fails a request over its statement budget in fail mode while its body is not written yet, so the client gets
+ * an error instead of the response. Statements issued while serialising the body are left to
+ * {@link RequestSqlStatsFilter}.
+ */
+@ControllerAdvice
+public class SqlBudgetAdvice implements ResponseBodyAdvice<Object> {
+    private final SqlStatsProperties properties;
+
+    public SqlBudgetAdvice(SqlStatsProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return properties.getBudget().getMode() == SqlStatsProperties.BudgetMode.FAIL;
+    }
+
+    @Override
+    public Object beforeBodyWrite(
+            Object body,
+            MethodParameter returnType,
+            MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType,
+            ServerHttpRequest request,
+            ServerHttpResponse response
+    ) {
+        RequestSqlStats stats = RequestSqlStats.current();
+
+        if (stats == null || stats.isBudgetExceeded()) {
+            return body;
+        }
+
+        SqlBudgetExceeded exceeded = properties.getBudget().check(stats);
+
+        if (exceeded != null) {
+            stats.budgetExceeded();
+            throw exceeded;
+        }
+
+        return body;
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.monitoring;
+
+public class SqlBudgetExceeded extends RuntimeException {
+    public SqlBudgetExceeded(RequestSqlStats stats, int maxStatements) {
+        super(
+                String.format(
+                        "Handler '%s' ran %d SQL statements, budget is %d.",
+                        stats.getHandler(),
+                        stats.getStatements(),
+                        maxStatements
+                )
+        );
+    }
+}
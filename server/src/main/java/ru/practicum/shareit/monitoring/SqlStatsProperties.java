@@ -0,0 +1,64 @@
+package ru.practicum.shareit.monitoring;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+@ConfigurationProperties(prefix = "shareit.sql-stats")
+@Getter
+@Setter
+public class SqlStatsProperties {
+    /**
+     * Adds X-Sql-Statements, X-Sql-Rows and X-Sql-Time-Ms headers to controller responses.
+     */
+    private boolean responseHeader = false;
+
+    private Budget budget = new Budget();
+
+    public enum BudgetMode {
+        LOG, FAIL
+    }
+
+    @Getter
+    @Setter
+    public static class Budget {
+        private BudgetMode mode = BudgetMode.LOG;
+
+        /**
+         * Statement limit for handlers without an own entry; unlimited when not set.
+         */
+        private Integer defaultMaxStatements;
+
+        /**
+         * Statement limits keyed by handler, e.g. {@code ItemController.getAllItems}.
+         */
+        private Map<String, Integer> maxStatements = new HashMap<>();
+
+        /**
+         * Handlers whose statement count grows with the size of the request body, e.g. bulk imports; not checked.
+         */
+        private Set<String> unlimited = new HashSet<>();
+
+        public Integer maxStatementsOf(String handler) {
+            if (unlimited.contains(handler)) {
+                return null;
+            }
+
+            return maxStatements.getOrDefault(handler, defaultMaxStatements);
+        }
+
+        /**
+         * The budget the request ran over, or {@code null} when it stayed within it.
+         */
+        public SqlBudgetExceeded check(RequestSqlStats stats) {
+            Integer max = maxStatementsOf(stats.getHandler());
+
+            return max == null || stats.getStatements() <= max ? null : new SqlBudgetExceeded(stats, max);
+        }
+    }
+}
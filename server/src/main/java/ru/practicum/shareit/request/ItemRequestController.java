@@ -1,12 +1,15 @@
 package ru.practicum.shareit.request;
 
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.extension.CustomPageableParameters;
+import ru.practicum.shareit.extension.PageCursor;
 import ru.practicum.shareit.request.dto.CreateItemRequestRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestResponseDto;
 import ru.practicum.shareit.request.dto.ItemRequestWithItemsResponseDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
 
+import javax.servlet.http.HttpServletResponse;
 import java.util.List;
 
 @RestController
@@ -19,24 +22,55 @@ public class ItemRequestController {
         this.itemRequestService = itemRequestService;
     }
 
+    /**
+     * Existence is checked before the tag, so that a missing request is never answered with 304 Not Modified,
+     * and the request is only read and mapped when the tag does not match. The tag is taken first, as it must not be
+     * newer than what is read.
+     */
     @GetMapping("/{requestId}")
     public ItemRequestWithItemsResponseDto findById(
-            @PathVariable Long requestId
+            @PathVariable Long requestId,
+            WebRequest webRequest
     ) {
+        String etag = itemRequestService.getEtag();
+        itemRequestService.checkExists(requestId);
+
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
         return itemRequestService.findById(requestId);
     }
 
     @GetMapping
-    public List<ItemRequestWithItemsResponseDto> findAllForCurrentUser() {
+    public List<ItemRequestWithItemsResponseDto> findAllForCurrentUser(WebRequest webRequest) {
+        if (webRequest.checkNotModified(itemRequestService.getEtag())) {
+            return null;
+        }
+
         return itemRequestService.findAllForCurrentUser();
     }
 
     @GetMapping("/all")
     public List<ItemRequestWithItemsResponseDto> findAllForOtherUsers(
             @RequestParam(required = false, defaultValue = "0") Long from,
-            @RequestParam(required = false, defaultValue = "10") Integer size
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "10") Integer size,
+            WebRequest webRequest,
+            HttpServletResponse response
     ) {
-        return itemRequestService.findAllCreatedByOthers(CustomPageableParameters.of(from, size));
+        if (webRequest.checkNotModified(itemRequestService.getEtag())) {
+            return null;
+        }
+
+        CustomPageableParameters pageableParameters = CustomPageableParameters.of(from, cursor, size);
+        List<ItemRequestWithItemsResponseDto> itemRequests = itemRequestService.findAllCreatedByOthers(pageableParameters);
+
+        pageableParameters
+                .nextCursor(itemRequests, itemRequest -> PageCursor.of(itemRequest.getCreated(), itemRequest.getId()))
+                .ifPresent(nextCursor -> response.setHeader(PageCursor.NEXT_CURSOR_HEADER, nextCursor));
+
+        return itemRequests;
     }
 
     @PostMapping
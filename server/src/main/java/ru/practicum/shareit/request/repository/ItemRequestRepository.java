@@ -2,12 +2,32 @@ package ru.practicum.shareit.request.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.request.model.ItemRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
+    @Query("select r from ItemRequest r where r.requestor.id = ?1")
     List<ItemRequest> findAllByRequestor_Id(Long requestorId);
 
+    @Query("select r from ItemRequest r where r.requestor.id <> ?1")
     List<ItemRequest> findAllByRequestor_IdNot(Long requestorId, Pageable pageable);
+
+    /**
+     * Requests of other users that follow {@code (created, id)} in {@code (created desc, id desc)} order.
+     * The pageable only limits the result, the order is fixed by the seek predicate.
+     */
+    @Query("select r from ItemRequest r " +
+            "where r.requestor.id <> :requestorId " +
+            "and (r.created < :created or (r.created = :created and r.id < :id)) " +
+            "order by r.created desc, r.id desc")
+    List<ItemRequest> findAllByRequestor_IdNotCreatedBefore(
+            @Param("requestorId") Long requestorId,
+            @Param("created") LocalDateTime created,
+            @Param("id") Long id,
+            Pageable pageable
+    );
 }
@@ -10,6 +10,16 @@ import java.util.List;
 public interface ItemRequestService {
     ItemRequestWithItemsResponseDto findById(Long itemRequestId);
 
+    /**
+     * Throws as {@link #findById} does when the request is missing, without loading it.
+     */
+    void checkExists(Long itemRequestId);
+
+    /**
+     * Entity tag of any request or list of requests the current user reads.
+     */
+    String getEtag();
+
     List<ItemRequestWithItemsResponseDto> findAllForCurrentUser();
 
     List<ItemRequestWithItemsResponseDto> findAllCreatedByOthers(CustomPageableParameters customPageableParameters);
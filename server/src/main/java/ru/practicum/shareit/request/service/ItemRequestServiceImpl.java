@@ -1,10 +1,13 @@
 package ru.practicum.shareit.request.service;
 
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.generic.ExtendedEntityNotFoundException;
 import ru.practicum.shareit.extension.CustomPageableParameters;
+import ru.practicum.shareit.extension.PageCursor;
+import ru.practicum.shareit.httpcache.ChangeCounter;
 import ru.practicum.shareit.mapper.ModelMapper;
 import ru.practicum.shareit.request.dto.CreateItemRequestRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestResponseDto;
@@ -23,12 +26,15 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     private final ItemRequestRepository itemRequestRepository;
 
+    private final ChangeCounter changeCounter;
+
     private final ModelMapper mapper;
 
     private final IAuthenticationFacade authenticationFacade;
 
-    public ItemRequestServiceImpl(ItemRequestRepository itemRequestRepository, ModelMapper mapper, IAuthenticationFacade authenticationFacade) {
+    public ItemRequestServiceImpl(ItemRequestRepository itemRequestRepository, ChangeCounter changeCounter, ModelMapper mapper, IAuthenticationFacade authenticationFacade) {
         this.itemRequestRepository = itemRequestRepository;
+        this.changeCounter = changeCounter;
         this.mapper = mapper;
         this.authenticationFacade = authenticationFacade;
     }
@@ -43,6 +49,18 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         return mapper.toItemRequestWithItemsResponseDto(itemRequest);
     }
 
+    @Override
+    public void checkExists(Long itemRequestId) {
+        if (!itemRequestRepository.existsById(itemRequestId)) {
+            throw new ExtendedEntityNotFoundException(ItemRequest.class, itemRequestId);
+        }
+    }
+
+    @Override
+    public String getEtag() {
+        return changeCounter.etag(authenticationFacade.getCurrentUserDetails().getId());
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<ItemRequestWithItemsResponseDto> findAllForCurrentUser() {
@@ -58,12 +76,26 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     @Transactional(readOnly = true)
     public List<ItemRequestWithItemsResponseDto> findAllCreatedByOthers(CustomPageableParameters customPageableParameters) {
         ExtendedUserDetails currentUserDetails = authenticationFacade.getCurrentUserDetails();
-        Sort sortByCreatedDesc = Sort.by(new Sort.Order(Sort.Direction.DESC, "created"));
-
-        List<ItemRequest> items = itemRequestRepository.findAllByRequestor_IdNot(
-                currentUserDetails.getId(),
-                customPageableParameters.toPageable(sortByCreatedDesc)
-        );
+        PageCursor cursor = customPageableParameters.getCursor();
+
+        List<ItemRequest> items;
+        if (cursor != null) {
+            items = itemRequestRepository.findAllByRequestor_IdNotCreatedBefore(
+                    currentUserDetails.getId(),
+                    cursor.getPosition(),
+                    cursor.getId(),
+                    PageRequest.ofSize(customPageableParameters.getSize())
+            );
+        } else {
+            Sort sortByCreatedDesc = customPageableParameters.isKeyset()
+                    ? Sort.by(Sort.Direction.DESC, "created", "id")
+                    : Sort.by(new Sort.Order(Sort.Direction.DESC, "created"));
+
+            items = itemRequestRepository.findAllByRequestor_IdNot(
+                    currentUserDetails.getId(),
+                    customPageableParameters.toPageable(sortByCreatedDesc)
+            );
+        }
 
         return items
                 .stream()
@@ -76,10 +108,9 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     public ItemRequestResponseDto create(CreateItemRequestRequestDto createItemRequestRequestDto) {
         User currentUser = authenticationFacade.getCurrentUser();
 
-        return mapper.toItemRequestResponseDto(
-                itemRequestRepository.save(
-                        mapper.toItemRequest(createItemRequestRequestDto, currentUser)
-                )
-        );
+        ItemRequest itemRequest = itemRequestRepository.save(mapper.toItemRequest(createItemRequestRequestDto, currentUser));
+        changeCounter.changedForEveryone();
+
+        return mapper.toItemRequestResponseDto(itemRequest);
     }
 }
@@ -2,8 +2,10 @@ package ru.practicum.shareit.security;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.actuate.autoconfigure.web.server.ManagementPortType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -11,6 +13,8 @@ import org.springframework.security.config.annotation.web.configuration.WebSecur
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.web.servlet.HandlerExceptionResolver;
 import ru.practicum.shareit.security.filter.TokenAuthenticationFilter;
 import ru.practicum.shareit.security.service.ExtendedUserDetailsService;
@@ -27,10 +31,13 @@ public class SecurityConfig {
 
     private final HandlerExceptionResolver resolver;
 
+    private final Environment environment;
+
     @Autowired
-    public SecurityConfig(ExtendedUserDetailsService userDetailsService, @Qualifier("handlerExceptionResolver") HandlerExceptionResolver resolver) {
+    public SecurityConfig(ExtendedUserDetailsService userDetailsService, @Qualifier("handlerExceptionResolver") HandlerExceptionResolver resolver, Environment environment) {
         this.userDetailsService = userDetailsService;
         this.resolver = resolver;
+        this.environment = environment;
     }
 
     @Bean
@@ -45,7 +52,7 @@ public class SecurityConfig {
                 .and()
 
                 .authorizeRequests()
-                .antMatchers("/users", "/users/*").permitAll()
+                .antMatchers("/users", "/users/*", "/actuator/health").permitAll()
 
                 .and()
 
@@ -59,7 +66,25 @@ public class SecurityConfig {
      */
     @Bean
     public WebSecurityCustomizer webSecurityCustomizer() {
-        return (web) -> web.ignoring().antMatchers("/users", "/users/*");
+        return (web) -> web.ignoring()
+                .antMatchers("/users", "/users/*", "/actuator/health")
+                .requestMatchers(managementPortRequests());
+    }
+
+    /**
+     * The other actuator endpoints, metrics with per-handler SQL statistics among them, skip the token filter only
+     * on the separate management port, which is meant to be reachable from inside the deployment alone. Served
+     * on the application port, they need an authenticated user like any other path.
+     */
+    private RequestMatcher managementPortRequests() {
+        AntPathRequestMatcher actuator = new AntPathRequestMatcher("/actuator/**");
+        Integer managementPort = environment.getProperty("management.server.port", Integer.class);
+
+        if (ManagementPortType.get(environment) != ManagementPortType.DIFFERENT || managementPort == null) {
+            return request -> false;
+        }
+
+        return request -> request.getLocalPort() == managementPort && actuator.matches(request);
     }
 }
 
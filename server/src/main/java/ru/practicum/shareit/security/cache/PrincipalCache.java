@@ -0,0 +1,53 @@
+package ru.practicum.shareit.security.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.extension.TransactionCallbacks;
+import ru.practicum.shareit.security.user.ExtendedUserDetails;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Authenticated principals by user id, so the token filter does not query the user on every request.
+ * Entries expire after {@code shareit.security.principal-cache.ttl-ms} and are dropped when the user changes.
+ */
+@Component
+public class PrincipalCache implements MeterBinder {
+    private final Cache<Long, ExtendedUserDetails> cache;
+
+    public PrincipalCache(
+            @Value("${shareit.security.principal-cache.max-size:10000}") long maxSize,
+            @Value("${shareit.security.principal-cache.ttl-ms:60000}") long ttlMs
+    ) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Cached principal or the one produced by the loader; failed loads are not cached.
+     */
+    public ExtendedUserDetails get(Long userId, Function<Long, ExtendedUserDetails> loader) {
+        return cache.get(userId, loader);
+    }
+
+    /**
+     * Drops the principal once the current transaction commits, so a concurrent load cannot cache the old state.
+     */
+    public void invalidate(Long userId) {
+        TransactionCallbacks.afterCommit(() -> cache.invalidate(userId));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "principals");
+    }
+}
@@ -3,7 +3,6 @@ package ru.practicum.shareit.security.facade;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
-import ru.practicum.shareit.exception.generic.ExtendedEntityNotFoundException;
 import ru.practicum.shareit.security.user.AuthenticatedUser;
 import ru.practicum.shareit.security.user.ExtendedUserDetails;
 import ru.practicum.shareit.user.model.User;
@@ -27,12 +26,12 @@ public class AuthenticationFacade implements IAuthenticationFacade {
         return (AuthenticatedUser) getAuthentication().getPrincipal();
     }
 
+    /**
+     * Reference to the authenticated user. The token filter has already checked that the user exists,
+     * so the row is only read if a field other than the id is accessed.
+     */
     @Override
     public User getCurrentUser() {
-        ExtendedUserDetails currentUser = this.getCurrentUserDetails();
-
-        return userRepository
-                .findById(currentUser.getId())
-                .orElseThrow(() -> new ExtendedEntityNotFoundException(User.class, currentUser.getId()));
+        return userRepository.getReferenceById(this.getCurrentUserDetails().getId());
     }
 }
\ No newline at end of file
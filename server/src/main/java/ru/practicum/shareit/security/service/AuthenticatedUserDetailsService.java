@@ -5,6 +5,7 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.generic.ExtendedEntityNotFoundException;
+import ru.practicum.shareit.security.cache.PrincipalCache;
 import ru.practicum.shareit.security.user.AuthenticatedUser;
 import ru.practicum.shareit.security.user.ExtendedUserDetails;
 import ru.practicum.shareit.user.model.User;
@@ -14,8 +15,11 @@ import ru.practicum.shareit.user.repository.UserRepository;
 public class AuthenticatedUserDetailsService implements ExtendedUserDetailsService {
     private final UserRepository userRepository;
 
-    public AuthenticatedUserDetailsService(UserRepository userRepository) {
+    private final PrincipalCache principalCache;
+
+    public AuthenticatedUserDetailsService(UserRepository userRepository, PrincipalCache principalCache) {
         this.userRepository = userRepository;
+        this.principalCache = principalCache;
     }
 
     @Override
@@ -29,8 +33,11 @@ public class AuthenticatedUserDetailsService implements ExtendedUserDetailsServi
     }
 
     @Override
-    @Transactional(readOnly = true)
     public ExtendedUserDetails loadUserById(Long id) {
+        return principalCache.get(id, this::findUserById);
+    }
+
+    private ExtendedUserDetails findUserById(Long id) {
         return new AuthenticatedUser(
                 this.userRepository
                         .findById(id)
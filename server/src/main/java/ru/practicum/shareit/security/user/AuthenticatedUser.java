@@ -8,18 +8,25 @@ import ru.practicum.shareit.user.model.User;
 import java.util.Collection;
 import java.util.Collections;
 
+/**
+ * Keeps a copy of the user fields rather than the entity, so the principal can outlive the persistence context
+ * it was loaded in.
+ */
 @ToString
 @EqualsAndHashCode
 public class AuthenticatedUser implements ExtendedUserDetails {
-    private final User user;
+    private final Long id;
+
+    private final String username;
 
     public AuthenticatedUser(User user) {
-        this.user = user;
+        this.id = user.getId();
+        this.username = user.getUsername();
     }
 
     @Override
     public Long getId() {
-        return this.user.getId();
+        return this.id;
     }
 
     @Override
@@ -34,7 +41,7 @@ public class AuthenticatedUser implements ExtendedUserDetails {
 
     @Override
     public String getUsername() {
-        return this.user.getUsername();
+        return this.username;
     }
 
     @Override
@@ -1,9 +1,9 @@
 package ru.practicum.shareit.user.model;
 
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
 
 import javax.persistence.*;
 
@@ -11,15 +11,25 @@ import javax.persistence.*;
 @Table(name = "accounts")
 @Getter
 @Setter
-@AllArgsConstructor
 @NoArgsConstructor
+@BatchSize(size = 100)
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "accounts_seq")
+    @SequenceGenerator(name = "accounts_seq", sequenceName = "accounts_seq", allocationSize = 50)
     private Long id;
 
     private String username;
 
     @Column(unique = true)
     private String email;
+
+    @Version
+    private Long version;
+
+    public User(Long id, String username, String email) {
+        this.id = id;
+        this.username = username;
+        this.email = email;
+    }
 }
@@ -4,7 +4,9 @@ import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.generic.ExtendedEntityNotFoundException;
+import ru.practicum.shareit.httpcache.ChangeCounter;
 import ru.practicum.shareit.mapper.ModelMapper;
+import ru.practicum.shareit.security.cache.PrincipalCache;
 import ru.practicum.shareit.user.dto.CreateUserRequestDto;
 import ru.practicum.shareit.user.dto.UpdateUserRequestDto;
 import ru.practicum.shareit.user.dto.UserResponseDto;
@@ -19,10 +21,16 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
 
+    private final PrincipalCache principalCache;
+
+    private final ChangeCounter changeCounter;
+
     private final ModelMapper mapper;
 
-    public UserServiceImpl(UserRepository userRepository, ModelMapper mapper) {
+    public UserServiceImpl(UserRepository userRepository, PrincipalCache principalCache, ChangeCounter changeCounter, ModelMapper mapper) {
         this.userRepository = userRepository;
+        this.principalCache = principalCache;
+        this.changeCounter = changeCounter;
         this.mapper = mapper;
     }
 
@@ -66,6 +74,9 @@ public class UserServiceImpl implements UserService {
             user.setEmail(updateUserRequestDto.getEmail());
         }
 
+        principalCache.invalidate(userId);
+        changeCounter.changedForEveryone();
+
         return mapper.toUserResponseDto(user);
     }
 
@@ -77,5 +88,8 @@ public class UserServiceImpl implements UserService {
         } catch (EmptyResultDataAccessException exception) {
             throw new ExtendedEntityNotFoundException(User.class, userId);
         }
+
+        principalCache.invalidate(userId);
+        changeCounter.changedForEveryone();
     }
 }
@@ -0,0 +1,26 @@
+-- last and next booking of each item, maintained by ItemBookingSummaryService;
+-- "if not exists" because databases baselined at V1 may already have it from the old schema.sql
+
+create table if not exists item_booking_summary
+(
+    item_id         bigint not null,
+    last_booking_id bigint,
+    next_booking_id bigint,
+    valid_until     timestamp without time zone,
+    primary key (item_id),
+    constraint fk_summary_item
+        foreign key (item_id) references item on delete cascade,
+    constraint fk_summary_last_booking
+        foreign key (last_booking_id) references booking on delete set null,
+    constraint fk_summary_next_booking
+        foreign key (next_booking_id) references booking on delete set null
+);
+
+create index if not exists ix_item_booking_summary_valid_until
+    on item_booking_summary (valid_until);
+
+-- rows for the existing items, already expired so that roll-forward fills them in and reads rank them live until then
+insert into item_booking_summary (item_id, valid_until)
+select i.id, localtimestamp
+from item i
+where not exists (select 1 from item_booking_summary s where s.item_id = i.id);
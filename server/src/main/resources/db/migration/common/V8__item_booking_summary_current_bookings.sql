@@ -0,0 +1,19 @@
+-- latest started and earliest not finished booking of each item, read by the single item view;
+-- every row is expired so that roll-forward fills the new pointers in
+
+alter table item_booking_summary
+    add column last_started_booking_id bigint;
+
+alter table item_booking_summary
+    add column next_unfinished_booking_id bigint;
+
+alter table item_booking_summary
+    add constraint fk_summary_last_started_booking
+        foreign key (last_started_booking_id) references booking on delete set null;
+
+alter table item_booking_summary
+    add constraint fk_summary_next_unfinished_booking
+        foreign key (next_unfinished_booking_id) references booking on delete set null;
+
+update item_booking_summary
+set valid_until = localtimestamp;
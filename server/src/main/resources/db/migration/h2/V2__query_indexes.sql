@@ -0,0 +1,18 @@
+create index if not exists ix_item_owner
+    on item (owner_id, id);
+create index if not exists ix_item_request
+    on item (request_id);
+create index if not exists ix_item_request_requestor_created
+    on item_request (requestor_id, created desc);
+create index if not exists ix_item_request_created
+    on item_request (created desc, id desc);
+create index if not exists ix_booking_booker_start
+    on booking (booker_id, start desc, id desc);
+create index if not exists ix_booking_booker_status_start
+    on booking (booker_id, status, start desc);
+create index if not exists ix_booking_item_start
+    on booking (item_id, start);
+create index if not exists ix_booking_item_finish
+    on booking (item_id, finish);
+create index if not exists ix_comment_item
+    on comment (item_id);
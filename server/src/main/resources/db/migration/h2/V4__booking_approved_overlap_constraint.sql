@@ -0,0 +1,39 @@
+-- approved bookings that already overlap an approved booking of the same item starting earlier go back to
+-- waiting, so that the constraint can be added, and are recorded with the booking they overlapped; all are
+-- compared with the bookings as approved before this step, so in a chain of overlaps every later link goes back
+create table if not exists booking_overlap_resolution
+(
+    booking_id            bigint                      not null,
+    overlapped_booking_id bigint                      not null,
+    resolved_at           timestamp without time zone not null default current_timestamp,
+    primary key (booking_id)
+);
+
+insert into booking_overlap_resolution (booking_id, overlapped_booking_id)
+select later.id, min(earlier.id)
+from booking later
+         join booking earlier
+              on earlier.item_id = later.item_id
+                  and earlier.status = 1
+                  and (earlier.start < later.start or (earlier.start = later.start and earlier.id < later.id))
+                  and earlier.start < later.finish
+                  and later.start < earlier.finish
+where later.status = 1
+group by later.id;
+
+update booking
+set status = 0
+where id in (select booking_id from booking_overlap_resolution);
+
+-- H2 has no exclusion constraints; the check re-reads the item's approved bookings whenever a row is written
+alter table booking
+    add constraint ex_booking_item_approved
+        check (status <> 1 or not exists (
+            select 1
+            from booking other
+            where other.item_id = booking.item_id
+              and other.id <> booking.id
+              and other.status = 1
+              and other.start < booking.finish
+              and booking.start < other.finish
+        ));
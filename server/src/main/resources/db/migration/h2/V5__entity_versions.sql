@@ -0,0 +1,20 @@
+-- H2 rebuilds the table when a column is added, which fails on the check constraint referencing the table itself
+alter table booking
+    drop constraint ex_booking_item_approved;
+alter table booking
+    add column if not exists version bigint not null default 0;
+alter table booking
+    add constraint ex_booking_item_approved
+        check (status <> 1 or not exists (
+            select 1
+            from booking other
+            where other.item_id = booking.item_id
+              and other.id <> booking.id
+              and other.status = 1
+              and other.start < booking.finish
+              and booking.start < other.finish
+        ));
+alter table item
+    add column if not exists version bigint not null default 0;
+alter table accounts
+    add column if not exists version bigint not null default 0;
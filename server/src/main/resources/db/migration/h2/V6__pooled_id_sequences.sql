@@ -0,0 +1,32 @@
+-- ids come from sequences handed out in blocks of 50 (Hibernate pooled optimizer), so inserts can be batched.
+-- each sequence value is the top of its block; rows inserted without an id take a single value as before.
+create sequence if not exists accounts_seq start with 50 increment by 50;
+alter sequence accounts_seq restart with (select coalesce(max(id), 0) + 50 from accounts);
+alter table accounts
+    alter column id drop identity;
+alter table accounts
+    alter column id set default next value for accounts_seq;
+create sequence if not exists item_request_seq start with 50 increment by 50;
+alter sequence item_request_seq restart with (select coalesce(max(id), 0) + 50 from item_request);
+alter table item_request
+    alter column id drop identity;
+alter table item_request
+    alter column id set default next value for item_request_seq;
+create sequence if not exists item_seq start with 50 increment by 50;
+alter sequence item_seq restart with (select coalesce(max(id), 0) + 50 from item);
+alter table item
+    alter column id drop identity;
+alter table item
+    alter column id set default next value for item_seq;
+create sequence if not exists booking_seq start with 50 increment by 50;
+alter sequence booking_seq restart with (select coalesce(max(id), 0) + 50 from booking);
+alter table booking
+    alter column id drop identity;
+alter table booking
+    alter column id set default next value for booking_seq;
+create sequence if not exists comment_seq start with 50 increment by 50;
+alter sequence comment_seq restart with (select coalesce(max(id), 0) + 50 from comment);
+alter table comment
+    alter column id drop identity;
+alter table comment
+    alter column id set default next value for comment_seq;
@@ -0,0 +1,3 @@
+create index concurrently if not exists ix_item_full_text
+    on item using gin (to_tsvector('simple', coalesce(name, '') || ' ' || coalesce(description, '')))
+    where available = true;
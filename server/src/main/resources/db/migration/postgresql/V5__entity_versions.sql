@@ -0,0 +1,6 @@
+alter table booking
+    add column if not exists version bigint not null default 0;
+alter table item
+    add column if not exists version bigint not null default 0;
+alter table accounts
+    add column if not exists version bigint not null default 0;
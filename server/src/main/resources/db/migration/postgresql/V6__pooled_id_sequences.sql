@@ -0,0 +1,32 @@
+-- ids come from sequences handed out in blocks of 50 (Hibernate pooled optimizer), so inserts can be batched.
+-- each sequence value is the top of its block; rows inserted without an id take a single value as before.
+create sequence if not exists accounts_seq increment by 50;
+select setval('accounts_seq', coalesce((select max(id) from accounts), 0) + 50, false);
+alter table accounts
+    alter column id drop identity if exists,
+    alter column id set default nextval('accounts_seq');
+alter sequence accounts_seq owned by accounts.id;
+create sequence if not exists item_request_seq increment by 50;
+select setval('item_request_seq', coalesce((select max(id) from item_request), 0) + 50, false);
+alter table item_request
+    alter column id drop identity if exists,
+    alter column id set default nextval('item_request_seq');
+alter sequence item_request_seq owned by item_request.id;
+create sequence if not exists item_seq increment by 50;
+select setval('item_seq', coalesce((select max(id) from item), 0) + 50, false);
+alter table item
+    alter column id drop identity if exists,
+    alter column id set default nextval('item_seq');
+alter sequence item_seq owned by item.id;
+create sequence if not exists booking_seq increment by 50;
+select setval('booking_seq', coalesce((select max(id) from booking), 0) + 50, false);
+alter table booking
+    alter column id drop identity if exists,
+    alter column id set default nextval('booking_seq');
+alter sequence booking_seq owned by booking.id;
+create sequence if not exists comment_seq increment by 50;
+select setval('comment_seq', coalesce((select max(id) from comment), 0) + 50, false);
+alter table comment
+    alter column id drop identity if exists,
+    alter column id set default nextval('comment_seq');
+alter sequence comment_seq owned by comment.id;
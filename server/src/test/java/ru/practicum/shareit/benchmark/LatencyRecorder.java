@@ -0,0 +1,38 @@
+package ru.practicum.shareit.benchmark;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+
+/**
+ * Collects wall-clock samples of a call and reports percentiles. Used by the *BenchmarkIT classes,
+ * which are not picked up by surefire and have to be run explicitly, e.g. {@code mvn test -Dtest=ItemSearchBenchmarkIT}.
+ */
+public class LatencyRecorder {
+    private final long[] samples;
+
+    private int count;
+
+    public LatencyRecorder(int capacity) {
+        this.samples = new long[capacity];
+    }
+
+    public <T> T record(Callable<T> call) throws Exception {
+        long started = System.nanoTime();
+        T result = call.call();
+        samples[count++] = System.nanoTime() - started;
+
+        return result;
+    }
+
+    public double percentileMillis(double percentile) {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    public String summary() {
+        return String.format("n=%d p50=%.3fms p99=%.3fms max=%.3fms", count, percentileMillis(50), percentileMillis(99), percentileMillis(100));
+    }
+}
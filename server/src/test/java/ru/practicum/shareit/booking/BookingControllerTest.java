@@ -1,5 +1,6 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
@@ -7,14 +8,28 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import ru.practicum.shareit.booking.dto.CreateBookingDto;
 import ru.practicum.shareit.booking.dto.ResponseBookingDto;
 import ru.practicum.shareit.booking.dto.SearchBookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
 import ru.practicum.shareit.extension.CustomPageableParameters;
+import ru.practicum.shareit.exception.generic.ExtendedEntityNotFoundException;
+import ru.practicum.shareit.extension.PageCursor;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -24,6 +39,9 @@ class BookingControllerTest {
     @Mock
     private BookingService bookingService;
 
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
     @InjectMocks
     private BookingController bookingController;
 
@@ -73,11 +91,81 @@ class BookingControllerTest {
 
         when(bookingService.findOne(bookingId)).thenReturn(expectedBookingDto);
 
-        ResponseBookingDto actualBookingDto = bookingController.get(bookingId);
+        ResponseBookingDto actualBookingDto = bookingController.get(bookingId, new ServletWebRequest(new MockHttpServletRequest()));
         verify(bookingService).findOne(bookingId);
         assertThat(actualBookingDto, equalTo(expectedBookingDto));
     }
 
+    @Test
+    void get_whenEtagMatches_thenNotModifiedOnceAccessCheckedWithoutReading() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/bookings/0");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"a-1-2\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        when(bookingService.getEtag()).thenReturn("\"a-1-2\"");
+
+        ResponseBookingDto actualBookingDto = bookingController.get(0L, new ServletWebRequest(request, response));
+
+        assertThat(actualBookingDto, nullValue());
+        assertThat(response.getStatus(), equalTo(HttpStatus.NOT_MODIFIED.value()));
+        InOrder inOrder = inOrder(bookingService);
+        inOrder.verify(bookingService).getEtag();
+        inOrder.verify(bookingService).checkAccessible(0L);
+        verify(bookingService, never()).findOne(0L);
+    }
+
+    @Test
+    void get_whenEtagMatchesButBookingNotFound_thenThrown() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/bookings/0");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"a-1-2\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        when(bookingService.getEtag()).thenReturn("\"a-1-2\"");
+        doThrow(new ExtendedEntityNotFoundException(Booking.class, 0L)).when(bookingService).checkAccessible(0L);
+
+        assertThrows(
+                ExtendedEntityNotFoundException.class,
+                () -> bookingController.get(0L, new ServletWebRequest(request, response))
+        );
+        assertThat(response.getStatus(), equalTo(HttpStatus.OK.value()));
+    }
+
+    @Test
+    void getAllByStatus_whenEtagChanged_thenReadWithNewEtag() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/bookings");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"a-1-2\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        List<ResponseBookingDto> expectedBookingDtos = List.of(new ResponseBookingDto());
+
+        when(bookingService.getEtag(SearchBookingStatus.ALL)).thenReturn(Optional.of("\"a-1-3\""));
+        when(bookingService.findAllBookedByCurrentUserByStatusOrderByDateDesc(eq(SearchBookingStatus.ALL), any(CustomPageableParameters.class)))
+                .thenReturn(expectedBookingDtos);
+
+        List<ResponseBookingDto> actualBookingDtos = bookingController.getAllByStatus(
+                SearchBookingStatus.ALL, 0L, null, 10, new ServletWebRequest(request, response), response
+        );
+
+        assertThat(actualBookingDtos, equalTo(expectedBookingDtos));
+        assertThat(response.getStatus(), equalTo(HttpStatus.OK.value()));
+        assertThat(response.getHeader(HttpHeaders.ETAG), equalTo("\"a-1-3\""));
+    }
+
+    @Test
+    void getAllForCurrentUserByStatus_whenStateHasNoEtag_thenRead() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/bookings/owner");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"a-1-2\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        when(bookingService.getEtag(SearchBookingStatus.CURRENT)).thenReturn(Optional.empty());
+
+        bookingController.getAllForCurrentUserByStatus(
+                SearchBookingStatus.CURRENT, 0L, null, 10, new ServletWebRequest(request, response), response
+        );
+
+        verify(bookingService).findAllForCurrentUserItemsByStatusOrderByDateDesc(eq(SearchBookingStatus.CURRENT), any(CustomPageableParameters.class));
+        assertThat(response.getHeader(HttpHeaders.ETAG), nullValue());
+    }
+
     @Test
     void getAllByStatus_whenInvoked_thenReturnedBookingCollection() {
         List<ResponseBookingDto> expectedBookingDtos = List.of(new ResponseBookingDto());
@@ -90,7 +178,7 @@ class BookingControllerTest {
         )
                 .thenReturn(expectedBookingDtos);
 
-        List<ResponseBookingDto> actualBookingDtos = bookingController.getAllByStatus(SearchBookingStatus.ALL, 0L, 10);
+        List<ResponseBookingDto> actualBookingDtos = bookingController.getAllByStatus(SearchBookingStatus.ALL, 0L, null, 10, webRequest(new MockHttpServletResponse()), new MockHttpServletResponse());
         verify(bookingService).findAllBookedByCurrentUserByStatusOrderByDateDesc(
                 any(SearchBookingStatus.class),
                 eq(CustomPageableParameters.of(0L, 10))
@@ -110,7 +198,7 @@ class BookingControllerTest {
         )
                 .thenReturn(expectedBookingDtos);
 
-        List<ResponseBookingDto> actualBookingDtos = bookingController.getAllByStatus(SearchBookingStatus.ALL, 1L, 2);
+        List<ResponseBookingDto> actualBookingDtos = bookingController.getAllByStatus(SearchBookingStatus.ALL, 1L, null, 2, webRequest(new MockHttpServletResponse()), new MockHttpServletResponse());
         verify(bookingService).findAllBookedByCurrentUserByStatusOrderByDateDesc(
                 any(SearchBookingStatus.class),
                 any(CustomPageableParameters.class)
@@ -140,7 +228,10 @@ class BookingControllerTest {
         List<ResponseBookingDto> actualBookingDtos = bookingController.getAllForCurrentUserByStatus(
                 SearchBookingStatus.ALL,
                 0L,
-                10
+                null,
+                10,
+                webRequest(new MockHttpServletResponse()),
+                new MockHttpServletResponse()
         );
         verify(bookingService).findAllForCurrentUserItemsByStatusOrderByDateDesc(
                 any(SearchBookingStatus.class),
@@ -148,4 +239,87 @@ class BookingControllerTest {
         );
         assertThat(actualBookingDtos, equalTo(expectedBookingDtos));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAllByStatus_whenCursorPageIsFull_thenNextCursorInHeader() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0);
+        ResponseBookingDto lastBookingDto = new ResponseBookingDto();
+        lastBookingDto.setId(7L);
+        lastBookingDto.setStart(start);
+        List<ResponseBookingDto> expectedBookingDtos = List.of(new ResponseBookingDto(), lastBookingDto);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        when(
+                bookingService.findAllBookedByCurrentUserByStatusOrderByDateDesc(
+                        any(SearchBookingStatus.class),
+                        customPageableParametersArgumentCaptor.capture()
+                )
+        )
+                .thenReturn(expectedBookingDtos);
+
+        List<ResponseBookingDto> actualBookingDtos = bookingController.getAllByStatus(SearchBookingStatus.ALL, 0L, "", 2, webRequest(response), response);
+
+        assertThat(actualBookingDtos, equalTo(expectedBookingDtos));
+        assertThat(customPageableParametersArgumentCaptor.getValue().isKeyset(), equalTo(true));
+        assertThat(customPageableParametersArgumentCaptor.getValue().getCursor(), nullValue());
+        assertThat(
+                PageCursor.decode(response.getHeader(PageCursor.NEXT_CURSOR_HEADER)),
+                equalTo(PageCursor.of(start, 7L))
+        );
+    }
+
+    @Test
+    void getAllByStatus_whenCursorPageIsNotFull_thenNoNextCursor() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        when(
+                bookingService.findAllBookedByCurrentUserByStatusOrderByDateDesc(
+                        any(SearchBookingStatus.class),
+                        any(CustomPageableParameters.class)
+                )
+        )
+                .thenReturn(List.of(new ResponseBookingDto()));
+
+        bookingController.getAllByStatus(SearchBookingStatus.ALL, 0L, "", 2, webRequest(response), response);
+
+        assertThat(response.getHeader(PageCursor.NEXT_CURSOR_HEADER), nullValue());
+    }
+
+    @Test
+    void exportAllForCurrentUserByStatus_whenInvoked_thenOneLinePerBooking() throws Exception {
+        ResponseBookingDto first = new ResponseBookingDto();
+        first.setId(1L);
+        ResponseBookingDto second = new ResponseBookingDto();
+        second.setId(2L);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        doAnswer(invocation -> {
+            Consumer<ResponseBookingDto> consumer = invocation.getArgument(1);
+            consumer.accept(first);
+            consumer.accept(second);
+            return null;
+        }).when(bookingService).exportAllForCurrentUserItemsByStatus(eq(SearchBookingStatus.PAST), any());
+
+        bookingController.exportAllForCurrentUserByStatus(SearchBookingStatus.PAST, response);
+
+        String[] lines = response.getContentAsString().split("\n");
+        assertThat(response.getContentType(), equalTo(MediaType.APPLICATION_NDJSON_VALUE));
+        assertThat(lines.length, equalTo(2));
+        assertThat(objectMapper.readValue(lines[0], ResponseBookingDto.class).getId(), equalTo(1L));
+        assertThat(objectMapper.readValue(lines[1], ResponseBookingDto.class).getId(), equalTo(2L));
+    }
+
+    @Test
+    void exportAllByStatus_whenInvoked_thenExportedBookedByCurrentUser() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        bookingController.exportAllByStatus(SearchBookingStatus.ALL, response);
+
+        verify(bookingService).exportAllBookedByCurrentUserByStatus(eq(SearchBookingStatus.ALL), any());
+        assertThat(response.getContentAsString(), equalTo(""));
+    }
+
+    private static ServletWebRequest webRequest(MockHttpServletResponse response) {
+        return new ServletWebRequest(new MockHttpServletRequest(), response);
+    }
+}
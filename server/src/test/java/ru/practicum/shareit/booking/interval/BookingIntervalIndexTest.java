@@ -0,0 +1,228 @@
+package ru.practicum.shareit.booking.interval;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.dto.CreateBookingDto;
+import ru.practicum.shareit.booking.exception.BookingOverlaps;
+import ru.practicum.shareit.booking.exception.ConcurrentBookingStatusUpdate;
+import ru.practicum.shareit.booking.exception.ImmutableBookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.security.user.AuthenticatedUser;
+import ru.practicum.shareit.user.model.User;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+class BookingIntervalIndexTest {
+    private static final int WRITERS = 8;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookingService bookingService;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void updateStatus_whenOverlappingBookingsApprovedConcurrently_thenOnlyOneCommits() throws Exception {
+        Long ownerId = createAccount("interval-owner@example.com");
+        Long bookerId = createAccount("interval-booker@example.com");
+        Long itemId = createItem(ownerId);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        List<Long> bookingIds = new ArrayList<>();
+        for (int i = 0; i < WRITERS; i++) {
+            bookingIds.add(createWaitingBooking(bookerId, itemId, start.plusHours(i), start.plusHours(i + WRITERS)));
+        }
+
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Future<Boolean>> approvals = new ArrayList<>();
+        for (Long bookingId : bookingIds) {
+            approvals.add(executor.submit(() -> {
+                authenticateAs(ownerId);
+                ready.await();
+
+                try {
+                    bookingService.updateStatus(bookingId, BookingStatus.APPROVED);
+                    return true;
+                } catch (BookingOverlaps e) {
+                    return false;
+                }
+            }));
+        }
+        ready.countDown();
+
+        int approved = 0;
+        for (Future<Boolean> approval : approvals) {
+            approved += approval.get(30, TimeUnit.SECONDS) ? 1 : 0;
+        }
+
+        assertThat(approved, equalTo(1));
+        assertThat(countApproved(itemId), equalTo(1));
+    }
+
+    @Test
+    void create_whenApprovedBookingOverlaps_thenRejected() {
+        Long ownerId = createAccount("interval-owner-2@example.com");
+        Long bookerId = createAccount("interval-booker-2@example.com");
+        Long itemId = createItem(ownerId);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Long bookingId = createWaitingBooking(bookerId, itemId, start, start.plusDays(2));
+
+        authenticateAs(ownerId);
+        bookingService.updateStatus(bookingId, BookingStatus.APPROVED);
+
+        authenticateAs(bookerId);
+        assertThrows(
+                BookingOverlaps.class,
+                () -> bookingService.create(new CreateBookingDto(start.plusDays(1), start.plusDays(3), itemId))
+        );
+        bookingService.create(new CreateBookingDto(start.plusDays(2), start.plusDays(3), itemId));
+    }
+
+    @Test
+    void updateStatus_whenOverlappingBookingApprovedBehindIndex_thenRejectedByDatabase() {
+        Long ownerId = createAccount("interval-owner-3@example.com");
+        Long bookerId = createAccount("interval-booker-3@example.com");
+        Long itemId = createItem(ownerId);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Long loadedId = createWaitingBooking(bookerId, itemId, start, start.plusDays(1));
+
+        authenticateAs(ownerId);
+        bookingService.updateStatus(loadedId, BookingStatus.REJECTED);
+
+        // another server instance approves a booking this instance's index has not seen
+        Long otherId = createWaitingBooking(bookerId, itemId, start.plusDays(2), start.plusDays(4));
+        jdbcTemplate.update("update booking set status = ? where id = ?", BookingStatus.APPROVED.ordinal(), otherId);
+        Long overlappingId = createWaitingBooking(bookerId, itemId, start.plusDays(3), start.plusDays(5));
+
+        assertThrows(
+                BookingOverlaps.class,
+                () -> bookingService.updateStatus(overlappingId, BookingStatus.APPROVED)
+        );
+        assertThat(countApproved(itemId), equalTo(1));
+    }
+
+    @Test
+    void overlapsApproved_whenLoaderSeesBookingAlreadyApproved_thenBookingNotCountedAgainstItself() {
+        Item item = new Item(1L, "tent", "for two", true, null, Collections.emptySet(), null);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Booking booking = new Booking(5L, start, start.plusDays(2), item, null, BookingStatus.APPROVED);
+        Booking other = new Booking(6L, start.plusDays(3), start.plusDays(4), item, null, BookingStatus.APPROVED);
+
+        BookingRepository bookingRepository = mock(BookingRepository.class);
+        when(bookingRepository.findAllByItem_IdAndStatusIn(item.getId(), BookingStatus.NOT_DECLINED)).thenReturn(List.of(booking, other));
+        BookingIntervalIndex index = new BookingIntervalIndex(bookingRepository, 10, 1);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.lockItem(item.getId());
+
+            assertThat(index.overlapsApproved(booking), equalTo(false));
+            assertThat(index.overlapsApproved(item.getId(), booking.getStart(), booking.getFinish()), equalTo(true));
+            booking.setFinish(start.plusDays(4));
+            assertThat(index.overlapsApproved(booking), equalTo(true));
+        } finally {
+            TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+                    synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void updateStatus_whenSameBookingApprovedAndRejectedConcurrently_thenOneTransitionWins() throws Exception {
+        Long ownerId = createAccount("interval-owner-4@example.com");
+        Long bookerId = createAccount("interval-booker-4@example.com");
+        Long itemId = createItem(ownerId);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Long bookingId = createWaitingBooking(bookerId, itemId, start, start.plusDays(1));
+
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Future<Boolean>> transitions = new ArrayList<>();
+        for (BookingStatus status : List.of(BookingStatus.APPROVED, BookingStatus.REJECTED, BookingStatus.APPROVED, BookingStatus.REJECTED)) {
+            transitions.add(executor.submit(() -> {
+                authenticateAs(ownerId);
+                ready.await();
+
+                try {
+                    bookingService.updateStatus(bookingId, status);
+                    return true;
+                } catch (ConcurrentBookingStatusUpdate | ImmutableBookingStatus e) {
+                    return false;
+                }
+            }));
+        }
+        ready.countDown();
+
+        int applied = 0;
+        for (Future<Boolean> transition : transitions) {
+            applied += transition.get(30, TimeUnit.SECONDS) ? 1 : 0;
+        }
+
+        assertThat(applied, equalTo(1));
+        assertThat(jdbcTemplate.queryForObject("select version from booking where id = ?", Long.class, bookingId), equalTo(1L));
+    }
+
+    private void authenticateAs(Long userId) {
+        AuthenticatedUser principal = new AuthenticatedUser(new User(userId, "user", "user@example.com"));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities())
+        );
+    }
+
+    private Long createAccount(String email) {
+        jdbcTemplate.update("insert into accounts (email, username) values (?, 'interval')", email);
+
+        return jdbcTemplate.queryForObject("select id from accounts where email = ?", Long.class, email);
+    }
+
+    private Long createItem(Long ownerId) {
+        jdbcTemplate.update("insert into item (name, description, available, owner_id) values ('tent', 'for two', true, ?)", ownerId);
+
+        return jdbcTemplate.queryForObject("select max(id) from item where owner_id = ?", Long.class, ownerId);
+    }
+
+    private Long createWaitingBooking(Long bookerId, Long itemId, LocalDateTime start, LocalDateTime finish) {
+        jdbcTemplate.update(
+                "insert into booking (start, finish, status, booker_id, item_id) values (?, ?, ?, ?, ?)",
+                Timestamp.valueOf(start), Timestamp.valueOf(finish), BookingStatus.WAITING.ordinal(), bookerId, itemId
+        );
+
+        return jdbcTemplate.queryForObject("select max(id) from booking where item_id = ?", Long.class, itemId);
+    }
+
+    private int countApproved(Long itemId) {
+        return jdbcTemplate.queryForObject(
+                "select count(*) from booking where item_id = ? and status = ?", Integer.class, itemId, BookingStatus.APPROVED.ordinal()
+        );
+    }
+}
@@ -0,0 +1,107 @@
+package ru.practicum.shareit.booking.interval;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+class ItemBookingIntervalsTest {
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    private final ItemBookingIntervals intervals = new ItemBookingIntervals();
+
+    @Test
+    void overlaps_whenIntervalsOnlyTouch_thenFalse() {
+        intervals.put(1L, BookingStatus.APPROVED, day(1), day(3));
+
+        assertThat(intervals.overlaps(BookingStatus.APPROVED, day(0), day(1)), equalTo(false));
+        assertThat(intervals.overlaps(BookingStatus.APPROVED, day(3), day(4)), equalTo(false));
+        assertThat(intervals.overlaps(BookingStatus.APPROVED, day(2), day(4)), equalTo(true));
+        assertThat(intervals.overlaps(BookingStatus.APPROVED, day(0), day(5)), equalTo(true));
+    }
+
+    @Test
+    void overlaps_whenEarlierIntervalIsLongest_thenFound() {
+        intervals.put(1L, BookingStatus.APPROVED, day(0), day(10));
+        intervals.put(2L, BookingStatus.APPROVED, day(2), day(3));
+        intervals.put(3L, BookingStatus.APPROVED, day(4), day(5));
+
+        assertThat(intervals.overlaps(BookingStatus.APPROVED, day(6), day(7)), equalTo(true));
+        assertThat(intervals.overlaps(BookingStatus.APPROVED, day(10), day(11)), equalTo(false));
+    }
+
+    @Test
+    void overlapsExcept_whenOnlyExcludedBookingOverlaps_thenFalse() {
+        intervals.put(1L, BookingStatus.APPROVED, day(0), day(10));
+        intervals.put(2L, BookingStatus.APPROVED, day(2), day(3));
+
+        assertThat(intervals.overlapsExcept(BookingStatus.APPROVED, day(6), day(7), 1L), equalTo(false));
+        assertThat(intervals.overlapsExcept(BookingStatus.APPROVED, day(2), day(3), 1L), equalTo(true));
+        assertThat(intervals.overlapsExcept(BookingStatus.APPROVED, day(6), day(7), 2L), equalTo(true));
+    }
+
+    @Test
+    void put_whenStatusChanges_thenIntervalMovesBetweenStatuses() {
+        intervals.put(1L, BookingStatus.WAITING, day(1), day(2));
+
+        assertThat(intervals.overlaps(BookingStatus.APPROVED, day(1), day(2)), equalTo(false));
+
+        intervals.put(1L, BookingStatus.APPROVED, day(1), day(2));
+
+        assertThat(intervals.overlaps(BookingStatus.WAITING, day(1), day(2)), equalTo(false));
+        assertThat(intervals.overlaps(BookingStatus.APPROVED, day(1), day(2)), equalTo(true));
+
+        intervals.put(1L, BookingStatus.REJECTED, day(1), day(2));
+
+        assertThat(intervals.overlaps(BookingStatus.APPROVED, day(1), day(2)), equalTo(false));
+        assertThat(intervals.size(), equalTo(0));
+    }
+
+    @Test
+    void overlaps_whenRandomIntervals_thenMatchesLinearScan() {
+        Random random = new Random(7);
+        int[][] stored = new int[200][];
+
+        for (int i = 0; i < stored.length; i++) {
+            int start = random.nextInt(1000);
+            stored[i] = new int[]{start, start + 1 + random.nextInt(20)};
+            intervals.put(i, BookingStatus.APPROVED, hour(stored[i][0]), hour(stored[i][1]));
+        }
+        for (int i = 0; i < stored.length; i += 3) {
+            intervals.remove(i);
+            stored[i] = null;
+        }
+
+        for (int query = 0; query < 1000; query++) {
+            int start = random.nextInt(1000);
+            int finish = start + 1 + random.nextInt(10);
+
+            boolean expected = false;
+            for (int[] interval : stored) {
+                expected |= interval != null && interval[0] < finish && start < interval[1];
+            }
+
+            assertThat(intervals.overlaps(BookingStatus.APPROVED, hour(start), hour(finish)), equalTo(expected));
+
+            int excluded = random.nextInt(stored.length);
+            boolean expectedExcept = false;
+            for (int i = 0; i < stored.length; i++) {
+                expectedExcept |= i != excluded && stored[i] != null && stored[i][0] < finish && start < stored[i][1];
+            }
+
+            assertThat(intervals.overlapsExcept(BookingStatus.APPROVED, hour(start), hour(finish), excluded), equalTo(expectedExcept));
+        }
+    }
+
+    private static LocalDateTime day(int days) {
+        return DAY.plusDays(days);
+    }
+
+    private static LocalDateTime hour(int hours) {
+        return DAY.plusHours(hours);
+    }
+}
@@ -0,0 +1,163 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.shareit.booking.dto.SearchBookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.extension.PageCursor;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class BookingKeysetRepositoryTest {
+    private static final int BOOKINGS = 25;
+
+    private static final int PAGE_SIZE = 4;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    private User owner;
+
+    private User booker;
+
+    @BeforeEach
+    void setUp() {
+        owner = entityManager.persist(new User(null, "owner", "owner@a.com"));
+        booker = entityManager.persist(new User(null, "booker", "booker@a.com"));
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+        for (int i = 0; i < BOOKINGS; i++) {
+            // every three bookings share a start, so ties are broken by id; each booking has its own item
+            // because approved bookings of one item must not overlap
+            Item item = entityManager.persist(new Item(null, "item " + i, "", true, owner, Collections.emptySet(), null));
+            LocalDateTime start = base.plusDays(i / 3);
+            BookingStatus status = i % 2 == 0 ? BookingStatus.WAITING : BookingStatus.APPROVED;
+            entityManager.persist(new Booking(null, start, start.plusHours(1), item, booker, status));
+            entityManager.persist(new ItemRequest(null, "request " + i, booker, start, Collections.emptySet()));
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void findAllOrderByStartDescAfter_whenWalkedPageByPage_thenSameAsOffsetOrder() {
+        Specification<Booking> specification = BookingSpecifications.bookedBy(booker.getId())
+                .and(BookingSpecifications.inState(SearchBookingStatus.ALL, LocalDateTime.now()));
+
+        List<Long> walked = new ArrayList<>();
+        PageCursor cursor = null;
+        List<Booking> page;
+        do {
+            page = bookingRepository.findAllOrderByStartDescAfter(specification, cursor, PAGE_SIZE);
+            page.forEach(booking -> walked.add(booking.getId()));
+
+            if (!page.isEmpty()) {
+                Booking last = page.get(page.size() - 1);
+                cursor = PageCursor.decode(PageCursor.of(last.getStart(), last.getId()).encode());
+            }
+        } while (page.size() == PAGE_SIZE);
+
+        List<Long> expected = bookingRepository
+                .findAll(Sort.by(Sort.Direction.DESC, "start", "id"))
+                .stream()
+                .map(Booking::getId)
+                .collect(Collectors.toList());
+
+        assertThat(walked).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void findAllOrderByStartDescAfter_whenStateAndOwnerGiven_thenFiltered() {
+        Specification<Booking> specification = BookingSpecifications.ofItemsOwnedBy(owner.getId())
+                .and(BookingSpecifications.inState(SearchBookingStatus.WAITING, LocalDateTime.now()));
+
+        List<Booking> bookings = bookingRepository.findAllOrderByStartDescAfter(specification, null, BOOKINGS);
+
+        assertThat(bookings).hasSize((BOOKINGS + 1) / 2).allMatch(booking -> booking.getStatus() == BookingStatus.WAITING);
+        assertThat(bookingRepository.findAllOrderByStartDescAfter(BookingSpecifications.ofItemsOwnedBy(booker.getId()), null, BOOKINGS)).isEmpty();
+    }
+
+    @Test
+    void forEachWindowOrderByStartDesc_whenInvoked_thenAllRowsInKeysetOrderAndContextCleared() {
+        Specification<Booking> specification = BookingSpecifications.ofItemsOwnedBy(owner.getId())
+                .and(BookingSpecifications.inState(SearchBookingStatus.ALL, LocalDateTime.now()));
+
+        List<Long> exported = new ArrayList<>();
+        List<Integer> windowSizes = new ArrayList<>();
+        List<Booking> firstOfWindows = new ArrayList<>();
+        bookingRepository.forEachWindowOrderByStartDesc(specification, PAGE_SIZE, window -> {
+            windowSizes.add(window.size());
+            firstOfWindows.add(window.get(0));
+            window.forEach(booking -> {
+                exported.add(booking.getId());
+                assertThat(booking.getItem().getComments()).isEmpty();
+                assertThat(booking.getItem().getOwner().getId()).isEqualTo(owner.getId());
+            });
+            assertThat(entityManager.getEntityManager().contains(window.get(0))).isTrue();
+        });
+
+        List<Long> expected = bookingRepository
+                .findAll(Sort.by(Sort.Direction.DESC, "start", "id"))
+                .stream()
+                .map(Booking::getId)
+                .collect(Collectors.toList());
+
+        assertThat(exported).containsExactlyElementsOf(expected);
+        assertThat(windowSizes).hasSize((BOOKINGS + PAGE_SIZE - 1) / PAGE_SIZE).allMatch(size -> size <= PAGE_SIZE);
+        assertThat(firstOfWindows).noneMatch(booking -> entityManager.getEntityManager().contains(booking));
+    }
+
+    @Test
+    void findAllByRequestor_IdNotCreatedBefore_whenWalkedPageByPage_thenSameAsOffsetOrder() {
+        Long otherUserId = owner.getId();
+
+        List<Long> walked = new ArrayList<>();
+        List<ItemRequest> page = itemRequestRepository.findAllByRequestor_IdNot(
+                otherUserId,
+                PageRequest.of(0, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "created", "id"))
+        );
+        while (!page.isEmpty()) {
+            page.forEach(itemRequest -> walked.add(itemRequest.getId()));
+            ItemRequest last = page.get(page.size() - 1);
+            page = itemRequestRepository.findAllByRequestor_IdNotCreatedBefore(
+                    otherUserId,
+                    last.getCreated(),
+                    last.getId(),
+                    PageRequest.ofSize(PAGE_SIZE)
+            );
+        }
+
+        List<Long> expected = itemRequestRepository
+                .findAll(Sort.by(Sort.Direction.DESC, "created", "id"))
+                .stream()
+                .map(ItemRequest::getId)
+                .collect(Collectors.toList());
+
+        assertThat(walked).containsExactlyElementsOf(expected);
+    }
+}
@@ -0,0 +1,60 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class BookingRepositoryTest {
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private final LocalDateTime now = LocalDateTime.now();
+
+    private Item item;
+
+    private Booking finished;
+
+    private Booking current;
+
+    private Booking upcoming;
+
+    @BeforeEach
+    void setUp() {
+        User owner = entityManager.persist(new User(null, "", "owner@a.com"));
+        User booker = entityManager.persist(new User(null, "", "booker@a.com"));
+        item = entityManager.persist(new Item(null, "drill", "", true, owner, Collections.emptySet(), null));
+
+        finished = entityManager.persist(new Booking(null, now.minusDays(3), now.minusDays(2), item, booker, BookingStatus.REJECTED));
+        current = entityManager.persist(new Booking(null, now.minusHours(1), now.plusHours(1), item, booker, BookingStatus.APPROVED));
+        upcoming = entityManager.persist(new Booking(null, now.plusDays(1), now.plusDays(2), item, booker, BookingStatus.CANCELED));
+        entityManager.flush();
+    }
+
+    @Test
+    void findFirstByItem_IdAndStartIsBeforeOrderByStartDescIdDesc_whenBookingInProgress_thenReturnedIt() {
+        assertThat(bookingRepository.findFirstByItem_IdAndStartIsBeforeOrderByStartDescIdDesc(item.getId(), now)).contains(current);
+        assertThat(bookingRepository.findFirstByItem_IdAndFinishIsAfterOrderByStartAscIdAsc(item.getId(), now)).contains(current);
+    }
+
+    @Test
+    void findFirstByItem_IdAndFinishIsBeforeOrderByFinishDescIdDesc_whenDeclined_thenStillReturned() {
+        assertThat(bookingRepository.findFirstByItem_IdAndFinishIsBeforeOrderByFinishDescIdDesc(item.getId(), now)).contains(finished);
+        assertThat(bookingRepository.findFirstByItem_IdAndStartIsAfterOrderByStartAscIdAsc(item.getId(), now)).contains(upcoming);
+        assertThat(bookingRepository.findFirstByItem_IdAndFinishIsAfterOrderByFinishAsc(item.getId(), now)).contains(current);
+    }
+}
@@ -0,0 +1,109 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.benchmark.LatencyRecorder;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.extension.ExtendedPageRequest;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the owner booking listing that loads all owned items and binds them as an IN list with the one
+ * that joins on {@code item.owner_id}, for owners with {@link #CATALOGUE_SIZES} items.
+ * H2 numbers only show the trend; run with {@code -Dspring.profiles.active=default} against Postgres
+ * for figures that match production.
+ */
+@SpringBootTest
+class OwnerBookingsBenchmarkIT {
+    private static final int[] CATALOGUE_SIZES = {100, 1_000, 10_000};
+
+    private static final int BOOKINGS_PER_ITEM = 2;
+
+    private static final int QUERIES = 30;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void ownerBookingsLatencyByCatalogueSize() throws Exception {
+        Long bookerId = createAccount("booker-owner-bookings@example.com");
+        ExtendedPageRequest page = ExtendedPageRequest.ofOffset(0, 10, Sort.by(Sort.Direction.DESC, "start"));
+        Random random = new Random(42);
+
+        for (int catalogueSize : CATALOGUE_SIZES) {
+            Long ownerId = createAccount("owner-" + catalogueSize + "@example.com");
+            seed(ownerId, bookerId, catalogueSize, random);
+
+            assertThat(bookingRepository.findAllByItem_Owner_Id(ownerId, page)).hasSize(10);
+
+            LatencyRecorder inList = new LatencyRecorder(QUERIES);
+            LatencyRecorder join = new LatencyRecorder(QUERIES);
+            for (int i = 0; i < QUERIES; i++) {
+                inList.record(() -> findAllByItemIn(itemRepository.findAllByOwner_Id(ownerId)));
+                join.record(() -> bookingRepository.findAllByItem_Owner_Id(ownerId, page));
+            }
+
+            System.out.printf("in-list items=%d %s%n", catalogueSize, inList.summary());
+            System.out.printf("join    items=%d %s%n", catalogueSize, join.summary());
+        }
+    }
+
+    /**
+     * The listing as it was before the join: all owned items bound as an IN list.
+     */
+    private List<Booking> findAllByItemIn(List<Item> items) {
+        return entityManager
+                .createQuery("select b from Booking b where b.item in :items order by b.start desc", Booking.class)
+                .setParameter("items", items)
+                .setMaxResults(10)
+                .getResultList();
+    }
+
+    private Long createAccount(String email) {
+        jdbcTemplate.update("insert into accounts (email, username) values (?, 'bench')", email);
+
+        return jdbcTemplate.queryForObject("select id from accounts where email = ?", Long.class, email);
+    }
+
+    private void seed(Long ownerId, Long bookerId, int catalogueSize, Random random) {
+        List<Object[]> items = new ArrayList<>(catalogueSize);
+        for (int i = 0; i < catalogueSize; i++) {
+            items.add(new Object[]{"item " + i, "description " + i, true, ownerId});
+        }
+        jdbcTemplate.batchUpdate("insert into item (name, description, available, owner_id) values (?, ?, ?, ?)", items);
+
+        List<Long> itemIds = jdbcTemplate.queryForList("select id from item where owner_id = ?", Long.class, ownerId);
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> bookings = new ArrayList<>(itemIds.size() * BOOKINGS_PER_ITEM);
+        for (Long itemId : itemIds) {
+            for (int i = 0; i < BOOKINGS_PER_ITEM; i++) {
+                LocalDateTime start = now.plusHours(random.nextInt(24 * 60) - 24 * 30);
+                bookings.add(new Object[]{Timestamp.valueOf(start), Timestamp.valueOf(start.plusHours(1 + random.nextInt(48))), 0, bookerId, itemId});
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into booking (start, finish, status, booker_id, item_id) values (?, ?, ?, ?, ?)", bookings);
+    }
+}
@@ -8,12 +8,16 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Sort;
 import org.springframework.security.access.AccessDeniedException;
 import ru.practicum.shareit.booking.dto.CreateBookingDto;
 import ru.practicum.shareit.booking.dto.ResponseBookingDto;
 import ru.practicum.shareit.booking.dto.SearchBookingStatus;
 import ru.practicum.shareit.booking.exception.BookingItemThatUserOwns;
+import ru.practicum.shareit.booking.exception.BookingOverlaps;
+import ru.practicum.shareit.booking.exception.ConcurrentBookingStatusUpdate;
+import ru.practicum.shareit.booking.interval.BookingIntervalIndex;
 import ru.practicum.shareit.booking.exception.ImmutableBookingStatus;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
@@ -21,9 +25,13 @@ import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.generic.ExtendedEntityNotFoundException;
 import ru.practicum.shareit.extension.CustomPageableParameters;
 import ru.practicum.shareit.extension.ExtendedPageRequest;
+import ru.practicum.shareit.extension.PageCursor;
+import ru.practicum.shareit.httpcache.ChangeCounter;
+import ru.practicum.shareit.item.availability.ItemAvailabilityCache;
 import ru.practicum.shareit.item.exception.ItemIsUnavailable;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemBookingSummaryService;
 import ru.practicum.shareit.mapper.ModelMapper;
 import ru.practicum.shareit.security.facade.IAuthenticationFacade;
 import ru.practicum.shareit.security.user.AuthenticatedUser;
@@ -33,8 +41,10 @@ import ru.practicum.shareit.user.model.User;
 import static org.hamcrest.MatcherAssert.assertThat;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.*;
 import static org.mockito.Mockito.*;
@@ -49,6 +59,18 @@ class BookingServiceImplTest {
     @Mock
     private ItemRepository itemRepository;
 
+    @Mock
+    private ItemBookingSummaryService itemBookingSummaryService;
+
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @Mock
+    private ItemAvailabilityCache itemAvailabilityCache;
+
+    @Mock
+    private ChangeCounter changeCounter;
+
     @Mock
     private IAuthenticationFacade authenticationFacade;
 
@@ -68,6 +90,10 @@ class BookingServiceImplTest {
         bookingService = new BookingServiceImpl(
                 bookingRepository,
                 itemRepository,
+                itemBookingSummaryService,
+                bookingIntervalIndex,
+                itemAvailabilityCache,
+                changeCounter,
                 authenticationFacade,
                 mapper
         );
@@ -136,6 +162,7 @@ class BookingServiceImplTest {
 
         Long itemId = 0L;
         Item item = new Item();
+        item.setId(itemId);
         item.setAvailable(true);
         item.setOwner(new User(1L, "", ""));
 
@@ -153,11 +180,42 @@ class BookingServiceImplTest {
         when(mapper.toResponseBookingDto(booking)).thenReturn(expectedResponseBookingDto);
 
         ResponseBookingDto actualResponseBookingDto = bookingService.create(createBookingDto);
+        verify(bookingIntervalIndex).lockItem(itemId);
         verify(bookingRepository).save(booking);
+        verify(bookingIntervalIndex).update(booking);
+        verify(itemAvailabilityCache).invalidate(itemId);
+        verify(itemBookingSummaryService).refresh(itemId);
+        verify(changeCounter).changed(userId, 1L);
 
         assertThat(actualResponseBookingDto, equalTo(expectedResponseBookingDto));
     }
 
+    @Test
+    void create_whenApprovedBookingOverlaps_thenThrownException() {
+        User currentUser = new User();
+        currentUser.setId(0L);
+
+        Long itemId = 0L;
+        Item item = new Item();
+        item.setId(itemId);
+        item.setAvailable(true);
+        item.setOwner(new User(1L, "", ""));
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        LocalDateTime end = start.plusDays(1);
+        CreateBookingDto createBookingDto = new CreateBookingDto(start, end, itemId);
+
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        when(authenticationFacade.getCurrentUser()).thenReturn(currentUser);
+        when(bookingIntervalIndex.overlapsApproved(itemId, start, end)).thenReturn(true);
+
+        assertThrows(
+                BookingOverlaps.class,
+                () -> bookingService.create(createBookingDto)
+        );
+        verify(bookingRepository, never()).save(any());
+    }
+
     @Test
     void findOne_whenBookingNotFound_thenThrownException() {
         Long bookingId = 0L;
@@ -198,6 +256,31 @@ class BookingServiceImplTest {
         );
     }
 
+    @Test
+    void checkAccessible_whenBookingNotFound_thenThrownException() {
+        when(bookingRepository.findReadOnlyById(0L)).thenReturn(Optional.empty());
+
+        assertThrows(ExtendedEntityNotFoundException.class, () -> bookingService.checkAccessible(0L));
+    }
+
+    @Test
+    void checkAccessible_whenCurrentUserNeitherBookerNorItemOwner_thenThrownExceptionWithoutMapping() {
+        User currentUser = new User();
+        currentUser.setId(0L);
+
+        Item item = new Item();
+        item.setOwner(new User(100L, "", ""));
+        Booking booking = new Booking();
+        booking.setBooker(new User(200L, "", ""));
+        booking.setItem(item);
+
+        when(bookingRepository.findReadOnlyById(0L)).thenReturn(Optional.of(booking));
+        when(authenticationFacade.getCurrentUserDetails()).thenReturn(new AuthenticatedUser(currentUser));
+
+        assertThrows(AccessDeniedException.class, () -> bookingService.checkAccessible(0L));
+        verifyNoInteractions(mapper);
+    }
+
     @Test
     void findOne_whenBookingFound_thenReturnedBookingDto() {
         Long userId = 0L;
@@ -260,7 +343,7 @@ class BookingServiceImplTest {
         booking.setItem(item);
         booking.setStatus(BookingStatus.WAITING);
 
-        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+        when(bookingRepository.findReadOnlyById(bookingId)).thenReturn(Optional.of(booking));
         when(authenticationFacade.getCurrentUserDetails()).thenReturn(userDetails);
 
         assertThrows(
@@ -289,7 +372,7 @@ class BookingServiceImplTest {
         booking.setItem(item);
         booking.setStatus(BookingStatus.APPROVED);
 
-        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+        when(bookingRepository.findReadOnlyById(bookingId)).thenReturn(Optional.of(booking));
         when(authenticationFacade.getCurrentUserDetails()).thenReturn(userDetails);
 
         assertThrows(
@@ -308,27 +391,146 @@ class BookingServiceImplTest {
         User itemOwner = new User();
         itemOwner.setId(userId);
         Item item = new Item();
+        item.setId(10L);
         item.setOwner(itemOwner);
 
         Long bookingId = 0L;
         User booker = new User();
         booker.setId(200L);
         Booking booking = new Booking();
+        booking.setId(bookingId);
         booking.setBooker(booker);
         booking.setItem(item);
         booking.setStatus(BookingStatus.WAITING);
 
         ResponseBookingDto expectedResponseBookingDto = new ResponseBookingDto();
 
-        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+        when(bookingRepository.findReadOnlyById(bookingId)).thenReturn(Optional.of(booking));
         when(authenticationFacade.getCurrentUserDetails()).thenReturn(userDetails);
+        when(bookingRepository.updateStatusIfCurrent(bookingId, BookingStatus.WAITING, BookingStatus.APPROVED)).thenReturn(1);
         when(mapper.toResponseBookingDto(booking)).thenReturn(expectedResponseBookingDto);
 
         ResponseBookingDto actualResponseBookingDto = bookingService.updateStatus(bookingId, BookingStatus.APPROVED);
+        assertThat(booking.getStatus(), equalTo(BookingStatus.APPROVED));
+        verify(bookingIntervalIndex).lockItem(10L);
+        verify(bookingIntervalIndex).update(booking);
+        verify(itemAvailabilityCache).invalidate(10L);
+        verify(itemBookingSummaryService).refresh(10L);
+        verify(changeCounter).changed(200L, userId);
 
         assertThat(actualResponseBookingDto, equalTo(expectedResponseBookingDto));
     }
 
+    @Test
+    void getEtag_whenStateDependsOnTime_thenEmpty() {
+        assertThat(bookingService.getEtag(SearchBookingStatus.CURRENT), equalTo(Optional.empty()));
+        assertThat(bookingService.getEtag(SearchBookingStatus.PAST), equalTo(Optional.empty()));
+        assertThat(bookingService.getEtag(SearchBookingStatus.FUTURE), equalTo(Optional.empty()));
+    }
+
+    @Test
+    void getEtag_whenStateDoesNotDependOnTime_thenCurrentUserEtag() {
+        User currentUser = new User(7L, "", "");
+
+        when(authenticationFacade.getCurrentUserDetails()).thenReturn(new AuthenticatedUser(currentUser));
+        when(changeCounter.etag(7L)).thenReturn("\"a-1-2\"");
+
+        assertThat(bookingService.getEtag(SearchBookingStatus.WAITING), equalTo(Optional.of("\"a-1-2\"")));
+    }
+
+    @Test
+    void updateStatus_whenApprovingOverlappingBooking_thenThrownException() {
+        User itemOwner = new User();
+        itemOwner.setId(0L);
+        ExtendedUserDetails userDetails = new AuthenticatedUser(itemOwner);
+
+        Item item = new Item();
+        item.setId(10L);
+        item.setOwner(itemOwner);
+
+        Long bookingId = 0L;
+        Booking booking = new Booking();
+        booking.setId(bookingId);
+        booking.setBooker(new User(200L, "", ""));
+        booking.setItem(item);
+        booking.setStart(LocalDateTime.now().plusDays(1));
+        booking.setFinish(booking.getStart().plusDays(1));
+        booking.setStatus(BookingStatus.WAITING);
+
+        when(bookingRepository.findReadOnlyById(bookingId)).thenReturn(Optional.of(booking));
+        when(authenticationFacade.getCurrentUserDetails()).thenReturn(userDetails);
+        when(bookingRepository.updateStatusIfCurrent(bookingId, BookingStatus.WAITING, BookingStatus.APPROVED)).thenReturn(1);
+        when(bookingIntervalIndex.overlapsApproved(booking)).thenReturn(true);
+
+        assertThrows(
+                BookingOverlaps.class,
+                () -> bookingService.updateStatus(bookingId, BookingStatus.APPROVED)
+        );
+        assertThat(booking.getStatus(), equalTo(BookingStatus.WAITING));
+        verify(bookingIntervalIndex, never()).update(booking);
+    }
+
+    @Test
+    void updateStatus_whenOverlapConstraintViolated_thenThrownException() {
+        User itemOwner = new User();
+        itemOwner.setId(0L);
+        ExtendedUserDetails userDetails = new AuthenticatedUser(itemOwner);
+
+        Item item = new Item();
+        item.setId(10L);
+        item.setOwner(itemOwner);
+
+        Long bookingId = 0L;
+        Booking booking = new Booking();
+        booking.setId(bookingId);
+        booking.setBooker(new User(200L, "", ""));
+        booking.setItem(item);
+        booking.setStatus(BookingStatus.WAITING);
+
+        when(bookingRepository.findReadOnlyById(bookingId)).thenReturn(Optional.of(booking));
+        when(authenticationFacade.getCurrentUserDetails()).thenReturn(userDetails);
+        when(bookingRepository.updateStatusIfCurrent(bookingId, BookingStatus.WAITING, BookingStatus.APPROVED))
+                .thenThrow(new DataIntegrityViolationException("could not execute statement", new RuntimeException(
+                        "Check constraint violation: \"EX_BOOKING_ITEM_APPROVED: \""
+                )));
+
+        assertThrows(
+                BookingOverlaps.class,
+                () -> bookingService.updateStatus(bookingId, BookingStatus.APPROVED)
+        );
+        verify(bookingIntervalIndex, never()).update(booking);
+        verify(itemBookingSummaryService, never()).refresh(10L);
+    }
+
+    @Test
+    void updateStatus_whenStatusChangedConcurrently_thenThrownException() {
+        User itemOwner = new User();
+        itemOwner.setId(0L);
+        ExtendedUserDetails userDetails = new AuthenticatedUser(itemOwner);
+
+        Item item = new Item();
+        item.setId(10L);
+        item.setOwner(itemOwner);
+
+        Long bookingId = 0L;
+        Booking booking = new Booking();
+        booking.setId(bookingId);
+        booking.setBooker(new User(200L, "", ""));
+        booking.setItem(item);
+        booking.setStatus(BookingStatus.WAITING);
+
+        when(bookingRepository.findReadOnlyById(bookingId)).thenReturn(Optional.of(booking));
+        when(authenticationFacade.getCurrentUserDetails()).thenReturn(userDetails);
+        when(bookingRepository.updateStatusIfCurrent(bookingId, BookingStatus.WAITING, BookingStatus.REJECTED)).thenReturn(0);
+
+        assertThrows(
+                ConcurrentBookingStatusUpdate.class,
+                () -> bookingService.updateStatus(bookingId, BookingStatus.REJECTED)
+        );
+        assertThat(booking.getStatus(), equalTo(BookingStatus.WAITING));
+        verify(bookingIntervalIndex, never()).update(booking);
+    }
+
     @Test
     void findAllBookedByCurrentUserByStatusOrderByDateDesc_whenStatusIsAll_thenReturnedCollection() {
         Long userId = 0L;
@@ -387,6 +589,30 @@ class BookingServiceImplTest {
         assertThat(extendedPageRequestArgumentCaptor.getValue().getPageSize(), equalTo(1));
     }
 
+    @Test
+    void findAllBookedByCurrentUserByStatusOrderByDateDesc_whenCursorGiven_thenSeeksAfterCursor() {
+        Long userId = 0L;
+        User currentUser = new User();
+        currentUser.setId(userId);
+        ExtendedUserDetails userDetails = new AuthenticatedUser(currentUser);
+        PageCursor cursor = PageCursor.of(LocalDateTime.of(2024, 1, 1, 10, 0), 5L);
+
+        Booking booking = new Booking();
+        ResponseBookingDto expectedResponseBookingDto = new ResponseBookingDto();
+
+        when(authenticationFacade.getCurrentUserDetails()).thenReturn(userDetails);
+        when(bookingRepository.findAllOrderByStartDescAfter(any(), eq(cursor), eq(3))).thenReturn(List.of(booking));
+        when(mapper.toResponseBookingDto(booking)).thenReturn(expectedResponseBookingDto);
+
+        List<ResponseBookingDto> actualBookings = bookingService.findAllBookedByCurrentUserByStatusOrderByDateDesc(
+                SearchBookingStatus.ALL,
+                CustomPageableParameters.ofCursor(cursor.encode(), 3)
+        );
+
+        assertThat(actualBookings, equalTo(List.of(expectedResponseBookingDto)));
+        verify(bookingRepository, never()).findAllByBooker_Id(any(), any());
+    }
+
     @Test
     void findAllBookedByCurrentUserByStatusOrderByDateDesc_whenStatusIsCurrent_thenReturnedCollection() {
         Long userId = 0L;
@@ -548,15 +774,11 @@ class BookingServiceImplTest {
         Booking booking = new Booking();
         List<Booking> bookings = List.of(booking);
 
-        Item item = new Item();
-        List<Item> items = List.of(item);
-
         ResponseBookingDto expectedResponseBookingDto = new ResponseBookingDto();
 
         when(authenticationFacade.getCurrentUserDetails()).thenReturn(userDetails);
-        when(itemRepository.findAllByOwner_Id(userId)).thenReturn(items);
-        when(bookingRepository.findAllByItemIn(
-                eq(items),
+        when(bookingRepository.findAllByItem_Owner_Id(
+                eq(userId),
                 eq(CustomPageableParameters.of(0L,10).toPageable(sortByStartDesc))
         ))
                 .thenReturn(bookings);
@@ -581,15 +803,11 @@ class BookingServiceImplTest {
         Booking booking = new Booking();
         List<Booking> bookings = List.of(booking);
 
-        Item item = new Item();
-        List<Item> items = List.of(item);
-
         ResponseBookingDto expectedResponseBookingDto = new ResponseBookingDto();
 
         when(authenticationFacade.getCurrentUserDetails()).thenReturn(userDetails);
-        when(itemRepository.findAllByOwner_Id(userId)).thenReturn(items);
-        when(bookingRepository.findByItemInAndStartIsBeforeAndFinishIsAfter(
-                eq(items),
+        when(bookingRepository.findByItem_Owner_IdAndStartIsBeforeAndFinishIsAfter(
+                eq(userId),
                 ArgumentMatchers.any(LocalDateTime.class),
                 ArgumentMatchers.any(LocalDateTime.class),
                 eq(CustomPageableParameters.of(0L,10).toPageable(sortByStartDesc))
@@ -616,15 +834,11 @@ class BookingServiceImplTest {
         Booking booking = new Booking();
         List<Booking> bookings = List.of(booking);
 
-        Item item = new Item();
-        List<Item> items = List.of(item);
-
         ResponseBookingDto expectedResponseBookingDto = new ResponseBookingDto();
 
         when(authenticationFacade.getCurrentUserDetails()).thenReturn(userDetails);
-        when(itemRepository.findAllByOwner_Id(userId)).thenReturn(items);
-        when(bookingRepository.findByItemInAndFinishIsBefore(
-                eq(items),
+        when(bookingRepository.findByItem_Owner_IdAndFinishIsBefore(
+                eq(userId),
                 ArgumentMatchers.any(LocalDateTime.class),
                 eq(CustomPageableParameters.of(0L,10).toPageable(sortByStartDesc))
         ))
@@ -650,15 +864,11 @@ class BookingServiceImplTest {
         Booking booking = new Booking();
         List<Booking> bookings = List.of(booking);
 
-        Item item = new Item();
-        List<Item> items = List.of(item);
-
         ResponseBookingDto expectedResponseBookingDto = new ResponseBookingDto();
 
         when(authenticationFacade.getCurrentUserDetails()).thenReturn(userDetails);
-        when(itemRepository.findAllByOwner_Id(userId)).thenReturn(items);
-        when(bookingRepository.findByItemInAndStartIsAfter(
-                eq(items),
+        when(bookingRepository.findByItem_Owner_IdAndStartIsAfter(
+                eq(userId),
                 ArgumentMatchers.any(LocalDateTime.class),
                 eq(CustomPageableParameters.of(0L,10).toPageable(sortByStartDesc))
         ))
@@ -684,15 +894,11 @@ class BookingServiceImplTest {
         Booking booking = new Booking();
         List<Booking> bookings = List.of(booking);
 
-        Item item = new Item();
-        List<Item> items = List.of(item);
-
         ResponseBookingDto expectedResponseBookingDto = new ResponseBookingDto();
 
         when(authenticationFacade.getCurrentUserDetails()).thenReturn(userDetails);
-        when(itemRepository.findAllByOwner_Id(userId)).thenReturn(items);
-        when(bookingRepository.findAllByItemInAndStatus(
-                eq(items),
+        when(bookingRepository.findAllByItem_Owner_IdAndStatus(
+                eq(userId),
                 eq(BookingStatus.WAITING),
                 eq(CustomPageableParameters.of(0L,10).toPageable(sortByStartDesc))
         ))
@@ -718,15 +924,11 @@ class BookingServiceImplTest {
         Booking booking = new Booking();
         List<Booking> bookings = List.of(booking);
 
-        Item item = new Item();
-        List<Item> items = List.of(item);
-
         ResponseBookingDto expectedResponseBookingDto = new ResponseBookingDto();
 
         when(authenticationFacade.getCurrentUserDetails()).thenReturn(userDetails);
-        when(itemRepository.findAllByOwner_Id(userId)).thenReturn(items);
-        when(bookingRepository.findAllByItemInAndStatus(
-                eq(items),
+        when(bookingRepository.findAllByItem_Owner_IdAndStatus(
+                eq(userId),
                 eq(BookingStatus.REJECTED),
                 eq(CustomPageableParameters.of(0L,10).toPageable(sortByStartDesc))
         ))
@@ -741,4 +943,55 @@ class BookingServiceImplTest {
         assertThat(actualBookings.size(), equalTo(1));
         assertThat(actualBookings.get(0), equalTo(expectedResponseBookingDto));
     }
-}
\ No newline at end of file
+
+    @Test
+    void findAllForCurrentUserItemsByStatusOrderByDateDesc_whenInvoked_thenOwnedItemsAreNotLoaded() {
+        Long userId = 0L;
+        User currentUser = new User();
+        currentUser.setId(userId);
+        ExtendedUserDetails userDetails = new AuthenticatedUser(currentUser);
+
+        when(authenticationFacade.getCurrentUserDetails()).thenReturn(userDetails);
+        when(bookingRepository.findAllByItem_Owner_Id(eq(userId), ArgumentMatchers.any(ExtendedPageRequest.class)))
+                .thenReturn(List.of());
+
+        bookingService.findAllForCurrentUserItemsByStatusOrderByDateDesc(
+                SearchBookingStatus.ALL,
+                CustomPageableParameters.of(0L,10)
+        );
+
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    void exportAllForCurrentUserItemsByStatus_whenWindowsStreamed_thenEveryBookingMappedInOrder() {
+        User currentUser = new User();
+        currentUser.setId(0L);
+        Booking first = new Booking();
+        Booking second = new Booking();
+        Booking third = new Booking();
+        ResponseBookingDto firstDto = new ResponseBookingDto();
+        firstDto.setId(1L);
+        ResponseBookingDto secondDto = new ResponseBookingDto();
+        secondDto.setId(2L);
+        ResponseBookingDto thirdDto = new ResponseBookingDto();
+        thirdDto.setId(3L);
+
+        when(authenticationFacade.getCurrentUserDetails()).thenReturn(new AuthenticatedUser(currentUser));
+        doAnswer(invocation -> {
+            Consumer<List<Booking>> consumer = invocation.getArgument(2);
+            consumer.accept(List.of(first, second));
+            consumer.accept(List.of(third));
+            return null;
+        }).when(bookingRepository).forEachWindowOrderByStartDesc(any(), anyInt(), any());
+        when(mapper.toResponseBookingDto(first)).thenReturn(firstDto);
+        when(mapper.toResponseBookingDto(second)).thenReturn(secondDto);
+        when(mapper.toResponseBookingDto(third)).thenReturn(thirdDto);
+
+        List<ResponseBookingDto> exported = new ArrayList<>();
+        bookingService.exportAllForCurrentUserItemsByStatus(SearchBookingStatus.ALL, exported::add);
+
+        assertThat(exported, contains(firstDto, secondDto, thirdDto));
+        verifyNoInteractions(itemRepository);
+    }
+}
@@ -54,6 +54,16 @@ class ExceptionControllerAdviceTest {
         assertThat(res.getStatus(), equalTo(HttpServletResponse.SC_BAD_REQUEST));
     }
 
+    @SneakyThrows
+    @Test
+    void handleConflict() {
+        Exception exception = mock(Exception.class);
+        MockHttpServletResponse res = new MockHttpServletResponse();
+
+        controllerAdvice.handleConflict(exception, res);
+        assertThat(res.getStatus(), equalTo(HttpServletResponse.SC_CONFLICT));
+    }
+
     @SneakyThrows
     @Test
     void handleNotFound() {
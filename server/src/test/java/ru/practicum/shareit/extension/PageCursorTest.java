@@ -0,0 +1,35 @@
+package ru.practicum.shareit.extension;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exception.generic.IncorrectPageCursor;
+
+import java.time.LocalDateTime;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PageCursorTest {
+
+    @Test
+    void decode_whenEncoded_thenSameCursor() {
+        PageCursor cursor = PageCursor.of(LocalDateTime.of(2024, 1, 1, 10, 0, 0, 123_456_000), 42L);
+
+        assertThat(PageCursor.decode(cursor.encode()), equalTo(cursor));
+    }
+
+    @Test
+    void decode_whenCorrupted_thenThrowException() {
+        assertThrows(IncorrectPageCursor.class, () -> PageCursor.decode("not a cursor"));
+        assertThrows(IncorrectPageCursor.class, () -> PageCursor.decode("MjAyNA"));
+    }
+
+    @Test
+    void ofCursor_whenEmpty_thenFirstKeysetPage() {
+        CustomPageableParameters parameters = CustomPageableParameters.of(5L, "", 10);
+
+        assertThat(parameters.isKeyset(), equalTo(true));
+        assertThat(parameters.getCursor(), equalTo(null));
+        assertThat(parameters.getOffset(), equalTo(0L));
+    }
+}
@@ -0,0 +1,37 @@
+package ru.practicum.shareit.httpcache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+class CacheControlInterceptorTest {
+    private final CacheControlInterceptor interceptor = new CacheControlInterceptor(
+            CacheControl.maxAge(Duration.ofSeconds(5)).cachePrivate()
+    );
+
+    @Test
+    void preHandle_whenGet_thenPrivatelyCacheable() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(new MockHttpServletRequest("GET", "/items/1"), response, new Object());
+
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL), equalTo("max-age=5, private"));
+    }
+
+    @Test
+    void preHandle_whenPatch_thenNoCacheControl() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(new MockHttpServletRequest("PATCH", "/items/1"), response, new Object());
+
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL), nullValue());
+    }
+}
@@ -0,0 +1,72 @@
+package ru.practicum.shareit.httpcache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class ChangeCounterTest {
+    private final ChangeCounter changeCounter = new ChangeCounter(16);
+
+    @Test
+    void changed_whenUserChanged_thenOnlyTheirEtagChanges() {
+        String firstUserEtag = changeCounter.etag(1L);
+        String secondUserEtag = changeCounter.etag(2L);
+
+        changeCounter.changed(1L);
+
+        assertThat(changeCounter.etag(1L), not(equalTo(firstUserEtag)));
+        assertThat(changeCounter.etag(2L), equalTo(secondUserEtag));
+    }
+
+    @Test
+    void itemChanged_whenInvoked_thenOnlyThatItemEtagChangesForEveryUser() {
+        String firstItemEtag = changeCounter.itemEtag(1L, 1L, LocalDateTime.MAX);
+        String secondItemEtag = changeCounter.itemEtag(1L, 2L, LocalDateTime.MAX);
+        String userEtag = changeCounter.etag(1L);
+
+        changeCounter.itemChanged(1L);
+
+        assertThat(changeCounter.itemEtag(1L, 1L, LocalDateTime.MAX), not(equalTo(firstItemEtag)));
+        assertThat(changeCounter.itemEtag(1L, 2L, LocalDateTime.MAX), equalTo(secondItemEtag));
+        assertThat(changeCounter.etag(1L), equalTo(userEtag));
+    }
+
+    @Test
+    void changedForEveryone_whenInvoked_thenEveryEtagChanges() {
+        String firstUserEtag = changeCounter.etag(1L);
+        String secondUserEtag = changeCounter.etag(2L);
+
+        changeCounter.changedForEveryone();
+
+        assertThat(changeCounter.etag(1L), not(equalTo(firstUserEtag)));
+        assertThat(changeCounter.etag(2L), not(equalTo(secondUserEtag)));
+    }
+
+    @Test
+    void etag_whenUsersShareCounts_thenDifferentEtags() {
+        assertThat(changeCounter.etag(1L), not(equalTo(changeCounter.etag(17L))));
+    }
+
+    @Test
+    void etag_whenStableUntilGiven_thenWeakEtagChangingWithIt() {
+        LocalDateTime stableUntil = LocalDateTime.of(2030, 1, 1, 10, 0);
+
+        String etag = changeCounter.etag(1L, stableUntil);
+
+        assertThat(etag, startsWith("W/\""));
+        assertThat(etag, endsWith("\""));
+        assertThat(etag, not(equalTo(changeCounter.etag(1L, stableUntil.plusNanos(1_000)))));
+        assertThat(changeCounter.etag(1L, LocalDateTime.MAX), equalTo(changeCounter.etag(1L)));
+    }
+
+    @Test
+    void etag_whenAnotherServerStarted_thenDifferentEtag() throws InterruptedException {
+        String etag = changeCounter.etag(1L);
+        Thread.sleep(2);
+
+        assertThat(new ChangeCounter(16).etag(1L), not(equalTo(etag)));
+    }
+}
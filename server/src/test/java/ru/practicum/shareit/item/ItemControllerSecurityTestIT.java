@@ -26,9 +26,11 @@ import ru.practicum.shareit.user.model.User;
 
 import java.nio.charset.StandardCharsets;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @RunWith(SpringRunner.class)
@@ -207,6 +209,26 @@ class ItemControllerSecurityTestIT {
                 .andExpect(status().isOk());
     }
 
+    @SneakyThrows
+    @Test
+    void getItem_whenSuccessfullyAuthenticated_thenPrivatelyCacheable() {
+        mockMvc.perform(
+                        get("/items/{itemId}", 0L).header(HEADER_NAME, "0")
+                )
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=5, private"));
+    }
+
+    @SneakyThrows
+    @Test
+    void findByText_whenSuccessfullyAuthenticated_thenNotStored() {
+        mockMvc.perform(
+                        get("/items/search").header(HEADER_NAME, "0").param("text", "test")
+                )
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", containsString("no-store")));
+    }
+
     @SneakyThrows
     @Test
     void createItem_whenHeaderIsMissing_thenReturnBadRequest() {
@@ -5,14 +5,28 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
 import ru.practicum.shareit.extension.CustomPageableParameters;
+import ru.practicum.shareit.item.bulk.ItemBulkImportResult;
+import ru.practicum.shareit.item.bulk.ItemBulkImporter;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -22,6 +36,9 @@ class ItemControllerTest {
     @Mock
     private ItemService itemService;
 
+    @Mock
+    private ItemBulkImporter itemBulkImporter;
+
     @InjectMocks
     private ItemController itemController;
 
@@ -31,11 +48,26 @@ class ItemControllerTest {
 
         when(itemService.findAll(eq(CustomPageableParameters.of(0L, 10)))).thenReturn(expectedItemDtos);
 
-        List<ItemResponseWithBookingDto> actualItemDtos = itemController.getAllItems(0L, 10);
+        List<ItemResponseWithBookingDto> actualItemDtos = itemController.getAllItems(0L, 10, new ServletWebRequest(new MockHttpServletRequest()));
         verify(itemService).findAll(eq(CustomPageableParameters.of(0L, 10)));
         assertThat(actualItemDtos, equalTo(expectedItemDtos));
     }
 
+    @Test
+    void getAllItems_whenEtagMatches_thenNotModifiedWithoutReading() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/items");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"a-1-2-3\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        when(itemService.getOwnItemsEtag()).thenReturn(Optional.of("\"a-1-2-3\""));
+
+        List<ItemResponseWithBookingDto> actualItemDtos = itemController.getAllItems(0L, 10, new ServletWebRequest(request, response));
+
+        assertThat(actualItemDtos, nullValue());
+        assertThat(response.getStatus(), equalTo(HttpStatus.NOT_MODIFIED.value()));
+        verify(itemService, never()).findAll(any());
+    }
+
     @Test
     void findByText_whenInvoked_thenReturnedItemDto() {
         String query = "query";
@@ -43,11 +75,36 @@ class ItemControllerTest {
 
         when(itemService.findByText(eq(query), eq(CustomPageableParameters.of(0L, 10)))).thenReturn(expectedItemDtos);
 
-        List<ItemResponseDto> actualItemDtos = itemController.findByText(query, 0L, 10);
+        List<ItemResponseDto> actualItemDtos = itemController.findByText(query, 0L, 10, null, null);
         verify(itemService).findByText(eq(query), eq(CustomPageableParameters.of(0L, 10)));
         assertThat(actualItemDtos, equalTo(expectedItemDtos));
     }
 
+    @Test
+    void findByText_whenPeriodGiven_thenSearchedFreeItems() {
+        String query = "query";
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        LocalDateTime end = start.plusDays(2);
+        List<ItemResponseDto> expectedItemDtos = List.of(new ItemResponseDto());
+
+        when(itemService.findFreeByText(eq(query), eq(start), eq(end), eq(CustomPageableParameters.of(0L, 10)))).thenReturn(expectedItemDtos);
+
+        List<ItemResponseDto> actualItemDtos = itemController.findByText(query, 0L, 10, start, end);
+        verify(itemService, never()).findByText(any(), any());
+        assertThat(actualItemDtos, equalTo(expectedItemDtos));
+    }
+
+    @Test
+    void suggest_whenInvoked_thenReturnedSuggestions() {
+        List<ItemSuggestionDto> expectedSuggestions = List.of(new ItemSuggestionDto());
+
+        when(itemService.suggest("dr", 10)).thenReturn(expectedSuggestions);
+
+        List<ItemSuggestionDto> actualSuggestions = itemController.suggest("dr", 10);
+        verify(itemService).suggest("dr", 10);
+        assertThat(actualSuggestions, equalTo(expectedSuggestions));
+    }
+
     @Test
     void getItem_whenInvoked_thenReturnedItemDto() {
         Long itemId = 0L;
@@ -55,11 +112,25 @@ class ItemControllerTest {
 
         when(itemService.findOne(itemId)).thenReturn(expectedItemDto);
 
-        ItemResponseWithBookingDto actualItemDto = itemController.getItem(itemId);
+        ItemResponseWithBookingDto actualItemDto = itemController.getItem(itemId, new ServletWebRequest(new MockHttpServletRequest()));
         verify(itemService).findOne(itemId);
         assertThat(actualItemDto, equalTo(expectedItemDto));
     }
 
+    @Test
+    void getAvailability_whenInvoked_thenReturnedAvailabilityDto() {
+        Long itemId = 0L;
+        LocalDate from = LocalDate.of(2030, 1, 1);
+        LocalDate to = LocalDate.of(2030, 1, 31);
+        ItemAvailabilityDto expectedAvailabilityDto = new ItemAvailabilityDto();
+
+        when(itemService.getAvailability(itemId, from, to)).thenReturn(expectedAvailabilityDto);
+
+        ItemAvailabilityDto actualAvailabilityDto = itemController.getAvailability(itemId, from, to);
+        verify(itemService).getAvailability(itemId, from, to);
+        assertThat(actualAvailabilityDto, equalTo(expectedAvailabilityDto));
+    }
+
     @Test
     void createItem_whenInvoked_thenReturnedItemDto() {
         ItemResponseDto expectedItemDto = new ItemResponseDto();
@@ -72,6 +143,20 @@ class ItemControllerTest {
         assertThat(actualItemDto, equalTo(expectedItemDto));
     }
 
+    @Test
+    void createItems_whenInvoked_thenImportedAndResultWritten() throws Exception {
+        InputStream lines = new ByteArrayInputStream(new byte[0]);
+        ItemBulkImportResult result = mock(ItemBulkImportResult.class);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        when(itemBulkImporter.importItems(lines)).thenReturn(result);
+
+        itemController.createItems(lines, response);
+        verify(itemBulkImporter).writeResult(result, response.getOutputStream());
+        verify(result).close();
+        assertThat(response.getContentType(), equalTo(MediaType.APPLICATION_NDJSON_VALUE));
+    }
+
     @Test
     void updateItem_whenInvoked_thenReturnedItemDto() {
         Long itemId = 0L;
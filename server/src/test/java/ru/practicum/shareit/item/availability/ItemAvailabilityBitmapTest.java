@@ -0,0 +1,53 @@
+package ru.practicum.shareit.item.availability;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemAvailabilitySlotDto;
+
+import java.time.LocalDate;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+
+class ItemAvailabilityBitmapTest {
+    private static final LocalDate DAY = LocalDate.of(2030, 1, 1);
+
+    @Test
+    void slots_whenNoBookings_thenWholeRangeIsFree() {
+        ItemAvailabilityBitmap bitmap = ItemAvailabilityBitmap.builder().build();
+
+        assertThat(bitmap.slots(DAY, DAY.plusDays(30)), contains(
+                new ItemAvailabilitySlotDto(DAY.atStartOfDay(), DAY.plusDays(31).atStartOfDay(), true)
+        ));
+    }
+
+    @Test
+    void slots_whenBookingSpansDays_thenPartialHoursAreBusy() {
+        ItemAvailabilityBitmap bitmap = ItemAvailabilityBitmap.builder()
+                .busy(DAY.atTime(22, 15), DAY.plusDays(2).atTime(1, 0))
+                .busy(DAY.plusDays(2).atTime(3, 0), DAY.plusDays(2).atTime(3, 1))
+                .build();
+
+        assertThat(bitmap.slots(DAY, DAY.plusDays(2)), contains(
+                new ItemAvailabilitySlotDto(DAY.atStartOfDay(), DAY.atTime(22, 0), true),
+                new ItemAvailabilitySlotDto(DAY.atTime(22, 0), DAY.plusDays(2).atTime(1, 0), false),
+                new ItemAvailabilitySlotDto(DAY.plusDays(2).atTime(1, 0), DAY.plusDays(2).atTime(3, 0), true),
+                new ItemAvailabilitySlotDto(DAY.plusDays(2).atTime(3, 0), DAY.plusDays(2).atTime(4, 0), false),
+                new ItemAvailabilitySlotDto(DAY.plusDays(2).atTime(4, 0), DAY.plusDays(3).atStartOfDay(), true)
+        ));
+        assertThat(bitmap.size(), equalTo(3));
+    }
+
+    @Test
+    void slots_whenRangeStartsInsideBooking_thenFirstSlotIsBusy() {
+        ItemAvailabilityBitmap bitmap = ItemAvailabilityBitmap.builder()
+                .busy(DAY.minusDays(3).atStartOfDay(), DAY.atTime(12, 0))
+                .busy(DAY.plusDays(40).atStartOfDay(), DAY.plusDays(41).atStartOfDay())
+                .build();
+
+        assertThat(bitmap.slots(DAY, DAY), contains(
+                new ItemAvailabilitySlotDto(DAY.atStartOfDay(), DAY.atTime(12, 0), false),
+                new ItemAvailabilitySlotDto(DAY.atTime(12, 0), DAY.plusDays(1).atStartOfDay(), true)
+        ));
+    }
+}
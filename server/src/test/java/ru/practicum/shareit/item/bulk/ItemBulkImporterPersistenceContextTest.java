@@ -0,0 +1,111 @@
+package ru.practicum.shareit.item.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dto.CreateItemRequestDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.security.user.AuthenticatedUser;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest(properties = "shareit.item.bulk.chunk-size=" + ItemBulkImporterPersistenceContextTest.CHUNK_SIZE)
+class ItemBulkImporterPersistenceContextTest {
+    static final int CHUNK_SIZE = 10;
+
+    @Autowired
+    private ItemBulkImporter importer;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @SpyBean
+    private ItemService itemService;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     * Binds one entity manager around the import, as open-in-view does for a request.
+     */
+    @Test
+    void importItems_whenEntityManagerOpenForRequest_thenPersistenceContextClearedBetweenChunks() throws Exception {
+        Long ownerId = createAccount("bulk-owner@example.com");
+        authenticateAs(ownerId);
+
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        Session session = entityManager.unwrap(Session.class);
+        List<Integer> entitiesBeforeChunk = new ArrayList<>();
+        doAnswer(invocation -> {
+            entitiesBeforeChunk.add(session.getStatistics().getEntityCount());
+            return invocation.callRealMethod();
+        }).when(itemService).createAll(anyList());
+
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < CHUNK_SIZE * 5; i++) {
+            ndjson.append(objectMapper.writeValueAsString(new CreateItemRequestDto("item " + i, "bulk", true, null))).append('\n');
+        }
+
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+        try (ItemBulkImportResult result = importer.importItems(new ByteArrayInputStream(ndjson.toString().getBytes(StandardCharsets.UTF_8)))) {
+            assertThat(result.getFailed(), equalTo(0));
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+        }
+
+        assertThat(entitiesBeforeChunk, hasSize(5));
+        assertThat(entitiesBeforeChunk, everyItem(lessThan(CHUNK_SIZE)));
+        assertThat(session.getStatistics().getEntityCount(), equalTo(0));
+        entityManager.close();
+
+        assertThat(
+                jdbcTemplate.queryForObject(
+                        "select count(*) from item_booking_summary s join item i on i.id = s.item_id where i.owner_id = ?",
+                        Integer.class,
+                        ownerId
+                ),
+                equalTo(CHUNK_SIZE * 5)
+        );
+    }
+
+    private void authenticateAs(Long userId) {
+        AuthenticatedUser principal = new AuthenticatedUser(new User(userId, "user", "user@example.com"));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities())
+        );
+    }
+
+    private Long createAccount(String email) {
+        jdbcTemplate.update("insert into accounts (email, username) values (?, 'bulk')", email);
+
+        return jdbcTemplate.queryForObject("select id from accounts where email = ?", Long.class, email);
+    }
+}
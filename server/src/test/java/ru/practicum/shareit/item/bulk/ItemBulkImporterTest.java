@@ -0,0 +1,136 @@
+package ru.practicum.shareit.item.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import ru.practicum.shareit.item.dto.CreateItemRequestDto;
+import ru.practicum.shareit.item.dto.ItemBulkResultDto;
+import ru.practicum.shareit.item.dto.ItemResponseDto;
+import ru.practicum.shareit.item.service.ItemService;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemBulkImporterTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private ItemService itemService;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private ItemBulkImporter importer;
+
+    private long nextId;
+
+    @BeforeEach
+    void setUp() {
+        importer = new ItemBulkImporter(itemService, objectMapper, entityManager, 2);
+        nextId = 1;
+    }
+
+    @Test
+    void importItems_whenLinesExceedChunk_thenSavedChunkByChunk() throws IOException {
+        List<Integer> chunkSizes = new ArrayList<>();
+        when(itemService.createAll(anyList())).thenAnswer(invocation -> {
+            List<CreateItemRequestDto> dtos = invocation.getArgument(0);
+            chunkSizes.add(dtos.size());
+            return created(dtos);
+        });
+
+        List<ItemBulkResultDto> results = importAndWrite(item("a") + "\n" + item("b") + "\n\n" + item("c") + "\n");
+
+        assertThat(chunkSizes, contains(2, 1));
+        verify(entityManager, times(2)).clear();
+        assertThat(results, contains(
+                new ItemBulkResultDto(1, 1L, null),
+                new ItemBulkResultDto(2, 2L, null),
+                new ItemBulkResultDto(3, 3L, null)
+        ));
+    }
+
+    @Test
+    void importItems_whenLineMalformed_thenOnlyThatLineFailed() throws IOException {
+        when(itemService.createAll(anyList())).thenAnswer(invocation -> created(invocation.getArgument(0)));
+
+        List<ItemBulkResultDto> results = importAndWrite(item("a") + "\n{\"name\": \n" + item("c"));
+
+        assertThat(results, hasSize(3));
+        assertThat(results.get(0), equalTo(new ItemBulkResultDto(1, 1L, null)));
+        assertThat(results.get(1).getLine(), equalTo(2));
+        assertThat(results.get(1).getId(), nullValue());
+        assertThat(results.get(1).getError(), startsWith("Malformed item"));
+        assertThat(results.get(2), equalTo(new ItemBulkResultDto(3, 2L, null)));
+    }
+
+    @Test
+    void importItems_whenChunkHoldsOnlyMalformedLines_thenNothingSavedAndLinesInOrder() throws IOException {
+        when(itemService.createAll(anyList())).thenAnswer(invocation -> created(invocation.getArgument(0)));
+
+        List<ItemBulkResultDto> results = importAndWrite("{\n[\n" + item("c"));
+
+        verify(itemService, times(1)).createAll(anyList());
+        assertThat(results.stream().map(ItemBulkResultDto::getLine).collect(Collectors.toList()), contains(1, 2, 3));
+        assertThat(results.get(0).getError(), startsWith("Malformed item"));
+        assertThat(results.get(1).getError(), startsWith("Malformed item"));
+        assertThat(results.get(2), equalTo(new ItemBulkResultDto(3, 1L, null)));
+    }
+
+    @Test
+    void importItems_whenChunkRolledBack_thenAllItsLinesFailedAndNextChunkSaved() throws IOException {
+        when(itemService.createAll(anyList()))
+                .thenThrow(new DataIntegrityViolationException("name is null"))
+                .thenAnswer(invocation -> created(invocation.getArgument(0)));
+
+        List<ItemBulkResultDto> results = importAndWrite(item("a") + "\n" + item("b") + "\n" + item("c"));
+
+        assertThat(results.get(0).getError(), containsString("name is null"));
+        assertThat(results.get(1).getError(), containsString("name is null"));
+        assertThat(results.get(2), equalTo(new ItemBulkResultDto(3, 1L, null)));
+        verify(entityManager, times(2)).clear();
+    }
+
+    private List<ItemBulkResultDto> importAndWrite(String ndjson) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ItemBulkImportResult result = importer.importItems(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)))) {
+            importer.writeResult(result, out);
+        }
+
+        List<ItemBulkResultDto> results = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            results.add(objectMapper.readValue(line, ItemBulkResultDto.class));
+        }
+
+        return results;
+    }
+
+    private List<ItemResponseDto> created(List<CreateItemRequestDto> dtos) {
+        return dtos
+                .stream()
+                .map(dto -> new ItemResponseDto(nextId++, dto.getName(), dto.getDescription(), dto.getAvailable(), 1L, null, null))
+                .collect(Collectors.toList());
+    }
+
+    private String item(String name) throws IOException {
+        return objectMapper.writeValueAsString(new CreateItemRequestDto(name, "description", true, null));
+    }
+}
@@ -0,0 +1,100 @@
+package ru.practicum.shareit.item.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import ru.practicum.shareit.extension.ExtendedPageRequest;
+import ru.practicum.shareit.item.dto.ItemResponseDto;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.mapper.ModelMapper;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(ModelMapper.class)
+class ItemRepositoryStatementCountTest {
+    private static final int ITEMS = 60;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ItemRepository repository;
+
+    @Autowired
+    private ModelMapper mapper;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        User owner = entityManager.persist(new User(null, "owner", "owner@a.com"));
+
+        for (int i = 0; i < ITEMS; i++) {
+            Item item = entityManager.persist(new Item(null, "query " + i, "", true, owner, Collections.emptySet(), null));
+            User author = entityManager.persist(new User(null, "author " + i, "author" + i + "@a.com"));
+            entityManager.persist(new Comment(null, "first", item, author, LocalDateTime.now()));
+            entityManager.persist(new Comment(null, "second", item, owner, LocalDateTime.now()));
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void findAllAvailableTrueByWordPrefixes_whenMapped_thenStatementCountDoesNotGrowWithPageSize() {
+        long smallPage = countStatements(() -> mapAll(repository.findAllAvailableTrueByWordPrefixes(List.of("query"), ExtendedPageRequest.ofOffset(0, 10))));
+        long largePage = countStatements(() -> mapAll(repository.findAllAvailableTrueByWordPrefixes(List.of("query"), ExtendedPageRequest.ofOffset(0, ITEMS))));
+
+        assertThat(largePage).isEqualTo(smallPage).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void findAllWithCommentsByIdIn_whenMapped_thenSingleStatement() {
+        List<Long> ids = repository.findAll().stream().map(Item::getId).collect(Collectors.toList());
+        entityManager.clear();
+
+        long statements = countStatements(() -> mapAll(repository.findAllWithCommentsByIdIn(ids)));
+
+        assertThat(statements).isEqualTo(1);
+    }
+
+    @Test
+    void findAllByAvailableTrueAndOwner_IdOrderById_whenMapped_thenStatementCountDoesNotGrowWithPageSize() {
+        Long ownerId = repository.findAll().get(0).getOwner().getId();
+        entityManager.clear();
+
+        long smallPage = countStatements(() -> mapAll(repository.findAllByAvailableTrueAndOwner_IdOrderById(ownerId, ExtendedPageRequest.ofOffset(0, 10))));
+        long largePage = countStatements(() -> mapAll(repository.findAllByAvailableTrueAndOwner_IdOrderById(ownerId, ExtendedPageRequest.ofOffset(0, ITEMS))));
+
+        assertThat(largePage).isEqualTo(smallPage).isLessThanOrEqualTo(3);
+    }
+
+    private List<ItemResponseDto> mapAll(List<Item> items) {
+        return items.stream().map(mapper::toItemResponseDto).collect(Collectors.toList());
+    }
+
+    private long countStatements(Supplier<List<ItemResponseDto>> call) {
+        entityManager.clear();
+        statistics.clear();
+
+        assertThat(call.get()).isNotEmpty();
+
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.extension.ExtendedPageRequest;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
@@ -27,7 +28,7 @@ class ItemRepositoryTest {
     private ItemRepository repository;
 
     @Test
-    void findAllAvailableTrueAndNameOrDescriptionLikeIgnoreCase() {
+    void findAllAvailableTrueByWordPrefixes() {
         User user = entityManager.persist(new User(null, "", ""));
 
         Item item1 = entityManager.persist(new Item(null, "query", "", true, user, Collections.emptySet(), null));
@@ -39,27 +40,82 @@ class ItemRepositoryTest {
         Item item7 = entityManager.persist(new Item(null, "test", "test", true, user, Collections.emptySet(), null));
         Item item8 = entityManager.persist(new Item(null, "", "", true, user, Collections.emptySet(), null));
 
-        List<Item> items = repository.findAllAvailableTrueAndNameOrDescriptionLikeIgnoreCase("query", Pageable.unpaged());
+        List<Item> items = repository.findAllAvailableTrueByWordPrefixes(List.of("query"), Pageable.unpaged());
 
         assertThat(items).hasSize(6).contains(item1, item2, item3, item4, item5, item6);
     }
 
     @Test
-    void findAllAvailableTrueByOwner_IdWithClosestBookings() {
+    void findAllAvailableTrueByWordPrefixes_whenSeveralTokens_thenEveryTokenStartsAWordAndNameMatchesFirst() {
         User user = entityManager.persist(new User(null, "", ""));
 
-        Item item = entityManager.persist(new Item(null, "query", "", true, user, Collections.emptySet(), null));
+        Item inDescription = entityManager.persist(new Item(null, "tool", "Cordless-DRILL, 18V", true, user, Collections.emptySet(), null));
+        Item inName = entityManager.persist(new Item(null, "cordless drill", "", true, user, Collections.emptySet(), null));
+        entityManager.persist(new Item(null, "cordless saw", "", true, user, Collections.emptySet(), null));
+        entityManager.persist(new Item(null, "recordless hammerdrill", "", true, user, Collections.emptySet(), null));
+        entityManager.persist(new Item(null, "cordless drill", "", false, user, Collections.emptySet(), null));
 
-        Booking booking1 = entityManager.persist(new Booking(null, LocalDateTime.now().minusDays(5), LocalDateTime.now().minusDays(4), item, user, BookingStatus.APPROVED));
-        Booking booking2 = entityManager.persist(new Booking(null, LocalDateTime.now().minusDays(3), LocalDateTime.now().minusDays(2), item, user, BookingStatus.APPROVED));
-        Booking booking3 = entityManager.persist(new Booking(null, LocalDateTime.now().plusDays(2), LocalDateTime.now().plusDays(3), item, user, BookingStatus.APPROVED));
-        Booking booking4 = entityManager.persist(new Booking(null, LocalDateTime.now().plusDays(4), LocalDateTime.now().plusDays(5), item, user, BookingStatus.APPROVED));
+        List<Item> items = repository.findAllAvailableTrueByWordPrefixes(List.of("cord", "dri"), Pageable.unpaged());
 
-        List<ItemWithBookingProjection> items = repository.findAllAvailableTrueByOwner_IdWithClosestBookings(user.getId(), LocalDateTime.now(), Pageable.unpaged());
+        assertThat(items).containsExactly(inName, inDescription);
+    }
+
+    @Test
+    void findAllAvailableTrueByWordPrefixesWithoutBookingBetween() {
+        User user = entityManager.persist(new User(null, "", ""));
+        LocalDateTime start = LocalDateTime.of(2030, 1, 10, 0, 0);
+        LocalDateTime end = start.plusDays(2);
+
+        Item free = entityManager.persist(new Item(null, "drill", "", true, user, Collections.emptySet(), null));
+        Item touching = entityManager.persist(new Item(null, "drill", "", true, user, Collections.emptySet(), null));
+        Item waiting = entityManager.persist(new Item(null, "drill", "", true, user, Collections.emptySet(), null));
+        Item busy = entityManager.persist(new Item(null, "drill", "", true, user, Collections.emptySet(), null));
+        entityManager.persist(new Item(null, "saw", "", true, user, Collections.emptySet(), null));
 
-        assertThat(items).hasSize(1);
-        assertThat(items.get(0).getItem()).isEqualTo(item);
-        assertThat(items.get(0).getLastBooking()).isEqualTo(booking2);
-        assertThat(items.get(0).getNextBooking()).isEqualTo(booking3);
+        entityManager.persist(new Booking(null, start.minusDays(2), start, touching, user, BookingStatus.APPROVED));
+        entityManager.persist(new Booking(null, end, end.plusDays(1), touching, user, BookingStatus.APPROVED));
+        entityManager.persist(new Booking(null, start, end, waiting, user, BookingStatus.WAITING));
+        entityManager.persist(new Booking(null, start.plusDays(1), end.plusDays(1), busy, user, BookingStatus.APPROVED));
+
+        List<Item> items = repository.findAllAvailableTrueByWordPrefixesWithoutBookingBetween(
+                List.of("drill"), start, end, BookingStatus.APPROVED, Pageable.unpaged()
+        );
+
+        assertThat(items).containsExactlyInAnyOrder(free, touching, waiting);
+    }
+
+    @Test
+    void findAllAvailableTrueByOwner_IdWithClosestBookingsRanked() {
+        User owner = entityManager.persist(new User(null, "", "owner@a.com"));
+        User other = entityManager.persist(new User(null, "", "other@a.com"));
+        LocalDateTime now = LocalDateTime.now();
+
+        Item item1 = entityManager.persist(new Item(null, "item1", "", true, owner, Collections.emptySet(), null));
+        Item item2 = entityManager.persist(new Item(null, "item2", "", true, owner, Collections.emptySet(), null));
+        Item item3 = entityManager.persist(new Item(null, "item3", "", false, owner, Collections.emptySet(), null));
+        Item item4 = entityManager.persist(new Item(null, "item4", "", true, other, Collections.emptySet(), null));
+
+        entityManager.persist(new Booking(null, now.minusDays(5), now.minusDays(4), item1, other, BookingStatus.APPROVED));
+        Booking last = entityManager.persist(new Booking(null, now.minusDays(3), now.minusDays(2), item1, other, BookingStatus.APPROVED));
+        Booking next = entityManager.persist(new Booking(null, now.plusDays(2), now.plusDays(3), item1, other, BookingStatus.APPROVED));
+        entityManager.persist(new Booking(null, now.plusDays(4), now.plusDays(5), item1, other, BookingStatus.APPROVED));
+        entityManager.persist(new Booking(null, now.minusDays(1), now.plusDays(1), item3, other, BookingStatus.APPROVED));
+        entityManager.persist(new Booking(null, now.plusDays(1), now.plusDays(2), item4, owner, BookingStatus.APPROVED));
+        entityManager.flush();
+
+        List<ItemWithBookingProjection> items = repository.findAllAvailableTrueByOwner_IdWithClosestBookingsRanked(owner.getId(), now, Pageable.unpaged());
+
+        assertThat(items).hasSize(2);
+        assertThat(items.get(0).getItem()).isEqualTo(item1);
+        assertThat(items.get(0).getLastBooking()).isEqualTo(last);
+        assertThat(items.get(0).getNextBooking()).isEqualTo(next);
+        assertThat(items.get(1).getItem()).isEqualTo(item2);
+        assertThat(items.get(1).getLastBooking()).isNull();
+        assertThat(items.get(1).getNextBooking()).isNull();
+
+        List<ItemWithBookingProjection> secondPage = repository.findAllAvailableTrueByOwner_IdWithClosestBookingsRanked(owner.getId(), now, ExtendedPageRequest.ofOffset(1L, 1));
+
+        assertThat(secondPage).hasSize(1);
+        assertThat(secondPage.get(0).getItem()).isEqualTo(item2);
     }
-}
\ No newline at end of file
+}
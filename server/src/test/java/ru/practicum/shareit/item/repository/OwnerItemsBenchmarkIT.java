@@ -0,0 +1,114 @@
+package ru.practicum.shareit.item.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.benchmark.LatencyRecorder;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.extension.ExtendedPageRequest;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the correlated-subquery and the row_number() plans for the owner item listing on one owner
+ * with {@value #ITEMS} items and {@value #BOOKINGS_PER_ITEM} bookings per item.
+ * H2 numbers only show that both plans work; run with {@code -Dspring.profiles.active=default} against Postgres
+ * for figures that match production.
+ */
+@SpringBootTest
+class OwnerItemsBenchmarkIT {
+    private static final int ITEMS = 2_000;
+
+    private static final int BOOKINGS_PER_ITEM = 10;
+
+    private static final int QUERIES = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void ownerListingLatencyByPlan() throws Exception {
+        Long ownerId = createAccount("owner-benchmark@example.com");
+        Long bookerId = createAccount("booker-benchmark@example.com");
+        seed(ownerId, bookerId, new Random(42));
+
+        LocalDateTime now = LocalDateTime.now();
+        ExtendedPageRequest page = ExtendedPageRequest.ofOffset(0, 100);
+
+        assertThat(itemRepository.findAllAvailableTrueByOwner_IdWithClosestBookingsRanked(ownerId, now, page))
+                .hasSize(100);
+
+        LatencyRecorder correlated = new LatencyRecorder(QUERIES);
+        LatencyRecorder ranked = new LatencyRecorder(QUERIES);
+        for (int i = 0; i < QUERIES; i++) {
+            correlated.record(() -> findAllAvailableTrueByOwner_IdWithClosestBookings(ownerId, now));
+            ranked.record(() -> itemRepository.findAllAvailableTrueByOwner_IdWithClosestBookingsRanked(ownerId, now, page));
+        }
+
+        System.out.printf("correlated items=%d %s%n", ITEMS, correlated.summary());
+        System.out.printf("ranked     items=%d %s%n", ITEMS, ranked.summary());
+    }
+
+    /**
+     * The listing as it was before the ranked plan: a correlated subquery per item for each closest booking.
+     */
+    private List<ItemWithBookingProjection> findAllAvailableTrueByOwner_IdWithClosestBookings(Long ownerId, LocalDateTime now) {
+        List<Object[]> rows = entityManager
+                .createQuery("select i, lb, nb from Item i " +
+                        "left outer join Booking lb on lb.item = i and lb.finish = (select max(lb1.finish) from Booking lb1 where lb1.item = i and lb1.finish < :now) " +
+                        "left outer join Booking nb on nb.item = i and nb.start = (select min(nb1.start) from Booking nb1 where nb1.item = i and nb1.start > :now) " +
+                        "where i.available = true and i.owner.id = :ownerId order by i.id", Object[].class)
+                .setParameter("ownerId", ownerId)
+                .setParameter("now", now)
+                .setMaxResults(100)
+                .getResultList();
+
+        List<ItemWithBookingProjection> items = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            items.add(new ItemWithClosestBookings((Item) row[0], (Booking) row[1], (Booking) row[2]));
+        }
+
+        return items;
+    }
+
+    private Long createAccount(String email) {
+        jdbcTemplate.update("insert into accounts (email, username) values (?, 'bench')", email);
+
+        return jdbcTemplate.queryForObject("select id from accounts where email = ?", Long.class, email);
+    }
+
+    private void seed(Long ownerId, Long bookerId, Random random) {
+        List<Object[]> items = new ArrayList<>(ITEMS);
+        for (int i = 0; i < ITEMS; i++) {
+            items.add(new Object[]{"item " + i, "description " + i, true, ownerId});
+        }
+        jdbcTemplate.batchUpdate("insert into item (name, description, available, owner_id) values (?, ?, ?, ?)", items);
+
+        List<Long> itemIds = jdbcTemplate.queryForList("select id from item where owner_id = ?", Long.class, ownerId);
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> bookings = new ArrayList<>(itemIds.size() * BOOKINGS_PER_ITEM);
+        for (Long itemId : itemIds) {
+            for (int i = 0; i < BOOKINGS_PER_ITEM; i++) {
+                LocalDateTime start = now.plusHours(random.nextInt(24 * 60) - 24 * 30);
+                bookings.add(new Object[]{Timestamp.valueOf(start), Timestamp.valueOf(start.plusHours(1 + random.nextInt(48))), 0, bookerId, itemId});
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into booking (start, finish, status, booker_id, item_id) values (?, ?, ?, ?, ?)", bookings);
+    }
+}
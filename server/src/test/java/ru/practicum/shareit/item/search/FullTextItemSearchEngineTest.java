@@ -0,0 +1,61 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FullTextItemSearchEngineTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @InjectMocks
+    private FullTextItemSearchEngine searchEngine;
+
+    @Test
+    void search_whenTextHasNoTokens_thenReturnedEmptyCollectionImmediately() {
+        List<Item> items = searchEngine.search(" ,.!? ", Pageable.unpaged());
+
+        assertThat(items, empty());
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    void search_whenTextHasTokens_thenQueriedWithCaseFoldedPrefixTokens() {
+        List<Item> expectedItems = List.of(new Item());
+
+        when(itemRepository.findAllAvailableTrueByFullTextQuery("cordless:* & дрель:*", Pageable.unpaged()))
+                .thenReturn(expectedItems);
+
+        List<Item> actualItems = searchEngine.search("  CordLess, ДРЕЛЬ cordless", Pageable.unpaged());
+        assertThat(actualItems, equalTo(expectedItems));
+    }
+
+    @Test
+    void searchFreeBetween_whenTextHasTokens_thenQueriedWithApprovedStatusOrdinal() {
+        List<Item> expectedItems = List.of(new Item());
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        LocalDateTime end = start.plusDays(1);
+
+        when(itemRepository.findAllAvailableTrueByFullTextQueryWithoutBookingBetween(
+                "drill:*", start, end, BookingStatus.APPROVED.ordinal(), Pageable.unpaged()
+        )).thenReturn(expectedItems);
+
+        List<Item> actualItems = searchEngine.searchFreeBetween("drill", start, end, Pageable.unpaged());
+        assertThat(actualItems, equalTo(expectedItems));
+    }
+}
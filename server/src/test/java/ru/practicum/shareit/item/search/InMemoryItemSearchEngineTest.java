@@ -0,0 +1,82 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.extension.ExtendedPageRequest;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryItemSearchEngineTest {
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 10, 0);
+
+    private static final LocalDateTime END = START.plusDays(1);
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @InjectMocks
+    private InMemoryItemSearchEngine searchEngine;
+
+    @BeforeEach
+    void setUp() {
+        for (long id = 1; id <= 2500; id++) {
+            searchEngine.index(new Item(id, "drill", "", true, null, null, null));
+        }
+    }
+
+    @Test
+    void searchFreeBetween_whenPageFilledByFirstBatch_thenLaterCandidatesNotChecked() {
+        when(bookingRepository.findItemIdsWithBookingBetween(anyCollection(), eq(BookingStatus.APPROVED), eq(START), eq(END)))
+                .thenReturn(List.of(1L, 3L));
+        when(itemRepository.findAllWithCommentsByIdIn(List.of(5L, 6L))).thenReturn(List.of(item(6L), item(5L)));
+
+        List<Item> items = searchEngine.searchFreeBetween("drill", START, END, ExtendedPageRequest.ofOffset(2L, 2));
+
+        assertThat(ids(items), contains(5L, 6L));
+        verify(bookingRepository, times(1)).findItemIdsWithBookingBetween(anyCollection(), any(), any(), any());
+    }
+
+    @Test
+    void searchFreeBetween_whenFirstBatchIsBusy_thenNextBatchesChecked() {
+        when(bookingRepository.findItemIdsWithBookingBetween(anyCollection(), eq(BookingStatus.APPROVED), eq(START), eq(END)))
+                .thenAnswer(invocation -> invocation
+                        .<Collection<Long>>getArgument(0)
+                        .stream()
+                        .filter(id -> id <= 2000)
+                        .collect(Collectors.toList()));
+        when(itemRepository.findAllWithCommentsByIdIn(List.of(2001L))).thenReturn(List.of(item(2001L)));
+
+        List<Item> items = searchEngine.searchFreeBetween("drill", START, END, ExtendedPageRequest.ofOffset(0L, 1));
+
+        assertThat(ids(items), contains(2001L));
+        verify(bookingRepository, times(3)).findItemIdsWithBookingBetween(anyCollection(), any(), any(), any());
+    }
+
+    private static Item item(long id) {
+        return new Item(id, "drill", "", true, null, null, null);
+    }
+
+    private static List<Long> ids(List<Item> items) {
+        return items.stream().map(Item::getId).collect(Collectors.toList());
+    }
+}
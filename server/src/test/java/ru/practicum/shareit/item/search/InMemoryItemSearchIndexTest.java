@@ -0,0 +1,53 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class InMemoryItemSearchIndexTest {
+
+    private final InMemoryItemSearchIndex index = new InMemoryItemSearchIndex();
+
+    @Test
+    void search_whenEveryTokenMatchesAsPrefix_thenReturnedAscendingIds() {
+        index.put(3L, "Cordless drill", "18V, two batteries");
+        index.put(1L, "Drill bits", "for the cordless drill");
+        index.put(2L, "Hammer drill", "corded");
+
+        assertThat(toList(index.search(List.of("drill"))), contains(1L, 2L, 3L));
+        assertThat(toList(index.search(List.of("cord", "drill"))), contains(1L, 2L, 3L));
+        assertThat(toList(index.search(List.of("cordless", "dri"))), contains(1L, 3L));
+        assertThat(toList(index.search(List.of("battery"))), empty());
+    }
+
+    @Test
+    void put_whenItemIsReindexed_thenOldTokensAreDropped() {
+        index.put(1L, "Tent", "for two");
+        index.put(1L, "Kayak", "single");
+
+        assertThat(toList(index.search(List.of("tent"))), empty());
+        assertThat(toList(index.search(List.of("kayak"))), contains(1L));
+        assertThat(index.size(), equalTo(1));
+    }
+
+    @Test
+    void remove_whenItemRemoved_thenNotFoundAndMemoryReleased() {
+        index.put(1L, "Tent", "for two");
+        long memoryWithItem = index.estimateMemoryBytes();
+
+        index.remove(1L);
+
+        assertThat(toList(index.search(List.of("tent"))), empty());
+        assertThat(index.size(), equalTo(0));
+        assertThat(index.estimateMemoryBytes(), lessThan(memoryWithItem));
+    }
+
+    private static List<Long> toList(long[] ids) {
+        return Arrays.stream(ids).boxed().collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,104 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.benchmark.LatencyRecorder;
+import ru.practicum.shareit.extension.ExtendedPageRequest;
+import ru.practicum.shareit.item.suggest.ItemNameSuggester;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Reports p99 latency of the configured {@link ItemSearchEngine} against a growing catalogue.
+ * Runs on H2 with the like engine by default, which has the semantics of the full-text engine but scans every
+ * item; point it at Postgres with {@code -Dspring.profiles.active=default -Dshareit.search.engine=full-text}
+ * to measure the GIN path.
+ * Also reports lookup latency of {@link ItemNameSuggester} for the same catalogue sizes.
+ */
+@SpringBootTest
+class ItemSearchBenchmarkIT {
+    private static final int[] CATALOGUE_SIZES = {1_000, 10_000, 100_000};
+
+    private static final int QUERIES = 500;
+
+    private static final String[] WORDS = {
+            "drill", "saw", "hammer", "ladder", "tent", "kayak", "bike", "camera", "lens", "tripod",
+            "projector", "speaker", "guitar", "mixer", "router", "sander", "grinder", "jack", "pump", "scooter"
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ItemSearchEngine searchEngine;
+
+    @Autowired
+    private ItemNameSuggester itemNameSuggester;
+
+    @Test
+    void searchLatencyByCatalogueSize() throws Exception {
+        Random random = new Random(42);
+        Long ownerId = createOwner("search-benchmark@example.com");
+        int seeded = 0;
+
+        for (int size : CATALOGUE_SIZES) {
+            seed(ownerId, size - seeded, random);
+            seeded = size;
+
+            LatencyRecorder recorder = new LatencyRecorder(QUERIES);
+            for (int i = 0; i < QUERIES; i++) {
+                String text = WORDS[random.nextInt(WORDS.length)];
+                recorder.record(() -> searchEngine.search(text, ExtendedPageRequest.ofOffset(0, 20)));
+            }
+
+            System.out.printf("%s catalogue=%d %s%n", searchEngine.getClass().getSimpleName(), size, recorder.summary());
+        }
+    }
+
+    @Test
+    void suggestLatencyByCatalogueSize() throws Exception {
+        Random random = new Random(7);
+        Long ownerId = createOwner("suggest-benchmark@example.com");
+        int seeded = 0;
+
+        for (int size : CATALOGUE_SIZES) {
+            seed(ownerId, size - seeded, random);
+            seeded = size;
+            itemNameSuggester.rebuild();
+
+            LatencyRecorder recorder = new LatencyRecorder(QUERIES);
+            for (int i = 0; i < QUERIES; i++) {
+                String word = WORDS[random.nextInt(WORDS.length)];
+                String prefix = word.substring(0, 1 + random.nextInt(word.length()));
+                recorder.record(() -> itemNameSuggester.suggest(prefix, 10));
+            }
+
+            System.out.printf("%s catalogue=%d %s%n", itemNameSuggester.getClass().getSimpleName(), size, recorder.summary());
+        }
+    }
+
+    private Long createOwner(String email) {
+        jdbcTemplate.update("insert into accounts (email, username) values (?, 'bench')", email);
+
+        return jdbcTemplate.queryForObject("select id from accounts where email = ?", Long.class, email);
+    }
+
+    private void seed(Long ownerId, int count, Random random) {
+        List<Object[]> rows = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[]{
+                    WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)],
+                    "rent a " + WORDS[random.nextInt(WORDS.length)] + " model " + random.nextInt(10_000),
+                    random.nextInt(10) != 0,
+                    ownerId
+            });
+        }
+
+        jdbcTemplate.batchUpdate("insert into item (name, description, available, owner_id) values (?, ?, ?, ?)", rows);
+    }
+}
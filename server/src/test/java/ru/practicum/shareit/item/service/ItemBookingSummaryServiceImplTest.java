@@ -0,0 +1,240 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+import ru.practicum.shareit.item.repository.ItemBookingSummaryExpiry;
+import ru.practicum.shareit.item.repository.ItemBookingSummaryRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.repository.ItemWithBookingProjection;
+import ru.practicum.shareit.item.repository.ItemWithClosestBookings;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemBookingSummaryServiceImplTest {
+
+    @Mock
+    private ItemBookingSummaryRepository summaryRepository;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Captor
+    private ArgumentCaptor<ItemBookingSummary> summaryArgumentCaptor;
+
+    private ItemBookingSummaryService summaryService;
+
+    @BeforeEach
+    void setUp() {
+        summaryService = new ItemBookingSummaryServiceImpl(summaryRepository, bookingRepository, itemRepository);
+    }
+
+    @Test
+    void refresh_whenItemHasBookings_thenValidUntilNextStartOrFinish() {
+        LocalDateTime now = LocalDateTime.now();
+        Booking lastBooking = new Booking(1L, now.minusDays(3), now.minusDays(2), null, null, BookingStatus.APPROVED);
+        Booking currentBooking = new Booking(2L, now.minusHours(1), now.plusHours(1), null, null, BookingStatus.APPROVED);
+        Booking nextBooking = new Booking(3L, now.plusDays(1), now.plusDays(2), null, null, BookingStatus.WAITING);
+
+        when(summaryRepository.findByIdForUpdate(5L)).thenReturn(Optional.empty());
+        when(bookingRepository.findFirstByItem_IdAndFinishIsBeforeOrderByFinishDescIdDesc(eq(5L), any(LocalDateTime.class)))
+                .thenReturn(Optional.of(lastBooking));
+        when(bookingRepository.findFirstByItem_IdAndStartIsAfterOrderByStartAscIdAsc(eq(5L), any(LocalDateTime.class)))
+                .thenReturn(Optional.of(nextBooking));
+        when(bookingRepository.findFirstByItem_IdAndFinishIsAfterOrderByFinishAsc(eq(5L), any(LocalDateTime.class)))
+                .thenReturn(Optional.of(currentBooking));
+        when(bookingRepository.findFirstByItem_IdAndStartIsBeforeOrderByStartDescIdDesc(eq(5L), any(LocalDateTime.class)))
+                .thenReturn(Optional.of(currentBooking));
+        when(bookingRepository.findFirstByItem_IdAndFinishIsAfterOrderByStartAscIdAsc(eq(5L), any(LocalDateTime.class)))
+                .thenReturn(Optional.of(currentBooking));
+
+        summaryService.refresh(5L);
+
+        verify(summaryRepository).save(summaryArgumentCaptor.capture());
+        ItemBookingSummary summary = summaryArgumentCaptor.getValue();
+        assertThat(summary.getItemId(), equalTo(5L));
+        assertThat(summary.getLastBooking(), equalTo(lastBooking));
+        assertThat(summary.getNextBooking(), equalTo(nextBooking));
+        assertThat(summary.getLastStartedBooking(), equalTo(currentBooking));
+        assertThat(summary.getNextUnfinishedBooking(), equalTo(currentBooking));
+        assertThat(summary.getValidUntil(), equalTo(currentBooking.getFinish()));
+    }
+
+    @Test
+    void refresh_whenItemHasNoUpcomingBookings_thenValidForever() {
+        ItemBookingSummary summary = new ItemBookingSummary(5L, null, new Booking(), new Booking(), null, LocalDateTime.now());
+
+        when(summaryRepository.findByIdForUpdate(5L)).thenReturn(Optional.of(summary));
+
+        summaryService.refresh(5L);
+
+        verify(summaryRepository).save(summary);
+        assertThat(summary.getLastBooking(), nullValue());
+        assertThat(summary.getNextBooking(), nullValue());
+        assertThat(summary.getLastStartedBooking(), nullValue());
+        assertThat(summary.getValidUntil(), nullValue());
+    }
+
+    @Test
+    void findClosestBookings_whenSummaryIsValid_thenNoRanking() {
+        LocalDateTime now = LocalDateTime.now();
+        Item item = new Item();
+        item.setId(5L);
+        Booking lastBooking = new Booking();
+        ItemBookingSummary summary = new ItemBookingSummary(5L, lastBooking, null, null, null, now.plusHours(1));
+
+        when(summaryRepository.findAllWithBookingsByItemIdIn(List.of(5L))).thenReturn(List.of(summary));
+        when(itemRepository.findClosestBookingsRanked(Collections.emptyList(), now)).thenReturn(Collections.emptyList());
+
+        List<ItemWithBookingProjection> result = summaryService.findClosestBookings(List.of(item), now);
+
+        assertThat(result, contains(new ItemWithClosestBookings(item, lastBooking, null)));
+    }
+
+    @Test
+    void findClosestBookings_whenSummaryIsStaleOrMissing_thenRankedLive() {
+        LocalDateTime now = LocalDateTime.now();
+        Item staleItem = new Item();
+        staleItem.setId(5L);
+        Item missingItem = new Item();
+        missingItem.setId(6L);
+        ItemWithBookingProjection staleRanked = new ItemWithClosestBookings(staleItem, new Booking(), null);
+        ItemWithBookingProjection missingRanked = new ItemWithClosestBookings(missingItem, null, null);
+
+        when(summaryRepository.findAllWithBookingsByItemIdIn(List.of(5L, 6L)))
+                .thenReturn(List.of(new ItemBookingSummary(5L, null, null, null, null, now.minusSeconds(1))));
+        when(itemRepository.findClosestBookingsRanked(List.of(staleItem, missingItem), now))
+                .thenReturn(List.of(missingRanked, staleRanked));
+
+        List<ItemWithBookingProjection> result = summaryService.findClosestBookings(List.of(staleItem, missingItem), now);
+
+        assertThat(result, contains(staleRanked, missingRanked));
+    }
+
+    @Test
+    void findCurrentBookings_whenSummaryIsValid_thenNoBookingQueries() {
+        LocalDateTime now = LocalDateTime.now();
+        Item item = new Item();
+        item.setId(5L);
+        Booking lastStartedBooking = new Booking();
+        Booking nextUnfinishedBooking = new Booking();
+
+        when(summaryRepository.findWithCurrentBookingsByItemId(5L)).thenReturn(Optional.of(
+                new ItemBookingSummary(5L, null, null, lastStartedBooking, nextUnfinishedBooking, now.plusHours(1))
+        ));
+
+        ItemWithBookingProjection result = summaryService.findCurrentBookings(item, now);
+
+        assertThat(result, equalTo(new ItemWithClosestBookings(item, lastStartedBooking, nextUnfinishedBooking)));
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void findCurrentBookings_whenSummaryIsStale_thenQueriedLive() {
+        LocalDateTime now = LocalDateTime.now();
+        Item item = new Item();
+        item.setId(5L);
+        Booking lastStartedBooking = new Booking();
+        Booking nextUnfinishedBooking = new Booking();
+
+        when(summaryRepository.findWithCurrentBookingsByItemId(5L)).thenReturn(Optional.of(
+                new ItemBookingSummary(5L, null, null, new Booking(), null, now.minusSeconds(1))
+        ));
+        when(bookingRepository.findFirstByItem_IdAndStartIsBeforeOrderByStartDescIdDesc(5L, now))
+                .thenReturn(Optional.of(lastStartedBooking));
+        when(bookingRepository.findFirstByItem_IdAndFinishIsAfterOrderByStartAscIdAsc(5L, now))
+                .thenReturn(Optional.of(nextUnfinishedBooking));
+
+        ItemWithBookingProjection result = summaryService.findCurrentBookings(item, now);
+
+        assertThat(result, equalTo(new ItemWithClosestBookings(item, lastStartedBooking, nextUnfinishedBooking)));
+    }
+
+    @Test
+    void rollForward_whenSummariesStale_thenRefreshed() {
+        LocalDateTime now = LocalDateTime.now();
+
+        when(summaryRepository.findAllItemIdsByValidUntilNotAfter(now, PageRequest.of(0, 10))).thenReturn(List.of(1L, 2L, 3L));
+        when(summaryRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.empty());
+
+        int refreshed = summaryService.rollForward(now, 10);
+
+        assertThat(refreshed, equalTo(3));
+        verify(summaryRepository, times(3)).save(any(ItemBookingSummary.class));
+    }
+
+    @Test
+    void findStableUntilByOwner_whenSummariesValid_thenEarliestValidUntil() {
+        LocalDateTime now = LocalDateTime.now();
+
+        when(summaryRepository.findExpiryByOwnerId(1L)).thenReturn(expiry(2, 2, now.plusHours(1)));
+
+        assertThat(summaryService.findStableUntilByOwner(1L, now), equalTo(Optional.of(now.plusHours(1))));
+    }
+
+    @Test
+    void findStableUntilByOwner_whenSummariesNeverExpire_thenMax() {
+        when(summaryRepository.findExpiryByOwnerId(1L)).thenReturn(expiry(2, 2, null));
+
+        assertThat(summaryService.findStableUntilByOwner(1L, LocalDateTime.now()), equalTo(Optional.of(LocalDateTime.MAX)));
+    }
+
+    @Test
+    void findStableUntilByOwner_whenSummaryMissing_thenEmpty() {
+        when(summaryRepository.findExpiryByOwnerId(1L)).thenReturn(expiry(2, 1, null));
+
+        assertThat(summaryService.findStableUntilByOwner(1L, LocalDateTime.now()), equalTo(Optional.empty()));
+    }
+
+    @Test
+    void findStableUntilByItem_whenSummaryStale_thenEmpty() {
+        LocalDateTime now = LocalDateTime.now();
+
+        when(summaryRepository.findExpiryByItemId(5L)).thenReturn(expiry(1, 1, now.minusSeconds(1)));
+
+        assertThat(summaryService.findStableUntilByItem(5L, now), equalTo(Optional.empty()));
+    }
+
+    private static ItemBookingSummaryExpiry expiry(long items, long summaries, LocalDateTime validUntil) {
+        return new ItemBookingSummaryExpiry() {
+            @Override
+            public long getItems() {
+                return items;
+            }
+
+            @Override
+            public long getSummaries() {
+                return summaries;
+            }
+
+            @Override
+            public LocalDateTime getValidUntil() {
+                return validUntil;
+            }
+        };
+    }
+}
@@ -13,14 +13,22 @@ import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.generic.ExtendedEntityNotFoundException;
 import ru.practicum.shareit.extension.CustomPageableParameters;
 import ru.practicum.shareit.extension.ExtendedPageRequest;
+import ru.practicum.shareit.httpcache.ChangeCounter;
+import ru.practicum.shareit.item.availability.ItemAvailabilityCache;
 import ru.practicum.shareit.item.dto.*;
+import ru.practicum.shareit.item.exception.IncorrectAvailabilityRange;
+import ru.practicum.shareit.item.exception.IncorrectSearchPeriod;
 import ru.practicum.shareit.item.exception.NotAllowedToAddComments;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemCommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.item.repository.ItemWithBookingProjection;
+import ru.practicum.shareit.item.repository.ItemWithClosestBookings;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.item.suggest.ItemNameSuggester;
 import ru.practicum.shareit.mapper.ModelMapper;
+import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.security.facade.IAuthenticationFacade;
 import ru.practicum.shareit.security.user.AuthenticatedUser;
@@ -30,9 +38,12 @@ import ru.practicum.shareit.user.model.User;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.hamcrest.Matchers.*;
 import static org.mockito.Mockito.*;
@@ -81,6 +92,15 @@ class ItemServiceImplTest {
     @Mock
     private ItemRequestRepository itemRequestRepository;
 
+    @Mock
+    private ItemSearchEngine itemSearchEngine;
+
+    @Mock
+    private ItemNameSuggester itemNameSuggester;
+
+    @Mock
+    private ItemBookingSummaryService itemBookingSummaryService;
+
     @Mock
     private ModelMapper modelMapper;
 
@@ -89,16 +109,24 @@ class ItemServiceImplTest {
 
     private ItemService itemService;
 
+    private ChangeCounter changeCounter;
+
     @Captor
     private ArgumentCaptor<Item> itemArgumentCaptor;
 
     @BeforeEach
     void setUp() {
+        changeCounter = new ChangeCounter(16);
         itemService = new ItemServiceImpl(
                 itemRepository,
                 bookingRepository,
                 itemCommentRepository,
                 itemRequestRepository,
+                itemSearchEngine,
+                itemNameSuggester,
+                itemBookingSummaryService,
+                new ItemAvailabilityCache(100),
+                changeCounter,
                 modelMapper,
                 authenticationFacade
         );
@@ -108,18 +136,21 @@ class ItemServiceImplTest {
     void findAll_whenInvoked_thenItemsCollectionInResult() {
         User currentUser = new User();
         ExtendedUserDetails userDetails = new AuthenticatedUser(currentUser);
-        ItemWithBookingProjection projection = new ItemWithBookingProjectionImpl(new Item(), new Booking(), new Booking());
+        Item item = new Item();
+        ItemWithBookingProjection projection = new ItemWithBookingProjectionImpl(item, new Booking(), new Booking());
         ItemResponseWithBookingDto expectedItemResponseWithBookingDto = new ItemResponseWithBookingDto();
 
         when(authenticationFacade.getCurrentUserDetails()).thenReturn(userDetails);
 
         when(
-                itemRepository.findAllAvailableTrueByOwner_IdWithClosestBookings(
-                        eq(currentUser.getId()),
-                        ArgumentMatchers.any(LocalDateTime.class),
-                        eq(ExtendedPageRequest.ofOffset(0L, 10))
+                itemRepository.findAllByAvailableTrueAndOwner_IdOrderById(
+                        currentUser.getId(),
+                        ExtendedPageRequest.ofOffset(0L, 10)
                 )
         )
+                .thenReturn(List.of(item));
+
+        when(itemBookingSummaryService.findClosestBookings(eq(List.of(item)), ArgumentMatchers.any(LocalDateTime.class)))
                 .thenReturn(List.of(projection));
 
         when(
@@ -141,6 +172,7 @@ class ItemServiceImplTest {
         assertThat(items.size(), equalTo(0));
 
         verifyNoInteractions(itemRepository);
+        verifyNoInteractions(itemSearchEngine);
     }
 
     @Test
@@ -149,11 +181,7 @@ class ItemServiceImplTest {
         ItemResponseDto expectedItemResponseDto = new ItemResponseDto();
         String query = "name";
 
-        when(itemRepository.findAllAvailableTrueAndNameOrDescriptionLikeIgnoreCase(
-                query,
-                ExtendedPageRequest.ofOffset(0L, 10))
-        )
-                .thenReturn(List.of(item));
+        when(itemSearchEngine.search(query, ExtendedPageRequest.ofOffset(0L, 10))).thenReturn(List.of(item));
 
         when(modelMapper.toItemResponseDto(item)).thenReturn(expectedItemResponseDto);
 
@@ -162,6 +190,41 @@ class ItemServiceImplTest {
         assertThat(actualItems.get(0), equalTo(expectedItemResponseDto));
     }
 
+    @Test
+    void findFreeByText_whenPeriodIsIncomplete_thenThrowException() {
+        LocalDateTime start = LocalDateTime.now();
+        CustomPageableParameters parameters = CustomPageableParameters.of(0L, 10);
+
+        assertThrows(IncorrectSearchPeriod.class, () -> itemService.findFreeByText("name", start, null, parameters));
+        assertThrows(IncorrectSearchPeriod.class, () -> itemService.findFreeByText("name", null, start, parameters));
+        assertThrows(IncorrectSearchPeriod.class, () -> itemService.findFreeByText("name", start, start, parameters));
+        verifyNoInteractions(itemSearchEngine);
+    }
+
+    @Test
+    void findFreeByText_whenItemFound_thenItemsCollectionInResult() {
+        Item item = new Item();
+        ItemResponseDto expectedItemResponseDto = new ItemResponseDto();
+        LocalDateTime start = LocalDateTime.now();
+        LocalDateTime end = start.plusDays(1);
+
+        when(itemSearchEngine.searchFreeBetween("name", start, end, ExtendedPageRequest.ofOffset(0L, 10))).thenReturn(List.of(item));
+        when(modelMapper.toItemResponseDto(item)).thenReturn(expectedItemResponseDto);
+
+        List<ItemResponseDto> actualItems = itemService.findFreeByText("name", start, end, CustomPageableParameters.of(0L, 10));
+        assertThat(actualItems, equalTo(List.of(expectedItemResponseDto)));
+    }
+
+    @Test
+    void suggest_whenInvoked_thenDelegatedToSuggester() {
+        List<ItemSuggestionDto> expectedSuggestions = List.of(new ItemSuggestionDto(1L, "Drill"));
+
+        when(itemNameSuggester.suggest("dr", 10)).thenReturn(expectedSuggestions);
+
+        assertThat(itemService.suggest("dr", 10), equalTo(expectedSuggestions));
+        verifyNoInteractions(itemRepository);
+    }
+
     @Test
     void findOne_whenItemNotFound_thenThrowException() {
         Long itemId = 0L;
@@ -190,6 +253,7 @@ class ItemServiceImplTest {
 
         ItemResponseWithBookingDto actualItem = itemService.findOne(itemId);
         verifyNoInteractions(bookingRepository);
+        verifyNoInteractions(itemBookingSummaryService);
 
         assertThat(actualItem, equalTo(expectedItemResponseWithBookingDto));
     }
@@ -209,24 +273,22 @@ class ItemServiceImplTest {
         ItemResponseWithBookingDto expectedItemResponseWithBookingDto = new ItemResponseWithBookingDto();
 
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
-        when(bookingRepository.findLastByItemAndStartIsBefore(eq(item), ArgumentMatchers.any(LocalDateTime.class)))
-                .thenReturn(Optional.of(lastBooking));
-        when(bookingRepository.findFirstByItemAndFinishIsAfter(eq(item), ArgumentMatchers.any(LocalDateTime.class)))
-                .thenReturn(Optional.of(nextBooking));
+        when(itemBookingSummaryService.findCurrentBookings(eq(item), ArgumentMatchers.any(LocalDateTime.class)))
+                .thenReturn(new ItemWithClosestBookings(item, lastBooking, nextBooking));
         when(authenticationFacade.getCurrentUserDetails()).thenReturn(userDetails);
 
         when(modelMapper.toItemResponseWithBookingDto(item, Optional.of(lastBooking), Optional.of(nextBooking)))
                 .thenReturn(expectedItemResponseWithBookingDto);
 
         ItemResponseWithBookingDto actualItem = itemService.findOne(itemId);
-        verify(bookingRepository).findLastByItemAndStartIsBefore(eq(item), ArgumentMatchers.any(LocalDateTime.class));
-        verify(bookingRepository).findFirstByItemAndFinishIsAfter(eq(item), ArgumentMatchers.any(LocalDateTime.class));
+        verifyNoInteractions(bookingRepository);
         assertThat(actualItem, equalTo(expectedItemResponseWithBookingDto));
     }
 
     @Test
     void create_whenInvoked_thenReturnedItemDto() {
         User currentUser = new User();
+        currentUser.setId(1L);
         Item itemToSave = new Item();
         CreateItemRequestDto createItemRequestDto = new CreateItemRequestDto();
         ItemResponseDto expectedItemDto = new ItemResponseDto();
@@ -235,13 +297,52 @@ class ItemServiceImplTest {
         when(modelMapper.toItem(createItemRequestDto, currentUser, Optional.empty())).thenReturn(itemToSave);
         when(itemRepository.save(itemToSave)).thenReturn(itemToSave);
         when(modelMapper.toItemResponseDto(itemToSave)).thenReturn(expectedItemDto);
+        String ownerEtag = changeCounter.etag(1L);
+        String otherUserEtag = changeCounter.etag(2L);
 
         ItemResponseDto actualItemDto = itemService.create(createItemRequestDto);
 
         verify(itemRepository).save(itemToSave);
+        verify(itemBookingSummaryService).initialize(itemToSave);
+        verify(itemSearchEngine).index(itemToSave);
+        verify(itemNameSuggester).index(itemToSave);
+        assertThat(changeCounter.etag(1L), not(equalTo(ownerEtag)));
+        assertThat(changeCounter.etag(2L), equalTo(otherUserEtag));
         assertThat(actualItemDto, equalTo(expectedItemDto));
     }
 
+    @Test
+    void createAll_whenInvoked_thenItemRequestsLoadedOnceAndItemsSavedTogether() {
+        User currentUser = new User();
+        currentUser.setId(1L);
+        ItemRequest itemRequest = new ItemRequest();
+        itemRequest.setId(7L);
+        Item first = new Item();
+        Item second = new Item();
+        CreateItemRequestDto firstDto = new CreateItemRequestDto("drill", "cordless", true, 7L);
+        CreateItemRequestDto secondDto = new CreateItemRequestDto("saw", "hand", true, null);
+        ItemResponseDto firstResponse = new ItemResponseDto();
+        ItemResponseDto secondResponse = new ItemResponseDto();
+
+        when(authenticationFacade.getCurrentUser()).thenReturn(currentUser);
+        when(itemRequestRepository.findAllById(Set.of(7L))).thenReturn(List.of(itemRequest));
+        when(modelMapper.toItem(firstDto, currentUser, Optional.of(itemRequest))).thenReturn(first);
+        when(modelMapper.toItem(secondDto, currentUser, Optional.empty())).thenReturn(second);
+        when(itemRepository.saveAll(List.of(first, second))).thenReturn(List.of(first, second));
+        when(modelMapper.toItemResponseDto(first)).thenReturn(firstResponse);
+        when(modelMapper.toItemResponseDto(second)).thenReturn(secondResponse);
+        String otherUserEtag = changeCounter.etag(2L);
+
+        List<ItemResponseDto> actualItemDtos = itemService.createAll(List.of(firstDto, secondDto));
+
+        verify(itemSearchEngine).index(first);
+        verify(itemSearchEngine).index(second);
+        verify(itemNameSuggester).indexAll(List.of(first, second));
+        verify(itemBookingSummaryService).initializeAll(List.of(first, second));
+        assertThat(changeCounter.etag(2L), not(equalTo(otherUserEtag)));
+        assertThat(actualItemDtos, contains(firstResponse, secondResponse));
+    }
+
     @Test
     void update_whenItemNotFound_thenThrownException() {
         Long itemId = 0L;
@@ -316,6 +417,10 @@ class ItemServiceImplTest {
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(oldItem));
         when(authenticationFacade.getCurrentUserDetails()).thenReturn(userDetails);
         when(modelMapper.toItemResponseDto(oldItem)).thenReturn(expectedItemResponseDto);
+        when(bookingRepository.findAllBookerIdsByItem_Id(itemId)).thenReturn(List.of(3L));
+        String bookerEtag = changeCounter.etag(3L);
+        String otherUserEtag = changeCounter.etag(2L);
+        String otherUserItemEtag = changeCounter.itemEtag(2L, itemId, LocalDateTime.MAX);
 
         ItemResponseDto actualItemResponseDto = itemService.update(
                 itemId,
@@ -328,6 +433,11 @@ class ItemServiceImplTest {
         assertThat(updatedOldItem.getName(), equalTo(updateItemRequestDto.getName()));
         assertThat(updatedOldItem.getDescription(), equalTo(updateItemRequestDto.getDescription()));
         assertThat(updatedOldItem.getAvailable(), equalTo(updateItemRequestDto.getAvailable()));
+        verify(itemSearchEngine).index(oldItem);
+        verify(itemNameSuggester).index(oldItem);
+        assertThat(changeCounter.etag(3L), not(equalTo(bookerEtag)));
+        assertThat(changeCounter.etag(2L), equalTo(otherUserEtag));
+        assertThat(changeCounter.itemEtag(2L, itemId, LocalDateTime.MAX), not(equalTo(otherUserItemEtag)));
 
         assertThat(actualItemResponseDto, equalTo(expectedItemResponseDto));
     }
@@ -387,6 +497,8 @@ class ItemServiceImplTest {
 
         Long itemId = 0L;
         Item item = new Item();
+        item.setId(itemId);
+        item.setOwner(new User(1L, "", ""));
         CreateItemCommentDto createItemCommentDto = new CreateItemCommentDto();
 
         Comment comment = new Comment();
@@ -406,13 +518,16 @@ class ItemServiceImplTest {
         when(modelMapper.toItemComment(createItemCommentDto, currentUser, item)).thenReturn(comment);
         when(itemCommentRepository.save(comment)).thenReturn(comment);
         when(modelMapper.toItemCommentResponseDto(comment)).thenReturn(expectedItemCommentResponseDto);
-
+        String ownerEtag = changeCounter.etag(1L);
+        String otherUserEtag = changeCounter.etag(2L);
 
         ItemCommentResponseDto actualItemCommentResponseDto = itemService.addComment(
                 itemId,
                 createItemCommentDto
         );
         verify(itemCommentRepository).save(comment);
+        assertThat(changeCounter.etag(1L), not(equalTo(ownerEtag)));
+        assertThat(changeCounter.etag(2L), equalTo(otherUserEtag));
 
         assertThat(actualItemCommentResponseDto, equalTo(expectedItemCommentResponseDto));
     }
@@ -436,6 +551,8 @@ class ItemServiceImplTest {
         itemService.removeById(itemId);
 
         verify(itemRepository).deleteById(itemId);
+        verify(itemSearchEngine).remove(itemId);
+        verify(itemNameSuggester).remove(itemId);
     }
 
     @Test
@@ -474,4 +591,53 @@ class ItemServiceImplTest {
                 () -> itemService.removeById(itemId)
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAvailability_whenRangeReversedOrTooLong_thenThrownException() {
+        LocalDate from = LocalDate.of(2030, 1, 1);
+
+        assertThrows(
+                IncorrectAvailabilityRange.class,
+                () -> itemService.getAvailability(0L, from, from.minusDays(1))
+        );
+        assertThrows(
+                IncorrectAvailabilityRange.class,
+                () -> itemService.getAvailability(0L, from, from.plusDays(366))
+        );
+        verifyNoInteractions(itemRepository, bookingRepository);
+    }
+
+    @Test
+    void getAvailability_whenItemNotFound_thenThrownException() {
+        LocalDate from = LocalDate.of(2030, 1, 1);
+
+        when(itemRepository.existsById(0L)).thenReturn(false);
+
+        assertThrows(
+                ExtendedEntityNotFoundException.class,
+                () -> itemService.getAvailability(0L, from, from)
+        );
+    }
+
+    @Test
+    void getAvailability_whenRequestedTwice_thenBookingsLoadedOnce() {
+        Long itemId = 0L;
+        LocalDate from = LocalDate.of(2030, 1, 1);
+        Booking booking = new Booking();
+        booking.setStart(from.atTime(10, 30));
+        booking.setFinish(from.atTime(12, 0));
+
+        when(itemRepository.existsById(itemId)).thenReturn(true);
+        when(bookingRepository.findAllByItem_IdAndStatusIn(itemId, EnumSet.of(BookingStatus.APPROVED))).thenReturn(List.of(booking));
+
+        itemService.getAvailability(itemId, from, from);
+        ItemAvailabilityDto availability = itemService.getAvailability(itemId, from, from);
+
+        verify(bookingRepository, times(1)).findAllByItem_IdAndStatusIn(itemId, EnumSet.of(BookingStatus.APPROVED));
+        assertThat(availability.getSlots(), contains(
+                new ItemAvailabilitySlotDto(from.atStartOfDay(), from.atTime(10, 0), true),
+                new ItemAvailabilitySlotDto(from.atTime(10, 0), from.atTime(12, 0), false),
+                new ItemAvailabilitySlotDto(from.atTime(12, 0), from.plusDays(1).atStartOfDay(), true)
+        ));
+    }
+}
@@ -0,0 +1,84 @@
+package ru.practicum.shareit.item.suggest;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class ItemNameSuggestIndexTest {
+
+    private final ItemNameSuggestIndex index = ItemNameSuggestIndex.of(
+            new long[]{1L, 2L, 3L, 4L, 5L},
+            new String[]{"Drill", "drill bits", "Hammer drill", "DRILL", "Dremel"},
+            5
+    );
+
+    @Test
+    void suggest_whenPrefixMatches_thenReturnedDistinctNamesAlphabetically() {
+        List<ItemSuggestionDto> suggestions = index.suggest(" DR", 10);
+
+        assertThat(suggestions.stream().map(ItemSuggestionDto::getName).collect(Collectors.toList()),
+                contains("Dremel", "Drill", "drill bits"));
+        assertThat(suggestions.get(1).getId(), equalTo(1L));
+    }
+
+    @Test
+    void suggest_whenSizeReached_thenStopped() {
+        assertThat(index.suggest("dr", 1), hasSize(1));
+        assertThat(index.suggest("ham", 10), hasSize(1));
+        assertThat(index.suggest("saw", 10), empty());
+        assertThat(index.suggest(" ", 10), empty());
+    }
+
+    @Test
+    void suggest_whenNameIsLongerThanKey_thenMatchedByTruncatedPrefix() {
+        String longName = "a".repeat(ItemNameSuggestIndex.MAX_KEY_LENGTH + 10);
+        ItemNameSuggestIndex longIndex = ItemNameSuggestIndex.of(new long[]{7L}, new String[]{longName}, 1);
+
+        assertThat(longIndex.suggest(longName, 10), contains(new ItemSuggestionDto(7L, longName)));
+    }
+
+    @Test
+    void update_whenNamesPutAndRemoved_thenMergedWithSnapshot() {
+        Map<Long, String> changes = new HashMap<>();
+        changes.put(2L, "Dowel");
+        changes.put(5L, null);
+        changes.put(6L, "drill press");
+
+        index.update(changes);
+
+        assertThat(names(index.suggest("d", 10)), contains("Dowel", "Drill", "drill press"));
+        assertThat(index.overlaySize(), equalTo(5));
+        assertThat(index.compact(10).suggest("d", 10), equalTo(index.suggest("d", 10)));
+    }
+
+    @Test
+    void update_whenItemRenamedTwice_thenOnlyLatestNameKept() {
+        index.update(Map.of(6L, "Drill stand"));
+        index.update(Map.of(6L, "Dust bag"));
+
+        assertThat(names(index.suggest("d", 10)), contains("Dremel", "Drill", "drill bits", "Dust bag"));
+        assertThat(index.size(), equalTo(6));
+    }
+
+    @Test
+    void compact_whenMoreNamesThanMaxEntries_thenOldestEvicted() {
+        index.update(Map.of(6L, "Drill stand"));
+        ItemNameSuggestIndex compacted = index.compact(3);
+
+        assertThat(compacted.size(), equalTo(3));
+        assertThat(compacted.evicted(), equalTo(3));
+        assertThat(compacted.overlaySize(), equalTo(0));
+        assertThat(names(compacted.suggest("d", 10)), contains("Dremel", "DRILL", "Drill stand"));
+    }
+
+    private static List<String> names(List<ItemSuggestionDto> suggestions) {
+        return suggestions.stream().map(ItemSuggestionDto::getName).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,81 @@
+package ru.practicum.shareit.item.suggest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemNameProjection;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemNameSuggesterTest {
+    @Mock
+    private ItemRepository itemRepository;
+
+    private ItemNameSuggester suggester;
+
+    @BeforeEach
+    void setUp() {
+        suggester = new ItemNameSuggester(itemRepository, ItemNameSuggester.COMPACT_THRESHOLD);
+        when(itemRepository.findAllAvailableTrueNamesNewestFirst(any())).thenReturn(List.of(name(1L, "drill")));
+        suggester.rebuild();
+    }
+
+    @Test
+    void index_whenItemChanges_thenSuggestionsUpdatedWithoutReload() {
+        suggester.index(new Item(2L, "Dremel", "", true, null, null, null));
+        suggester.index(new Item(1L, "drill", "", false, null, null, null));
+
+        assertThat(names(suggester.suggest("dr", 10)), contains("Dremel"));
+
+        suggester.remove(2L);
+
+        assertThat(suggester.suggest("dr", 10), empty());
+        verify(itemRepository, times(1)).findAllAvailableTrueNamesNewestFirst(any());
+    }
+
+    @Test
+    void compactIfNeeded_whenMaxEntriesExceeded_thenOldestItemsEvicted() {
+        suggester.indexAll(LongStream
+                .rangeClosed(2, ItemNameSuggester.COMPACT_THRESHOLD + 1)
+                .mapToObj(id -> new Item(id, "saw " + id, "", true, null, null, null))
+                .collect(Collectors.toList()));
+
+        suggester.compactIfNeeded();
+
+        assertThat(suggester.suggest("drill", 10), empty());
+        assertThat(names(suggester.suggest("saw 2", 1)), contains("saw 2"));
+        verify(itemRepository, times(1)).findAllAvailableTrueNamesNewestFirst(any());
+    }
+
+    private static List<String> names(List<ItemSuggestionDto> suggestions) {
+        return suggestions.stream().map(ItemSuggestionDto::getName).collect(Collectors.toList());
+    }
+
+    private static ItemNameProjection name(Long id, String name) {
+        return new ItemNameProjection() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+        };
+    }
+}
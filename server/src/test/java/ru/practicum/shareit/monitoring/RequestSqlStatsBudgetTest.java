@@ -0,0 +1,136 @@
+package ru.practicum.shareit.monitoring;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Drives the item, booking and request endpoints against H2 with pages larger than the batch fetch size would
+ * hide. The test profile runs budgets in fail mode, so any handler over its statement budget fails the request.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class RequestSqlStatsBudgetTest {
+    private static final int ITEMS = 30;
+
+    private static final String HEADER_NAME = "X-Sharer-User-Id";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private long ownerId;
+
+    private long bookerId;
+
+    private long itemId;
+
+    private long requestId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String tag = UUID.randomUUID().toString().substring(0, 8);
+        ownerId = createUser("owner-" + tag);
+        bookerId = createUser("booker-" + tag);
+        requestId = postJson("/requests", bookerId, Map.of("description", "need a drill")).get("id").asLong();
+
+        for (int i = 0; i < ITEMS; i++) {
+            itemId = postJson("/items", ownerId, Map.of(
+                    "name", "drill " + tag + " " + i,
+                    "description", "budget test",
+                    "available", true,
+                    "requestId", requestId
+            )).get("id").asLong();
+
+            long bookingId = postJson("/bookings", bookerId, Map.of(
+                    "start", LocalDateTime.now().minusDays(2).toString(),
+                    "end", LocalDateTime.now().minusDays(1).toString(),
+                    "itemId", itemId
+            )).get("id").asLong();
+            perform(patch("/bookings/{bookingId}", bookingId).param("approved", "true"), ownerId);
+
+            postJson("/bookings", bookerId, Map.of(
+                    "start", LocalDateTime.now().plusDays(1).toString(),
+                    "end", LocalDateTime.now().plusDays(2).toString(),
+                    "itemId", itemId
+            ));
+            postJson("/items/" + itemId + "/comment", bookerId, Map.of("text", "works"));
+        }
+    }
+
+    @Test
+    void listEndpoints_whenPageIsLarge_thenStayWithinBudget() throws Exception {
+        String size = String.valueOf(ITEMS);
+
+        perform(get("/items").param("size", size), ownerId);
+        perform(get("/items/{itemId}", itemId), ownerId);
+        perform(get("/items/search").param("text", "budget").param("size", size), bookerId);
+        perform(get("/items/{itemId}/availability", itemId)
+                .param("from", LocalDate.now().toString())
+                .param("to", LocalDate.now().plusDays(365).toString()), bookerId);
+        perform(get("/bookings").param("state", "ALL").param("size", size), bookerId);
+        perform(get("/bookings/owner").param("state", "ALL").param("size", size), ownerId);
+        perform(get("/requests"), bookerId);
+        perform(get("/requests/{requestId}", requestId), ownerId);
+        perform(get("/requests/all").param("size", size), ownerId);
+    }
+
+    @Test
+    void listEndpoints_whenInvoked_thenSqlStatsInHeaders() throws Exception {
+        MvcResult result = mockMvc.perform(get("/items").param("size", "5").header(HEADER_NAME, ownerId))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("X-Sql-Rows"))
+                .andExpect(header().exists("X-Sql-Time-Ms"))
+                .andReturn();
+
+        assertThat(Integer.parseInt(result.getResponse().getHeader("X-Sql-Statements")), greaterThan(0));
+    }
+
+    private long createUser(String name) throws Exception {
+        MvcResult result = mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("name", name, "email", name + "@example.com"))))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get("id").asLong();
+    }
+
+    private JsonNode postJson(String path, long userId, Map<String, Object> body) throws Exception {
+        return perform(
+                post(path)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(body)),
+                userId
+        );
+    }
+
+    private JsonNode perform(MockHttpServletRequestBuilder request, long userId) throws Exception {
+        MvcResult result = mockMvc.perform(request.header(HEADER_NAME, userId))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
+}
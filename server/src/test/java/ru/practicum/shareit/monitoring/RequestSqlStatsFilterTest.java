@@ -0,0 +1,109 @@
+package ru.practicum.shareit.monitoring;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RequestSqlStatsFilterTest {
+    private static final String HANDLER = "ItemController.getAllItems";
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private SqlStatsProperties properties;
+
+    private RequestSqlStatsFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new SqlStatsProperties();
+        properties.getBudget().getMaxStatements().put(HANDLER, 2);
+        filter = new RequestSqlStatsFilter(meterRegistry, properties);
+    }
+
+    @Test
+    void doFilter_whenStatementsExecuted_thenRecordedPerHandler() throws Exception {
+        filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), executing(2));
+
+        assertThat(meterRegistry.get("shareit.http.sql.statements").tag("handler", HANDLER).summary().totalAmount(), equalTo(2.0));
+        assertThat(meterRegistry.get("shareit.http.sql.rows").tag("handler", HANDLER).summary().totalAmount(), equalTo(2.0));
+        assertThat(meterRegistry.get("shareit.http.sql.time").tag("handler", HANDLER).timer().count(), equalTo(1L));
+        assertThat(RequestSqlStats.current(), nullValue());
+    }
+
+    @Test
+    void doFilter_whenBudgetExceededInFailMode_thenThrows() {
+        properties.getBudget().setMode(SqlStatsProperties.BudgetMode.FAIL);
+
+        assertThrows(
+                SqlBudgetExceeded.class,
+                () -> filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), executing(3))
+        );
+    }
+
+    @Test
+    void doFilter_whenBudgetExceededAfterResponseCommitted_thenPasses() {
+        properties.getBudget().setMode(SqlStatsProperties.BudgetMode.FAIL);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setCommitted(true);
+
+        assertDoesNotThrow(() -> filter.doFilter(new MockHttpServletRequest(), response, executing(3)));
+    }
+
+    @Test
+    void doFilter_whenBudgetExceededInLogMode_thenPasses() {
+        assertDoesNotThrow(
+                () -> filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), executing(3))
+        );
+    }
+
+    @Test
+    void doFilter_whenHandlerWithoutBudget_thenDefaultApplies() {
+        properties.getBudget().setMode(SqlStatsProperties.BudgetMode.FAIL);
+        properties.getBudget().setDefaultMaxStatements(1);
+
+        assertThrows(
+                SqlBudgetExceeded.class,
+                () -> filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), (request, response) -> {
+                    RequestSqlStats stats = RequestSqlStats.current();
+                    stats.statementStarted();
+                    stats.statementFinished();
+                    stats.statementStarted();
+                    stats.statementFinished();
+                })
+        );
+    }
+
+    @Test
+    void doFilter_whenHandlerUnlimited_thenPassesInFailMode() {
+        properties.getBudget().setMode(SqlStatsProperties.BudgetMode.FAIL);
+        properties.getBudget().getUnlimited().add(HANDLER);
+
+        assertDoesNotThrow(
+                () -> filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), executing(3))
+        );
+    }
+
+    private static FilterChain executing(int statements) {
+        return (request, response) -> {
+            RequestSqlStats stats = RequestSqlStats.current();
+            stats.setHandler(HANDLER);
+
+            for (int i = 0; i < statements; i++) {
+                stats.statementStarted();
+                stats.statementFinished();
+                stats.rowFetched();
+            }
+        };
+    }
+}
@@ -0,0 +1,79 @@
+package ru.practicum.shareit.monitoring;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SqlBudgetAdviceTest {
+    private static final String HANDLER = "ItemController.getAllItems";
+
+    private SqlStatsProperties properties;
+
+    private SqlBudgetAdvice advice;
+
+    private RequestSqlStats stats;
+
+    @BeforeEach
+    void setUp() {
+        properties = new SqlStatsProperties();
+        properties.getBudget().getMaxStatements().put(HANDLER, 1);
+        advice = new SqlBudgetAdvice(properties);
+        stats = RequestSqlStats.start();
+        stats.setHandler(HANDLER);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestSqlStats.clear();
+    }
+
+    @Test
+    void supports_whenLogMode_thenFalse() {
+        assertThat(advice.supports(null, null), equalTo(false));
+
+        properties.getBudget().setMode(SqlStatsProperties.BudgetMode.FAIL);
+
+        assertThat(advice.supports(null, null), equalTo(true));
+    }
+
+    @Test
+    void beforeBodyWrite_whenWithinBudget_thenBodyReturned() {
+        executeStatement();
+
+        assertThat(beforeBodyWrite("body"), equalTo("body"));
+    }
+
+    @Test
+    void beforeBodyWrite_whenBudgetExceeded_thenThrownOnce() {
+        executeStatement();
+        executeStatement();
+
+        assertThrows(SqlBudgetExceeded.class, () -> beforeBodyWrite("body"));
+        assertThat(stats.isBudgetExceeded(), equalTo(true));
+        assertThat(beforeBodyWrite("error"), equalTo("error"));
+    }
+
+    private Object beforeBodyWrite(Object body) {
+        return advice.beforeBodyWrite(
+                body,
+                null,
+                null,
+                null,
+                new ServletServerHttpRequest(new MockHttpServletRequest()),
+                new ServletServerHttpResponse(new MockHttpServletResponse())
+        );
+    }
+
+    private void executeStatement() {
+        stats.statementStarted();
+        stats.statementFinished();
+    }
+}
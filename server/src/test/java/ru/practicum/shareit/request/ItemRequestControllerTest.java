@@ -5,17 +5,26 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import ru.practicum.shareit.exception.generic.ExtendedEntityNotFoundException;
 import ru.practicum.shareit.extension.CustomPageableParameters;
 import ru.practicum.shareit.request.dto.CreateItemRequestRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestResponseDto;
 import ru.practicum.shareit.request.dto.ItemRequestWithItemsResponseDto;
+import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.service.ItemRequestService;
 
 import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
-import static org.mockito.Mockito.when;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class ItemRequestControllerTest {
@@ -33,10 +42,42 @@ class ItemRequestControllerTest {
 
         when(itemRequestService.findById(itemRequestId)).thenReturn(expectedItemRequestWithItemsResponseDto);
 
-        ItemRequestWithItemsResponseDto actualItemRequestWithItemsResponseDto = itemRequestController.findById(itemRequestId);
+        ItemRequestWithItemsResponseDto actualItemRequestWithItemsResponseDto = itemRequestController.findById(itemRequestId, new ServletWebRequest(new MockHttpServletRequest()));
         assertThat(actualItemRequestWithItemsResponseDto, equalTo(expectedItemRequestWithItemsResponseDto));
     }
 
+    @Test
+    void findById_whenEtagMatchesButRequestNotFound_thenThrown() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/requests/0");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"a-1-2\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        when(itemRequestService.getEtag()).thenReturn("\"a-1-2\"");
+        doThrow(new ExtendedEntityNotFoundException(ItemRequest.class, 0L)).when(itemRequestService).checkExists(0L);
+
+        assertThrows(
+                ExtendedEntityNotFoundException.class,
+                () -> itemRequestController.findById(0L, new ServletWebRequest(request, response))
+        );
+        assertThat(response.getStatus(), equalTo(HttpStatus.OK.value()));
+    }
+
+    @Test
+    void findById_whenEtagMatches_thenNotModifiedWithoutReading() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/requests/0");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"a-1-2\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        when(itemRequestService.getEtag()).thenReturn("\"a-1-2\"");
+
+        ItemRequestWithItemsResponseDto actual = itemRequestController.findById(0L, new ServletWebRequest(request, response));
+
+        assertThat(actual, nullValue());
+        assertThat(response.getStatus(), equalTo(HttpStatus.NOT_MODIFIED.value()));
+        verify(itemRequestService).checkExists(0L);
+        verify(itemRequestService, never()).findById(0L);
+    }
+
     @Test
     void findAllForCurrentUser_whenInvoked_thenReturnedItemRequestCollection() {
         List<ItemRequestWithItemsResponseDto> expectedItemRequestWithItemsResponseDtos = List.of(new ItemRequestWithItemsResponseDto());
@@ -46,10 +87,27 @@ class ItemRequestControllerTest {
         )
                 .thenReturn(expectedItemRequestWithItemsResponseDtos);
 
-        List<ItemRequestWithItemsResponseDto> actualItemRequestWithItemsResponseDtos = itemRequestController.findAllForCurrentUser();
+        List<ItemRequestWithItemsResponseDto> actualItemRequestWithItemsResponseDtos = itemRequestController.findAllForCurrentUser(new ServletWebRequest(new MockHttpServletRequest()));
         assertThat(actualItemRequestWithItemsResponseDtos, equalTo(expectedItemRequestWithItemsResponseDtos));
     }
 
+    @Test
+    void findAllForCurrentUser_whenEtagMatches_thenNotModifiedWithoutReading() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/requests");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"a-1-2\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        when(itemRequestService.getEtag()).thenReturn("\"a-1-2\"");
+
+        List<ItemRequestWithItemsResponseDto> actualItemRequestWithItemsResponseDtos = itemRequestController.findAllForCurrentUser(
+                new ServletWebRequest(request, response)
+        );
+
+        assertThat(actualItemRequestWithItemsResponseDtos, nullValue());
+        assertThat(response.getStatus(), equalTo(HttpStatus.NOT_MODIFIED.value()));
+        verify(itemRequestService, never()).findAllForCurrentUser();
+    }
+
     @Test
     void findAllForOtherUsers_whenInvoked_thenReturnedItemRequestCollection() {
         List<ItemRequestWithItemsResponseDto> expectedItemRequestWithItemsResponseDtos = List.of(new ItemRequestWithItemsResponseDto());
@@ -59,7 +117,7 @@ class ItemRequestControllerTest {
         )
                 .thenReturn(expectedItemRequestWithItemsResponseDtos);
 
-        List<ItemRequestWithItemsResponseDto> actualItemRequestWithItemsResponseDtos = itemRequestController.findAllForOtherUsers(0L, 10);
+        List<ItemRequestWithItemsResponseDto> actualItemRequestWithItemsResponseDtos = itemRequestController.findAllForOtherUsers(0L, null, 10, new ServletWebRequest(new MockHttpServletRequest()), new MockHttpServletResponse());
         assertThat(actualItemRequestWithItemsResponseDtos, equalTo(expectedItemRequestWithItemsResponseDtos));
     }
 
@@ -5,9 +5,12 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import ru.practicum.shareit.exception.generic.ExtendedEntityNotFoundException;
 import ru.practicum.shareit.extension.CustomPageableParameters;
+import ru.practicum.shareit.extension.PageCursor;
+import ru.practicum.shareit.httpcache.ChangeCounter;
 import ru.practicum.shareit.mapper.ModelMapper;
 import ru.practicum.shareit.request.dto.CreateItemRequestRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestResponseDto;
@@ -21,6 +24,7 @@ import ru.practicum.shareit.user.model.User;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -34,6 +38,9 @@ class ItemRequestServiceImplTest {
     @Mock
     private ItemRequestRepository itemRequestRepository;
 
+    @Mock
+    private ChangeCounter changeCounter;
+
     @Mock
     private ModelMapper modelMapper;
 
@@ -48,6 +55,7 @@ class ItemRequestServiceImplTest {
     void setUp() {
         itemRequestService = new ItemRequestServiceImpl(
                 itemRequestRepository,
+                changeCounter,
                 modelMapper,
                 authenticationFacade
         );
@@ -62,6 +70,14 @@ class ItemRequestServiceImplTest {
         assertThrows(ExtendedEntityNotFoundException.class, () -> itemRequestService.findById(itemId));
     }
 
+    @Test
+    void checkExists_whenRequestNotFound_thenThrowException() {
+        when(itemRequestRepository.existsById(0L)).thenReturn(false);
+
+        assertThrows(ExtendedEntityNotFoundException.class, () -> itemRequestService.checkExists(0L));
+        verifyNoInteractions(modelMapper);
+    }
+
     @Test
     void findById_whenItemFound_thenReturnedItemRequestDto() {
         Long itemRequestId = 0L;
@@ -121,6 +137,33 @@ class ItemRequestServiceImplTest {
         assertThat(actualItems.get(0), equalTo(expectedItemRequestWithItemsResponseDto));
     }
 
+    @Test
+    void findAllCreatedByOthers_whenCursorGiven_thenSeeksAfterCursor() {
+        Long userId = 0L;
+        User currentUser = new User();
+        currentUser.setId(userId);
+        ExtendedUserDetails userDetails = new AuthenticatedUser(currentUser);
+        PageCursor cursor = PageCursor.of(LocalDateTime.of(2024, 1, 1, 10, 0), 5L);
+        ItemRequest itemRequest = new ItemRequest();
+        ItemRequestWithItemsResponseDto expectedItemRequestWithItemsResponseDto = new ItemRequestWithItemsResponseDto();
+
+        when(authenticationFacade.getCurrentUserDetails()).thenReturn(userDetails);
+        when(itemRequestRepository.findAllByRequestor_IdNotCreatedBefore(
+                        userId,
+                        cursor.getPosition(),
+                        cursor.getId(),
+                        PageRequest.ofSize(10)
+                )
+        ).thenReturn(List.of(itemRequest));
+        when(modelMapper.toItemRequestWithItemsResponseDto(itemRequest)).thenReturn(expectedItemRequestWithItemsResponseDto);
+
+        List<ItemRequestWithItemsResponseDto> actualItems = itemRequestService.findAllCreatedByOthers(
+                CustomPageableParameters.ofCursor(cursor.encode(), 10)
+        );
+
+        assertThat(actualItems, equalTo(List.of(expectedItemRequestWithItemsResponseDto)));
+    }
+
     @Test
     void create() {
         Long userId = 0L;
@@ -0,0 +1,239 @@
+package ru.practicum.shareit.schema;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.benchmark.LatencyRecorder;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.monitoring.RequestSqlStats;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput of creating 1000 items and 1000 bookings per round, along with the statements sent per round:
+ * <ul>
+ *     <li>{@code identity}: Hibernate with identity ids, which sends one statement per row to read back
+ *     the generated key, into scratch tables shaped like item and booking;</li>
+ *     <li>{@code sequence, unbatched}: {@code saveAll} with pooled sequence ids and JDBC batching switched off
+ *     for the session;</li>
+ *     <li>{@code sequence, batched}: {@code saveAll} with the configured batch size, where 50 rows are one
+ *     statement and ids cost one sequence call per 50 rows.</li>
+ * </ul>
+ * H2 numbers only show the trend; run with {@code -Dspring.profiles.active=default} against Postgres
+ * for figures that match production.
+ */
+@SpringBootTest
+class BulkInsertBenchmarkIT {
+    private static final int[] JDBC_BATCH_SIZES = {1, 50};
+
+    private static final String[] LABELS = {"sequence, unbatched", "sequence, batched"};
+
+    private static final int ROWS = 1_000;
+
+    private static final int WARMUP_ROUNDS = 10;
+
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Test
+    void bulkCreationThroughput() throws Exception {
+        Long ownerId = userRepository.save(new User(null, "bench", "bulk-owner@example.com")).getId();
+        Long bookerId = userRepository.save(new User(null, "bench", "bulk-booker@example.com")).getId();
+
+        createIdentityTables();
+
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            createIdentityRound(ownerId, bookerId, new LatencyRecorder(1), new LatencyRecorder(1));
+            for (int jdbcBatchSize : JDBC_BATCH_SIZES) {
+                createRound(ownerId, bookerId, jdbcBatchSize, new LatencyRecorder(1), new LatencyRecorder(1));
+            }
+        }
+
+        measure("identity", (itemInserts, bookingInserts) -> createIdentityRound(ownerId, bookerId, itemInserts, bookingInserts));
+        for (int i = 0; i < JDBC_BATCH_SIZES.length; i++) {
+            int jdbcBatchSize = JDBC_BATCH_SIZES[i];
+            measure(LABELS[i], (itemInserts, bookingInserts) -> createRound(ownerId, bookerId, jdbcBatchSize, itemInserts, bookingInserts));
+        }
+    }
+
+    private void measure(String label, Round round) throws Exception {
+        LatencyRecorder itemInserts = new LatencyRecorder(ROUNDS);
+        LatencyRecorder bookingInserts = new LatencyRecorder(ROUNDS);
+
+        RequestSqlStats stats = RequestSqlStats.start();
+        try {
+            for (int i = 0; i < ROUNDS; i++) {
+                round.run(itemInserts, bookingInserts);
+            }
+        } finally {
+            RequestSqlStats.clear();
+        }
+
+        System.out.printf("items    %s rows=%d %s rows/s=%.0f%n", label, ROWS, itemInserts.summary(), rowsPerSecond(itemInserts));
+        System.out.printf("bookings %s rows=%d %s rows/s=%.0f%n", label, ROWS, bookingInserts.summary(), rowsPerSecond(bookingInserts));
+        System.out.printf("         %s statements per round=%d%n", label, stats.getStatements() / ROUNDS);
+    }
+
+    private void createIdentityTables() {
+        jdbcTemplate.execute("create table if not exists bench_identity_item (" +
+                "id bigint generated by default as identity primary key, " +
+                "available boolean, description varchar(255), name varchar(255), owner_id bigint)");
+        jdbcTemplate.execute("create table if not exists bench_identity_booking (" +
+                "id bigint generated by default as identity primary key, " +
+                "finish timestamp, start timestamp, status integer, booker_id bigint, item_id bigint)");
+    }
+
+    private void createIdentityRound(Long ownerId, Long bookerId, LatencyRecorder itemInserts, LatencyRecorder bookingInserts) throws Exception {
+        List<Long> itemIds = itemInserts.record(() -> inTransaction(JDBC_BATCH_SIZES[1], () -> {
+            List<IdentityItem> items = new ArrayList<>(ROWS);
+            for (int i = 0; i < ROWS; i++) {
+                items.add(persist(new IdentityItem(null, true, "bulk", "bulk item " + i, ownerId)));
+            }
+
+            return ids(items, IdentityItem::getId);
+        }));
+        List<Long> bookingIds = bookingInserts.record(() -> inTransaction(JDBC_BATCH_SIZES[1], () -> {
+            LocalDateTime start = LocalDateTime.now().plusDays(1);
+            List<IdentityBooking> bookings = new ArrayList<>(itemIds.size());
+            for (Long itemId : itemIds) {
+                bookings.add(persist(new IdentityBooking(null, start.plusDays(1), start, BookingStatus.WAITING.ordinal(), bookerId, itemId)));
+            }
+
+            return ids(bookings, IdentityBooking::getId);
+        }));
+
+        assertThat(bookingIds).hasSize(ROWS);
+    }
+
+    private <T> T persist(T entity) {
+        entityManager.persist(entity);
+
+        return entity;
+    }
+
+    private void createRound(Long ownerId, Long bookerId, int jdbcBatchSize, LatencyRecorder itemInserts, LatencyRecorder bookingInserts) throws Exception {
+        List<Long> itemIds = itemInserts.record(() -> inTransaction(jdbcBatchSize, () -> createItems(ownerId)));
+        List<Long> bookingIds = bookingInserts.record(() -> inTransaction(jdbcBatchSize, () -> createBookings(bookerId, itemIds)));
+
+        assertThat(bookingIds).hasSize(ROWS);
+    }
+
+    private List<Long> inTransaction(int jdbcBatchSize, Supplier<List<Long>> work) {
+        return transactionTemplate.execute(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+
+            return work.get();
+        });
+    }
+
+    private List<Long> createItems(Long ownerId) {
+        User owner = userRepository.getReferenceById(ownerId);
+        List<Item> items = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            items.add(new Item(null, "bulk item " + i, "bulk", true, owner, Collections.emptySet(), null));
+        }
+
+        return ids(itemRepository.saveAll(items), Item::getId);
+    }
+
+    private List<Long> createBookings(Long bookerId, List<Long> itemIds) {
+        User booker = userRepository.getReferenceById(bookerId);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<Booking> bookings = new ArrayList<>(itemIds.size());
+        for (Long itemId : itemIds) {
+            bookings.add(new Booking(null, start, start.plusDays(1), itemRepository.getReferenceById(itemId), booker, BookingStatus.WAITING));
+        }
+
+        return ids(bookingRepository.saveAll(bookings), Booking::getId);
+    }
+
+    private static <T> List<Long> ids(List<T> entities, Function<T, Long> id) {
+        return entities.stream().map(id).collect(Collectors.toList());
+    }
+
+    private static double rowsPerSecond(LatencyRecorder recorder) {
+        return ROWS / (recorder.percentileMillis(50) / 1000.0);
+    }
+
+    private interface Round {
+        void run(LatencyRecorder itemInserts, LatencyRecorder bookingInserts) throws Exception;
+    }
+
+    @Entity
+    @Table(name = "bench_identity_item")
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class IdentityItem {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long id;
+
+        private Boolean available;
+
+        private String description;
+
+        private String name;
+
+        private Long ownerId;
+    }
+
+    @Entity
+    @Table(name = "bench_identity_booking")
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class IdentityBooking {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long id;
+
+        private LocalDateTime finish;
+
+        private LocalDateTime start;
+
+        private Integer status;
+
+        private Long bookerId;
+
+        private Long itemId;
+    }
+}
@@ -0,0 +1,49 @@
+package ru.practicum.shareit.schema;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+class MeteredMigrationStrategyTest {
+    private Flyway flyway;
+
+    private MeteredMigrationStrategy strategy;
+
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        flyway = Flyway.configure()
+                .dataSource("jdbc:h2:mem:migration-test;DB_CLOSE_DELAY=-1", "test", "test")
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+                .cleanDisabled(false)
+                .load();
+        flyway.clean();
+
+        strategy = new MeteredMigrationStrategy();
+        registry = new SimpleMeterRegistry();
+        strategy.bindTo(registry);
+    }
+
+    @Test
+    void migrate_whenSchemaIsEmpty_thenAppliesAllScripts() {
+        strategy.migrate(flyway);
+
+        assertThat(registry.get("shareit.schema.migrations.executed").gauge().value(), equalTo((double) flyway.info().applied().length));
+        assertThat(registry.get("shareit.schema.migration.time").timeGauge().value(), greaterThan(0.0));
+    }
+
+    @Test
+    void migrate_whenSchemaIsCurrent_thenAppliesNothing() {
+        strategy.migrate(flyway);
+        strategy.migrate(flyway);
+
+        assertThat(registry.get("shareit.schema.migrations.executed").gauge().value(), equalTo(0.0));
+        assertThat(flyway.info().pending().length, equalTo(0));
+    }
+}
@@ -0,0 +1,114 @@
+package ru.practicum.shareit.schema;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDateTime;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * Runs the H2 migrations the way they reach existing databases: created from the V1 schema before Flyway
+ * was introduced, then baselined at V1, possibly holding data the later scripts have to fix up.
+ */
+class MigrationScriptsTest {
+    private JdbcTemplate jdbcTemplate;
+
+    private DriverManagerDataSource dataSource;
+
+    private Flyway flyway;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:migration-scripts-test;DB_CLOSE_DELAY=-1", "test", "test");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("drop all objects");
+        jdbcTemplate.execute("runscript from 'classpath:db/migration/common/V1__create_tables.sql'");
+
+        flyway = flyway("latest");
+    }
+
+    @Test
+    void migrate_whenBaselinedAtV1_thenItemBookingSummaryCreated() {
+        flyway.migrate();
+
+        assertThat(
+                jdbcTemplate.queryForObject(
+                        "select count(*) from information_schema.tables where lower(table_name) = 'item_booking_summary'",
+                        Integer.class
+                ),
+                equalTo(1)
+        );
+        assertThat(flyway.info().pending().length, equalTo(0));
+    }
+
+    @Test
+    void migrate_whenApprovedBookingsOverlap_thenLaterOnesBackToWaiting() {
+        flyway("2").migrate();
+        jdbcTemplate.update("insert into accounts (id, email, username) values (1, 'owner@a.com', 'owner'), (2, 'booker@a.com', 'booker')");
+        jdbcTemplate.update("insert into item (id, available, name, owner_id) values (1, true, 'drill', 1), (2, true, 'saw', 1)");
+        insertBooking(1, 1, 1, 3, 1);
+        insertBooking(2, 1, 2, 4, 1);
+        insertBooking(3, 1, 3, 5, 1);
+        insertBooking(4, 1, 5, 6, 1);
+        insertBooking(5, 1, 1, 6, 2);
+        insertBooking(6, 2, 1, 3, 1);
+
+        flyway.migrate();
+
+        assertThat(
+                jdbcTemplate.queryForList("select id from booking where status = 1 order by id", Long.class),
+                contains(1L, 4L, 6L)
+        );
+        assertThat(
+                jdbcTemplate.queryForList("select status from booking where id in (2, 3, 5) order by id", Integer.class),
+                contains(0, 0, 2)
+        );
+        assertThat(
+                jdbcTemplate.queryForList("select overlapped_booking_id from booking_overlap_resolution order by booking_id", Long.class),
+                contains(1L, 2L)
+        );
+    }
+
+    @Test
+    void migrate_whenItemsExist_thenExpiredSummaryRowsBackfilled() {
+        flyway("6").migrate();
+        jdbcTemplate.update("insert into accounts (id, email, username) values (1, 'owner@a.com', 'owner')");
+        jdbcTemplate.update("insert into item (id, available, name, owner_id) values (1, true, 'drill', 1), (2, true, 'saw', 1)");
+
+        flyway.migrate();
+
+        assertThat(
+                jdbcTemplate.queryForList(
+                        "select item_id from item_booking_summary where valid_until <= localtimestamp order by item_id", Long.class
+                ),
+                contains(1L, 2L)
+        );
+    }
+
+    private Flyway flyway(String target) {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .target(target)
+                .load();
+    }
+
+    private void insertBooking(long id, long itemId, int startDay, int finishDay, int status) {
+        jdbcTemplate.update(
+                "insert into booking (id, item_id, booker_id, start, finish, status) values (?, ?, 2, ?, ?, ?)",
+                id,
+                itemId,
+                LocalDateTime.of(2030, 1, startDay, 0, 0),
+                LocalDateTime.of(2030, 1, finishDay, 0, 0),
+                status
+        );
+    }
+}
@@ -0,0 +1,171 @@
+package ru.practicum.shareit.schema;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.dto.SearchBookingStatus;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingSpecifications;
+import ru.practicum.shareit.extension.PageCursor;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemBookingSummaryRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every filtering repository query, captures the SQL Hibernate sends and checks with H2 {@code EXPLAIN}
+ * that no table of the query is read by a full scan.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "ru.practicum.shareit.schema.QueryIndexUsageTest$CapturingStatementInspector")
+class QueryIndexUsageTest {
+    private static final List<String> CAPTURED = new CopyOnWriteArrayList<>();
+
+    private static final Pageable PAGE_BY_START_DESC = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "start"));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @Autowired
+    private ItemBookingSummaryRepository itemBookingSummaryRepository;
+
+    public static class CapturingStatementInspector implements StatementInspector {
+        @Override
+        public String inspect(String sql) {
+            CAPTURED.add(sql);
+
+            return sql;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        CAPTURED.clear();
+    }
+
+    @TestFactory
+    Stream<DynamicTest> repositoryQueries_whenExplained_thenNoTableScan() {
+        LocalDateTime now = LocalDateTime.now();
+        Long userId = 1L;
+        User user = new User(userId, "", "");
+        Item item = new Item(1L, "", "", true, user, null, null);
+        // a version marks both as detached rather than transient, like entities loaded by an earlier request
+        user.setVersion(0L);
+        item.setVersion(0L);
+
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("existsBookingByBookerAndItemAndFinishIsBeforeAndStatus",
+                () -> bookingRepository.existsBookingByBookerAndItemAndFinishIsBeforeAndStatus(user, item, now, BookingStatus.APPROVED));
+        queries.put("findAllByBooker_IdAndStatus",
+                () -> bookingRepository.findAllByBooker_IdAndStatus(userId, BookingStatus.WAITING, PAGE_BY_START_DESC));
+        queries.put("findAllByBooker_Id",
+                () -> bookingRepository.findAllByBooker_Id(userId, PAGE_BY_START_DESC));
+        queries.put("findByBooker_IdAndFinishIsBefore",
+                () -> bookingRepository.findByBooker_IdAndFinishIsBefore(userId, now, PAGE_BY_START_DESC));
+        queries.put("findByBooker_IdAndStartIsBeforeAndFinishIsAfter",
+                () -> bookingRepository.findByBooker_IdAndStartIsBeforeAndFinishIsAfter(userId, now, now, PAGE_BY_START_DESC));
+        queries.put("findByBooker_IdAndStartIsAfter",
+                () -> bookingRepository.findByBooker_IdAndStartIsAfter(userId, now, PAGE_BY_START_DESC));
+        queries.put("findAllByItem_Owner_IdAndStatus",
+                () -> bookingRepository.findAllByItem_Owner_IdAndStatus(userId, BookingStatus.WAITING, PAGE_BY_START_DESC));
+        queries.put("findAllByItem_Owner_Id",
+                () -> bookingRepository.findAllByItem_Owner_Id(userId, PAGE_BY_START_DESC));
+        queries.put("findByItem_Owner_IdAndFinishIsBefore",
+                () -> bookingRepository.findByItem_Owner_IdAndFinishIsBefore(userId, now, PAGE_BY_START_DESC));
+        queries.put("findByItem_Owner_IdAndStartIsBeforeAndFinishIsAfter",
+                () -> bookingRepository.findByItem_Owner_IdAndStartIsBeforeAndFinishIsAfter(userId, now, now, PAGE_BY_START_DESC));
+        queries.put("findByItem_Owner_IdAndStartIsAfter",
+                () -> bookingRepository.findByItem_Owner_IdAndStartIsAfter(userId, now, PAGE_BY_START_DESC));
+        queries.put("findAllByItem_IdAndStatusIn",
+                () -> bookingRepository.findAllByItem_IdAndStatusIn(1L, BookingStatus.NOT_DECLINED));
+        queries.put("findItemIdsWithBookingBetween",
+                () -> bookingRepository.findItemIdsWithBookingBetween(List.of(1L, 2L), BookingStatus.APPROVED, now, now.plusDays(1)));
+        queries.put("findFirstByItem_IdAndFinishIsBeforeOrderByFinishDescIdDesc",
+                () -> bookingRepository.findFirstByItem_IdAndFinishIsBeforeOrderByFinishDescIdDesc(1L, now));
+        queries.put("findFirstByItem_IdAndStartIsAfterOrderByStartAscIdAsc",
+                () -> bookingRepository.findFirstByItem_IdAndStartIsAfterOrderByStartAscIdAsc(1L, now));
+        queries.put("findFirstByItem_IdAndFinishIsAfterOrderByFinishAsc",
+                () -> bookingRepository.findFirstByItem_IdAndFinishIsAfterOrderByFinishAsc(1L, now));
+        queries.put("findFirstByItem_IdAndStartIsBeforeOrderByStartDescIdDesc",
+                () -> bookingRepository.findFirstByItem_IdAndStartIsBeforeOrderByStartDescIdDesc(1L, now));
+        queries.put("findFirstByItem_IdAndFinishIsAfterOrderByStartAscIdAsc",
+                () -> bookingRepository.findFirstByItem_IdAndFinishIsAfterOrderByStartAscIdAsc(1L, now));
+        queries.put("findAllOrderByStartDescAfter(booker)",
+                () -> bookingRepository.findAllOrderByStartDescAfter(BookingSpecifications.bookedBy(userId), PageCursor.of(now, 1L), 10));
+        queries.put("findAllOrderByStartDescAfter(owner)",
+                () -> bookingRepository.findAllOrderByStartDescAfter(
+                        BookingSpecifications.ofItemsOwnedBy(userId).and(BookingSpecifications.inState(SearchBookingStatus.PAST, now)),
+                        PageCursor.of(now, 1L),
+                        10
+                ));
+        queries.put("findAllByOwner_Id",
+                () -> itemRepository.findAllByOwner_Id(userId));
+        queries.put("findAllByAvailableTrueAndOwner_IdOrderById",
+                () -> itemRepository.findAllByAvailableTrueAndOwner_IdOrderById(userId, PageRequest.of(0, 10)));
+        queries.put("findAllWithCommentsByIdIn",
+                () -> itemRepository.findAllWithCommentsByIdIn(List.of(1L, 2L)));
+        queries.put("findClosestBookingsRanked",
+                () -> itemRepository.findClosestBookingsRanked(List.of(item), now));
+        queries.put("findExpiryByOwnerId",
+                () -> itemBookingSummaryRepository.findExpiryByOwnerId(userId));
+        queries.put("findExpiryByItemId",
+                () -> itemBookingSummaryRepository.findExpiryByItemId(1L));
+        queries.put("findAllByRequestor_Id",
+                () -> itemRequestRepository.findAllByRequestor_Id(userId));
+        queries.put("findAllByRequestor_IdNot",
+                () -> itemRequestRepository.findAllByRequestor_IdNot(userId, PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "created", "id"))));
+        queries.put("findAllByRequestor_IdNotCreatedBefore",
+                () -> itemRequestRepository.findAllByRequestor_IdNotCreatedBefore(userId, now, 1L, PageRequest.ofSize(10)));
+
+        return queries.entrySet().stream().map(query -> DynamicTest.dynamicTest(query.getKey(), () -> {
+            CAPTURED.clear();
+            query.getValue().run();
+            for (String sql : CAPTURED) {
+                String plan = explain(sql);
+                assertThat(plan).as(query.getKey()).doesNotContainIgnoringCase("tableScan");
+            }
+        }));
+    }
+
+    private String explain(String sql) {
+        int parameters = (int) sql.chars().filter(c -> c == '?').count();
+
+        return jdbcTemplate.query(
+                "explain " + sql,
+                statement -> {
+                    for (int i = 1; i <= parameters; i++) {
+                        statement.setObject(i, null);
+                    }
+                },
+                (rs, rowNum) -> rs.getString(1)
+        ).stream().collect(Collectors.joining("\n"));
+    }
+}
@@ -0,0 +1,54 @@
+package ru.practicum.shareit.security.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.security.user.AuthenticatedUser;
+import ru.practicum.shareit.security.user.ExtendedUserDetails;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+class PrincipalCacheTest {
+    private PrincipalCache principalCache;
+
+    private AtomicInteger loads;
+
+    private Function<Long, ExtendedUserDetails> loader;
+
+    @BeforeEach
+    void setUp() {
+        principalCache = new PrincipalCache(10, 60_000);
+        loads = new AtomicInteger();
+        loader = id -> {
+            loads.incrementAndGet();
+            return new AuthenticatedUser(new User(id, "user" + loads.get(), "a@a.com"));
+        };
+    }
+
+    @Test
+    void invalidate_whenNoTransaction_thenNextGetReloads() {
+        principalCache.get(1L, loader);
+        principalCache.invalidate(1L);
+
+        assertThat(principalCache.get(1L, loader).getUsername(), equalTo("user2"));
+        assertThat(loads.get(), equalTo(2));
+    }
+
+    @Test
+    void bindTo_whenLookedUp_thenHitsAndMissesCounted() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        principalCache.bindTo(registry);
+
+        principalCache.get(1L, loader);
+        principalCache.get(1L, loader);
+        principalCache.get(2L, loader);
+
+        assertThat(registry.get("cache.gets").tag("cache", "principals").tag("result", "hit").functionCounter().count(), equalTo(1.0));
+        assertThat(registry.get("cache.gets").tag("cache", "principals").tag("result", "miss").functionCounter().count(), equalTo(2.0));
+    }
+}
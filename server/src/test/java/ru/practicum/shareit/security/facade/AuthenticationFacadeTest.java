@@ -8,16 +8,13 @@ import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
-import ru.practicum.shareit.exception.generic.ExtendedEntityNotFoundException;
 import ru.practicum.shareit.security.user.AuthenticatedUser;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Optional;
 
-import static org.junit.jupiter.api.Assertions.*;
 import static org.hamcrest.MatcherAssert.assertThat;
 
 import static org.hamcrest.Matchers.*;
@@ -77,7 +74,7 @@ class AuthenticationFacadeTest {
     private AuthenticationFacade authenticationFacade;
 
     @Test
-    void getCurrentUser_whenUserNotFound_thenThrownException() {
+    void getCurrentUser_whenInvoked_thenReferenceReturnedWithoutSelect() {
         Long userId = 0L;
         User user = new User(userId, "user", "a@a.com");
         AuthenticatedUser authenticatedUser = new AuthenticatedUser(user);
@@ -86,27 +83,10 @@ class AuthenticationFacadeTest {
         authentication.setPrincipal(authenticatedUser);
         when(authenticationFacade.getAuthentication()).thenReturn(authentication);
         when(authenticationFacade.getCurrentUserDetails()).thenReturn(authenticatedUser);
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
-
-        assertThrows(
-                ExtendedEntityNotFoundException.class,
-                () -> authenticationFacade.getCurrentUser()
-        );
-    }
-
-    @Test
-    void getCurrentUser_whenUserFound_thenReturnedUser() {
-        Long userId = 0L;
-        User user = new User(userId, "user", "a@a.com");
-        AuthenticatedUser authenticatedUser = new AuthenticatedUser(user);
-
-        AuthenticationDummy authentication = new AuthenticationDummy();
-        authentication.setPrincipal(authenticatedUser);
-        when(authenticationFacade.getAuthentication()).thenReturn(authentication);
-        when(authenticationFacade.getCurrentUserDetails()).thenReturn(authenticatedUser);
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.getReferenceById(userId)).thenReturn(user);
 
         User actualUser = authenticationFacade.getCurrentUser();
         assertThat(actualUser, equalTo(user));
+        verify(userRepository, never()).findById(userId);
     }
-}
\ No newline at end of file
+}
@@ -8,6 +8,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import ru.practicum.shareit.exception.generic.ExtendedEntityNotFoundException;
+import ru.practicum.shareit.security.cache.PrincipalCache;
 import ru.practicum.shareit.security.user.AuthenticatedUser;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
@@ -30,7 +31,7 @@ class AuthenticatedUserDetailsServiceTest {
 
     @BeforeEach
     void setUp() {
-        userDetailsService = new AuthenticatedUserDetailsService(userRepository);
+        userDetailsService = new AuthenticatedUserDetailsService(userRepository, new PrincipalCache(10, 60_000));
     }
 
     @Test
@@ -82,4 +83,32 @@ class AuthenticatedUserDetailsServiceTest {
 
         assertThat(authenticatedUser, equalTo(actualAuthenticatedUser));
     }
-}
\ No newline at end of file
+
+    @Test
+    void loadUserById_whenLoadedTwice_thenUserQueriedOnce() {
+        Long userId = 0L;
+        User user = new User(userId, "user", "a@a.com");
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+
+        userDetailsService.loadUserById(userId);
+        UserDetails actualAuthenticatedUser = userDetailsService.loadUserById(userId);
+
+        verify(userRepository, times(1)).findById(userId);
+        assertThat(actualAuthenticatedUser.getUsername(), equalTo("user"));
+    }
+
+    @Test
+    void loadUserById_whenUserNotFound_thenNotCached() {
+        Long userId = 0L;
+        User user = new User(userId, "user", "a@a.com");
+
+        when(userRepository.findById(userId)).thenReturn(Optional.empty(), Optional.of(user));
+
+        assertThrows(
+                ExtendedEntityNotFoundException.class,
+                () -> userDetailsService.loadUserById(userId)
+        );
+        assertThat(userDetailsService.loadUserById(userId).getUsername(), equalTo("user"));
+    }
+}
@@ -7,7 +7,9 @@ import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.EmptyResultDataAccessException;
 import ru.practicum.shareit.exception.generic.ExtendedEntityNotFoundException;
+import ru.practicum.shareit.httpcache.ChangeCounter;
 import ru.practicum.shareit.mapper.ModelMapper;
+import ru.practicum.shareit.security.cache.PrincipalCache;
 import ru.practicum.shareit.user.dto.CreateUserRequestDto;
 import ru.practicum.shareit.user.dto.UpdateUserRequestDto;
 import ru.practicum.shareit.user.dto.UserResponseDto;
@@ -29,6 +31,12 @@ class UserServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private PrincipalCache principalCache;
+
+    @Mock
+    private ChangeCounter changeCounter;
+
     @Mock
     private ModelMapper modelMapper;
 
@@ -39,7 +47,7 @@ class UserServiceImplTest {
 
     @BeforeEach
     void setUp() {
-        userService = new UserServiceImpl(userRepository, modelMapper);
+        userService = new UserServiceImpl(userRepository, principalCache, changeCounter, modelMapper);
     }
 
     @Test
@@ -152,6 +160,7 @@ class UserServiceImplTest {
         assertThat(updatedOldUser.getId(), equalTo(oldUser.getId()));
         assertThat(updatedOldUser.getUsername(), equalTo(updateUserRequestDto.getName()));
         assertThat(updatedOldUser.getEmail(), equalTo(updateUserRequestDto.getEmail()));
+        verify(principalCache).invalidate(userId);
 
         assertThat(actualUserResponseDto, equalTo(expectedUserResponseDto));
     }
@@ -163,6 +172,7 @@ class UserServiceImplTest {
         userService.removeById(userId);
 
         verify(userRepository).deleteById(userId);
+        verify(principalCache).invalidate(userId);
     }
 
     @Test